@@ -1,5 +1,8 @@
 package com.example.mongoes.config;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
@@ -8,6 +11,18 @@ public class ApplicationProperties {
 
     @NestedConfigurationProperty private Cors cors = new Cors();
 
+    @NestedConfigurationProperty private ChangeStream changeStream = new ChangeStream();
+
+    @NestedConfigurationProperty private Loader loader = new Loader();
+
+    @NestedConfigurationProperty private Export export = new Export();
+
+    @NestedConfigurationProperty private SearchCache searchCache = new SearchCache();
+
+    @NestedConfigurationProperty private MultiSearch multiSearch = new MultiSearch();
+
+    @NestedConfigurationProperty private GeoIndex geoIndex = new GeoIndex();
+
     public Cors getCors() {
         return cors;
     }
@@ -16,6 +31,54 @@ public class ApplicationProperties {
         this.cors = cors;
     }
 
+    public ChangeStream getChangeStream() {
+        return changeStream;
+    }
+
+    public void setChangeStream(ChangeStream changeStream) {
+        this.changeStream = changeStream;
+    }
+
+    public Loader getLoader() {
+        return loader;
+    }
+
+    public void setLoader(Loader loader) {
+        this.loader = loader;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public void setExport(Export export) {
+        this.export = export;
+    }
+
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    public void setSearchCache(SearchCache searchCache) {
+        this.searchCache = searchCache;
+    }
+
+    public MultiSearch getMultiSearch() {
+        return multiSearch;
+    }
+
+    public void setMultiSearch(MultiSearch multiSearch) {
+        this.multiSearch = multiSearch;
+    }
+
+    public GeoIndex getGeoIndex() {
+        return geoIndex;
+    }
+
+    public void setGeoIndex(GeoIndex geoIndex) {
+        this.geoIndex = geoIndex;
+    }
+
     public static class Cors {
         private String pathPattern = "/api/**";
         private String allowedMethods = "*";
@@ -63,4 +126,228 @@ public class ApplicationProperties {
             this.allowCredentials = allowCredentials;
         }
     }
+
+    public static class ChangeStream {
+        /** maximum number of change events sent to elasticsearch in a single bulk request. */
+        private int batchSize = 500;
+
+        /** maximum time to wait for a window to fill up before flushing it. */
+        private Duration batchTimeout = Duration.ofMillis(500);
+
+        /** number of parallel sync lanes, change events are routed to a lane by document id. */
+        private int lanes = 4;
+
+        /** change events buffered ahead of the lanes before backpressure reaches the cursor. */
+        private int laneQueueCapacity = 1_024;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getBatchTimeout() {
+            return batchTimeout;
+        }
+
+        public void setBatchTimeout(Duration batchTimeout) {
+            this.batchTimeout = batchTimeout;
+        }
+
+        public int getLanes() {
+            return lanes;
+        }
+
+        public void setLanes(int lanes) {
+            this.lanes = lanes;
+        }
+
+        public int getLaneQueueCapacity() {
+            return laneQueueCapacity;
+        }
+
+        public void setLaneQueueCapacity(int laneQueueCapacity) {
+            this.laneQueueCapacity = laneQueueCapacity;
+        }
+    }
+
+    public static class Loader {
+        /** number of restaurants written with a single insertMany. */
+        private int batchSize = 1_000;
+
+        /** size in bytes of each chunk read from the seed file. */
+        private int chunkSize = 8_192;
+
+        /** maximum number of insertMany batches in flight. */
+        private int writeConcurrency = 2;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getWriteConcurrency() {
+            return writeConcurrency;
+        }
+
+        public void setWriteConcurrency(int writeConcurrency) {
+            this.writeConcurrency = writeConcurrency;
+        }
+    }
+
+    public static class Export {
+        /** number of hits fetched from elasticsearch per point in time page. */
+        private int batchSize = 1_000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class SearchCache {
+        /** whether search pages are cached at all. */
+        private boolean enabled = true;
+
+        /** maximum number of hits held across all cached pages. */
+        private long maximumHits = 100_000;
+
+        /** upper bound on how long a page is served from the cache. */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        /**
+         * how long after a change elasticsearch may still return the previous state, matches the
+         * index refresh interval.
+         */
+        private Duration refreshInterval = Duration.ofSeconds(1);
+
+        /** search operations that always go to elasticsearch, e.g. aggregateSearch. */
+        private Set<String> excludedOperations = new HashSet<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumHits() {
+            return maximumHits;
+        }
+
+        public void setMaximumHits(long maximumHits) {
+            this.maximumHits = maximumHits;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+
+        public Set<String> getExcludedOperations() {
+            return excludedOperations;
+        }
+
+        public void setExcludedOperations(Set<String> excludedOperations) {
+            this.excludedOperations = excludedOperations;
+        }
+    }
+
+    public static class MultiSearch {
+        /** whether concurrent page searches are batched into one _msearch request. */
+        private boolean enabled;
+
+        /** how long the first search of a batch waits for others to join it. */
+        private Duration window = Duration.ofMillis(2);
+
+        /** number of searches that sends a batch before its window has passed. */
+        private int maxBatchSize = 64;
+
+        /** number of _msearch requests in flight at the same time. */
+        private int maxConcurrentBatches = 16;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        public int getMaxConcurrentBatches() {
+            return maxConcurrentBatches;
+        }
+
+        public void setMaxConcurrentBatches(int maxConcurrentBatches) {
+            this.maxConcurrentBatches = maxConcurrentBatches;
+        }
+    }
+
+    public static class GeoIndex {
+        /** whether range and nearest searches are answered from the in memory grid. */
+        private boolean enabled = true;
+
+        /** edge length of a grid cell in degrees, 0.01 is about 1.1 km of latitude. */
+        private double cellDegrees = 0.01;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getCellDegrees() {
+            return cellDegrees;
+        }
+
+        public void setCellDegrees(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.mongoes.config;
+
+import com.example.mongoes.document.Restaurant;
+import com.example.mongoes.repository.elasticsearch.RestaurantSearchCache;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.lang.Nullable;
+import reactor.util.function.Tuple2;
+
+/**
+ * A window of change stream events collapsed to the latest operation per document {@code _id}, so
+ * that a document touched several times in the same window is written to elasticsearch only once.
+ *
+ * @param lane sync lane the events were routed to
+ * @param upserts latest state of every inserted, updated or replaced document keyed by id
+ * @param deletes ids of the documents whose last operation in the window was a delete
+ * @param sequences arrival sequence of every raw change event folded into this batch, used to
+ *     advance the {@link ChangeStreamWatermark}
+ * @param latestClusterTime highest cluster time seen in the window
+ * @param cacheTags search cache tags of the previous and new state of every changed restaurant,
+ *     {@link RestaurantSearchCache#ALL} when a previous state was not available
+ */
+record ChangeStreamBatch(
+        int lane,
+        Map<String, Restaurant> upserts,
+        Set<String> deletes,
+        long[] sequences,
+        @Nullable BsonTimestamp latestClusterTime,
+        Set<String> cacheTags) {
+
+    static ChangeStreamBatch of(
+            int lane, List<Tuple2<Long, ChangeStreamEvent<Restaurant>>> sequencedEvents) {
+        Map<String, Restaurant> upserts = LinkedHashMap.newLinkedHashMap(sequencedEvents.size());
+        Set<String> deletes = LinkedHashSet.newLinkedHashSet(sequencedEvents.size());
+        long[] sequences = new long[sequencedEvents.size()];
+        BsonTimestamp latestClusterTime = null;
+        Set<String> cacheTags = new LinkedHashSet<>();
+        for (int i = 0; i < sequencedEvents.size(); i++) {
+            sequences[i] = sequencedEvents.get(i).getT1();
+            ChangeStreamEvent<Restaurant> event = sequencedEvents.get(i).getT2();
+            OperationType operationType = event.getOperationType();
+            String documentId = documentId(event);
+            if (operationType != null && documentId != null) {
+                switch (operationType) {
+                    case INSERT, UPDATE, REPLACE -> {
+                        Restaurant restaurant = event.getBody();
+                        if (restaurant != null) {
+                            deletes.remove(documentId);
+                            // re-insert so that iteration order follows the latest change
+                            upserts.remove(documentId);
+                            upserts.put(documentId, restaurant);
+                        }
+                        cacheTags.addAll(RestaurantSearchCache.tagsOf(restaurant));
+                        if (operationType != OperationType.INSERT) {
+                            cacheTags.addAll(
+                                    RestaurantSearchCache.tagsOf(event.getBodyBeforeChange()));
+                        }
+                    }
+                    case DELETE -> {
+                        upserts.remove(documentId);
+                        deletes.add(documentId);
+                        cacheTags.addAll(RestaurantSearchCache.tagsOf(event.getBodyBeforeChange()));
+                    }
+                    default -> {
+                        // not a document change
+                    }
+                }
+            } else {
+                // DROP, RENAME, INVALIDATE etc. do not map to a single document
+                cacheTags.add(RestaurantSearchCache.ALL);
+            }
+            BsonTimestamp timestamp = event.getBsonTimestamp();
+            if (timestamp != null
+                    && (latestClusterTime == null || timestamp.compareTo(latestClusterTime) > 0)) {
+                latestClusterTime = timestamp;
+            }
+        }
+        return new ChangeStreamBatch(
+                lane, upserts, deletes, sequences, latestClusterTime, cacheTags);
+    }
+
+    int eventCount() {
+        return sequences.length;
+    }
+
+    boolean hasWrites() {
+        return !upserts.isEmpty() || !deletes.isEmpty();
+    }
+
+    @Nullable
+    static String documentId(ChangeStreamEvent<Restaurant> event) {
+        Restaurant restaurant = event.getBody();
+        if (restaurant != null && restaurant.getId() != null) {
+            return restaurant.getId();
+        }
+        ChangeStreamDocument<Document> raw = event.getRaw();
+        if (raw == null) {
+            return null;
+        }
+        BsonDocument documentKey = raw.getDocumentKey();
+        if (documentKey == null) {
+            return null;
+        }
+        BsonValue id = documentKey.get("_id");
+        if (id == null) {
+            return null;
+        } else if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        } else if (id.isString()) {
+            return id.asString().getValue();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.mongoes.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bson.BsonTimestamp;
+import org.springframework.lang.Nullable;
+
+/**
+ * Metrics of one change stream sync lane. Events are routed to a lane by document id, so all
+ * changes of one document are applied in order while different lanes index concurrently.
+ *
+ * <ul>
+ *   <li>{@code changestream.lane.queue.depth} events routed to the lane and not yet acknowledged
+ *   <li>{@code changestream.lane.lag} seconds between now and the cluster time of the last
+ *       acknowledged event
+ *   <li>{@code changestream.lane.events} events acknowledged, for throughput
+ * </ul>
+ */
+final class ChangeStreamLane {
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong lastAcknowledgedEpochSecond = new AtomicLong();
+    private final Counter events;
+
+    ChangeStreamLane(int lane, MeterRegistry meterRegistry) {
+        Tags tags = Tags.of("lane", String.valueOf(lane));
+        Gauge.builder("changestream.lane.queue.depth", queueDepth, AtomicInteger::get)
+                .tags(tags)
+                .description("Change events routed to the lane and not yet acknowledged")
+                .register(meterRegistry);
+        Gauge.builder("changestream.lane.lag", this, ChangeStreamLane::lagSeconds)
+                .tags(tags)
+                .baseUnit("seconds")
+                .description("Age of the last change event acknowledged by the lane")
+                .register(meterRegistry);
+        this.events =
+                Counter.builder("changestream.lane.events")
+                        .tags(tags)
+                        .description("Change events acknowledged by the lane")
+                        .register(meterRegistry);
+    }
+
+    void routed() {
+        queueDepth.incrementAndGet();
+    }
+
+    void acknowledged(int eventCount, @Nullable BsonTimestamp latestClusterTime) {
+        queueDepth.addAndGet(-eventCount);
+        events.increment(eventCount);
+        if (latestClusterTime != null) {
+            lastAcknowledgedEpochSecond.accumulateAndGet(latestClusterTime.getTime(), Math::max);
+        }
+    }
+
+    void reset() {
+        queueDepth.set(0);
+    }
+
+    private double lagSeconds() {
+        long lastAcknowledged = lastAcknowledgedEpochSecond.get();
+        // an idle lane is caught up, however old its last event is
+        return lastAcknowledged == 0 || queueDepth.get() <= 0
+                ? 0
+                : Math.max(0, Instant.now().getEpochSecond() - lastAcknowledged);
+    }
+}
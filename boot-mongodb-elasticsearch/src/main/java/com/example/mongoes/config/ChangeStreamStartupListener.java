@@ -1,15 +1,21 @@
 package com.example.mongoes.config;
 
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
 import com.example.mongoes.document.ChangeStreamResume;
 import com.example.mongoes.document.Restaurant;
 import com.example.mongoes.repository.elasticsearch.RestaurantESRepository;
+import com.example.mongoes.repository.elasticsearch.RestaurantSearchCache;
+import com.example.mongoes.repository.geo.RestaurantGeoIndex;
 import com.example.mongoes.repository.mongodb.ChangeStreamResumeRepository;
 import com.example.mongoes.utils.AppConstants;
-import com.mongodb.client.model.changestream.ChangeStreamDocument;
-import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.IntStream;
 import org.bson.BsonTimestamp;
 import org.bson.Document;
 import org.slf4j.Logger;
@@ -18,11 +24,13 @@ import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.mongodb.core.ChangeStreamEvent;
 import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.CollectionOptions.CollectionChangeStreamOptions;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
 
 @Component
@@ -33,21 +41,35 @@ public class ChangeStreamStartupListener {
     private final ReactiveMongoTemplate reactiveMongoTemplate;
     private final RestaurantESRepository restaurantESRepository;
     private final ChangeStreamResumeRepository changeStreamResumeRepository;
+    private final ApplicationProperties applicationProperties;
+    private final RestaurantSearchCache restaurantSearchCache;
+    private final RestaurantGeoIndex restaurantGeoIndex;
+    private final List<ChangeStreamLane> lanes;
 
     public ChangeStreamStartupListener(
             ReactiveMongoTemplate reactiveMongoTemplate,
             RestaurantESRepository restaurantESRepository,
-            ChangeStreamResumeRepository changeStreamResumeRepository) {
+            ChangeStreamResumeRepository changeStreamResumeRepository,
+            ApplicationProperties applicationProperties,
+            RestaurantSearchCache restaurantSearchCache,
+            RestaurantGeoIndex restaurantGeoIndex,
+            MeterRegistry meterRegistry) {
         this.reactiveMongoTemplate = reactiveMongoTemplate;
         this.restaurantESRepository = restaurantESRepository;
         this.changeStreamResumeRepository = changeStreamResumeRepository;
+        this.applicationProperties = applicationProperties;
+        this.restaurantSearchCache = restaurantSearchCache;
+        this.restaurantGeoIndex = restaurantGeoIndex;
+        this.lanes =
+                IntStream.range(0, applicationProperties.getChangeStream().getLanes())
+                        .mapToObj(lane -> new ChangeStreamLane(lane, meterRegistry))
+                        .toList();
     }
 
     @EventListener(ApplicationStartedEvent.class)
     public void startListeningToChangeStream() {
         log.info("Initializing MongoDB change stream listener");
         changeStreamProcessor()
-                .log()
                 .doOnError(error -> log.error("Error in change stream: {}", error.getMessage()))
                 .doOnComplete(() -> log.info("Change stream completed"))
                 .retryWhen(
@@ -59,91 +81,144 @@ public class ChangeStreamStartupListener {
                                                         "Retrying after failure: {}. Attempt: {}",
                                                         signal.failure().getMessage(),
                                                         signal.totalRetries() + 1)))
+                // without the change stream the geo index would miss writes
+                .doOnError(error -> restaurantGeoIndex.stop())
                 .subscribe();
     }
 
-    public Flux<ChangeStreamEvent<Restaurant>> changeStreamProcessor() {
-        return getChangeStreamOption()
-                .flatMapMany(
-                        options ->
-                                reactiveMongoTemplate
-                                        .changeStream(Restaurant.class)
-                                        .watchCollection(AppConstants.RESTAURANT_COLLECTION)
-                                        .resumeAt(options)
-                                        .listen())
-                .delayElements(Duration.ofMillis(1))
-                .publishOn(Schedulers.boundedElastic())
-                .doOnNext(
-                        restaurantChangeStreamEvent -> {
-                            log.info(
-                                    "processed at {} ", restaurantChangeStreamEvent.getTimestamp());
-                            Restaurant restaurant = restaurantChangeStreamEvent.getBody();
-                            if (restaurant != null) {
-                                if (restaurantChangeStreamEvent.getOperationType()
-                                        == OperationType.DELETE) {
-                                    this.restaurantESRepository
-                                            .delete(restaurant)
-                                            .log()
-                                            .doOnError(
-                                                    error ->
-                                                            log.error(
-                                                                    "Error deleting restaurant: {}",
-                                                                    error.getMessage()))
-                                            .subscribe();
-                                } else if (restaurantChangeStreamEvent.getOperationType()
-                                                == OperationType.REPLACE
-                                        || restaurantChangeStreamEvent.getOperationType()
-                                                == OperationType.INSERT) {
-                                    this.restaurantESRepository
-                                            .save(restaurant)
-                                            .log()
-                                            .doOnError(
-                                                    error ->
-                                                            log.error(
-                                                                    "Error saving restaurant: {}",
-                                                                    error.getMessage()))
-                                            .subscribe();
-                                }
-                            } else {
-                                ChangeStreamDocument<Document> eventRaw =
-                                        restaurantChangeStreamEvent.getRaw();
-                                if (Objects.requireNonNull(eventRaw).getOperationType()
-                                        == OperationType.DELETE) {
-                                    if (eventRaw.getDocumentKey() != null) {
-                                        var objectId =
-                                                eventRaw.getDocumentKey()
-                                                        .get("_id")
-                                                        .asObjectId()
-                                                        .getValue()
-                                                        .toString();
-                                        this.restaurantESRepository
-                                                .deleteById(objectId)
-                                                .doOnError(
-                                                        error ->
-                                                                log.error(
-                                                                        "Error deleting restaurant by ID: {}",
-                                                                        error.getMessage()))
-                                                .subscribe();
-                                    } else {
-                                        log.warn(
-                                                "Document key is null for DELETE operation. Cannot delete restaurant from repository.");
-                                    }
-                                }
-                            }
+    /**
+     * Streams change events into elasticsearch through {@code lanes} parallel lanes. Events are
+     * routed to a lane by document id, so changes of one document stay ordered while different
+     * documents index concurrently. Within a lane events are windowed by {@code batchSize} or
+     * {@code batchTimeout}, whichever comes first, collapsed to the latest operation per document
+     * and written with one bulk request. The resume point only advances to the low watermark of all
+     * lanes, so a restart never skips an unacknowledged event. At most {@code laneQueueCapacity}
+     * events are buffered ahead of the lanes, beyond which backpressure reaches the change stream
+     * cursor. Once a batch is written, the cached searches its changes can affect are invalidated
+     * and its changes are applied to the geo index.
+     */
+    Flux<ChangeStreamBatch> changeStreamProcessor() {
+        ApplicationProperties.ChangeStream changeStream = applicationProperties.getChangeStream();
+        return Flux.defer(
+                () -> {
+                    ChangeStreamWatermark watermark = new ChangeStreamWatermark();
+                    lanes.forEach(ChangeStreamLane::reset);
+                    return enablePreImages()
+                            .then(getChangeStreamOption())
+                            .flatMapMany(
+                                    options ->
+                                            reactiveMongoTemplate
+                                                    .changeStream(Restaurant.class)
+                                                    .watchCollection(
+                                                            AppConstants.RESTAURANT_COLLECTION)
+                                                    .resumeAt(options)
+                                                    .listen())
+                            .index()
+                            .doOnNext(
+                                    sequencedEvent -> {
+                                        watermark.track(
+                                                sequencedEvent.getT1(),
+                                                sequencedEvent.getT2().getBsonTimestamp());
+                                        lanes.get(laneOf(sequencedEvent.getT2())).routed();
+                                    })
+                            .groupBy(
+                                    sequencedEvent -> laneOf(sequencedEvent.getT2()),
+                                    changeStream.getLaneQueueCapacity())
+                            .flatMap(
+                                    laneEvents ->
+                                            laneEvents
+                                                    .bufferTimeout(
+                                                            changeStream.getBatchSize(),
+                                                            changeStream.getBatchTimeout(),
+                                                            true)
+                                                    .map(
+                                                            events ->
+                                                                    ChangeStreamBatch.of(
+                                                                            laneEvents.key(),
+                                                                            events))
+                                                    .concatMap(this::synchronize, 0),
+                                    lanes.size())
+                            .concatMap(batch -> checkpoint(watermark, batch));
+                });
+    }
 
-                            this.changeStreamResumeRepository
-                                    .update(restaurantChangeStreamEvent.getBsonTimestamp())
-                                    .log()
-                                    .retryWhen(
-                                            Retry.backoff(3, Duration.ofSeconds(1))
-                                                    .maxBackoff(Duration.ofSeconds(10)))
-                                    .doOnError(
-                                            error ->
-                                                    log.error(
-                                                            "Failed to update resume token: {}",
-                                                            error.getMessage()))
-                                    .subscribe();
-                        });
+    private int laneOf(ChangeStreamEvent<Restaurant> event) {
+        String documentId = ChangeStreamBatch.documentId(event);
+        return documentId == null ? 0 : Math.floorMod(documentId.hashCode(), lanes.size());
+    }
+
+    private Mono<ChangeStreamBatch> synchronize(ChangeStreamBatch batch) {
+        Mono<ChangeStreamBatch> write =
+                batch.hasWrites()
+                        ? this.restaurantESRepository
+                                .bulkIndexAndDelete(batch.upserts().values(), batch.deletes())
+                                .flatMap(this::verifyBulkResponse)
+                                .thenReturn(batch)
+                        : Mono.just(batch);
+        return write.doOnNext(
+                processed -> {
+                    restaurantSearchCache.invalidate(processed.cacheTags());
+                    restaurantGeoIndex.apply(processed.upserts().values(), processed.deletes());
+                    lanes.get(processed.lane())
+                            .acknowledged(processed.eventCount(), processed.latestClusterTime());
+                    log.debug(
+                            "Lane {} synchronized {} change events as {} upserts and {} deletes",
+                            processed.lane(),
+                            processed.eventCount(),
+                            processed.upserts().size(),
+                            processed.deletes().size());
+                });
+    }
+
+    private Mono<BulkResponse> verifyBulkResponse(BulkResponse bulkResponse) {
+        if (!bulkResponse.errors()) {
+            return Mono.just(bulkResponse);
+        }
+        // a version conflict means elasticsearch already holds this or a newer version,
+        // which happens when a window is replayed after a restart
+        List<BulkResponseItem> failures =
+                bulkResponse.items().stream()
+                        .filter(item -> item.error() != null)
+                        .filter(item -> item.status() != HttpStatus.CONFLICT.value())
+                        .toList();
+        if (failures.isEmpty()) {
+            return Mono.just(bulkResponse);
+        }
+        failures.forEach(
+                item ->
+                        log.error(
+                                "Bulk {} failed for id {}: {}",
+                                item.operationType(),
+                                item.id(),
+                                Objects.requireNonNull(item.error()).reason()));
+        return Mono.error(
+                new IllegalStateException(
+                        "Bulk request failed for %d of %d operations"
+                                .formatted(failures.size(), bulkResponse.items().size())));
+    }
+
+    private Mono<ChangeStreamBatch> checkpoint(
+            ChangeStreamWatermark watermark, ChangeStreamBatch batch) {
+        return Mono.justOrEmpty(watermark.acknowledge(batch.sequences()))
+                .flatMap(
+                        lowWatermark ->
+                                this.changeStreamResumeRepository
+                                        .update(lowWatermark)
+                                        .retryWhen(
+                                                Retry.backoff(3, Duration.ofSeconds(1))
+                                                        .maxBackoff(Duration.ofSeconds(10)))
+                                        .doOnError(
+                                                error ->
+                                                        log.error(
+                                                                "Failed to update resume token: {}",
+                                                                error.getMessage()))
+                                        .doOnSuccess(
+                                                ignored ->
+                                                        log.info(
+                                                                "Checkpointed change stream at {}, {} events in flight",
+                                                                lowWatermark,
+                                                                watermark.pendingCount())))
+                .thenReturn(batch);
     }
 
     private Mono<ChangeStreamOptions> getChangeStreamOption() {
@@ -155,15 +230,58 @@ public class ChangeStreamStartupListener {
                                             ChangeStreamOptions.builder()
                                                     .resumeAt(resumeToken.getResumeTimestamp());
                             changeStreamOptionsBuilder.returnFullDocumentOnUpdate();
+                            changeStreamOptionsBuilder.fullDocumentBeforeChangeLookup(
+                                    FullDocumentBeforeChange.WHEN_AVAILABLE);
                             return changeStreamOptionsBuilder.build();
                         })
                 .defaultIfEmpty(
                         ChangeStreamOptions.builder()
                                 .resumeAt(new BsonTimestamp(Instant.now().getEpochSecond()))
                                 .returnFullDocumentOnUpdate()
+                                .fullDocumentBeforeChangeLookup(
+                                        FullDocumentBeforeChange.WHEN_AVAILABLE)
                                 .build());
     }
 
+    /**
+     * Records the previous state of changed restaurants, so that an update or delete only
+     * invalidates the cached searches of its old and new borough and cuisine. Without pre-images
+     * every such change invalidates the whole search cache.
+     */
+    private Mono<Void> enablePreImages() {
+        String collection = AppConstants.RESTAURANT_COLLECTION;
+        return reactiveMongoTemplate
+                .collectionExists(collection)
+                .flatMap(
+                        exists ->
+                                exists
+                                        ? reactiveMongoTemplate
+                                                .executeCommand(
+                                                        new Document("collMod", collection)
+                                                                .append(
+                                                                        "changeStreamPreAndPostImages",
+                                                                        new Document(
+                                                                                "enabled", true)))
+                                                .then()
+                                        : reactiveMongoTemplate
+                                                .createCollection(
+                                                        collection,
+                                                        CollectionOptions.empty()
+                                                                .changeStream(
+                                                                        CollectionChangeStreamOptions
+                                                                                .preAndPostImages(
+                                                                                        true)))
+                                                .then())
+                .onErrorResume(
+                        error -> {
+                            log.warn(
+                                    "Unable to enable change stream pre-images on {}, updates will invalidate all cached searches: {}",
+                                    collection,
+                                    error.getMessage());
+                            return Mono.empty();
+                        });
+    }
+
     private Mono<ChangeStreamResume> getResumeToken() {
         return this.changeStreamResumeRepository.findFirstByOrderByResumeTimestampDesc();
     }
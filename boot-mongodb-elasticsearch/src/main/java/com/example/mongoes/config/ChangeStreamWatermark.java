@@ -0,0 +1,56 @@
+package com.example.mongoes.config;
+
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.bson.BsonTimestamp;
+import org.springframework.lang.Nullable;
+
+/**
+ * Tracks change events handed out to the parallel sync lanes and derives the low watermark: the
+ * cluster time of the newest event for which it and every earlier event have been acknowledged by
+ * elasticsearch. Only the low watermark is safe to persist as resume point, because lanes complete
+ * out of order.
+ */
+final class ChangeStreamWatermark {
+
+    private final NavigableMap<Long, BsonTimestamp> pending = new TreeMap<>();
+    private final NavigableMap<Long, BsonTimestamp> acknowledged = new TreeMap<>();
+
+    @Nullable private BsonTimestamp lowWatermark;
+
+    synchronized void track(long sequence, @Nullable BsonTimestamp clusterTime) {
+        pending.put(sequence, clusterTime);
+    }
+
+    /**
+     * Marks the given events as written and returns the new low watermark when it moved forward.
+     */
+    synchronized Optional<BsonTimestamp> acknowledge(long[] sequences) {
+        for (long sequence : sequences) {
+            if (pending.containsKey(sequence)) {
+                acknowledged.put(sequence, pending.remove(sequence));
+            }
+        }
+        long oldestPending = pending.isEmpty() ? Long.MAX_VALUE : pending.firstKey();
+        SortedMap<Long, BsonTimestamp> contiguous = acknowledged.headMap(oldestPending);
+        BsonTimestamp candidate = null;
+        for (BsonTimestamp clusterTime : contiguous.values()) {
+            if (clusterTime != null
+                    && (candidate == null || clusterTime.compareTo(candidate) > 0)) {
+                candidate = clusterTime;
+            }
+        }
+        contiguous.clear();
+        if (candidate != null && (lowWatermark == null || candidate.compareTo(lowWatermark) > 0)) {
+            lowWatermark = candidate;
+            return Optional.of(candidate);
+        }
+        return Optional.empty();
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.mongoes.config;
 
 import com.example.mongoes.web.exception.DuplicateRestaurantException;
+import com.example.mongoes.web.exception.InvalidCursorException;
 import com.example.mongoes.web.exception.RestaurantNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import java.util.Comparator;
@@ -31,6 +32,13 @@ public class GlobalExceptionHandler {
         return Mono.just(problemDetail);
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    Mono<ProblemDetail> handleInvalidCursorException(InvalidCursorException ex) {
+        ProblemDetail problemDetail =
+                ProblemDetail.forStatusAndDetail(ex.getHttpStatus(), ex.getMessage());
+        return Mono.just(problemDetail);
+    }
+
     @ExceptionHandler(WebExchangeBindException.class)
     Mono<ProblemDetail> handleValidationErrors(WebExchangeBindException ex) {
         ProblemDetail problemDetail =
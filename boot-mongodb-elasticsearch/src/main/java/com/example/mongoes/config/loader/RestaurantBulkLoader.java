@@ -0,0 +1,126 @@
+package com.example.mongoes.config.loader;
+
+import com.example.mongoes.config.ApplicationProperties;
+import com.example.mongoes.document.Restaurant;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Streams a line delimited restaurant seed file into mongodb with bounded memory. The file is read
+ * in {@code chunkSize} buffers, each JSON object is decoded to a {@link Restaurant} as soon as its
+ * bytes are available and documents are written with {@code insertMany} in batches of {@code
+ * batchSize}, at most {@code writeConcurrency} batches at a time.
+ */
+@Component
+public class RestaurantBulkLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantBulkLoader.class);
+
+    private static final ResolvableType RESTAURANT_TYPE = ResolvableType.forClass(Restaurant.class);
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ApplicationProperties.Loader properties;
+    private final Jackson2JsonDecoder decoder;
+    private final Counter documentsCounter;
+    private final Timer batchTimer;
+
+    public RestaurantBulkLoader(
+            ReactiveMongoTemplate reactiveMongoTemplate,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.properties = applicationProperties.getLoader();
+        this.decoder =
+                new Jackson2JsonDecoder(
+                        JsonMapper.builder()
+                                .addModule(
+                                        new SimpleModule()
+                                                .addDeserializer(
+                                                        Restaurant.class,
+                                                        new RestaurantSeedDeserializer()))
+                                .build());
+        this.documentsCounter =
+                Counter.builder("restaurant.loader.documents")
+                        .description("Restaurants inserted by the bulk loader")
+                        .register(meterRegistry);
+        this.batchTimer =
+                Timer.builder("restaurant.loader.batch")
+                        .description("Time taken to insert one batch of restaurants")
+                        .register(meterRegistry);
+    }
+
+    public Flux<Restaurant> decode(Resource resource) {
+        return decoder.decode(
+                        DataBufferUtils.read(
+                                resource,
+                                DefaultDataBufferFactory.sharedInstance,
+                                properties.getChunkSize()),
+                        RESTAURANT_TYPE,
+                        MediaType.APPLICATION_NDJSON,
+                        Map.of())
+                .cast(Restaurant.class);
+    }
+
+    /** Inserts every restaurant of {@code resource} and emits the number of documents written. */
+    public Mono<Long> load(Resource resource) {
+        return Mono.defer(
+                () -> {
+                    long startNanos = System.nanoTime();
+                    AtomicLong loaded = new AtomicLong();
+                    return decode(resource)
+                            .buffer(properties.getBatchSize())
+                            .flatMap(this::insertBatch, properties.getWriteConcurrency())
+                            .doOnNext(
+                                    inserted -> {
+                                        long total = loaded.addAndGet(inserted);
+                                        log.info(
+                                                "Loaded {} restaurants from {} ({} docs/s)",
+                                                total,
+                                                resource.getFilename(),
+                                                throughput(total, startNanos));
+                                    })
+                            .then(Mono.fromSupplier(loaded::get));
+                });
+    }
+
+    private Mono<Long> insertBatch(List<Restaurant> batch) {
+        return Mono.defer(
+                () -> {
+                    long startNanos = System.nanoTime();
+                    return reactiveMongoTemplate
+                            .insert(batch, Restaurant.class)
+                            .count()
+                            .doOnNext(
+                                    inserted -> {
+                                        batchTimer.record(
+                                                System.nanoTime() - startNanos,
+                                                TimeUnit.NANOSECONDS);
+                                        documentsCounter.increment(inserted);
+                                    });
+                });
+    }
+
+    private static long throughput(long documents, long startNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        return documents * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
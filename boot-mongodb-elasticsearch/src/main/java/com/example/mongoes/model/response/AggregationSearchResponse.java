@@ -4,10 +4,16 @@ import com.example.mongoes.document.Restaurant;
 import java.util.List;
 import java.util.Map;
 import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
 
+/**
+ * @param nextCursor token to pass as {@code cursor} for the next page of a cursor scan, {@code
+ *     null} in offset mode and on the last page
+ */
 public record AggregationSearchResponse(
         List<Restaurant> content,
-        Map<String, Map<String, Long>> facets,
+        Map<String, Facet> facets,
         Pageable pageable,
         int totalPages,
-        long numberOfElements) {}
+        long numberOfElements,
+        @Nullable String nextCursor) {}
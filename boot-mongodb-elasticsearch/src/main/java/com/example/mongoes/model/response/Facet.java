@@ -0,0 +1,134 @@
+package com.example.mongoes.model.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.io.Serial;
+import java.util.List;
+import java.util.Map;
+import org.springframework.lang.Nullable;
+
+/**
+ * One aggregation of a search response. Buckets keep the order elasticsearch returned them in.
+ *
+ * @param type aggregation type the buckets were decoded from
+ * @param buckets buckets of a multi bucket aggregation, the single bucket of a {@code nested} one
+ */
+@JsonSerialize(using = Facet.Serializer.class)
+public record Facet(Type type, List<Bucket> buckets) {
+
+    public enum Type {
+        TERMS("terms"),
+        RANGE("range"),
+        DATE_RANGE("date_range"),
+        GEO_DISTANCE("geo_distance"),
+        HISTOGRAM("histogram"),
+        DATE_HISTOGRAM("date_histogram"),
+        NESTED("nested");
+
+        private final SerializedString value;
+
+        Type(String value) {
+            this.value = new SerializedString(value);
+        }
+
+        @JsonValue
+        public String getValue() {
+            return value.getValue();
+        }
+    }
+
+    /**
+     * @param key bucket key as rendered by elasticsearch, {@code null} for {@code nested}
+     * @param count number of documents in the bucket
+     * @param from lower bound of a date range bucket as formatted by elasticsearch, {@code null}
+     *     when unbounded or not a date range
+     * @param to upper bound of a date range bucket, same rules as {@code from}
+     * @param facets sub aggregations of the bucket keyed by name
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public record Bucket(
+            @Nullable String key,
+            long count,
+            @Nullable String from,
+            @Nullable String to,
+            Map<String, Facet> facets) {
+
+        public Bucket {
+            // left out of the json when empty
+            facets = facets == null ? Map.of() : facets;
+        }
+    }
+
+    /**
+     * Writes facets field by field with pre-encoded names, which is what makes up most of an
+     * aggregate response with many buckets. Produces the same json as bean serialization of the
+     * records would.
+     */
+    static final class Serializer extends StdSerializer<Facet> {
+
+        @Serial private static final long serialVersionUID = 1L;
+
+        private static final SerializedString TYPE = new SerializedString("type");
+        private static final SerializedString BUCKETS = new SerializedString("buckets");
+        private static final SerializedString KEY = new SerializedString("key");
+        private static final SerializedString COUNT = new SerializedString("count");
+        private static final SerializedString FROM = new SerializedString("from");
+        private static final SerializedString TO = new SerializedString("to");
+        private static final SerializedString FACETS = new SerializedString("facets");
+
+        Serializer() {
+            super(Facet.class);
+        }
+
+        @Override
+        public void serialize(Facet facet, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(facet);
+            generator.writeFieldName(TYPE);
+            generator.writeString(facet.type().value);
+            generator.writeFieldName(BUCKETS);
+            generator.writeStartArray(facet.buckets(), facet.buckets().size());
+            for (Bucket bucket : facet.buckets()) {
+                writeBucket(bucket, generator, provider);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        private void writeBucket(
+                Bucket bucket, JsonGenerator generator, SerializerProvider provider)
+                throws IOException {
+            generator.writeStartObject(bucket);
+            if (bucket.key() != null) {
+                generator.writeFieldName(KEY);
+                generator.writeString(bucket.key());
+            }
+            generator.writeFieldName(COUNT);
+            generator.writeNumber(bucket.count());
+            if (bucket.from() != null) {
+                generator.writeFieldName(FROM);
+                generator.writeString(bucket.from());
+            }
+            if (bucket.to() != null) {
+                generator.writeFieldName(TO);
+                generator.writeString(bucket.to());
+            }
+            if (!bucket.facets().isEmpty()) {
+                generator.writeFieldName(FACETS);
+                generator.writeStartObject(bucket.facets());
+                for (Map.Entry<String, Facet> entry : bucket.facets().entrySet()) {
+                    generator.writeFieldName(entry.getKey());
+                    serialize(entry.getValue(), generator, provider);
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        }
+    }
+}
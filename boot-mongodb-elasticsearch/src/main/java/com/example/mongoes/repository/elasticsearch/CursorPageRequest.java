@@ -0,0 +1,55 @@
+package com.example.mongoes.repository.elasticsearch;
+
+import java.io.Serial;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+
+/**
+ * Page request that continues a point in time scan with {@code search_after} instead of skipping
+ * {@code offset} hits, so the cost of a page does not grow with its depth.
+ */
+public final class CursorPageRequest extends PageRequest {
+
+    @Serial private static final long serialVersionUID = 1L;
+
+    /** How long elasticsearch keeps the point in time alive between two pages. */
+    public static final Duration KEEP_ALIVE = Duration.ofMinutes(1);
+
+    @Nullable private final transient SearchCursor cursor;
+
+    private CursorPageRequest(int size, @Nullable SearchCursor cursor) {
+        super(0, size, Sort.unsorted());
+        this.cursor = cursor;
+    }
+
+    /**
+     * @param token {@link SearchCursor#START} for the first page or a token returned with the
+     *     previous page
+     * @throws IllegalArgumentException when {@code token} is malformed
+     */
+    public static CursorPageRequest of(int size, String token) {
+        return new CursorPageRequest(
+                size, SearchCursor.START.equals(token) ? null : SearchCursor.decode(token));
+    }
+
+    /** Empty for the first page of a scan. */
+    public Optional<SearchCursor> cursor() {
+        return Optional.ofNullable(cursor);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CursorPageRequest other
+                && super.equals(other)
+                && Objects.equals(cursor, other.cursor);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(cursor);
+    }
+}
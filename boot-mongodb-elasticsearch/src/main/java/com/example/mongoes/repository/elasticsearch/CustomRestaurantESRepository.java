@@ -1,12 +1,16 @@
 package com.example.mongoes.repository.elasticsearch;
 
+import co.elastic.clients.elasticsearch.core.BulkResponse;
 import com.example.mongoes.document.Restaurant;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.lang.Nullable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -14,6 +18,12 @@ public interface CustomRestaurantESRepository {
 
     Flux<SearchHit<Restaurant>> searchWithin(GeoPoint geoPoint, Double distance, String unit);
 
+    Mono<SearchPage<Restaurant>> searchWithin(
+            GeoPoint geoPoint, Double distance, String unit, Pageable pageable);
+
+    /** The {@code limit} restaurants nearest to {@code geoPoint}, distances in {@code unit}. */
+    Flux<SearchHit<Restaurant>> searchNearest(GeoPoint geoPoint, String unit, int limit);
+
     Mono<SearchPage<Restaurant>> findByBoroughOrCuisineOrName(
             String query, Boolean prefixPhraseEnabled, Pageable pageable);
 
@@ -36,13 +46,43 @@ public interface CustomRestaurantESRepository {
 
     Mono<SearchPage<Restaurant>> searchDateRange(String fromDate, String toDate, Pageable pageable);
 
-    Mono<SearchPage<Restaurant>> aggregateSearch(
+    default Mono<SearchPage<Restaurant>> aggregateSearch(
             String searchKeyword,
             List<String> fieldNames,
             Sort.Direction direction,
             Integer limit,
             Integer offset,
+            String[] sortFields) {
+        return aggregateSearch(
+                searchKeyword, fieldNames, direction, PageRequest.of(offset, limit), sortFields);
+    }
+
+    /**
+     * Pass a {@link CursorPageRequest} to page with {@code search_after}; aggregations are then
+     * only computed for the first page of the scan.
+     */
+    Mono<SearchPage<Restaurant>> aggregateSearch(
+            String searchKeyword,
+            List<String> fieldNames,
+            Sort.Direction direction,
+            Pageable pageable,
             String[] sortFields);
 
     Mono<SearchPage<Restaurant>> findAll(Pageable pageable);
+
+    /**
+     * Streams every restaurant, or those of {@code borough}, through a point in time scan fetching
+     * {@code batchSize} hits per round trip. The next page is only requested once downstream has
+     * consumed the previous one, so memory stays constant however large the index is.
+     *
+     * @param properties restaurant properties to fetch from {@code _source}, all when empty
+     */
+    Flux<Restaurant> export(@Nullable String borough, Collection<String> properties, int batchSize);
+
+    /**
+     * Indexes {@code restaurants} and removes {@code deletedIds} using a single {@code _bulk}
+     * request. Callers are expected to pass at most one operation per document id.
+     */
+    Mono<BulkResponse> bulkIndexAndDelete(
+            Collection<Restaurant> restaurants, Collection<String> deletedIds);
 }
@@ -1,27 +1,38 @@
 package com.example.mongoes.repository.elasticsearch;
 
 import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.VersionType;
 import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
 import co.elastic.clients.elasticsearch._types.aggregations.AggregationBuilders;
 import co.elastic.clients.elasticsearch._types.aggregations.DateRangeExpression;
 import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
 import co.elastic.clients.elasticsearch._types.query_dsl.QueryBuilders;
 import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.OpenPointInTimeResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
 import com.example.mongoes.document.Restaurant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
 import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.elasticsearch.core.query.BaseQuery;
 import org.springframework.data.elasticsearch.core.query.Criteria;
 import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
 import org.springframework.data.elasticsearch.core.query.GeoDistanceOrder;
 import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -31,16 +42,44 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
     private static final String CUISINE = "cuisine";
     private static final int PAGE_SIZE = 1_000;
     private final ReactiveElasticsearchOperations reactiveElasticsearchOperations;
+    private final ReactiveElasticsearchClient reactiveElasticsearchClient;
+    private final MultiSearchBatcher multiSearchBatcher;
 
     public CustomRestaurantESRepositoryImpl(
-            ReactiveElasticsearchOperations reactiveElasticsearchOperations) {
+            ReactiveElasticsearchOperations reactiveElasticsearchOperations,
+            ReactiveElasticsearchClient reactiveElasticsearchClient,
+            MultiSearchBatcher multiSearchBatcher) {
         this.reactiveElasticsearchOperations = reactiveElasticsearchOperations;
+        this.reactiveElasticsearchClient = reactiveElasticsearchClient;
+        this.multiSearchBatcher = multiSearchBatcher;
     }
 
     @Override
     public Flux<SearchHit<Restaurant>> searchWithin(
             GeoPoint geoPoint, Double distance, String unit) {
+        return reactiveElasticsearchOperations.search(
+                withinQuery(geoPoint, distance, unit), Restaurant.class);
+    }
+
+    @Override
+    public Mono<SearchPage<Restaurant>> searchWithin(
+            GeoPoint geoPoint, Double distance, String unit, Pageable pageable) {
+        return searchForPage(withinQuery(geoPoint, distance, unit), pageable);
+    }
+
+    @Override
+    public Flux<SearchHit<Restaurant>> searchNearest(GeoPoint geoPoint, String unit, int limit) {
+        Query query =
+                new CriteriaQuery(new Criteria("address.coord").exists())
+                        .addSort(
+                                Sort.by(
+                                        new GeoDistanceOrder("address.coord", geoPoint)
+                                                .withUnit(unit)));
+        query.setPageable(PageRequest.of(0, limit));
+        return reactiveElasticsearchOperations.search(query, Restaurant.class);
+    }
 
+    private Query withinQuery(GeoPoint geoPoint, Double distance, String unit) {
         Query query =
                 new CriteriaQuery(
                         new Criteria("address.coord").within(geoPoint, distance.toString() + unit));
@@ -48,8 +87,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
         // add a sort to get the actual distance back in the sort value
         Sort sort = Sort.by(new GeoDistanceOrder("address.coord", geoPoint).withUnit(unit));
         query.addSort(sort);
-
-        return reactiveElasticsearchOperations.search(query, Restaurant.class);
+        return query;
     }
 
     @Override
@@ -70,9 +108,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                         }))
                         .build();
 
-        query.setPageable(pageable);
-
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(query, pageable);
     }
 
     @Override
@@ -86,9 +122,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                                         .field(BOROUGH)
                                                         .caseInsensitive(true)))
                         .build();
-        query.setPageable(pageable);
-
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(query, pageable);
     }
 
     @Override
@@ -112,9 +146,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                             return builder;
                                         }))
                         .build();
-        query.setPageable(pageable);
-
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(query, pageable);
     }
 
     @Override
@@ -146,9 +178,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                                                                 .field("name")
                                                                                 .query(name)))))
                         .build();
-        query.setPageable(pageable);
-
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(query, pageable);
     }
 
     @Override
@@ -184,9 +214,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                                                                                 + queryKeyword
                                                                                                 + "*")))))
                         .build();
-        query.setPageable(pageable);
-
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(query, pageable);
     }
 
     @Override
@@ -201,9 +229,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                                         .field(BOROUGH)
                                                         .value(reqEx)))
                         .build();
-        query.setPageable(pageable);
-
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(query, pageable);
     }
 
     @Override
@@ -221,9 +247,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                                         .boost(2.0F)))
                         .build();
 
-        query.setPageable(pageable);
-
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(query, pageable);
     }
 
     @Override
@@ -244,9 +268,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                                                                 String.valueOf(
                                                                                         lowerLimit)))))
                         .build();
-        query.setPageable(pageable);
-
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(query, pageable);
     }
 
     @Override
@@ -263,9 +285,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                                                         .lte(toDate)
                                                                         .gte(fromDate))))
                         .build();
-        query.setPageable(pageable);
-
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(query, pageable);
     }
 
     /**
@@ -363,8 +383,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
             String searchKeyword,
             List<String> fieldNames,
             Sort.Direction direction,
-            Integer limit,
-            Integer offset,
+            Pageable pageable,
             String[] sortFields) {
         Aggregation cuisineTermsBuilder =
                 AggregationBuilders.terms(builder -> builder.field(CUISINE).size(PAGE_SIZE));
@@ -380,7 +399,7 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                         .timeZone("UTC")
                                         .ranges(getDateRanges()));
 
-        Query query =
+        NativeQueryBuilder queryBuilder =
                 NativeQuery.builder()
                         .withQuery(
                                 QueryBuilders.multiMatch(
@@ -388,14 +407,17 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
                                                 builder.query(searchKeyword)
                                                         .fields(fieldNames)
                                                         .operator(Operator.Or)))
-                        .withSort(Sort.by(direction, sortFields))
-                        .withAggregation("MyBorough", boroughTermsBuilder)
-                        .withAggregation("MyCuisine", cuisineTermsBuilder)
-                        .withAggregation("MyDateRange", dateRangeBuilder)
-                        .build();
-        query.setPageable(PageRequest.of(offset, limit));
+                        .withSort(Sort.by(direction, sortFields));
+        // facets describe the whole result set, so continuation pages of a scan skip them
+        if (!(pageable instanceof CursorPageRequest cursorPageRequest)
+                || cursorPageRequest.cursor().isEmpty()) {
+            queryBuilder
+                    .withAggregation("MyBorough", boroughTermsBuilder)
+                    .withAggregation("MyCuisine", cuisineTermsBuilder)
+                    .withAggregation("MyDateRange", dateRangeBuilder);
+        }
 
-        return this.reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        return searchForPage(queryBuilder.build(), pageable);
     }
 
     private List<DateRangeExpression> getDateRanges() {
@@ -433,8 +455,143 @@ public class CustomRestaurantESRepositoryImpl implements CustomRestaurantESRepos
     @Override
     public Mono<SearchPage<Restaurant>> findAll(Pageable pageable) {
         Query query = new CriteriaQuery(Criteria.where("_id").exists());
+
+        return searchForPage(query, pageable);
+    }
+
+    @Override
+    public Flux<Restaurant> export(
+            @Nullable String borough, Collection<String> properties, int batchSize) {
+        Criteria criteria =
+                StringUtils.hasText(borough)
+                        ? new Criteria(BOROUGH).is(borough)
+                        : Criteria.where("_id").exists();
+        CriteriaQuery query = new CriteriaQuery(criteria);
+        if (!properties.isEmpty()) {
+            query.addSourceFilter(new FetchSourceFilter(properties.toArray(String[]::new), null));
+        }
+        // an unpaged query is read by the template with point in time and search_after
+        query.setReactiveBatchSize(batchSize);
+
+        return reactiveElasticsearchOperations
+                .search(query, Restaurant.class)
+                .map(SearchHit::getContent);
+    }
+
+    /**
+     * Runs {@code query} for the page described by {@code pageable}. A {@link CursorPageRequest}
+     * reads from a point in time and continues after the sort values of the previous page instead
+     * of using {@code from}, so deep pages cost the same as the first one and are not shifted by
+     * concurrent writes. The point in time is opened with the first page and closed as soon as a
+     * page comes back short; abandoned scans expire after {@link CursorPageRequest#KEEP_ALIVE}.
+     * Offset pages go through the {@link MultiSearchBatcher}.
+     */
+    private Mono<SearchPage<Restaurant>> searchForPage(Query query, Pageable pageable) {
         query.setPageable(pageable);
+        if (!(pageable instanceof CursorPageRequest cursorPageRequest)) {
+            return multiSearchBatcher.searchForPage(query);
+        }
+        if (query.getSort() == null || query.getSort().isUnsorted()) {
+            query.addSort(Sort.by(Sort.Direction.DESC, "_score"));
+        }
+        // unique tiebreaker, so that no two hits share the same search_after position
+        query.addSort(Sort.by(Sort.Direction.ASC, "_shard_doc"));
+
+        Mono<String> pointInTimeId =
+                cursorPageRequest
+                        .cursor()
+                        .map(
+                                cursor -> {
+                                    query.setSearchAfter(cursor.searchAfter());
+                                    return Mono.just(cursor.pointInTimeId());
+                                })
+                        .orElseGet(this::openPointInTime);
+        return pointInTimeId
+                .flatMap(
+                        id -> {
+                            ((BaseQuery) query)
+                                    .setPointInTime(
+                                            new Query.PointInTime(
+                                                    id, CursorPageRequest.KEEP_ALIVE));
+                            return reactiveElasticsearchOperations.searchForPage(
+                                    query, Restaurant.class);
+                        })
+                .flatMap(
+                        searchPage ->
+                                searchPage.getContent().size() < pageable.getPageSize()
+                                        ? closePointInTime(searchPage).thenReturn(searchPage)
+                                        : Mono.just(searchPage));
+    }
+
+    private Mono<String> openPointInTime() {
+        String indexName =
+                reactiveElasticsearchOperations
+                        .getIndexCoordinatesFor(Restaurant.class)
+                        .getIndexName();
+        return reactiveElasticsearchClient
+                .openPointInTime(
+                        builder ->
+                                builder.index(indexName)
+                                        .keepAlive(
+                                                keepAlive ->
+                                                        keepAlive.time(
+                                                                CursorPageRequest.KEEP_ALIVE
+                                                                                .toSeconds()
+                                                                        + "s")))
+                .map(OpenPointInTimeResponse::id);
+    }
 
-        return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+    private Mono<Void> closePointInTime(SearchPage<Restaurant> searchPage) {
+        String pointInTimeId = searchPage.getSearchHits().getPointInTimeId();
+        if (pointInTimeId == null) {
+            return Mono.empty();
+        }
+        // best effort, an unclosed point in time is released when its keep alive runs out
+        return reactiveElasticsearchClient
+                .closePointInTime(builder -> builder.id(pointInTimeId))
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+
+    @Override
+    public Mono<BulkResponse> bulkIndexAndDelete(
+            Collection<Restaurant> restaurants, Collection<String> deletedIds) {
+        String indexName =
+                reactiveElasticsearchOperations
+                        .getIndexCoordinatesFor(Restaurant.class)
+                        .getIndexName();
+        List<BulkOperation> operations = new ArrayList<>(restaurants.size() + deletedIds.size());
+        for (Restaurant restaurant : restaurants) {
+            // same mapping and external versioning as ReactiveElasticsearchOperations#save
+            var document =
+                    reactiveElasticsearchOperations
+                            .getElasticsearchConverter()
+                            .mapObject(restaurant);
+            operations.add(
+                    BulkOperation.of(
+                            builder ->
+                                    builder.index(
+                                            indexBuilder -> {
+                                                indexBuilder
+                                                        .index(indexName)
+                                                        .id(restaurant.getId())
+                                                        .document(document);
+                                                if (restaurant.getVersion() != null) {
+                                                    indexBuilder
+                                                            .version(restaurant.getVersion())
+                                                            .versionType(VersionType.External);
+                                                }
+                                                return indexBuilder;
+                                            })));
+        }
+        for (String deletedId : deletedIds) {
+            operations.add(
+                    BulkOperation.of(
+                            builder ->
+                                    builder.delete(
+                                            deleteBuilder ->
+                                                    deleteBuilder.index(indexName).id(deletedId))));
+        }
+        return reactiveElasticsearchClient.bulk(builder -> builder.operations(operations));
     }
 }
@@ -0,0 +1,244 @@
+package com.example.mongoes.repository.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.example.mongoes.config.ApplicationProperties;
+import com.example.mongoes.document.Restaurant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHitSupport;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Sends the page searches of concurrent requests as one {@code _msearch} request. The first search
+ * of a batch waits at most {@code window} for others to join, a batch is sent early once it holds
+ * {@code maxBatchSize} searches. Every caller gets the page of its own search back.
+ *
+ * <p>Spring Data cannot map a multi search response with a failed search back to the searches of
+ * the batch, so a batch that fails in any way is sent again as single searches. This way each
+ * caller sees its own error and nobody else's.
+ *
+ * <p>Should the batching pipeline itself fail, the searches it holds fail with it and a new
+ * pipeline takes over, so one failure does not leave later searches waiting forever.
+ *
+ * <p>Disabled by default, in which case each search is sent on its own exactly as before.
+ */
+@Component
+public class MultiSearchBatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MultiSearchBatcher.class);
+
+    // how long a caller spins when another thread is handing over a search at the same moment
+    private static final Duration EMIT_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ReactiveElasticsearchOperations reactiveElasticsearchOperations;
+    private final ElasticsearchTemplate elasticsearchTemplate;
+    private final IndexCoordinates index;
+    private final ApplicationProperties.MultiSearch properties;
+    private final DistributionSummary batchSize;
+    private final Counter retriedBatches;
+    private final AtomicReference<Batching> batching = new AtomicReference<>();
+
+    public MultiSearchBatcher(
+            ReactiveElasticsearchOperations reactiveElasticsearchOperations,
+            ReactiveElasticsearchClient reactiveElasticsearchClient,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.reactiveElasticsearchOperations = reactiveElasticsearchOperations;
+        // the reactive client has no msearch, a template on the same transport and mapping has
+        this.elasticsearchTemplate =
+                new ElasticsearchTemplate(
+                        new ElasticsearchClient(
+                                reactiveElasticsearchClient._transport(),
+                                reactiveElasticsearchClient._transportOptions()),
+                        reactiveElasticsearchOperations.getElasticsearchConverter());
+        this.index = reactiveElasticsearchOperations.getIndexCoordinatesFor(Restaurant.class);
+        this.properties = applicationProperties.getMultiSearch();
+        this.batchSize =
+                DistributionSummary.builder("restaurant.search.msearch.batch.size")
+                        .description("Number of searches sent per _msearch request")
+                        .publishPercentiles(0.5, 0.99)
+                        .register(meterRegistry);
+        this.retriedBatches =
+                Counter.builder("restaurant.search.msearch.retried.batches")
+                        .description("_msearch batches resent as single searches after a failure")
+                        .register(meterRegistry);
+        if (properties.isEnabled()) {
+            batching.set(new Batching());
+        }
+    }
+
+    /**
+     * Searches the page set on {@code query}, as part of the next {@code _msearch} batch when
+     * batching is enabled.
+     */
+    public Mono<SearchPage<Restaurant>> searchForPage(Query query) {
+        if (!properties.isEnabled()) {
+            return reactiveElasticsearchOperations.searchForPage(query, Restaurant.class);
+        }
+        return Mono.create(sink -> submit(new PendingSearch(query, sink)));
+    }
+
+    private void submit(PendingSearch pendingSearch) {
+        Batching current = batching.get();
+        while (current != null) {
+            if (current.offer(pendingSearch)) {
+                return;
+            }
+            Batching next = batching.get();
+            if (next == current) {
+                break;
+            }
+            // the pipeline failed and was replaced while the search was handed over
+            current = next;
+        }
+        pendingSearch.sink().error(new IllegalStateException("Multi search batching is stopped"));
+    }
+
+    private void restart(Batching failed, Throwable error) {
+        log.error("Multi search batching failed, failing its pending searches", error);
+        Batching next = new Batching();
+        if (!batching.compareAndSet(failed, next)) {
+            // destroyed in the meantime
+            next.stop();
+            return;
+        }
+        failed.failPending(error);
+    }
+
+    private Mono<Void> send(List<PendingSearch> batch) {
+        batchSize.record(batch.size());
+        if (batch.size() == 1) {
+            return sendSingle(batch.getFirst());
+        }
+        List<Query> queries = batch.stream().map(PendingSearch::query).toList();
+        // the single class overload pairs every search with the first class only
+        List<Class<?>> classes = Collections.nCopies(batch.size(), Restaurant.class);
+        List<IndexCoordinates> indexes = Collections.nCopies(batch.size(), index);
+        return Mono.fromCallable(() -> elasticsearchTemplate.multiSearch(queries, classes, indexes))
+                // the template blocks on the transport until the whole batch is answered
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(
+                        searchHits -> {
+                            if (searchHits.size() != batch.size()) {
+                                return Mono.error(
+                                        new IllegalStateException(
+                                                "Multi search answered %d of %d searches"
+                                                        .formatted(
+                                                                searchHits.size(), batch.size())));
+                            }
+                            for (int i = 0; i < batch.size(); i++) {
+                                batch.get(i).complete(searchHits.get(i));
+                            }
+                            return Mono.<Void>empty();
+                        })
+                .onErrorResume(
+                        error -> {
+                            log.debug("Resending multi search batch as single searches", error);
+                            retriedBatches.increment();
+                            return Flux.fromIterable(batch).flatMap(this::sendSingle).then();
+                        });
+    }
+
+    private Mono<Void> sendSingle(PendingSearch pendingSearch) {
+        return reactiveElasticsearchOperations
+                .searchForPage(pendingSearch.query(), Restaurant.class)
+                .doOnNext(pendingSearch.sink()::success)
+                .doOnError(pendingSearch.sink()::error)
+                .onErrorComplete()
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        Batching current = batching.getAndSet(null);
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    /**
+     * One subscription of the batching pipeline, with the searches handed to it that have not been
+     * answered yet.
+     */
+    private final class Batching {
+
+        private final Sinks.Many<PendingSearch> searches =
+                Sinks.many().unicast().onBackpressureBuffer();
+        private final Set<PendingSearch> pending = ConcurrentHashMap.newKeySet();
+        private final Disposable subscription;
+
+        Batching() {
+            this.subscription =
+                    searches.asFlux()
+                            // the fair variant holds a batch back until flatMap asks for it, the
+                            // default one fails when a window passes while all batches are in
+                            // flight
+                            .bufferTimeout(
+                                    properties.getMaxBatchSize(), properties.getWindow(), true)
+                            .flatMap(
+                                    MultiSearchBatcher.this::send,
+                                    properties.getMaxConcurrentBatches())
+                            .subscribe(null, error -> restart(this, error));
+        }
+
+        boolean offer(PendingSearch pendingSearch) {
+            pending.add(pendingSearch);
+            try {
+                searches.emitNext(
+                        pendingSearch, Sinks.EmitFailureHandler.busyLooping(EMIT_TIMEOUT));
+                // runs right away when the search was answered already
+                pendingSearch.sink().onDispose(() -> pending.remove(pendingSearch));
+                return true;
+            } catch (Sinks.EmissionException e) {
+                pending.remove(pendingSearch);
+                return false;
+            }
+        }
+
+        void failPending(Throwable error) {
+            for (PendingSearch pendingSearch : List.copyOf(pending)) {
+                pendingSearch
+                        .sink()
+                        .error(new IllegalStateException("Multi search batching failed", error));
+            }
+        }
+
+        void stop() {
+            searches.tryEmitComplete();
+            subscription.dispose();
+        }
+    }
+
+    private record PendingSearch(Query query, MonoSink<SearchPage<Restaurant>> sink) {
+
+        @SuppressWarnings("unchecked")
+        void complete(SearchHits<?> searchHits) {
+            sink.success(
+                    SearchHitSupport.searchPageFor(
+                            (SearchHits<Restaurant>) searchHits, query.getPageable()));
+        }
+    }
+}
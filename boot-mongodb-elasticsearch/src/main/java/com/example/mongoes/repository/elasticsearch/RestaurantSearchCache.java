@@ -0,0 +1,252 @@
+package com.example.mongoes.repository.elasticsearch;
+
+import com.example.mongoes.config.ApplicationProperties;
+import com.example.mongoes.document.Restaurant;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Size bounded, in process cache of search pages keyed on the normalized query and paging
+ * parameters of a search operation.
+ *
+ * <p>Every entry is tagged with the borough and cuisine tokens its hits can depend on, or with
+ * {@link #ALL} when any restaurant may change its result. The change stream sync invalidates the
+ * tags of both the previous and the new state of each restaurant it writes, so only the searches a
+ * change can affect are dropped. Elasticsearch only exposes a write after its next refresh, so a
+ * page loaded less than {@code refreshInterval} after an invalidation of one of its tags is treated
+ * as stale and reloaded on its next read.
+ *
+ * <p>Cursor pages are never cached, their point in time already gives them a stable view.
+ */
+@Component
+public class RestaurantSearchCache {
+
+    /** Tag of searches that a change to any restaurant may affect. */
+    public static final String ALL = "*";
+
+    private static final String BOROUGH_TAG_PREFIX = "borough:";
+    private static final String CUISINE_TAG_PREFIX = "cuisine:";
+    // same token boundaries as the standard analyzer for plain words
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern PLAIN_WORDS = Pattern.compile("[\\p{L}\\p{N}\\s]*");
+    // invalidation time of any tag at all
+    private static final String ANY = "";
+
+    private final ApplicationProperties.SearchCache properties;
+    private final Ticker ticker;
+    private final long refreshIntervalNanos;
+    private final AsyncCache<Key, Entry> cache;
+    private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final Counter invalidatedByChange;
+    private final Counter invalidatedByRefresh;
+
+    @Autowired
+    public RestaurantSearchCache(
+            ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(applicationProperties, meterRegistry, Ticker.systemTicker());
+    }
+
+    RestaurantSearchCache(
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry,
+            Ticker ticker) {
+        this.properties = applicationProperties.getSearchCache();
+        this.ticker = ticker;
+        this.refreshIntervalNanos = properties.getRefreshInterval().toNanos();
+        this.cache =
+                CaffeineCacheMetrics.monitor(
+                        meterRegistry,
+                        Caffeine.newBuilder()
+                                .maximumWeight(properties.getMaximumHits())
+                                .weigher((Key key, Entry entry) -> entry.weight())
+                                .expireAfterWrite(properties.getTimeToLive())
+                                .ticker(ticker)
+                                .recordStats()
+                                .buildAsync(),
+                        "restaurantSearch");
+        this.invalidatedByChange =
+                Counter.builder("restaurant.search.cache.invalidations")
+                        .description("Cached search pages dropped as possibly out of date")
+                        .tag("cause", "change")
+                        .register(meterRegistry);
+        this.invalidatedByRefresh =
+                Counter.builder("restaurant.search.cache.invalidations")
+                        .description("Cached search pages dropped as possibly out of date")
+                        .tag("cause", "refresh")
+                        .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached page of {@code operation} for {@code arguments} and {@code pageable}, or
+     * runs {@code search} once for all concurrent callers and caches its result.
+     *
+     * @param arguments normalized query parameters, equal lists must describe the same search
+     * @param tags tags of the restaurants the result depends on, see {@link #boroughTags}, {@link
+     *     #cuisineTags} and {@link #ALL}
+     */
+    public Mono<SearchPage<Restaurant>> get(
+            String operation,
+            List<?> arguments,
+            Set<String> tags,
+            Pageable pageable,
+            Supplier<Mono<SearchPage<Restaurant>>> search) {
+        if (!properties.isEnabled()
+                || pageable instanceof CursorPageRequest
+                || properties.getExcludedOperations().contains(operation)) {
+            return search.get();
+        }
+        Key key = new Key(operation, arguments, pageable, tags);
+        CompletableFuture<Entry> cached = cache.asMap().get(key);
+        if (cached != null
+                && cached.isDone()
+                && !cached.isCompletedExceptionally()
+                && cached.join() != null
+                && isStale(key, cached.join())
+                && cache.asMap().remove(key, cached)) {
+            invalidatedByRefresh.increment();
+        }
+        return Mono.fromFuture(
+                        cache.get(
+                                key,
+                                (ignored, executor) -> {
+                                    long loadedAt = ticker.read();
+                                    return search.get()
+                                            .map(page -> new Entry(page, loadedAt))
+                                            .toFuture();
+                                }),
+                        true)
+                .map(Entry::page);
+    }
+
+    /**
+     * Drops every cached page depending on one of {@code tags}, all of them when {@code tags}
+     * contains {@link #ALL}.
+     */
+    public void invalidate(Collection<String> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        // stamp first, so that searches already running when the change landed are reloaded
+        long now = ticker.read();
+        invalidatedAt.put(ANY, now);
+        int invalidated;
+        if (tags.contains(ALL)) {
+            invalidatedAt.put(ALL, now);
+            invalidated = cache.asMap().size();
+            cache.synchronous().invalidateAll();
+        } else {
+            tags.forEach(tag -> invalidatedAt.put(tag, now));
+            invalidated = 0;
+            for (Key key : cache.asMap().keySet()) {
+                if (key.dependsOnAny(tags) && cache.asMap().remove(key) != null) {
+                    invalidated++;
+                }
+            }
+        }
+        invalidatedByChange.increment(invalidated);
+    }
+
+    private boolean isStale(Key key, Entry entry) {
+        long horizon = entry.loadedAt() - refreshIntervalNanos;
+        if (invalidatedSince(ALL, horizon)) {
+            return true;
+        }
+        if (key.tags().contains(ALL)) {
+            return invalidatedSince(ANY, horizon);
+        }
+        for (String tag : key.tags()) {
+            if (invalidatedSince(tag, horizon)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean invalidatedSince(String tag, long horizon) {
+        Long at = invalidatedAt.get(tag);
+        return at != null && at - horizon > 0;
+    }
+
+    /** Tags of searches matching any of the tokens of {@code boroughs} in the borough field. */
+    public static Set<String> boroughTags(Collection<String> boroughs) {
+        return tags(BOROUGH_TAG_PREFIX, boroughs);
+    }
+
+    /** Tags of searches matching any of the tokens of {@code cuisines} in the cuisine field. */
+    public static Set<String> cuisineTags(Collection<String> cuisines) {
+        return tags(CUISINE_TAG_PREFIX, cuisines);
+    }
+
+    /**
+     * Tags a change to {@code restaurant} affects; {@code null} stands for a state that is not
+     * known and affects every search.
+     */
+    public static Set<String> tagsOf(@Nullable Restaurant restaurant) {
+        if (restaurant == null) {
+            return Set.of(ALL);
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        if (restaurant.getBorough() != null) {
+            tags.addAll(boroughTags(List.of(restaurant.getBorough())));
+        }
+        if (restaurant.getCuisine() != null) {
+            tags.addAll(cuisineTags(List.of(restaurant.getCuisine())));
+        }
+        return tags;
+    }
+
+    /** Whether {@code query} has no query syntax, so it only matches its own tokens. */
+    public static boolean isPlainWords(String query) {
+        return PLAIN_WORDS.matcher(query).matches();
+    }
+
+    private static Set<String> tags(String prefix, Collection<String> values) {
+        Set<String> tags = new LinkedHashSet<>();
+        for (String value : values) {
+            for (String token : TOKEN_SEPARATOR.split(value.toLowerCase(Locale.ROOT))) {
+                if (!token.isEmpty()) {
+                    tags.add(prefix + token);
+                }
+            }
+        }
+        return tags;
+    }
+
+    record Key(String operation, List<?> arguments, Pageable pageable, Set<String> tags) {
+
+        boolean dependsOnAny(Collection<String> changedTags) {
+            return tags.contains(ALL) || !Collections.disjoint(tags, changedTags);
+        }
+    }
+
+    /**
+     * @param loadedAt ticker time at which the search was sent
+     */
+    record Entry(SearchPage<Restaurant> page, long loadedAt) {
+
+        int weight() {
+            return page.getContent().size() + 1;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.mongoes.repository.elasticsearch;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Position of a deep pagination scan: the point in time the scan reads from and the sort values of
+ * the last hit returned. Clients only ever see it as an opaque, url safe token.
+ *
+ * @param pointInTimeId id of the point in time to search in
+ * @param searchAfter sort values of the last hit of the previous page
+ */
+public record SearchCursor(String pointInTimeId, List<Object> searchAfter) {
+
+    /** Token requesting the first page of a new scan. */
+    public static final String START = "*";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder()
+                    .withoutPadding()
+                    .encodeToString(OBJECT_MAPPER.writeValueAsBytes(this));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to encode search cursor", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException when {@code token} was not produced by {@link #encode()}
+     */
+    public static SearchCursor decode(String token) {
+        SearchCursor cursor;
+        try {
+            cursor =
+                    OBJECT_MAPPER.readValue(
+                            Base64.getUrlDecoder().decode(token), SearchCursor.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        if (!StringUtils.hasText(cursor.pointInTimeId())
+                || cursor.searchAfter() == null
+                || cursor.searchAfter().isEmpty()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return cursor;
+    }
+
+    /**
+     * Returns the token for the page following {@code searchPage}, or {@code null} when it was not
+     * requested with a {@link CursorPageRequest} or was the last page.
+     */
+    @Nullable
+    public static String next(SearchPage<?> searchPage) {
+        if (!(searchPage.getPageable() instanceof CursorPageRequest)) {
+            return null;
+        }
+        List<? extends SearchHit<?>> hits = searchPage.getSearchHits().getSearchHits();
+        String pointInTimeId = searchPage.getSearchHits().getPointInTimeId();
+        if (hits.size() < searchPage.getPageable().getPageSize()
+                || !StringUtils.hasText(pointInTimeId)) {
+            return null;
+        }
+        return new SearchCursor(pointInTimeId, hits.getLast().getSortValues()).encode();
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.mongoes.repository.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In memory index of points on a fixed latitude/longitude grid, the same bucketing a geohash of
+ * fixed precision gives. Every point lives in exactly one cell, so a radius search only measures
+ * the points of the cells its bounding box covers and a nearest search only those of the rings of
+ * cells around the query point until no closer point can be left.
+ *
+ * <p>Points are upserted and removed by id, a point with a lower version than the indexed one is
+ * ignored so that a stale copy never replaces a newer one. Reads and writes may run concurrently; a
+ * search sees every point that was indexed before it started.
+ *
+ * @param <T> value returned with every matching point
+ */
+public class GeoGridIndex<T> {
+
+    /** Mean earth radius elasticsearch uses for arc distances. */
+    static final double EARTH_RADIUS_METERS = 6_371_008.7714;
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final Map<String, GeoEntry<T>> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Map<String, GeoEntry<T>>> cells = new ConcurrentHashMap<>();
+
+    /**
+     * @param cellDegrees edge length of a cell in degrees, 0.01 is about 1.1 km of latitude
+     */
+    public GeoGridIndex(double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException(
+                    "cellDegrees must be in (0, 90] but was " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /**
+     * Indexes {@code value} at the given point unless a newer version of {@code id} is indexed. A
+     * {@code null} version always replaces the indexed point.
+     */
+    public void put(String id, double lat, double lon, Long version, T value) {
+        GeoEntry<T> entry =
+                new GeoEntry<>(
+                        id,
+                        lat,
+                        lon,
+                        Math.cos(Math.toRadians(lat)),
+                        version,
+                        value,
+                        cellOf(lat, lon));
+        entries.compute(
+                id,
+                (key, previous) -> {
+                    if (previous != null && previous.isNewerThan(version)) {
+                        return previous;
+                    }
+                    if (previous != null && previous.cell() != entry.cell()) {
+                        removeFromCell(previous);
+                    }
+                    cells.compute(
+                            entry.cell(),
+                            (cell, members) -> {
+                                Map<String, GeoEntry<T>> target =
+                                        members == null ? new ConcurrentHashMap<>() : members;
+                                target.put(id, entry);
+                                return target;
+                            });
+                    return entry;
+                });
+    }
+
+    /** Removes the point of {@code id}, returns whether it was indexed. */
+    public boolean remove(String id) {
+        GeoEntry<T> removed = entries.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        removeFromCell(removed);
+        return true;
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Every point within {@code meters} of the given point, nearest first. */
+    public List<Neighbor<T>> withinDistance(double lat, double lon, double meters) {
+        double latDelta = Math.toDegrees(meters / EARTH_RADIUS_METERS);
+        int firstRow = row(lat - latDelta);
+        int lastRow = row(lat + latDelta);
+        double lonDelta = longitudeDelta(lat, latDelta);
+        // columns are not wrapped yet, a box across the antimeridian wraps when visited
+        int firstColumn = column(lon - lonDelta);
+        int columnCount =
+                lonDelta >= 180
+                        ? columns
+                        : Math.min(columns, column(lon + lonDelta) - firstColumn + 1);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        List<Neighbor<T>> neighbors = new ArrayList<>();
+        Consumer<GeoEntry<T>> collector =
+                entry -> {
+                    double distance = distanceMeters(lat, cosLat, lon, entry);
+                    if (distance <= meters) {
+                        neighbors.add(
+                                new Neighbor<>(entry.value(), entry.lat(), entry.lon(), distance));
+                    }
+                };
+        long boxCells = (long) (lastRow - firstRow + 1) * columnCount;
+        if (boxCells > entries.size()) {
+            // the box covers more cells than there are points, measuring every point is cheaper
+            entries.values().forEach(collector);
+        } else {
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int i = 0; i < columnCount; i++) {
+                    visit(row, firstColumn + i, collector);
+                }
+            }
+        }
+        neighbors.sort(Comparator.comparingDouble(Neighbor::distanceMeters));
+        return neighbors;
+    }
+
+    /** The {@code k} points nearest to the given point, nearest first. */
+    public List<Neighbor<T>> nearest(double lat, double lon, int k) {
+        if (k <= 0 || entries.isEmpty()) {
+            return List.of();
+        }
+        double cosLat = Math.cos(Math.toRadians(lat));
+        // farthest of the best k so far on top
+        PriorityQueue<Neighbor<T>> best =
+                new PriorityQueue<>(
+                        k + 1, Comparator.comparingDouble(Neighbor<T>::distanceMeters).reversed());
+        Consumer<GeoEntry<T>> collector =
+                entry -> {
+                    double distance = distanceMeters(lat, cosLat, lon, entry);
+                    if (best.size() < k || distance < best.peek().distanceMeters()) {
+                        best.add(new Neighbor<>(entry.value(), entry.lat(), entry.lon(), distance));
+                        if (best.size() > k) {
+                            best.poll();
+                        }
+                    }
+                };
+        int centerRow = row(lat);
+        int centerColumn = column(lon);
+        for (int ring = 0; ; ring++) {
+            long scannedCells = (long) (2 * ring + 1) * (2 * ring + 1);
+            if (scannedCells > entries.size() || 2 * ring + 1 >= Math.min(rows, columns)) {
+                // the rings would visit more cells than there are points, measure every point
+                best.clear();
+                entries.values().forEach(collector);
+                break;
+            }
+            visitRing(centerRow, centerColumn, ring, collector);
+            // points outside the rings visited so far are at least this far away
+            if (best.size() == k && best.peek().distanceMeters() <= outsideRingMeters(lat, ring)) {
+                break;
+            }
+        }
+        List<Neighbor<T>> nearest = new ArrayList<>(best);
+        nearest.sort(Comparator.comparingDouble(Neighbor::distanceMeters));
+        return nearest;
+    }
+
+    private void visitRing(
+            int centerRow, int centerColumn, int ring, Consumer<GeoEntry<T>> collector) {
+        if (ring == 0) {
+            visit(centerRow, centerColumn, collector);
+            return;
+        }
+        for (int offset = -ring; offset <= ring; offset++) {
+            visit(centerRow - ring, centerColumn + offset, collector);
+            visit(centerRow + ring, centerColumn + offset, collector);
+        }
+        for (int offset = -ring + 1; offset < ring; offset++) {
+            visit(centerRow + offset, centerColumn - ring, collector);
+            visit(centerRow + offset, centerColumn + ring, collector);
+        }
+    }
+
+    private void visit(int row, int column, Consumer<GeoEntry<T>> collector) {
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        Map<String, GeoEntry<T>> members = cells.get(key(row, Math.floorMod(column, columns)));
+        if (members != null) {
+            members.values().forEach(collector);
+        }
+    }
+
+    /**
+     * Lower bound of the distance between a point at {@code lat} and any point outside the {@code
+     * ring} cells around its own: at least {@code ring} cells of latitude, or {@code ring} cells of
+     * longitude which is measured to the meridian that far away.
+     */
+    private double outsideRingMeters(double lat, int ring) {
+        double degrees = ring * cellDegrees;
+        double latitudeMeters = Math.toRadians(degrees) * EARTH_RADIUS_METERS;
+        double longitudeMeters =
+                degrees >= 90
+                        ? latitudeMeters
+                        : Math.asin(
+                                        Math.cos(Math.toRadians(lat))
+                                                * Math.sin(Math.toRadians(degrees)))
+                                * EARTH_RADIUS_METERS;
+        return Math.min(latitudeMeters, longitudeMeters);
+    }
+
+    /** Half width in degrees of longitude of a box spanning {@code latDelta} around {@code lat}. */
+    private static double longitudeDelta(double lat, double latDelta) {
+        double farthestLat = Math.abs(lat) + latDelta;
+        if (farthestLat >= 90) {
+            return 180;
+        }
+        return Math.min(180, latDelta / Math.cos(Math.toRadians(farthestLat)));
+    }
+
+    private void removeFromCell(GeoEntry<T> entry) {
+        cells.computeIfPresent(
+                entry.cell(),
+                (cell, members) -> {
+                    members.remove(entry.id(), entry);
+                    return members.isEmpty() ? null : members;
+                });
+    }
+
+    private long cellOf(double lat, double lon) {
+        return key(row(lat), column(lon));
+    }
+
+    private int row(double lat) {
+        return Math.clamp((long) Math.floor((lat + 90) / cellDegrees), 0, rows - 1);
+    }
+
+    private int column(double lon) {
+        return (int) Math.floor((lon + 180) / cellDegrees);
+    }
+
+    private long key(int row, int column) {
+        return (long) row * columns + Math.floorMod(column, columns);
+    }
+
+    /** Haversine distance in meters. */
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        return haversine(
+                lat1,
+                Math.cos(Math.toRadians(lat1)),
+                lon1,
+                lat2,
+                Math.cos(Math.toRadians(lat2)),
+                lon2);
+    }
+
+    // the cosine of the latitude is computed once per search and once per indexed point
+    private static double distanceMeters(double lat, double cosLat, double lon, GeoEntry<?> entry) {
+        return haversine(lat, cosLat, lon, entry.lat(), entry.cosLat(), entry.lon());
+    }
+
+    private static double haversine(
+            double lat1, double cosLat1, double lon1, double lat2, double cosLat2, double lon2) {
+        double sinLat = Math.sin(Math.toRadians(lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(lon2 - lon1) / 2);
+        double a = sinLat * sinLat + cosLat1 * cosLat2 * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * A matching point of a search.
+     *
+     * @param distanceMeters distance to the searched point
+     */
+    public record Neighbor<T>(T value, double lat, double lon, double distanceMeters) {}
+
+    private record GeoEntry<T>(
+            String id, double lat, double lon, double cosLat, Long version, T value, long cell) {
+
+        boolean isNewerThan(Long otherVersion) {
+            return version != null && otherVersion != null && version > otherVersion;
+        }
+    }
+}
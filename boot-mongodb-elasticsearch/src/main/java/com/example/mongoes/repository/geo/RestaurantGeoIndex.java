@@ -0,0 +1,171 @@
+package com.example.mongoes.repository.geo;
+
+import com.example.mongoes.config.ApplicationProperties;
+import com.example.mongoes.document.Restaurant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Restaurant locations held in a {@link GeoGridIndex}, so that range and nearest searches are
+ * answered without a round trip to elasticsearch.
+ *
+ * <p>The grid is loaded from mongodb once the application is ready and kept current by the change
+ * stream sync, which applies every batch it writes to elasticsearch here as well. Changes that
+ * arrive while the load is still running are applied right away; versions keep the load from
+ * overwriting them with an older copy and deleted ids are remembered until the load is done. Until
+ * then, or when the change stream stops, searches return empty so that callers fall back to
+ * elasticsearch.
+ */
+@Component
+public class RestaurantGeoIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantGeoIndex.class);
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final ApplicationProperties.GeoIndex properties;
+    private final GeoGridIndex<String> index;
+    private final AtomicBoolean warm = new AtomicBoolean();
+    private final Set<String> deletedWhileLoading = ConcurrentHashMap.newKeySet();
+    private final Counter localSearches;
+    private final Counter coldSearches;
+
+    public RestaurantGeoIndex(
+            ReactiveMongoTemplate reactiveMongoTemplate,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.properties = applicationProperties.getGeoIndex();
+        this.index = new GeoGridIndex<>(properties.getCellDegrees());
+        Gauge.builder("restaurant.geo.index.size", index, GeoGridIndex::size)
+                .description("Restaurant locations held in the in memory geo index")
+                .register(meterRegistry);
+        this.localSearches = searches(meterRegistry, "local");
+        this.coldSearches = searches(meterRegistry, "cold");
+    }
+
+    private static Counter searches(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("restaurant.geo.index.searches")
+                .description("Geo searches answered from the index, or left to elasticsearch")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (properties.isEnabled()) {
+            warmUp().subscribe();
+        }
+    }
+
+    /** Loads every restaurant location from mongodb, the index is warm once it completes. */
+    public Mono<Long> warmUp() {
+        Query query = new Query(Criteria.where("address.coord").exists(true));
+        query.fields().include("name", "address.coord", "version");
+        return Mono.defer(
+                () -> {
+                    warm.set(false);
+                    deletedWhileLoading.clear();
+                    return reactiveMongoTemplate
+                            .find(query, Restaurant.class)
+                            .filter(restaurant -> !deletedWhileLoading.contains(restaurant.getId()))
+                            .doOnNext(this::put)
+                            .count()
+                            .doOnSuccess(
+                                    loaded -> {
+                                        warm.set(true);
+                                        deletedWhileLoading.clear();
+                                        log.info("Geo index warmed up with {} restaurants", loaded);
+                                    })
+                            .doOnError(
+                                    error ->
+                                            log.warn(
+                                                    "Geo index warm up failed, geo searches stay on elasticsearch: {}",
+                                                    error.getMessage()));
+                });
+    }
+
+    /** Applies the restaurants the change stream sync has just written to elasticsearch. */
+    public void apply(Collection<Restaurant> upserts, Collection<String> deletes) {
+        upserts.forEach(this::put);
+        for (String id : deletes) {
+            if (!warm.get()) {
+                deletedWhileLoading.add(id);
+            }
+            index.remove(id);
+        }
+    }
+
+    /**
+     * Stops answering searches, called when the change stream ends and the index can no longer
+     * follow writes.
+     */
+    public void stop() {
+        if (warm.getAndSet(false)) {
+            log.warn("Geo index stopped, geo searches fall back to elasticsearch");
+        }
+        index.clear();
+    }
+
+    public boolean isWarm() {
+        return warm.get();
+    }
+
+    /** Restaurants within {@code meters} of the point nearest first, empty while not warm. */
+    public Optional<List<GeoGridIndex.Neighbor<String>>> withinDistance(
+            double lat, double lon, double meters) {
+        if (!warm.get()) {
+            coldSearches.increment();
+            return Optional.empty();
+        }
+        localSearches.increment();
+        return Optional.of(index.withinDistance(lat, lon, meters));
+    }
+
+    /** The {@code k} restaurants nearest to the point, empty while not warm. */
+    public Optional<List<GeoGridIndex.Neighbor<String>>> nearest(double lat, double lon, int k) {
+        if (!warm.get()) {
+            coldSearches.increment();
+            return Optional.empty();
+        }
+        localSearches.increment();
+        return Optional.of(index.nearest(lat, lon, k));
+    }
+
+    private void put(Restaurant restaurant) {
+        Point location = location(restaurant);
+        if (location == null) {
+            // a restaurant that lost its location must not be found at the old one
+            index.remove(restaurant.getId());
+            return;
+        }
+        index.put(
+                restaurant.getId(),
+                location.getY(),
+                location.getX(),
+                restaurant.getVersion(),
+                restaurant.getName());
+    }
+
+    @Nullable
+    private static Point location(Restaurant restaurant) {
+        return restaurant.getAddress() == null ? null : restaurant.getAddress().getLocation();
+    }
+}
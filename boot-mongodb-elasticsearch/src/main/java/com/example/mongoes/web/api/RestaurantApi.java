@@ -15,7 +15,9 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import java.util.List;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,11 +26,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Tag(name = "Restaurant Management", description = "APIs for managing restaurant information")
 public interface RestaurantApi {
 
+    String EXPORTABLE_FIELDS = "^(restaurantId|name|address|borough|cuisine|grades)$";
+
     @Operation(
             summary = "Find all restaurants",
             description = "Returns a paginated list of restaurants",
@@ -54,6 +59,37 @@ public interface RestaurantApi {
             @Valid @RequestParam(defaultValue = "10") @Max(999) int limit,
             @RequestParam(defaultValue = "0") int offset);
 
+    @Operation(
+            summary = "Export restaurants",
+            description =
+                    "Streams all restaurants, or those of one borough, as newline delimited JSON"
+                            + " read with a point in time scan",
+            responses = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "One restaurant per line",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                        schema = @Schema(implementation = Restaurant.class))),
+                @ApiResponse(responseCode = "400", description = "Unknown field requested")
+            })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<DataBuffer> exportRestaurants(
+            @Parameter(description = "Borough to export, all boroughs when omitted")
+                    @RequestParam(required = false)
+                    String borough,
+            @Parameter(
+                            description = "Restaurant properties to include, all when omitted",
+                            example = "name,cuisine")
+                    @RequestParam(required = false, defaultValue = "")
+                    List<
+                                    @Pattern(
+                                            regexp = EXPORTABLE_FIELDS,
+                                            message = "Unknown restaurant field")
+                                    String>
+                            fields);
+
     @Operation(
             summary = "Find restaurant by name",
             description = "Returns a restaurant matching the exact name",
@@ -84,7 +84,12 @@ public interface SearchApi {
                 @Parameter(
                         in = ParameterIn.QUERY,
                         description = "Enable prefix phrase matching",
-                        example = "false")
+                        example = "false"),
+                @Parameter(
+                        name = "cursor",
+                        in = ParameterIn.QUERY,
+                        description =
+                                "Pass * to start a search_after scan, then the X-Next-Cursor of the previous page. Offset is ignored when set")
             },
             responses = {
                 @ApiResponse(
@@ -99,7 +104,8 @@ public interface SearchApi {
             @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer limit,
             @RequestParam(defaultValue = "0") @Min(0) Integer offset,
             @RequestParam(value = "prefix_phrase_enabled", defaultValue = "false")
-                    Boolean prefixPhraseEnabled);
+                    Boolean prefixPhraseEnabled,
+            @RequestParam(required = false) String cursor);
 
     @Operation(
             summary = "Term search for borough",
@@ -231,7 +237,11 @@ public interface SearchApi {
                 @Parameter(
                         name = "offset",
                         description = "Number of results to skip",
-                        example = "0")
+                        example = "0"),
+                @Parameter(
+                        name = "cursor",
+                        description =
+                                "Pass * to start a search_after scan, then the X-Next-Cursor of the previous page. Offset is ignored when set")
             },
             responses = {
                 @ApiResponse(
@@ -246,7 +256,8 @@ public interface SearchApi {
             @RequestParam String cuisine,
             @RequestParam String name,
             @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer limit,
-            @RequestParam(defaultValue = "0") @Min(0) Integer offset);
+            @RequestParam(defaultValue = "0") @Min(0) Integer offset,
+            @RequestParam(required = false) String cursor);
 
     @Operation(
             summary = "Wildcard borough search",
@@ -351,7 +362,12 @@ public interface SearchApi {
             @Parameter(description = "Number of results to skip", example = "0")
                     @RequestParam(defaultValue = "0")
                     @Min(0)
-                    Integer offset);
+                    Integer offset,
+            @Parameter(
+                            description =
+                                    "Pass * to start a search_after scan, then the X-Next-Cursor of the previous page. Offset is ignored when set")
+                    @RequestParam(required = false)
+                    String cursor);
 
     @Operation(
             summary = "Date range search",
@@ -387,7 +403,12 @@ public interface SearchApi {
             @Parameter(description = "Number of results to skip", example = "0")
                     @RequestParam(defaultValue = "0")
                     @Min(0)
-                    Integer offset);
+                    Integer offset,
+            @Parameter(
+                            description =
+                                    "Pass * to start a search_after scan, then the X-Next-Cursor of the previous page. Offset is ignored when set")
+                    @RequestParam(required = false)
+                    String cursor);
 
     @Operation(
             summary = "Aggregation search",
@@ -426,13 +447,21 @@ public interface SearchApi {
             @Parameter(description = "Sort order (ASC or DESC)", example = "DESC")
                     @RequestParam(required = false, defaultValue = "DESC")
                     String sortOrder,
+            @Parameter(
+                            description =
+                                    "Pass * to start a search_after scan, then the X-Next-Cursor of the previous page. Offset is ignored when set")
+                    @RequestParam(required = false)
+                    String cursor,
             @Parameter(description = "Fields to sort by", example = "restaurant_id")
                     @RequestParam(required = false, defaultValue = "restaurant_id")
                     String... sortFields);
 
     @Operation(
             summary = "Search restaurants within range",
-            description = "Find restaurants within specified distance from given coordinates",
+            description =
+                    "Find restaurants within specified distance from given coordinates, nearest"
+                            + " first. Streams all matches, or one page per request when a cursor"
+                            + " is given",
             responses = {
                 @ApiResponse(
                         responseCode = "200",
@@ -441,7 +470,7 @@ public interface SearchApi {
                 @ApiResponse(responseCode = "400", description = "Invalid parameters provided")
             })
     @GetMapping("/search/restaurant/withInRange")
-    Flux<ResultData> searchRestaurantsWithInRange(
+    Mono<ResponseEntity<Flux<ResultData>>> searchRestaurantsWithInRange(
             @Parameter(
                             description = "Latitude coordinate (between -90 and 90)",
                             example = "40.7128")
@@ -471,5 +500,57 @@ public interface SearchApi {
                     @RequestParam(defaultValue = "km", required = false)
                     @Pattern(regexp = "^(km|mi)$", message = "Unit must be either 'km' or 'mi'")
                     @NotBlank(message = "Unit cannot be blank")
-                    String unit);
+                    String unit,
+            @Parameter(description = "Page size (1-1000) of a cursor scan", example = "100")
+                    @RequestParam(defaultValue = "100")
+                    @Min(1)
+                    @Max(1000)
+                    Integer limit,
+            @Parameter(
+                            description =
+                                    "Pass * to start a search_after scan, then the X-Next-Cursor of the previous page. Offset is ignored when set")
+                    @RequestParam(required = false)
+                    String cursor);
+
+    @Operation(
+            summary = "Search nearest restaurants",
+            description = "Find the restaurants nearest to the given coordinates, nearest first",
+            responses = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Successfully retrieved restaurants",
+                        content = @Content(schema = @Schema(implementation = ResultData.class))),
+                @ApiResponse(responseCode = "400", description = "Invalid parameters provided")
+            })
+    @GetMapping("/search/restaurant/nearest")
+    Mono<ResponseEntity<Flux<ResultData>>> searchNearestRestaurants(
+            @Parameter(
+                            description = "Latitude coordinate (between -90 and 90)",
+                            example = "40.7128")
+                    @RequestParam
+                    @Min(value = -90, message = "Latitude must be greater than or equal to -90")
+                    @Max(value = 90, message = "Latitude must be less than or equal to 90")
+                    @NotNull(message = "Latitude is required")
+                    Double lat,
+            @Parameter(
+                            description = "Longitude coordinate (between -180 and 180)",
+                            example = "-74.0060")
+                    @RequestParam
+                    @Min(value = -180, message = "Longitude must be greater than or equal to -180")
+                    @Max(value = 180, message = "Longitude must be less than or equal to 180")
+                    @NotNull(message = "Longitude is required")
+                    Double lon,
+            @Parameter(
+                            description = "Unit of the returned distances",
+                            example = "km",
+                            schema = @Schema(allowableValues = {"km", "mi"}))
+                    @RequestParam(defaultValue = "km", required = false)
+                    @Pattern(regexp = "^(km|mi)$", message = "Unit must be either 'km' or 'mi'")
+                    @NotBlank(message = "Unit cannot be blank")
+                    String unit,
+            @Parameter(description = "Number of restaurants (1-100)", example = "10")
+                    @RequestParam(defaultValue = "10")
+                    @Min(1)
+                    @Max(100)
+                    Integer limit);
 }
@@ -5,16 +5,23 @@ import com.example.mongoes.model.request.GradesRequest;
 import com.example.mongoes.model.request.RestaurantRequest;
 import com.example.mongoes.web.api.RestaurantApi;
 import com.example.mongoes.web.service.RestaurantService;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.micrometer.core.annotation.Timed;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -24,9 +31,16 @@ import reactor.core.publisher.Mono;
 class RestaurantController implements RestaurantApi {
 
     private final RestaurantService restaurantService;
+    private final ObjectWriter exportWriter;
 
-    RestaurantController(RestaurantService restaurantService) {
+    RestaurantController(RestaurantService restaurantService, ObjectMapper objectMapper) {
         this.restaurantService = restaurantService;
+        // properties left out by source filtering are dropped instead of written as null
+        this.exportWriter =
+                objectMapper
+                        .copy()
+                        .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
+                        .writerFor(Restaurant.class);
     }
 
     @Override
@@ -34,6 +48,24 @@ class RestaurantController implements RestaurantApi {
         return restaurantService.findAllRestaurants(offset, limit).map(ResponseEntity::ok);
     }
 
+    @Override
+    public Flux<DataBuffer> exportRestaurants(String borough, List<String> fields) {
+        return restaurantService.exportRestaurants(borough, fields).map(this::toNdjsonLine);
+    }
+
+    private DataBuffer toNdjsonLine(Restaurant restaurant) {
+        byte[] json;
+        try {
+            json = exportWriter.writeValueAsBytes(restaurant);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize restaurant " + restaurant, e);
+        }
+        return DefaultDataBufferFactory.sharedInstance
+                .allocateBuffer(json.length + 1)
+                .write(json)
+                .write((byte) '\n');
+    }
+
     @Override
     public Mono<ResponseEntity<Restaurant>> findRestaurantByName(String restaurantName) {
         return restaurantService.findByRestaurantName(restaurantName).map(ResponseEntity::ok);
@@ -3,6 +3,7 @@ package com.example.mongoes.web.controller;
 import com.example.mongoes.document.Restaurant;
 import com.example.mongoes.model.response.AggregationSearchResponse;
 import com.example.mongoes.model.response.ResultData;
+import com.example.mongoes.repository.elasticsearch.SearchCursor;
 import com.example.mongoes.web.api.SearchApi;
 import com.example.mongoes.web.service.SearchService;
 import io.micrometer.core.annotation.Timed;
@@ -19,6 +20,8 @@ import reactor.core.publisher.Mono;
 @Validated
 class SearchController implements SearchApi {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final SearchService searchService;
 
     SearchController(SearchService searchService) {
@@ -33,10 +36,14 @@ class SearchController implements SearchApi {
 
     @Override
     public Mono<ResponseEntity<SearchPage<Restaurant>>> searchMulti(
-            String query, Integer limit, Integer offset, Boolean prefixPhraseEnabled) {
+            String query,
+            Integer limit,
+            Integer offset,
+            Boolean prefixPhraseEnabled,
+            String cursor) {
         return searchService
-                .multiSearchQuery(query, offset, limit, prefixPhraseEnabled)
-                .map(ResponseEntity::ok);
+                .multiSearchQuery(query, offset, limit, prefixPhraseEnabled, cursor)
+                .map(SearchController::withNextCursor);
     }
 
     @Override
@@ -61,10 +68,15 @@ class SearchController implements SearchApi {
 
     @Override
     public Mono<ResponseEntity<SearchPage<Restaurant>>> searchBoolShould(
-            String borough, String cuisine, String name, Integer limit, Integer offset) {
+            String borough,
+            String cuisine,
+            String name,
+            Integer limit,
+            Integer offset,
+            String cursor) {
         return searchService
-                .queryBoolWithShould(borough, cuisine, name, offset, limit)
-                .map(ResponseEntity::ok);
+                .queryBoolWithShould(borough, cuisine, name, offset, limit, cursor)
+                .map(SearchController::withNextCursor);
     }
 
     @Override
@@ -89,18 +101,18 @@ class SearchController implements SearchApi {
 
     @Override
     public Mono<ResponseEntity<SearchPage<Restaurant>>> searchRestaurantIdRange(
-            Long lowerLimit, Long upperLimit, Integer limit, Integer offset) {
+            Long lowerLimit, Long upperLimit, Integer limit, Integer offset, String cursor) {
         return searchService
-                .searchRestaurantIdRange(lowerLimit, upperLimit, offset, limit)
-                .map(ResponseEntity::ok);
+                .searchRestaurantIdRange(lowerLimit, upperLimit, offset, limit, cursor)
+                .map(SearchController::withNextCursor);
     }
 
     @Override
     public Mono<ResponseEntity<SearchPage<Restaurant>>> searchDateRange(
-            String fromDate, String toDate, Integer limit, Integer offset) {
+            String fromDate, String toDate, Integer limit, Integer offset, String cursor) {
         return searchService
-                .searchDateRange(fromDate, toDate, offset, limit)
-                .map(ResponseEntity::ok);
+                .searchDateRange(fromDate, toDate, offset, limit, cursor)
+                .map(SearchController::withNextCursor);
     }
 
     @Override
@@ -110,15 +122,52 @@ class SearchController implements SearchApi {
             Integer limit,
             Integer offset,
             String sortOrder,
+            String cursor,
             String... sortFields) {
         return searchService
-                .aggregateSearch(searchKeyword, fieldNames, sortOrder, limit, offset, sortFields)
+                .aggregateSearch(
+                        searchKeyword, fieldNames, sortOrder, limit, offset, cursor, sortFields)
                 .map(ResponseEntity::ok);
     }
 
     @Override
-    public Flux<ResultData> searchRestaurantsWithInRange(
-            Double lat, Double lon, Double distance, String unit) {
-        return this.searchService.searchRestaurantsWithInRange(lat, lon, distance, unit);
+    public Mono<ResponseEntity<Flux<ResultData>>> searchRestaurantsWithInRange(
+            Double lat, Double lon, Double distance, String unit, Integer limit, String cursor) {
+        if (cursor == null) {
+            return Mono.just(
+                    ResponseEntity.ok(
+                            this.searchService.searchRestaurantsWithInRange(
+                                    lat, lon, distance, unit)));
+        }
+        return this.searchService
+                .searchRestaurantsWithInRange(lat, lon, distance, unit, limit, cursor)
+                .map(
+                        searchPage ->
+                                nextCursorHeader(searchPage)
+                                        .body(
+                                                Flux.fromIterable(searchPage.getContent())
+                                                        .map(ResultData::of)));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<ResultData>>> searchNearestRestaurants(
+            Double lat, Double lon, String unit, Integer limit) {
+        return Mono.just(
+                ResponseEntity.ok(
+                        this.searchService.searchNearestRestaurants(lat, lon, unit, limit)));
+    }
+
+    private static ResponseEntity<SearchPage<Restaurant>> withNextCursor(
+            SearchPage<Restaurant> searchPage) {
+        return nextCursorHeader(searchPage).body(searchPage);
+    }
+
+    private static ResponseEntity.BodyBuilder nextCursorHeader(SearchPage<Restaurant> searchPage) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        String nextCursor = SearchCursor.next(searchPage);
+        if (nextCursor != null) {
+            builder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return builder;
     }
 }
@@ -0,0 +1,17 @@
+package com.example.mongoes.web.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends RuntimeException {
+
+    private final HttpStatus httpStatus;
+
+    public InvalidCursorException(String cursor, Throwable cause) {
+        super("Invalid cursor '%s'".formatted(cursor), cause);
+        this.httpStatus = HttpStatus.BAD_REQUEST;
+    }
+
+    public HttpStatus getHttpStatus() {
+        return httpStatus;
+    }
+}
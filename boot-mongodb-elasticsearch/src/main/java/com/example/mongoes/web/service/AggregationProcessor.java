@@ -1,19 +1,35 @@
 package com.example.mongoes.web.service;
 
 import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
-import java.util.HashMap;
+import co.elastic.clients.elasticsearch._types.aggregations.DateHistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.HistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.LongTermsBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.NestedAggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.RangeBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import com.example.mongoes.model.response.Facet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 /**
- * Processes Elasticsearch aggregations and transforms them into a structured map format. Supports
- * 'terms' and 'dateRange' aggregation types.
+ * Decodes Elasticsearch aggregations into {@link Facet}s. Supports 'terms', 'range', 'date_range',
+ * 'geo_distance', 'histogram', 'date_histogram' and 'nested' aggregations, including their sub
+ * aggregations.
  *
- * <p>Example output format: { "termAggregation": {"term1": 10, "term2": 20},
- * "dateRangeAggregation": {"2023-01-01 - 2023-12-31": 100} }
+ * <p>Every bucket list is sized from the client response up front and bucket keys are taken as
+ * rendered by elasticsearch, so decoding allocates one object per bucket and nothing per request
+ * beyond that.
+ *
+ * <p>Example output format: { "termAggregation": {"type": "terms", "buckets": [{"key": "term1",
+ * "count": 10}]}, "dateRangeAggregation": {"type": "date_range", "buckets": [{"key":
+ * "01-01-2023-31-12-2023", "count": 100, "from": "01-01-2023", "to": "31-12-2023"}]} }
  */
 @Service
 public class AggregationProcessor {
@@ -21,56 +37,175 @@ public class AggregationProcessor {
     private static final Logger log = LoggerFactory.getLogger(AggregationProcessor.class);
 
     /**
-     * Processes Elasticsearch aggregations and returns a structured map of results.
+     * Processes Elasticsearch aggregations and returns their facets.
      *
      * @param aggregationMap Map of aggregation key to ElasticsearchAggregation
-     * @return Map of aggregation key to counts, where counts is a map of bucket key to document
-     *     count
+     * @return Map of aggregation key to facet, in the order of {@code aggregationMap}; unsupported
+     *     aggregation types are left out
      * @throws IllegalArgumentException if aggregationMap is null
      */
-    public Map<String, Map<String, Long>> processAggregations(
+    public Map<String, Facet> processAggregations(
             Map<String, ElasticsearchAggregation> aggregationMap) {
         if (aggregationMap == null) {
             throw new IllegalArgumentException("aggregationMap must not be null");
         }
-        Map<String, Map<String, Long>> resultMap = new HashMap<>();
+        Map<String, Facet> facets = LinkedHashMap.newLinkedHashMap(aggregationMap.size());
         aggregationMap.forEach(
-                (String aggregateKey, ElasticsearchAggregation aggregation) -> {
-                    Map<String, Long> countMap = new HashMap<>();
-                    Aggregate aggregate = aggregation.aggregation().getAggregate();
-                    processAggregate(aggregate, countMap);
-                    resultMap.put(aggregateKey, countMap);
-                });
-        return resultMap;
+                (String aggregateKey, ElasticsearchAggregation aggregation) ->
+                        addFacet(facets, aggregateKey, aggregation.aggregation().getAggregate()));
+        return facets;
+    }
+
+    private Map<String, Facet> processSubAggregations(Map<String, Aggregate> aggregates) {
+        if (aggregates.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Facet> facets = LinkedHashMap.newLinkedHashMap(aggregates.size());
+        aggregates.forEach((aggregateKey, aggregate) -> addFacet(facets, aggregateKey, aggregate));
+        return facets;
     }
 
-    private void processAggregate(Aggregate aggregate, Map<String, Long> countMap) {
-        if (aggregate.isSterms()) {
-            processTermsAggregate(aggregate, countMap);
-        } else if (aggregate.isDateRange()) {
-            processDateRangeAggregate(aggregate, countMap);
-        } else {
-            log.debug(
-                    "Unsupported aggregation type encountered: {}",
-                    aggregate.getClass().getSimpleName());
+    private void addFacet(Map<String, Facet> facets, String aggregateKey, Aggregate aggregate) {
+        Facet facet = processAggregate(aggregate);
+        if (facet != null) {
+            facets.put(aggregateKey, facet);
         }
     }
 
-    private void processTermsAggregate(Aggregate aggregate, Map<String, Long> countMap) {
-        aggregate
-                .sterms()
-                .buckets()
-                .array()
-                .forEach(bucket -> countMap.put(bucket.key().stringValue(), bucket.docCount()));
+    @Nullable
+    private Facet processAggregate(Aggregate aggregate) {
+        return switch (aggregate._kind()) {
+            case Sterms ->
+                    new Facet(
+                            Facet.Type.TERMS,
+                            processStringTerms(aggregate.sterms().buckets().array()));
+            case Lterms ->
+                    new Facet(
+                            Facet.Type.TERMS,
+                            processLongTerms(aggregate.lterms().buckets().array()));
+            case Range ->
+                    new Facet(Facet.Type.RANGE, processRanges(aggregate.range().buckets().array()));
+            case DateRange ->
+                    new Facet(
+                            Facet.Type.DATE_RANGE,
+                            processRanges(aggregate.dateRange().buckets().array()));
+            case GeoDistance ->
+                    new Facet(
+                            Facet.Type.GEO_DISTANCE,
+                            processRanges(aggregate.geoDistance().buckets().array()));
+            case Histogram ->
+                    new Facet(
+                            Facet.Type.HISTOGRAM,
+                            processHistogram(aggregate.histogram().buckets().array()));
+            case DateHistogram ->
+                    new Facet(
+                            Facet.Type.DATE_HISTOGRAM,
+                            processDateHistogram(aggregate.dateHistogram().buckets().array()));
+            case Nested -> processNested(aggregate.nested());
+            default -> {
+                log.debug("Unsupported aggregation type encountered: {}", aggregate._kind());
+                yield null;
+            }
+        };
+    }
+
+    private List<Facet.Bucket> processStringTerms(List<StringTermsBucket> buckets) {
+        List<Facet.Bucket> facetBuckets = new ArrayList<>(buckets.size());
+        for (StringTermsBucket bucket : buckets) {
+            facetBuckets.add(
+                    new Facet.Bucket(
+                            bucket.key().stringValue(),
+                            bucket.docCount(),
+                            null,
+                            null,
+                            processSubAggregations(bucket.aggregations())));
+        }
+        return facetBuckets;
+    }
+
+    private List<Facet.Bucket> processLongTerms(List<LongTermsBucket> buckets) {
+        List<Facet.Bucket> facetBuckets = new ArrayList<>(buckets.size());
+        for (LongTermsBucket bucket : buckets) {
+            String key =
+                    bucket.keyAsString() != null
+                            ? bucket.keyAsString()
+                            : Long.toString(bucket.key());
+            facetBuckets.add(
+                    new Facet.Bucket(
+                            key,
+                            bucket.docCount(),
+                            null,
+                            null,
+                            processSubAggregations(bucket.aggregations())));
+        }
+        return facetBuckets;
+    }
+
+    /**
+     * Ranges without documents are left out. Bounds are only kept in the form elasticsearch already
+     * rendered them, so no number is formatted per bucket.
+     */
+    private List<Facet.Bucket> processRanges(List<RangeBucket> buckets) {
+        List<Facet.Bucket> facetBuckets = new ArrayList<>(buckets.size());
+        for (RangeBucket bucket : buckets) {
+            if (bucket.docCount() != 0) {
+                facetBuckets.add(
+                        new Facet.Bucket(
+                                bucket.key(),
+                                bucket.docCount(),
+                                bucket.fromAsString(),
+                                bucket.toAsString(),
+                                processSubAggregations(bucket.aggregations())));
+            }
+        }
+        return facetBuckets;
+    }
+
+    private List<Facet.Bucket> processHistogram(List<HistogramBucket> buckets) {
+        List<Facet.Bucket> facetBuckets = new ArrayList<>(buckets.size());
+        for (HistogramBucket bucket : buckets) {
+            String key =
+                    bucket.keyAsString() != null
+                            ? bucket.keyAsString()
+                            : Double.toString(bucket.key());
+            facetBuckets.add(
+                    new Facet.Bucket(
+                            key,
+                            bucket.docCount(),
+                            null,
+                            null,
+                            processSubAggregations(bucket.aggregations())));
+        }
+        return facetBuckets;
+    }
+
+    private List<Facet.Bucket> processDateHistogram(List<DateHistogramBucket> buckets) {
+        List<Facet.Bucket> facetBuckets = new ArrayList<>(buckets.size());
+        for (DateHistogramBucket bucket : buckets) {
+            String key =
+                    bucket.keyAsString() != null
+                            ? bucket.keyAsString()
+                            : Long.toString(bucket.key());
+            facetBuckets.add(
+                    new Facet.Bucket(
+                            key,
+                            bucket.docCount(),
+                            null,
+                            null,
+                            processSubAggregations(bucket.aggregations())));
+        }
+        return facetBuckets;
     }
 
-    private void processDateRangeAggregate(Aggregate aggregate, Map<String, Long> countMap) {
-        aggregate.dateRange().buckets().array().stream()
-                .filter(bucket -> bucket.docCount() != 0)
-                .forEach(
-                        bucket ->
-                                countMap.put(
-                                        bucket.fromAsString() + " - " + bucket.toAsString(),
-                                        bucket.docCount()));
+    private Facet processNested(NestedAggregate nested) {
+        return new Facet(
+                Facet.Type.NESTED,
+                List.of(
+                        new Facet.Bucket(
+                                null,
+                                nested.docCount(),
+                                null,
+                                null,
+                                processSubAggregations(nested.aggregations()))));
     }
 }
@@ -1,5 +1,6 @@
 package com.example.mongoes.web.service;
 
+import com.example.mongoes.config.ApplicationProperties;
 import com.example.mongoes.document.Restaurant;
 import com.example.mongoes.model.request.GradesRequest;
 import com.example.mongoes.model.request.RestaurantRequest;
@@ -12,8 +13,10 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
@@ -21,12 +24,15 @@ public class RestaurantService {
 
     private final RestaurantRepository restaurantRepository;
     private final RestaurantESRepository restaurantESRepository;
+    private final ApplicationProperties applicationProperties;
 
     public RestaurantService(
             RestaurantRepository restaurantRepository,
-            RestaurantESRepository restaurantESRepository) {
+            RestaurantESRepository restaurantESRepository,
+            ApplicationProperties applicationProperties) {
         this.restaurantRepository = restaurantRepository;
         this.restaurantESRepository = restaurantESRepository;
+        this.applicationProperties = applicationProperties;
     }
 
     public Mono<SearchPage<Restaurant>> findAllRestaurants(int offset, int limit) {
@@ -35,6 +41,11 @@ public class RestaurantService {
         return this.restaurantESRepository.findAll(pageable);
     }
 
+    public Flux<Restaurant> exportRestaurants(@Nullable String borough, List<String> fields) {
+        return this.restaurantESRepository.export(
+                borough, fields, applicationProperties.getExport().getBatchSize());
+    }
+
     @Transactional
     public Mono<Restaurant> addGrade(GradesRequest gradesRequest, Long restaurantId) {
         return this.restaurantRepository
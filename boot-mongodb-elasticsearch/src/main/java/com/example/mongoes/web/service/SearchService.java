@@ -2,11 +2,22 @@ package com.example.mongoes.web.service;
 
 import com.example.mongoes.document.Restaurant;
 import com.example.mongoes.model.response.AggregationSearchResponse;
+import com.example.mongoes.model.response.Facet;
 import com.example.mongoes.model.response.ResultData;
+import com.example.mongoes.repository.elasticsearch.CursorPageRequest;
 import com.example.mongoes.repository.elasticsearch.RestaurantESRepository;
-import java.util.HashMap;
+import com.example.mongoes.repository.elasticsearch.RestaurantSearchCache;
+import com.example.mongoes.repository.elasticsearch.SearchCursor;
+import com.example.mongoes.repository.geo.GeoGridIndex;
+import com.example.mongoes.repository.geo.RestaurantGeoIndex;
+import com.example.mongoes.web.exception.InvalidCursorException;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -14,6 +25,8 @@ import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregatio
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.geo.Point;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
@@ -22,14 +35,26 @@ import reactor.core.publisher.Mono;
 @Service
 public class SearchService {
 
+    private static final Set<String> ALL_TAGS = Set.of(RestaurantSearchCache.ALL);
+
+    // distance units the geo index can answer in
+    private static final Map<String, Double> METERS_PER_UNIT =
+            Map.of("km", 1_000d, "mi", 1_609.344);
+
     private final RestaurantESRepository restaurantESRepository;
     private final AggregationProcessor aggregationProcessor;
+    private final RestaurantSearchCache restaurantSearchCache;
+    private final RestaurantGeoIndex restaurantGeoIndex;
 
     public SearchService(
             RestaurantESRepository restaurantESRepository,
-            AggregationProcessor aggregationProcessor) {
+            AggregationProcessor aggregationProcessor,
+            RestaurantSearchCache restaurantSearchCache,
+            RestaurantGeoIndex restaurantGeoIndex) {
         this.restaurantESRepository = restaurantESRepository;
         this.aggregationProcessor = aggregationProcessor;
+        this.restaurantSearchCache = restaurantSearchCache;
+        this.restaurantGeoIndex = restaurantGeoIndex;
     }
 
     public Mono<Flux<Restaurant>> searchMatchBorough(String query, Integer offset, Integer limit) {
@@ -38,22 +63,45 @@ public class SearchService {
     }
 
     public Mono<SearchPage<Restaurant>> multiSearchQuery(
-            String query, Integer offset, Integer limit, Boolean prefixPhraseEnabled) {
-        Pageable pageable = PageRequest.of(offset, limit);
-        return restaurantESRepository.findByBoroughOrCuisineOrName(
-                query, prefixPhraseEnabled, pageable);
+            String query,
+            Integer offset,
+            Integer limit,
+            Boolean prefixPhraseEnabled,
+            @Nullable String cursor) {
+        Pageable pageable = pageRequest(offset, limit, cursor);
+        return restaurantSearchCache.get(
+                "multiSearchQuery",
+                Arrays.asList(query, prefixPhraseEnabled),
+                ALL_TAGS,
+                pageable,
+                () ->
+                        restaurantESRepository.findByBoroughOrCuisineOrName(
+                                query, prefixPhraseEnabled, pageable));
     }
 
     public Mono<SearchPage<Restaurant>> termQueryForBorough(
             String query, Integer offset, Integer limit) {
         Pageable pageable = PageRequest.of(offset, limit);
-        return restaurantESRepository.termQueryForBorough(query, pageable);
+        return restaurantSearchCache.get(
+                "termQueryForBorough",
+                List.of(query.toLowerCase(Locale.ROOT)),
+                RestaurantSearchCache.boroughTags(List.of(query)),
+                pageable,
+                () -> restaurantESRepository.termQueryForBorough(query, pageable));
     }
 
     public Mono<SearchPage<Restaurant>> termsQueryForBorough(
             List<String> queries, Integer offset, Integer limit) {
         Pageable pageable = PageRequest.of(offset, limit);
-        return restaurantESRepository.termsQueryForBorough(queries, pageable);
+        // the terms query matches the lower cased values, so their order and case do not matter
+        List<String> normalized =
+                queries.stream().map(q -> q.toLowerCase(Locale.ROOT)).distinct().sorted().toList();
+        return restaurantSearchCache.get(
+                "termsQueryForBorough",
+                normalized,
+                RestaurantSearchCache.boroughTags(queries),
+                pageable,
+                () -> restaurantESRepository.termsQueryForBorough(queries, pageable));
     }
 
     public Mono<Flux<Restaurant>> queryBoolWithMust(
@@ -65,39 +113,93 @@ public class SearchService {
     }
 
     public Mono<SearchPage<Restaurant>> queryBoolWithShould(
-            String borough, String cuisine, String name, Integer offset, Integer limit) {
-        Pageable pageable = PageRequest.of(offset, limit);
-        return restaurantESRepository.queryBoolWithShould(borough, cuisine, name, pageable);
+            String borough,
+            String cuisine,
+            String name,
+            Integer offset,
+            Integer limit,
+            @Nullable String cursor) {
+        Pageable pageable = pageRequest(offset, limit, cursor);
+        return restaurantSearchCache.get(
+                "queryBoolWithShould",
+                Arrays.asList(borough, cuisine, name),
+                ALL_TAGS,
+                pageable,
+                () -> restaurantESRepository.queryBoolWithShould(borough, cuisine, name, pageable));
     }
 
     public Mono<SearchPage<Restaurant>> wildcardSearch(
             String queryKeyword, Integer offset, Integer limit) {
         Pageable pageable = PageRequest.of(offset, limit);
-        return restaurantESRepository.wildcardSearch(queryKeyword, pageable);
+        return restaurantSearchCache.get(
+                "wildcardSearch",
+                List.of(queryKeyword),
+                ALL_TAGS,
+                pageable,
+                () -> restaurantESRepository.wildcardSearch(queryKeyword, pageable));
     }
 
     public Mono<SearchPage<Restaurant>> regExpSearch(
             String queryKeyword, Integer offset, Integer limit) {
         Pageable pageable = PageRequest.of(offset, limit);
-        return restaurantESRepository.regExpSearch(queryKeyword, pageable);
+        return restaurantSearchCache.get(
+                "regExpSearch",
+                List.of(queryKeyword),
+                ALL_TAGS,
+                pageable,
+                () -> restaurantESRepository.regExpSearch(queryKeyword, pageable));
     }
 
     public Mono<SearchPage<Restaurant>> searchSimpleQueryForBoroughAndCuisine(
             String queryKeyword, Integer offset, Integer limit) {
         Pageable pageable = PageRequest.of(offset, limit);
-        return restaurantESRepository.searchSimpleQueryForBoroughAndCuisine(queryKeyword, pageable);
+        // plain words only match restaurants having one of them as borough or cuisine token,
+        // anything else may use query syntax like negation and depends on every restaurant
+        Set<String> tags = ALL_TAGS;
+        if (RestaurantSearchCache.isPlainWords(queryKeyword)) {
+            tags = new HashSet<>(RestaurantSearchCache.boroughTags(List.of(queryKeyword)));
+            tags.addAll(RestaurantSearchCache.cuisineTags(List.of(queryKeyword)));
+        }
+        return restaurantSearchCache.get(
+                "searchSimpleQueryForBoroughAndCuisine",
+                List.of(queryKeyword),
+                tags,
+                pageable,
+                () ->
+                        restaurantESRepository.searchSimpleQueryForBoroughAndCuisine(
+                                queryKeyword, pageable));
     }
 
     public Mono<SearchPage<Restaurant>> searchRestaurantIdRange(
-            Long lowerLimit, Long upperLimit, Integer offset, Integer limit) {
-        Pageable pageable = PageRequest.of(offset, limit);
-        return restaurantESRepository.searchRestaurantIdRange(lowerLimit, upperLimit, pageable);
+            Long lowerLimit,
+            Long upperLimit,
+            Integer offset,
+            Integer limit,
+            @Nullable String cursor) {
+        Pageable pageable = pageRequest(offset, limit, cursor);
+        return restaurantSearchCache.get(
+                "searchRestaurantIdRange",
+                Arrays.asList(lowerLimit, upperLimit),
+                ALL_TAGS,
+                pageable,
+                () ->
+                        restaurantESRepository.searchRestaurantIdRange(
+                                lowerLimit, upperLimit, pageable));
     }
 
     public Mono<SearchPage<Restaurant>> searchDateRange(
-            String fromDate, String toDate, Integer offset, Integer limit) {
-        Pageable pageable = PageRequest.of(offset, limit);
-        return restaurantESRepository.searchDateRange(fromDate, toDate, pageable);
+            String fromDate,
+            String toDate,
+            Integer offset,
+            Integer limit,
+            @Nullable String cursor) {
+        Pageable pageable = pageRequest(offset, limit, cursor);
+        return restaurantSearchCache.get(
+                "searchDateRange",
+                Arrays.asList(fromDate, toDate),
+                ALL_TAGS,
+                pageable,
+                () -> restaurantESRepository.searchDateRange(fromDate, toDate, pageable));
     }
 
     public Mono<AggregationSearchResponse> aggregateSearch(
@@ -106,6 +208,7 @@ public class SearchService {
             String sortOrder,
             Integer limit,
             Integer offset,
+            @Nullable String cursor,
             String... sortFields) {
         Sort.Direction direction;
         if (StringUtils.endsWithIgnoreCase(sortOrder, "ASC")) {
@@ -114,16 +217,24 @@ public class SearchService {
             direction = Sort.Direction.DESC;
         }
 
-        return restaurantESRepository
-                .aggregateSearch(searchKeyword, fieldNames, direction, limit, offset, sortFields)
+        Pageable pageable = pageRequest(offset, limit, cursor);
+        return restaurantSearchCache
+                .get(
+                        "aggregateSearch",
+                        Arrays.asList(searchKeyword, fieldNames, direction, List.of(sortFields)),
+                        ALL_TAGS,
+                        pageable,
+                        () ->
+                                restaurantESRepository.aggregateSearch(
+                                        searchKeyword, fieldNames, direction, pageable, sortFields))
                 .map(
                         searchPage -> {
                             ElasticsearchAggregations elasticsearchAggregations =
                                     (ElasticsearchAggregations)
                                             searchPage.getSearchHits().getAggregations();
-                            Map<String, Map<String, Long>> map = new HashMap<>();
+                            Map<String, Facet> facets = Map.of();
                             if (elasticsearchAggregations != null) {
-                                map =
+                                facets =
                                         aggregationProcessor.processAggregations(
                                                 elasticsearchAggregations.aggregationsAsMap());
                             }
@@ -131,27 +242,80 @@ public class SearchService {
                                     searchPage.getContent().stream()
                                             .map(SearchHit::getContent)
                                             .toList(),
-                                    map,
+                                    facets,
                                     searchPage.getPageable(),
                                     searchPage.getTotalPages(),
-                                    searchPage.getTotalElements());
+                                    searchPage.getTotalElements(),
+                                    SearchCursor.next(searchPage));
                         });
     }
 
+    /**
+     * Restaurants within range nearest first, answered by the geo index once it is warm and by
+     * elasticsearch until then, or for units the index does not know.
+     */
     public Flux<ResultData> searchRestaurantsWithInRange(
             Double lat, Double lon, Double distance, String unit) {
+        Double metersPerUnit = METERS_PER_UNIT.get(unit);
+        if (metersPerUnit != null) {
+            Optional<List<GeoGridIndex.Neighbor<String>>> neighbors =
+                    restaurantGeoIndex.withinDistance(lat, lon, distance * metersPerUnit);
+            if (neighbors.isPresent()) {
+                return Flux.fromIterable(neighbors.get())
+                        .map(neighbor -> resultData(neighbor, metersPerUnit));
+            }
+        }
         GeoPoint location = new GeoPoint(lat, lon);
         return this.restaurantESRepository
                 .searchWithin(location, distance, unit)
-                .flatMap(
-                        restaurantSearchHit -> {
-                            Double dist = (Double) restaurantSearchHit.getSortValues().getFirst();
-                            Restaurant eRestaurant = restaurantSearchHit.getContent();
-                            return Mono.just(
-                                    new ResultData(
-                                            eRestaurant.getName(),
-                                            eRestaurant.getAddress().getLocation(),
-                                            dist));
-                        });
+                .map(ResultData::of);
+    }
+
+    /** The {@code limit} restaurants nearest to the location, like the range search. */
+    public Flux<ResultData> searchNearestRestaurants(
+            Double lat, Double lon, String unit, Integer limit) {
+        Double metersPerUnit = METERS_PER_UNIT.get(unit);
+        if (metersPerUnit != null) {
+            Optional<List<GeoGridIndex.Neighbor<String>>> neighbors =
+                    restaurantGeoIndex.nearest(lat, lon, limit);
+            if (neighbors.isPresent()) {
+                return Flux.fromIterable(neighbors.get())
+                        .map(neighbor -> resultData(neighbor, metersPerUnit));
+            }
+        }
+        return this.restaurantESRepository
+                .searchNearest(new GeoPoint(lat, lon), unit, limit)
+                .map(ResultData::of);
+    }
+
+    private static ResultData resultData(
+            GeoGridIndex.Neighbor<String> neighbor, double metersPerUnit) {
+        return new ResultData(
+                neighbor.value(),
+                new Point(neighbor.lon(), neighbor.lat()),
+                neighbor.distanceMeters() / metersPerUnit);
+    }
+
+    /** One page of the restaurants within range, nearest first. */
+    public Mono<SearchPage<Restaurant>> searchRestaurantsWithInRange(
+            Double lat, Double lon, Double distance, String unit, Integer limit, String cursor) {
+        GeoPoint location = new GeoPoint(lat, lon);
+        return this.restaurantESRepository.searchWithin(
+                location, distance, unit, pageRequest(0, limit, cursor));
+    }
+
+    /**
+     * Offset based page request, or a search_after scan when a {@code cursor} is given. Pass {@link
+     * SearchCursor#START} to open a scan; {@code offset} is ignored in that mode.
+     */
+    private Pageable pageRequest(Integer offset, Integer limit, @Nullable String cursor) {
+        if (cursor == null) {
+            return PageRequest.of(offset, limit);
+        }
+        try {
+            return CursorPageRequest.of(limit, cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
     }
 }
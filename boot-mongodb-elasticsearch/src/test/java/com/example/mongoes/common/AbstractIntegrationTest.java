@@ -4,6 +4,7 @@ import static com.example.mongoes.utils.AppConstants.PROFILE_TEST;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 
 import com.example.mongoes.repository.elasticsearch.RestaurantESRepository;
+import com.example.mongoes.repository.elasticsearch.RestaurantSearchCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -18,4 +19,6 @@ public abstract class AbstractIntegrationTest {
     @Autowired protected WebTestClient webTestClient;
 
     @Autowired protected RestaurantESRepository restaurantESRepository;
+
+    @Autowired protected RestaurantSearchCache restaurantSearchCache;
 }
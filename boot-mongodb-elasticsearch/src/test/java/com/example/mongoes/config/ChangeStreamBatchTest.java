@@ -0,0 +1,153 @@
+package com.example.mongoes.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.example.mongoes.document.Restaurant;
+import com.example.mongoes.repository.elasticsearch.RestaurantSearchCache;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.BsonTimestamp;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+class ChangeStreamBatchTest {
+
+    @Test
+    void collapsesMultipleEventsForSameDocumentToLatest() {
+        Restaurant first = restaurant("1", "first");
+        Restaurant second = restaurant("1", "second");
+        Restaurant other = restaurant("2", "other");
+
+        ChangeStreamBatch batch =
+                ChangeStreamBatch.of(
+                        0,
+                        sequenced(
+                                upsertEvent(OperationType.INSERT, first, 1),
+                                upsertEvent(OperationType.UPDATE, other, 2),
+                                upsertEvent(OperationType.REPLACE, second, 3)));
+
+        assertThat(batch.eventCount()).isEqualTo(3);
+        assertThat(batch.sequences()).containsExactly(0, 1, 2);
+        assertThat(batch.deletes()).isEmpty();
+        assertThat(batch.upserts()).containsOnlyKeys("2", "1");
+        assertThat(batch.upserts().get("1").getName()).isEqualTo("second");
+        assertThat(batch.latestClusterTime()).isEqualTo(new BsonTimestamp(3, 0));
+    }
+
+    @Test
+    void deleteAfterUpsertWinsAndUpsertAfterDeleteWins() {
+        ObjectId deletedId = new ObjectId();
+        ObjectId recreatedId = new ObjectId();
+
+        ChangeStreamBatch batch =
+                ChangeStreamBatch.of(
+                        1,
+                        sequenced(
+                                upsertEvent(
+                                        OperationType.INSERT,
+                                        restaurant(deletedId.toHexString(), "gone"),
+                                        1),
+                                deleteEvent(deletedId, 2),
+                                deleteEvent(recreatedId, 3),
+                                upsertEvent(
+                                        OperationType.INSERT,
+                                        restaurant(recreatedId.toHexString(), "back"),
+                                        4)));
+
+        assertThat(batch.deletes()).containsExactly(deletedId.toHexString());
+        assertThat(batch.upserts()).containsOnlyKeys(recreatedId.toHexString());
+        assertThat(batch.latestClusterTime()).isEqualTo(new BsonTimestamp(4, 0));
+        assertThat(batch.hasWrites()).isTrue();
+        assertThat(batch.lane()).isEqualTo(1);
+    }
+
+    @Test
+    void eventsWithoutDocumentStillCarryClusterTime() {
+        ChangeStreamEvent<Restaurant> invalidate = mockEvent(OperationType.INVALIDATE, null, 7);
+
+        ChangeStreamBatch batch = ChangeStreamBatch.of(0, sequenced(invalidate));
+
+        assertThat(batch.hasWrites()).isFalse();
+        assertThat(batch.latestClusterTime()).isEqualTo(new BsonTimestamp(7, 0));
+    }
+
+    @Test
+    void collectsSearchCacheTagsOfPreviousAndNewState() {
+        Restaurant moved = restaurant("1", "moved");
+        moved.setBorough("Queens");
+        Restaurant before = restaurant("1", "moved");
+        before.setBorough("Bronx");
+        ChangeStreamEvent<Restaurant> update = upsertEvent(OperationType.UPDATE, moved, 1);
+        given(update.getBodyBeforeChange()).willReturn(before);
+
+        ChangeStreamBatch batch = ChangeStreamBatch.of(0, sequenced(update));
+
+        assertThat(batch.cacheTags()).containsExactly("borough:queens", "borough:bronx");
+    }
+
+    @Test
+    void missingPreviousStateInvalidatesAllSearches() {
+        Restaurant restaurant = restaurant("1", "new");
+        restaurant.setCuisine("Pizza");
+
+        assertThat(
+                        ChangeStreamBatch.of(
+                                        0,
+                                        sequenced(upsertEvent(OperationType.INSERT, restaurant, 1)))
+                                .cacheTags())
+                .containsExactly("cuisine:pizza");
+        assertThat(ChangeStreamBatch.of(0, sequenced(deleteEvent(new ObjectId(), 2))).cacheTags())
+                .containsExactly(RestaurantSearchCache.ALL);
+    }
+
+    @SafeVarargs
+    private static List<Tuple2<Long, ChangeStreamEvent<Restaurant>>> sequenced(
+            ChangeStreamEvent<Restaurant>... events) {
+        List<Tuple2<Long, ChangeStreamEvent<Restaurant>>> sequencedEvents = new ArrayList<>();
+        for (int i = 0; i < events.length; i++) {
+            sequencedEvents.add(Tuples.of((long) i, events[i]));
+        }
+        return sequencedEvents;
+    }
+
+    private static Restaurant restaurant(String id, String name) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(id);
+        restaurant.setName(name);
+        return restaurant;
+    }
+
+    private static ChangeStreamEvent<Restaurant> upsertEvent(
+            OperationType operationType, Restaurant restaurant, int seconds) {
+        return mockEvent(operationType, restaurant, seconds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamEvent<Restaurant> deleteEvent(ObjectId id, int seconds) {
+        ChangeStreamEvent<Restaurant> event = mockEvent(OperationType.DELETE, null, seconds);
+        ChangeStreamDocument<Document> raw = mock(ChangeStreamDocument.class);
+        given(raw.getDocumentKey()).willReturn(new BsonDocument("_id", new BsonObjectId(id)));
+        given(event.getRaw()).willReturn(raw);
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamEvent<Restaurant> mockEvent(
+            OperationType operationType, Restaurant restaurant, int seconds) {
+        ChangeStreamEvent<Restaurant> event = mock(ChangeStreamEvent.class);
+        given(event.getOperationType()).willReturn(operationType);
+        given(event.getBody()).willReturn(restaurant);
+        given(event.getBsonTimestamp()).willReturn(new BsonTimestamp(seconds, 0));
+        return event;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.mongoes.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.Test;
+
+class ChangeStreamWatermarkTest {
+
+    @Test
+    void advancesOnlyOverContiguouslyAcknowledgedEvents() {
+        ChangeStreamWatermark watermark = new ChangeStreamWatermark();
+        for (int sequence = 0; sequence < 4; sequence++) {
+            watermark.track(sequence, new BsonTimestamp(100 + sequence, 0));
+        }
+
+        // a fast lane finishing later events must not move the resume point past event 0
+        assertThat(watermark.acknowledge(new long[] {1, 3})).isEmpty();
+        assertThat(watermark.pendingCount()).isEqualTo(2);
+
+        assertThat(watermark.acknowledge(new long[] {0})).contains(new BsonTimestamp(101, 0));
+
+        assertThat(watermark.acknowledge(new long[] {2})).contains(new BsonTimestamp(103, 0));
+        assertThat(watermark.pendingCount()).isZero();
+    }
+
+    @Test
+    void ignoresUnknownAndRepeatedAcknowledgements() {
+        ChangeStreamWatermark watermark = new ChangeStreamWatermark();
+        watermark.track(0, new BsonTimestamp(100, 1));
+
+        assertThat(watermark.acknowledge(new long[] {0})).contains(new BsonTimestamp(100, 1));
+        assertThat(watermark.acknowledge(new long[] {0, 42})).isEmpty();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.mongoes.config.loader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.mongoes.config.ApplicationProperties;
+import com.example.mongoes.document.Restaurant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class RestaurantBulkLoaderTest {
+
+    private static final String SEED =
+            """
+            {"address": {"building": "1007", "coord": [-73.856077, 40.848447], "street": "Morris Park Ave", "zipcode": "10462"}, "borough": "Bronx", "cuisine": "Bakery", "grades": [{"date": {"$date": 1393804800000}, "grade": "A", "score": 2}], "name": "Morris Park Bake Shop", "restaurant_id": "30075445"}
+            {"address": {"building": "469", "coord": [-73, 40.662942], "street": "Flatbush Avenue", "zipcode": "11225"}, "borough": "Brooklyn", "cuisine": "Hamburgers", "grades": [], "name": "Wendy'S", "restaurant_id": "30112340"}
+            {"address": {"building": "351", "coord": [], "street": "West   57 Street", "zipcode": "10019"}, "borough": "Manhattan", "cuisine": "Irish", "grades": [{"date": {"$date": "2014-09-06T00:00:00Z"}, "grade": "A", "score": 2}], "name": "Dj Reynolds Pub And Restaurant", "restaurant_id": "30191841"}
+            """;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        // chunks much smaller than a single line to exercise objects spanning buffers
+        applicationProperties.getLoader().setChunkSize(16);
+        applicationProperties.getLoader().setBatchSize(2);
+    }
+
+    @Test
+    void decodesEveryLineAcrossChunkBoundaries() {
+        RestaurantBulkLoader loader =
+                new RestaurantBulkLoader(
+                        reactiveMongoTemplate, applicationProperties, meterRegistry);
+
+        StepVerifier.create(loader.decode(seedResource()))
+                .assertNext(
+                        restaurant -> {
+                            assertThat(restaurant.getRestaurantId()).isEqualTo(30075445L);
+                            assertThat(restaurant.getName()).isEqualTo("Morris Park Bake Shop");
+                            assertThat(restaurant.getBorough()).isEqualTo("Bronx");
+                            assertThat(restaurant.getAddress().getZipcode()).isEqualTo(10462);
+                            assertThat(restaurant.getAddress().getLocation().getX())
+                                    .isEqualTo(-73.856077);
+                            assertThat(restaurant.getGrades())
+                                    .singleElement()
+                                    .satisfies(
+                                            grades -> {
+                                                assertThat(grades.getScore()).isEqualTo(2);
+                                                assertThat(grades.getDate()).isNotNull();
+                                            });
+                        })
+                .assertNext(
+                        restaurant -> {
+                            assertThat(restaurant.getAddress().getLocation().getX())
+                                    .isEqualTo(-73.0);
+                            assertThat(restaurant.getGrades()).isEmpty();
+                        })
+                .assertNext(
+                        restaurant -> {
+                            assertThat(restaurant.getAddress().getLocation()).isNull();
+                            assertThat(restaurant.getGrades().getFirst().getDate()).isNotNull();
+                        })
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void insertsInConfiguredBatchesAndRecordsMetrics() {
+        given(reactiveMongoTemplate.insert(anyList(), eq(Restaurant.class)))
+                .willAnswer(
+                        invocation ->
+                                Flux.fromIterable((List<Restaurant>) invocation.getArgument(0)));
+        RestaurantBulkLoader loader =
+                new RestaurantBulkLoader(
+                        reactiveMongoTemplate, applicationProperties, meterRegistry);
+
+        StepVerifier.create(loader.load(seedResource())).expectNext(3L).verifyComplete();
+
+        verify(reactiveMongoTemplate, times(2)).insert(anyList(), eq(Restaurant.class));
+        assertThat(meterRegistry.counter("restaurant.loader.documents").count()).isEqualTo(3);
+        assertThat(meterRegistry.timer("restaurant.loader.batch").count()).isEqualTo(2);
+    }
+
+    private static ByteArrayResource seedResource() {
+        return new ByteArrayResource(SEED.getBytes(StandardCharsets.UTF_8), "restaurants.json");
+    }
+}
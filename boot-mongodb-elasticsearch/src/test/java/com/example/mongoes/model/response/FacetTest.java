@@ -0,0 +1,67 @@
+package com.example.mongoes.model.response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.boot.test.json.JacksonTester;
+
+@JsonTest
+class FacetTest {
+
+    @Autowired private JacksonTester<Facet> jacksonTester;
+
+    @Test
+    void serializeInCorrectFormat() throws IOException {
+        Facet cuisines =
+                new Facet(
+                        Facet.Type.TERMS,
+                        List.of(new Facet.Bucket("Pizza", 2, null, null, Map.of())));
+        Facet facet =
+                new Facet(
+                        Facet.Type.DATE_RANGE,
+                        List.of(
+                                new Facet.Bucket(
+                                        "01-01-2020-*",
+                                        3,
+                                        "01-01-2020",
+                                        null,
+                                        Map.of("cuisines", cuisines))));
+
+        assertThat(jacksonTester.write(facet))
+                .isEqualToJson(
+                        """
+                        {
+                          "type": "date_range",
+                          "buckets": [
+                            {
+                              "key": "01-01-2020-*",
+                              "count": 3,
+                              "from": "01-01-2020",
+                              "facets": {
+                                "cuisines": {
+                                  "type": "terms",
+                                  "buckets": [{"key": "Pizza", "count": 2}]
+                                }
+                              }
+                            }
+                          ]
+                        }
+                        """);
+    }
+
+    @Test
+    void deserializeWhatWasSerialized() throws IOException {
+        Facet facet =
+                new Facet(
+                        Facet.Type.GEO_DISTANCE,
+                        List.of(new Facet.Bucket("*-1000.0", 4, null, null, Map.of())));
+
+        assertThat(jacksonTester.parseObject(jacksonTester.write(facet).getJson()))
+                .isEqualTo(facet);
+    }
+}
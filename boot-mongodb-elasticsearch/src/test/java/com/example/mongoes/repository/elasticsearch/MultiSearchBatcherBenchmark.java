@@ -0,0 +1,153 @@
+package com.example.mongoes.repository.elasticsearch;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.QueryBuilders;
+import com.example.mongoes.config.ApplicationProperties;
+import com.example.mongoes.document.Restaurant;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.ClientConfiguration;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchClients;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+import org.springframework.data.elasticsearch.core.query.Query;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+
+/**
+ * Latency of small borough searches sent by 64 concurrent callers, each on its own and batched into
+ * {@code _msearch} requests. Sample time mode reports the p50 and p99 of every variant; the batched
+ * run also prints how many searches went into one request. Needs docker for the elasticsearch
+ * container, run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(64)
+@Fork(1)
+public class MultiSearchBatcherBenchmark {
+
+    private static final List<String> BOROUGHS =
+            List.of("Bronx", "Brooklyn", "Manhattan", "Queens", "Staten");
+
+    @Param({"false", "true"})
+    private boolean batched;
+
+    private ElasticsearchContainer elasticsearchContainer;
+
+    private ReactiveElasticsearchClient reactiveElasticsearchClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MultiSearchBatcher multiSearchBatcher;
+
+    @Setup
+    public void setup() throws Exception {
+        elasticsearchContainer =
+                new ElasticsearchContainer("docker.elastic.co/elasticsearch/elasticsearch:8.17.1")
+                        .withEnv(Map.of("xpack.security.enabled", "false"));
+        elasticsearchContainer.start();
+        reactiveElasticsearchClient =
+                ElasticsearchClients.createReactive(
+                        ClientConfiguration.create(elasticsearchContainer.getHttpHostAddress()));
+        MappingElasticsearchConverter converter =
+                new MappingElasticsearchConverter(new SimpleElasticsearchMappingContext());
+        converter.afterPropertiesSet();
+        ReactiveElasticsearchTemplate template =
+                new ReactiveElasticsearchTemplate(reactiveElasticsearchClient, converter);
+        template.indexOps(Restaurant.class).createWithMapping().block();
+        template.saveAll(
+                        IntStream.range(0, 5_000)
+                                .mapToObj(
+                                        i -> {
+                                            Restaurant restaurant = new Restaurant();
+                                            restaurant.setId(String.valueOf(i));
+                                            restaurant.setRestaurantId((long) i);
+                                            restaurant.setName("Restaurant " + i);
+                                            restaurant.setBorough(
+                                                    BOROUGHS.get(i % BOROUGHS.size()));
+                                            restaurant.setCuisine(i % 2 == 0 ? "Pizza" : "Bakery");
+                                            return restaurant;
+                                        })
+                                .toList(),
+                        Restaurant.class)
+                .blockLast();
+        template.indexOps(Restaurant.class).refresh().block();
+
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getMultiSearch().setEnabled(batched);
+        applicationProperties.getMultiSearch().setWindow(Duration.ofMillis(2));
+        applicationProperties.getMultiSearch().setMaxBatchSize(64);
+        meterRegistry = new SimpleMeterRegistry();
+        multiSearchBatcher =
+                new MultiSearchBatcher(
+                        template,
+                        reactiveElasticsearchClient,
+                        applicationProperties,
+                        meterRegistry);
+    }
+
+    @Benchmark
+    public SearchPage<Restaurant> termQueryForBorough() {
+        String borough = BOROUGHS.get(ThreadLocalRandom.current().nextInt(BOROUGHS.size()));
+        Query query =
+                NativeQuery.builder()
+                        .withQuery(
+                                QueryBuilders.term(
+                                        builder ->
+                                                builder.field("borough")
+                                                        .value(borough.toLowerCase())))
+                        .withPageable(PageRequest.of(ThreadLocalRandom.current().nextInt(10), 10))
+                        .build();
+        return multiSearchBatcher.searchForPage(query).block();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        DistributionSummary batchSize =
+                meterRegistry.find("restaurant.search.msearch.batch.size").summary();
+        if (batchSize != null && batchSize.count() > 0) {
+            System.out.printf(
+                    "%n%d _msearch requests, %.1f searches per request on average%n",
+                    batchSize.count(), batchSize.mean());
+        }
+        multiSearchBatcher.destroy();
+        reactiveElasticsearchClient.close();
+        elasticsearchContainer.stop();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(MultiSearchBatcherBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
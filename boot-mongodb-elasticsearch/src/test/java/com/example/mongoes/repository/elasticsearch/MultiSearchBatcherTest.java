@@ -0,0 +1,265 @@
+package com.example.mongoes.repository.elasticsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import co.elastic.clients.elasticsearch.core.MsearchRequest;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.RequestItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
+import com.example.mongoes.config.ApplicationProperties;
+import com.example.mongoes.document.Restaurant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.EntityAsMap;
+import org.springframework.data.elasticsearch.client.elc.ReactiveElasticsearchClient;
+import org.springframework.data.elasticsearch.core.ReactiveElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHitSupport;
+import org.springframework.data.elasticsearch.core.SearchHitsImpl;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+import org.springframework.data.elasticsearch.core.query.Criteria;
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.Query;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class MultiSearchBatcherTest {
+
+    private static final int FAILING_PAGE = 1;
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+    private final ElasticsearchTransport transport = mock(ElasticsearchTransport.class);
+    private final ReactiveElasticsearchOperations operations =
+            mock(ReactiveElasticsearchOperations.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<MsearchRequest> sentRequests = new ArrayList<>();
+    private MultiSearchBatcher multiSearchBatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MappingElasticsearchConverter converter =
+                new MappingElasticsearchConverter(new SimpleElasticsearchMappingContext());
+        converter.afterPropertiesSet();
+        given(operations.getElasticsearchConverter()).willReturn(converter);
+        given(operations.getIndexCoordinatesFor(Restaurant.class))
+                .willReturn(IndexCoordinates.of("restaurant"));
+        given(operations.searchForPage(any(Query.class), eq(Restaurant.class)))
+                .willAnswer(invocation -> Mono.just(page(invocation.getArgument(0))));
+        given(transport.jsonpMapper()).willReturn(new JacksonJsonpMapper());
+        given(transport.performRequest(any(MsearchRequest.class), any(), any()))
+                .willAnswer(
+                        invocation -> {
+                            MsearchRequest request = invocation.getArgument(0);
+                            sentRequests.add(request);
+                            return response(request);
+                        });
+        ApplicationProperties.MultiSearch multiSearch = applicationProperties.getMultiSearch();
+        multiSearch.setEnabled(true);
+        multiSearch.setWindow(Duration.ofSeconds(5));
+        multiSearch.setMaxBatchSize(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (multiSearchBatcher != null) {
+            multiSearchBatcher.destroy();
+        }
+    }
+
+    @Test
+    void concurrentSearchesShareOneMultiSearch() {
+        multiSearchBatcher = newBatcher();
+
+        List<SearchPage<Restaurant>> pages =
+                Mono.zip(
+                                multiSearchBatcher.searchForPage(query(0)),
+                                multiSearchBatcher.searchForPage(query(2)),
+                                multiSearchBatcher.searchForPage(query(3)))
+                        .map(tuple -> List.of(tuple.getT1(), tuple.getT2(), tuple.getT3()))
+                        .block();
+
+        assertThat(sentRequests).hasSize(1);
+        assertThat(sentRequests.getFirst().searches()).hasSize(3);
+        assertThat(pages)
+                .extracting(page -> page.getContent().getFirst().getId())
+                .containsExactly("0", "2", "3");
+        assertThat(pages)
+                .extracting(page -> page.getPageable().getPageNumber())
+                .containsExactly(0, 2, 3);
+        verify(operations, never()).searchForPage(any(Query.class), eq(Restaurant.class));
+        assertThat(meterRegistry.get("restaurant.search.msearch.batch.size").summary().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void batchWithFailedSearchIsResentAsSingleSearches() {
+        multiSearchBatcher = newBatcher();
+
+        List<SearchPage<Restaurant>> pages =
+                Mono.zip(
+                                multiSearchBatcher.searchForPage(query(0)),
+                                multiSearchBatcher.searchForPage(query(FAILING_PAGE)),
+                                multiSearchBatcher.searchForPage(query(2)))
+                        .map(tuple -> List.of(tuple.getT1(), tuple.getT2(), tuple.getT3()))
+                        .block();
+
+        assertThat(pages)
+                .extracting(page -> page.getPageable().getPageNumber())
+                .containsExactly(0, FAILING_PAGE, 2);
+        verify(operations, times(3)).searchForPage(any(Query.class), eq(Restaurant.class));
+        assertThat(meterRegistry.get("restaurant.search.msearch.retried.batches").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void searchesWaitWhileAllBatchesAreInFlight() {
+        ApplicationProperties.MultiSearch multiSearch = applicationProperties.getMultiSearch();
+        multiSearch.setWindow(Duration.ofMillis(20));
+        multiSearch.setMaxBatchSize(2);
+        multiSearch.setMaxConcurrentBatches(1);
+        Sinks.Empty<Void> releaseFirstSearch = Sinks.empty();
+        given(operations.searchForPage(any(Query.class), eq(Restaurant.class)))
+                .willAnswer(
+                        invocation ->
+                                Mono.just(page(invocation.getArgument(0)))
+                                        .delayUntil(page -> releaseFirstSearch.asMono()));
+        multiSearchBatcher = newBatcher();
+
+        CompletableFuture<SearchPage<Restaurant>> first =
+                multiSearchBatcher.searchForPage(query(2)).toFuture();
+        verify(operations, timeout(1000)).searchForPage(any(Query.class), eq(Restaurant.class));
+        CompletableFuture<SearchPage<Restaurant>> second =
+                multiSearchBatcher.searchForPage(query(3)).toFuture();
+
+        // the window of the second search passes many times over while the only batch allowed is
+        // still in flight, its batch has to wait instead of failing the pipeline
+        await().during(Duration.ofMillis(200))
+                .atMost(Duration.ofSeconds(1))
+                .until(() -> !second.isDone());
+        releaseFirstSearch.tryEmitEmpty();
+
+        assertThat(Stream.of(first, second).map(CompletableFuture::join))
+                .extracting(page -> page.getPageable().getPageNumber())
+                .containsExactly(2, 3);
+        assertThat(multiSearchBatcher.searchForPage(query(4)).block(Duration.ofSeconds(1)))
+                .isNotNull();
+    }
+
+    @Test
+    void disabledBatcherSearchesOnItsOwn() {
+        applicationProperties.getMultiSearch().setEnabled(false);
+        multiSearchBatcher = newBatcher();
+
+        SearchPage<Restaurant> page = multiSearchBatcher.searchForPage(query(4)).block();
+
+        assertThat(page).isNotNull();
+        assertThat(sentRequests).isEmpty();
+        verify(operations).searchForPage(any(Query.class), eq(Restaurant.class));
+    }
+
+    private MultiSearchBatcher newBatcher() {
+        return new MultiSearchBatcher(
+                operations,
+                new ReactiveElasticsearchClient(transport),
+                applicationProperties,
+                meterRegistry);
+    }
+
+    private static Query query(int page) {
+        Query query = new CriteriaQuery(new Criteria("borough").is("queens"));
+        query.setPageable(PageRequest.of(page, 1));
+        return query;
+    }
+
+    /** Answers each search with one hit whose id is its page number, {@code FAILING_PAGE} fails. */
+    private static MsearchResponse<EntityAsMap> response(MsearchRequest request) {
+        List<MultiSearchResponseItem<EntityAsMap>> items = new ArrayList<>();
+        for (RequestItem search : request.searches()) {
+            Integer from = search.body().from();
+            int page = from == null ? 0 : from;
+            items.add(page == FAILING_PAGE ? failure() : result(String.valueOf(page)));
+        }
+        return MsearchResponse.of(response -> response.took(1).responses(items));
+    }
+
+    private static MultiSearchResponseItem<EntityAsMap> failure() {
+        return MultiSearchResponseItem.of(
+                item ->
+                        item.failure(
+                                failure ->
+                                        failure.status(400)
+                                                .error(
+                                                        error ->
+                                                                error.type("query_shard_exception")
+                                                                        .reason("failed"))));
+    }
+
+    private static MultiSearchResponseItem<EntityAsMap> result(String id) {
+        EntityAsMap source = new EntityAsMap();
+        source.put("borough", "Queens");
+        Hit<EntityAsMap> hit =
+                Hit.of(builder -> builder.index("restaurant").id(id).score(1.0).source(source));
+        return MultiSearchResponseItem.of(
+                item ->
+                        item.result(
+                                result ->
+                                        result.took(1)
+                                                .timedOut(false)
+                                                .status(200)
+                                                .shards(
+                                                        shards ->
+                                                                shards.total(1)
+                                                                        .successful(1)
+                                                                        .failed(0))
+                                                .hits(
+                                                        hits ->
+                                                                hits.total(
+                                                                                total ->
+                                                                                        total.value(
+                                                                                                        1)
+                                                                                                .relation(
+                                                                                                        TotalHitsRelation
+                                                                                                                .Eq))
+                                                                        .maxScore(1.0)
+                                                                        .hits(hit))));
+    }
+
+    private static SearchPage<Restaurant> page(Query query) {
+        return SearchHitSupport.searchPageFor(
+                new SearchHitsImpl<>(
+                        0,
+                        org.springframework.data.elasticsearch.core.TotalHitsRelation.EQUAL_TO,
+                        0f,
+                        Duration.ZERO,
+                        null,
+                        null,
+                        List.of(),
+                        null,
+                        null,
+                        null),
+                query.getPageable());
+    }
+}
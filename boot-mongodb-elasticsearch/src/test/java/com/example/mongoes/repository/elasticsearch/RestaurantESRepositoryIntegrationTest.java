@@ -429,6 +429,37 @@ class RestaurantESRepositoryIntegrationTest extends AbstractIntegrationTest {
                 .verifyComplete();
     }
 
+    @Test
+    void findAllWithCursorScansEveryRestaurantOnce() {
+        SearchPage<Restaurant> firstPage =
+                this.restaurantESRepository
+                        .findAll(CursorPageRequest.of(1, SearchCursor.START))
+                        .block();
+
+        assertThat(firstPage).isNotNull();
+        assertThat(firstPage.getNumberOfElements()).isEqualTo(1);
+        String nextCursor = SearchCursor.next(firstPage);
+        assertThat(nextCursor).isNotNull();
+
+        SearchPage<Restaurant> secondPage =
+                this.restaurantESRepository.findAll(CursorPageRequest.of(1, nextCursor)).block();
+
+        assertThat(secondPage).isNotNull();
+        assertThat(secondPage.getNumberOfElements()).isEqualTo(1);
+        assertThat(secondPage.getContent().getFirst().getId())
+                .isNotEqualTo(firstPage.getContent().getFirst().getId());
+
+        StepVerifier.create(
+                        this.restaurantESRepository.findAll(
+                                CursorPageRequest.of(1, SearchCursor.next(secondPage))))
+                .consumeNextWith(
+                        lastPage -> {
+                            assertThat(lastPage.hasContent()).isFalse();
+                            assertThat(SearchCursor.next(lastPage)).isNull();
+                        })
+                .verifyComplete();
+    }
+
     @Test
     void aggregation() {
         Mono<SearchPage<Restaurant>> aggregationMono =
@@ -0,0 +1,188 @@
+package com.example.mongoes.repository.elasticsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.mongoes.config.ApplicationProperties;
+import com.example.mongoes.document.Restaurant;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.SearchHitSupport;
+import org.springframework.data.elasticsearch.core.SearchHitsImpl;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import reactor.core.publisher.Mono;
+
+class RestaurantSearchCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger searches = new AtomicInteger();
+    private RestaurantSearchCache restaurantSearchCache;
+
+    @BeforeEach
+    void setUp() {
+        applicationProperties.getSearchCache().setRefreshInterval(Duration.ofSeconds(1));
+        restaurantSearchCache = newCache();
+    }
+
+    @Test
+    void repeatedSearchIsServedFromCache() {
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+        search("termQueryForBorough", "bronx", boroughTags("Bronx"));
+
+        assertThat(searches).hasValue(2);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void changeOnlyInvalidatesSearchesOfItsTags() {
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+        search("termQueryForBorough", "bronx", boroughTags("Bronx"));
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        restaurantSearchCache.invalidate(RestaurantSearchCache.tagsOf(restaurant("Queens")));
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+        search("termQueryForBorough", "bronx", boroughTags("Bronx"));
+
+        assertThat(searches).hasValue(3);
+        assertThat(invalidations("change")).isEqualTo(1);
+    }
+
+    @Test
+    void anyChangeInvalidatesUntaggedSearches() {
+        search("wildcardSearch", "*ee*", Set.of(RestaurantSearchCache.ALL));
+        search("termQueryForBorough", "bronx", boroughTags("Bronx"));
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        restaurantSearchCache.invalidate(boroughTags("Queens"));
+        search("wildcardSearch", "*ee*", Set.of(RestaurantSearchCache.ALL));
+        search("termQueryForBorough", "bronx", boroughTags("Bronx"));
+
+        assertThat(searches).hasValue(3);
+    }
+
+    @Test
+    void unknownPreviousStateInvalidatesEverything() {
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+        search("termQueryForBorough", "bronx", boroughTags("Bronx"));
+        nanos.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        restaurantSearchCache.invalidate(RestaurantSearchCache.tagsOf(null));
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+        search("termQueryForBorough", "bronx", boroughTags("Bronx"));
+
+        assertThat(searches).hasValue(4);
+    }
+
+    @Test
+    void pageLoadedBeforeIndexRefreshIsReloaded() {
+        restaurantSearchCache.invalidate(boroughTags("Queens"));
+        nanos.addAndGet(Duration.ofMillis(200).toNanos());
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+        search("termQueryForBorough", "queens", boroughTags("Queens"));
+
+        assertThat(searches).hasValue(3);
+        assertThat(invalidations("refresh")).isEqualTo(2);
+    }
+
+    @Test
+    void excludedOperationsAndCursorPagesBypassCache() {
+        applicationProperties.getSearchCache().setExcludedOperations(Set.of("regExpSearch"));
+        restaurantSearchCache = newCache();
+
+        search("regExpSearch", "Pi.*", Set.of(RestaurantSearchCache.ALL));
+        search("regExpSearch", "Pi.*", Set.of(RestaurantSearchCache.ALL));
+        Pageable cursorPage = CursorPageRequest.of(10, SearchCursor.START);
+        search("multiSearchQuery", "pizza", Set.of(RestaurantSearchCache.ALL), cursorPage);
+        search("multiSearchQuery", "pizza", Set.of(RestaurantSearchCache.ALL), cursorPage);
+
+        assertThat(searches).hasValue(4);
+    }
+
+    @Test
+    void tagsFollowAnalyzedTokens() {
+        assertThat(RestaurantSearchCache.boroughTags(List.of("Staten Island")))
+                .containsExactly("borough:staten", "borough:island");
+        assertThat(RestaurantSearchCache.tagsOf(restaurant("Manhattan")))
+                .containsExactlyInAnyOrder("borough:manhattan", "cuisine:pizza");
+        assertThat(RestaurantSearchCache.isPlainWords("Bronx pizza")).isTrue();
+        assertThat(RestaurantSearchCache.isPlainWords("Bronx -pizza")).isFalse();
+    }
+
+    private RestaurantSearchCache newCache() {
+        return new RestaurantSearchCache(applicationProperties, meterRegistry, nanos::get);
+    }
+
+    private void search(String operation, String query, Set<String> tags) {
+        search(operation, query, tags, FIRST_PAGE);
+    }
+
+    private void search(String operation, String query, Set<String> tags, Pageable pageable) {
+        SearchPage<Restaurant> page =
+                restaurantSearchCache
+                        .get(
+                                operation,
+                                List.of(query),
+                                tags,
+                                pageable,
+                                () -> {
+                                    searches.incrementAndGet();
+                                    return Mono.just(emptyPage(pageable));
+                                })
+                        .block();
+        assertThat(page).isNotNull();
+    }
+
+    private double invalidations(String cause) {
+        return meterRegistry
+                .get("restaurant.search.cache.invalidations")
+                .tag("cause", cause)
+                .counter()
+                .count();
+    }
+
+    private static Set<String> boroughTags(String borough) {
+        return RestaurantSearchCache.boroughTags(List.of(borough));
+    }
+
+    private static Restaurant restaurant(String borough) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setBorough(borough);
+        restaurant.setCuisine("Pizza");
+        return restaurant;
+    }
+
+    private static SearchPage<Restaurant> emptyPage(Pageable pageable) {
+        return SearchHitSupport.searchPageFor(
+                new SearchHitsImpl<>(
+                        0,
+                        TotalHitsRelation.EQUAL_TO,
+                        0f,
+                        Duration.ZERO,
+                        null,
+                        null,
+                        List.of(),
+                        null,
+                        null,
+                        null),
+                pageable);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.mongoes.repository.elasticsearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.example.mongoes.document.Restaurant;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHitSupport;
+import org.springframework.data.elasticsearch.core.SearchHitsImpl;
+import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+
+class SearchCursorTest {
+
+    @Test
+    void encodedCursorDecodesToSamePosition() {
+        SearchCursor cursor = new SearchCursor("pit-id", List.of(1.5d, "40075", 12L));
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        SearchCursor decoded = SearchCursor.decode(token);
+        assertThat(decoded.pointInTimeId()).isEqualTo("pit-id");
+        assertThat(decoded.searchAfter()).hasSize(3).contains(1.5d, "40075");
+    }
+
+    @Test
+    void startTokenRequestsFirstPage() {
+        CursorPageRequest pageRequest = CursorPageRequest.of(25, SearchCursor.START);
+
+        assertThat(pageRequest.cursor()).isEmpty();
+        assertThat(pageRequest.getPageSize()).isEqualTo(25);
+        assertThat(pageRequest.getOffset()).isZero();
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        assertThatIllegalArgumentException().isThrownBy(() -> SearchCursor.decode("not a cursor"));
+        assertThatIllegalArgumentException().isThrownBy(() -> SearchCursor.decode("e30"));
+        assertThatIllegalArgumentException()
+                .isThrownBy(
+                        () ->
+                                CursorPageRequest.of(
+                                        10, new SearchCursor("pit-id", List.of()).encode()));
+    }
+
+    @Test
+    void fullPageOfScanCarriesNextCursor() {
+        SearchPage<Restaurant> searchPage = searchPage(CursorPageRequest.of(2, "*"), 2);
+
+        String next = SearchCursor.next(searchPage);
+
+        assertThat(next).isNotNull();
+        SearchCursor cursor = SearchCursor.decode(next);
+        assertThat(cursor.pointInTimeId()).isEqualTo("pit-id");
+        assertThat(cursor.searchAfter()).containsExactly(1, 1);
+    }
+
+    @Test
+    void shortPageAndOffsetPageHaveNoNextCursor() {
+        assertThat(SearchCursor.next(searchPage(CursorPageRequest.of(3, "*"), 2))).isNull();
+        assertThat(SearchCursor.next(searchPage(PageRequest.of(0, 2), 2))).isNull();
+    }
+
+    private static SearchPage<Restaurant> searchPage(Pageable pageable, int hitCount) {
+        List<SearchHit<Restaurant>> hits =
+                IntStream.range(0, hitCount)
+                        .mapToObj(
+                                i ->
+                                        new SearchHit<>(
+                                                "restaurant",
+                                                String.valueOf(i),
+                                                null,
+                                                1.0f,
+                                                new Object[] {i, i},
+                                                Map.of(),
+                                                null,
+                                                null,
+                                                null,
+                                                null,
+                                                new Restaurant()))
+                        .toList();
+        return SearchHitSupport.searchPageFor(
+                new SearchHitsImpl<>(
+                        hitCount,
+                        TotalHitsRelation.EQUAL_TO,
+                        1.0f,
+                        Duration.ZERO,
+                        null,
+                        "pit-id",
+                        hits,
+                        null,
+                        null,
+                        null),
+                pageable);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.mongoes.repository.geo;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Latency of range and nearest searches against the in memory grid, for as many points as the
+ * restaurant seed data holds, spread over new york city. Run {@link #main(String[])} from the test
+ * classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeoGridIndexBenchmark {
+
+    @Param({"25000"})
+    private int points;
+
+    @Param({"0.005", "0.01", "0.05"})
+    private double cellDegrees;
+
+    private GeoGridIndex<String> index;
+
+    @Setup
+    public void setup() {
+        index = new GeoGridIndex<>(cellDegrees);
+        Random random = new Random(42);
+        for (int i = 0; i < points; i++) {
+            index.put(
+                    String.valueOf(i),
+                    40.55 + random.nextDouble() * 0.35,
+                    -74.15 + random.nextDouble() * 0.45,
+                    0L,
+                    "Restaurant " + i);
+        }
+    }
+
+    @Benchmark
+    public List<GeoGridIndex.Neighbor<String>> withinOneKilometer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.withinDistance(
+                40.55 + random.nextDouble() * 0.35, -74.15 + random.nextDouble() * 0.45, 1_000);
+    }
+
+    @Benchmark
+    public List<GeoGridIndex.Neighbor<String>> nearestTen() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.nearest(
+                40.55 + random.nextDouble() * 0.35, -74.15 + random.nextDouble() * 0.45, 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(GeoGridIndexBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
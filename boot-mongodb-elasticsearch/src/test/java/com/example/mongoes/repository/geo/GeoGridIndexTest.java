@@ -0,0 +1,121 @@
+package com.example.mongoes.repository.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class GeoGridIndexTest {
+
+    private final GeoGridIndex<String> index = new GeoGridIndex<>(0.01);
+
+    @Test
+    void withinDistanceMatchesBruteForceNearestFirst() {
+        List<double[]> points = randomPoints(new Random(42), 5_000, 40.7, -74.0, 0.3);
+        indexAll(points);
+
+        List<GeoGridIndex.Neighbor<String>> neighbors = index.withinDistance(40.7, -74.0, 5_000);
+
+        List<String> expected =
+                IntStream.range(0, points.size())
+                        .filter(i -> distance(40.7, -74.0, points.get(i)) <= 5_000)
+                        .boxed()
+                        .sorted(
+                                Comparator.comparingDouble(
+                                        i -> distance(40.7, -74.0, points.get(i))))
+                        .map(String::valueOf)
+                        .toList();
+        assertThat(neighbors).extracting(GeoGridIndex.Neighbor::value).isEqualTo(expected);
+        assertThat(neighbors)
+                .isSortedAccordingTo(
+                        Comparator.comparingDouble(GeoGridIndex.Neighbor::distanceMeters));
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(7);
+        List<double[]> points = randomPoints(random, 5_000, 40.7, -74.0, 0.3);
+        indexAll(points);
+
+        for (int query = 0; query < 50; query++) {
+            double lat = 40.7 + (random.nextDouble() - 0.5) * 0.8;
+            double lon = -74.0 + (random.nextDouble() - 0.5) * 0.8;
+            List<String> expected =
+                    IntStream.range(0, points.size())
+                            .boxed()
+                            .sorted(
+                                    Comparator.comparingDouble(
+                                            i -> distance(lat, lon, points.get(i))))
+                            .limit(10)
+                            .map(String::valueOf)
+                            .toList();
+
+            assertThat(index.nearest(lat, lon, 10))
+                    .extracting(GeoGridIndex.Neighbor::value)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridian() {
+        index.put("west", 0, 179.999, 1L, "west");
+        index.put("east", 0, -179.999, 1L, "east");
+        index.put("far", 0, 170, 1L, "far");
+
+        assertThat(index.withinDistance(0, 179.9995, 1_000))
+                .extracting(GeoGridIndex.Neighbor::value)
+                .containsExactlyInAnyOrder("west", "east");
+        assertThat(index.nearest(0, -179.9999, 2))
+                .extracting(GeoGridIndex.Neighbor::value)
+                .containsExactly("east", "west");
+    }
+
+    @Test
+    void upsertMovesPointAndIgnoresOlderVersions() {
+        index.put("1", 40.70, -74.00, 2L, "v2");
+        index.put("1", 10.00, 10.00, 1L, "v1");
+        assertThat(index.withinDistance(40.70, -74.00, 10))
+                .extracting(GeoGridIndex.Neighbor::value)
+                .containsExactly("v2");
+
+        index.put("1", 40.80, -74.00, 3L, "v3");
+        assertThat(index.withinDistance(40.70, -74.00, 10)).isEmpty();
+        assertThat(index.nearest(40.70, -74.00, 5))
+                .singleElement()
+                .satisfies(
+                        neighbor -> {
+                            assertThat(neighbor.value()).isEqualTo("v3");
+                            assertThat(neighbor.distanceMeters()).isCloseTo(11_119.5, within(1d));
+                        });
+
+        assertThat(index.remove("1")).isTrue();
+        assertThat(index.size()).isZero();
+        assertThat(index.nearest(40.70, -74.00, 5)).isEmpty();
+    }
+
+    private void indexAll(List<double[]> points) {
+        for (int i = 0; i < points.size(); i++) {
+            index.put(String.valueOf(i), points.get(i)[0], points.get(i)[1], 1L, String.valueOf(i));
+        }
+    }
+
+    private static List<double[]> randomPoints(
+            Random random, int count, double lat, double lon, double spread) {
+        return IntStream.range(0, count)
+                .mapToObj(
+                        i ->
+                                new double[] {
+                                    lat + (random.nextDouble() - 0.5) * 2 * spread,
+                                    lon + (random.nextDouble() - 0.5) * 2 * spread
+                                })
+                .toList();
+    }
+
+    private static double distance(double lat, double lon, double[] point) {
+        return GeoGridIndex.distanceMeters(lat, lon, point[0], point[1]);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.mongoes.repository.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import com.example.mongoes.config.ApplicationProperties;
+import com.example.mongoes.document.Address;
+import com.example.mongoes.document.Restaurant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.geo.Point;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class RestaurantGeoIndexTest {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate = mock(ReactiveMongoTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Sinks.Many<Restaurant> mongoRestaurants =
+            Sinks.many().unicast().onBackpressureBuffer();
+    private RestaurantGeoIndex restaurantGeoIndex;
+
+    @BeforeEach
+    void setUp() {
+        given(reactiveMongoTemplate.find(any(Query.class), eq(Restaurant.class)))
+                .willReturn(mongoRestaurants.asFlux());
+        restaurantGeoIndex =
+                new RestaurantGeoIndex(
+                        reactiveMongoTemplate, new ApplicationProperties(), meterRegistry);
+    }
+
+    @Test
+    void searchesAreLeftToElasticsearchUntilWarm() {
+        restaurantGeoIndex.apply(List.of(restaurant("1", 1L, 40.7128, -74.0060)), Set.of());
+
+        assertThat(restaurantGeoIndex.withinDistance(40.7128, -74.0060, 100)).isEmpty();
+        assertThat(restaurantGeoIndex.nearest(40.7128, -74.0060, 1)).isEmpty();
+        assertThat(searches("cold")).isEqualTo(2);
+    }
+
+    @Test
+    void changesDuringWarmUpWinOverOlderMongoCopies() {
+        StepVerifier.create(restaurantGeoIndex.warmUp())
+                .then(
+                        () -> {
+                            // the change stream moves 1 and deletes 2 before the load reads them
+                            restaurantGeoIndex.apply(
+                                    List.of(restaurant("1", 2L, 40.7306, -73.9352)), Set.of("2"));
+                            mongoRestaurants.tryEmitNext(restaurant("1", 1L, 40.7128, -74.0060));
+                            mongoRestaurants.tryEmitNext(restaurant("2", 0L, 40.7128, -74.0060));
+                            mongoRestaurants.tryEmitNext(restaurant("3", 0L, 40.7130, -74.0061));
+                            mongoRestaurants.tryEmitComplete();
+                        })
+                .expectNext(2L)
+                .verifyComplete();
+
+        assertThat(restaurantGeoIndex.isWarm()).isTrue();
+        assertThat(restaurantGeoIndex.withinDistance(40.7128, -74.0060, 100))
+                .hasValueSatisfying(
+                        neighbors ->
+                                assertThat(neighbors)
+                                        .extracting(GeoGridIndex.Neighbor::value)
+                                        .containsExactly("restaurant 3"));
+        assertThat(restaurantGeoIndex.nearest(40.7306, -73.9352, 1))
+                .hasValueSatisfying(
+                        neighbors ->
+                                assertThat(neighbors)
+                                        .extracting(GeoGridIndex.Neighbor::value)
+                                        .containsExactly("restaurant 1"));
+        assertThat(searches("local")).isEqualTo(2);
+        assertThat(meterRegistry.get("restaurant.geo.index.size").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void stoppedIndexIsColdAgain() {
+        mongoRestaurants.tryEmitNext(restaurant("1", 0L, 40.7128, -74.0060));
+        mongoRestaurants.tryEmitComplete();
+        StepVerifier.create(restaurantGeoIndex.warmUp()).expectNext(1L).verifyComplete();
+
+        restaurantGeoIndex.stop();
+
+        assertThat(restaurantGeoIndex.isWarm()).isFalse();
+        assertThat(restaurantGeoIndex.nearest(40.7128, -74.0060, 1)).isEmpty();
+    }
+
+    private double searches(String result) {
+        return meterRegistry
+                .get("restaurant.geo.index.searches")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+
+    private static Restaurant restaurant(String id, Long version, double lat, double lon) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(id);
+        restaurant.setName("restaurant " + id);
+        restaurant.setVersion(version);
+        restaurant.setAddress(new Address().setLocation(new Point(lon, lat)));
+        return restaurant;
+    }
+}
@@ -53,6 +53,54 @@ class RestaurantControllerTest {
         verify(restaurantService).findAllRestaurants(0, 100);
     }
 
+    @Test
+    void exportRestaurants_ShouldStreamOneRestaurantPerLine() {
+        Restaurant first = new Restaurant();
+        first.setId("1");
+        first.setName("Lb Spumoni Gardens");
+        Restaurant second = new Restaurant();
+        second.setId("2");
+        second.setName("Yono gardens");
+        given(restaurantService.exportRestaurants("Brooklyn", List.of("name")))
+                .willReturn(Flux.just(first, second));
+
+        webTestClient
+                .get()
+                .uri(
+                        uriBuilder ->
+                                uriBuilder
+                                        .path("/api/restaurant/export")
+                                        .queryParam("borough", "Brooklyn")
+                                        .queryParam("fields", "name")
+                                        .build())
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .isEqualTo(
+                        """
+                        {"id":"1","name":"Lb Spumoni Gardens"}
+                        {"id":"2","name":"Yono gardens"}
+                        """);
+    }
+
+    @Test
+    void exportRestaurants_WithUnknownField_ShouldReturnBadRequest() {
+        webTestClient
+                .get()
+                .uri(
+                        uriBuilder ->
+                                uriBuilder
+                                        .path("/api/restaurant/export")
+                                        .queryParam("fields", "name,secret")
+                                        .build())
+                .exchange()
+                .expectStatus()
+                .isBadRequest();
+    }
+
     @Test
     void findAllRestaurants_WithDefaultLimit_ShouldReturnOk() {
         given(restaurantService.findAllRestaurants(0, 10)).willReturn(Mono.empty());
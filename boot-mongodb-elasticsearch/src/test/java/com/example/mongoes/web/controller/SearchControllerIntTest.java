@@ -8,9 +8,11 @@ import com.example.mongoes.document.Address;
 import com.example.mongoes.document.Grades;
 import com.example.mongoes.document.Restaurant;
 import com.example.mongoes.model.response.AggregationSearchResponse;
+import com.example.mongoes.repository.elasticsearch.RestaurantSearchCache;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -43,6 +45,8 @@ class SearchControllerIntTest extends AbstractIntegrationTest {
                 .pollInterval(Duration.ofSeconds(1))
                 .untilAsserted(
                         () -> assertThat(this.restaurantESRepository.count().block()).isEqualTo(2));
+        // written to elasticsearch directly, not through the change stream
+        this.restaurantSearchCache.invalidate(Set.of(RestaurantSearchCache.ALL));
     }
 
     private Restaurant createRestaurant(long id, String name, String borough, String cuisine) {
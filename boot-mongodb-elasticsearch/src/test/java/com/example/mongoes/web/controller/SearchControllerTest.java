@@ -3,6 +3,8 @@ package com.example.mongoes.web.controller;
 import static org.mockito.BDDMockito.given;
 
 import com.example.mongoes.model.response.AggregationSearchResponse;
+import com.example.mongoes.model.response.ResultData;
+import com.example.mongoes.web.exception.InvalidCursorException;
 import com.example.mongoes.web.service.SearchService;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +16,7 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.data.geo.Point;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
@@ -230,11 +233,11 @@ class SearchControllerTest {
         void whenValidSearchParameters_thenOk() {
             given(
                             searchService.aggregateSearch(
-                                    "test", List.of("name"), "DESC", 10, 0, "restaurant_id"))
+                                    "test", List.of("name"), "DESC", 10, 0, null, "restaurant_id"))
                     .willReturn(
                             Mono.just(
                                     new AggregationSearchResponse(
-                                            List.of(), Map.of(), null, 0, 0)));
+                                            List.of(), Map.of(), null, 0, 0, null)));
 
             webTestClient
                     .get()
@@ -303,6 +306,41 @@ class SearchControllerTest {
         }
     }
 
+    @Nested
+    class NearestValidation {
+
+        @Test
+        void whenLimitExceeds100_thenBadRequest() {
+            webTestClient
+                    .get()
+                    .uri("/search/restaurant/nearest?lat=40.7128&lon=-74.0060&limit=101")
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest();
+        }
+
+        @Test
+        void whenAllParametersAreValid_thenOk() {
+            given(searchService.searchNearestRestaurants(40.7128, -74.0060, "mi", 5))
+                    .willReturn(
+                            Flux.just(
+                                    new ResultData(
+                                            "Yono gardens", new Point(-74.0059, 40.7128), 0.01)));
+
+            webTestClient
+                    .get()
+                    .uri("/search/restaurant/nearest?lat=40.7128&lon=-74.0060&unit=mi&limit=5")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$[0].name")
+                    .isEqualTo("Yono gardens")
+                    .jsonPath("$[0].dist")
+                    .isEqualTo(0.01);
+        }
+    }
+
     @Nested
     @DisplayName("Coordinate validation tests")
     class CoordinateValidationTests {
@@ -530,7 +568,7 @@ class SearchControllerTest {
     class SearchDateRangeValidation {
         @Test
         void whenValidDateFormat_thenReturns200() {
-            given(searchService.searchDateRange("2024-01-01", "2024-12-31", 0, 10))
+            given(searchService.searchDateRange("2024-01-01", "2024-12-31", 0, 10, null))
                     .willReturn(Mono.empty());
 
             webTestClient
@@ -579,6 +617,29 @@ class SearchControllerTest {
                     .isBadRequest();
         }
 
+        @Test
+        void whenCursorIsMalformed_thenReturns400() {
+            given(searchService.searchDateRange("2024-01-01", "2024-12-31", 0, 10, "not-a-cursor"))
+                    .willThrow(new InvalidCursorException("not-a-cursor", null));
+
+            webTestClient
+                    .get()
+                    .uri(
+                            uriBuilder ->
+                                    uriBuilder
+                                            .path("/search/date/range")
+                                            .queryParam("fromDate", "2024-01-01")
+                                            .queryParam("toDate", "2024-12-31")
+                                            .queryParam("cursor", "not-a-cursor")
+                                            .build())
+                    .exchange()
+                    .expectStatus()
+                    .isBadRequest()
+                    .expectBody()
+                    .jsonPath("$.detail")
+                    .isEqualTo("Invalid cursor 'not-a-cursor'");
+        }
+
         @Test
         void whenMissingDates_thenReturns400() {
             webTestClient.get().uri("/search/date/range").exchange().expectStatus().isBadRequest();
@@ -676,7 +737,7 @@ class SearchControllerTest {
 
         @Test
         void searchRestaurantIdRange_WithValidLimits_ShouldReturnOk() {
-            given(searchService.searchRestaurantIdRange(1000L, 2000L, 0, 10))
+            given(searchService.searchRestaurantIdRange(1000L, 2000L, 0, 10, null))
                     .willReturn(Mono.empty());
             webTestClient
                     .get()
@@ -889,7 +950,9 @@ class SearchControllerTest {
     class SearchBoolShouldValidation {
         @Test
         void whenValidParameters_thenReturns200() {
-            given(searchService.queryBoolWithShould("Manhattan", "Italian", "Restaurant", 0, 10))
+            given(
+                            searchService.queryBoolWithShould(
+                                    "Manhattan", "Italian", "Restaurant", 0, 10, null))
                     .willReturn(Mono.empty());
 
             webTestClient
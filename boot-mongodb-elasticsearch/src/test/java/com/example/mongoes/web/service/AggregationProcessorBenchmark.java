@@ -0,0 +1,175 @@
+package com.example.mongoes.web.service;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.RangeBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import com.example.mongoes.model.response.Facet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.elasticsearch.client.elc.Aggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+
+/**
+ * Compares decoding the facets of an aggregate search into {@link Facet}s with the nested {@code
+ * HashMap}s built before, both alone and followed by writing the response json. Run {@link
+ * #main(String[])} from the test classpath; the gc profiler reports the allocation rate per
+ * operation next to the timings.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class AggregationProcessorBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int bucketCount;
+
+    private final AggregationProcessor aggregationProcessor = new AggregationProcessor();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Map<String, ElasticsearchAggregation> aggregationMap;
+
+    @Setup
+    public void setup() {
+        aggregationMap = new LinkedHashMap<>();
+        aggregationMap.put("MyBorough", aggregation("MyBorough", terms("borough", bucketCount)));
+        aggregationMap.put("MyCuisine", aggregation("MyCuisine", terms("cuisine", bucketCount)));
+        aggregationMap.put("MyDateRange", aggregation("MyDateRange", dateRange(bucketCount)));
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Long>> hashMaps() {
+        return processAggregationsIntoHashMaps(aggregationMap);
+    }
+
+    @Benchmark
+    public Map<String, Facet> facets() {
+        return aggregationProcessor.processAggregations(aggregationMap);
+    }
+
+    @Benchmark
+    public void hashMapsAsJson() throws IOException {
+        objectMapper.writeValue(
+                OutputStream.nullOutputStream(), processAggregationsIntoHashMaps(aggregationMap));
+    }
+
+    @Benchmark
+    public void facetsAsJson() throws IOException {
+        objectMapper.writeValue(
+                OutputStream.nullOutputStream(),
+                aggregationProcessor.processAggregations(aggregationMap));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(AggregationProcessorBenchmark.class.getSimpleName())
+                                .addProfiler(GCProfiler.class)
+                                .build())
+                .run();
+    }
+
+    /** The decoding this benchmark measures against, as it was before {@link Facet}s. */
+    private static Map<String, Map<String, Long>> processAggregationsIntoHashMaps(
+            Map<String, ElasticsearchAggregation> aggregationMap) {
+        Map<String, Map<String, Long>> resultMap = new HashMap<>();
+        aggregationMap.forEach(
+                (String aggregateKey, ElasticsearchAggregation aggregation) -> {
+                    Map<String, Long> countMap = new HashMap<>();
+                    Aggregate aggregate = aggregation.aggregation().getAggregate();
+                    if (aggregate.isSterms()) {
+                        aggregate
+                                .sterms()
+                                .buckets()
+                                .array()
+                                .forEach(
+                                        bucket ->
+                                                countMap.put(
+                                                        bucket.key().stringValue(),
+                                                        bucket.docCount()));
+                    } else if (aggregate.isDateRange()) {
+                        aggregate.dateRange().buckets().array().stream()
+                                .filter(bucket -> bucket.docCount() != 0)
+                                .forEach(
+                                        bucket ->
+                                                countMap.put(
+                                                        bucket.fromAsString()
+                                                                + " - "
+                                                                + bucket.toAsString(),
+                                                        bucket.docCount()));
+                    }
+                    resultMap.put(aggregateKey, countMap);
+                });
+        return resultMap;
+    }
+
+    private static ElasticsearchAggregation aggregation(String name, Aggregate aggregate) {
+        return new ElasticsearchAggregation(new Aggregation(name, aggregate));
+    }
+
+    private static Aggregate terms(String prefix, int bucketCount) {
+        List<StringTermsBucket> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            String key = prefix + i;
+            long docCount = bucketCount - i;
+            buckets.add(
+                    StringTermsBucket.of(
+                            bucket -> bucket.key(FieldValue.of(key)).docCount(docCount)));
+        }
+        return Aggregate.of(
+                aggregate ->
+                        aggregate.sterms(
+                                terms ->
+                                        terms.sumOtherDocCount(0L).buckets(b -> b.array(buckets))));
+    }
+
+    private static Aggregate dateRange(int bucketCount) {
+        long day = TimeUnit.DAYS.toMillis(1);
+        List<RangeBucket> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            double from = (double) i * day;
+            double to = (double) (i + 1) * day;
+            String fromAsString = "day" + i;
+            String toAsString = "day" + (i + 1);
+            // every fourth range is empty, as sparse date ranges are in practice
+            long docCount = i % 4 == 0 ? 0 : i;
+            buckets.add(
+                    RangeBucket.of(
+                            bucket ->
+                                    bucket.key(fromAsString + "-" + toAsString)
+                                            .from(from)
+                                            .fromAsString(fromAsString)
+                                            .to(to)
+                                            .toAsString(toAsString)
+                                            .docCount(docCount)));
+        }
+        return Aggregate.of(
+                aggregate -> aggregate.dateRange(range -> range.buckets(b -> b.array(buckets))));
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.mongoes.web.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.tuple;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Buckets;
+import co.elastic.clients.elasticsearch._types.aggregations.HistogramBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.RangeBucket;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import com.example.mongoes.model.response.Facet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.client.elc.Aggregation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregation;
+
+class AggregationProcessorTest {
+
+    private final AggregationProcessor aggregationProcessor = new AggregationProcessor();
+
+    @Test
+    void decodesTermsWithSubAggregationsInResponseOrder() {
+        Aggregate cuisines =
+                stringTerms(
+                        StringTermsBucket.of(
+                                bucket -> bucket.key(FieldValue.of("Pizza")).docCount(5)),
+                        StringTermsBucket.of(
+                                bucket -> bucket.key(FieldValue.of("Bakery")).docCount(2)));
+        Aggregate boroughs =
+                stringTerms(
+                        StringTermsBucket.of(
+                                bucket ->
+                                        bucket.key(FieldValue.of("Bronx"))
+                                                .docCount(7)
+                                                .aggregations("cuisines", cuisines)));
+
+        Map<String, Facet> facets =
+                aggregationProcessor.processAggregations(aggregations("boroughs", boroughs));
+
+        assertThat(facets).containsOnlyKeys("boroughs");
+        Facet facet = facets.get("boroughs");
+        assertThat(facet.type()).isEqualTo(Facet.Type.TERMS);
+        assertThat(facet.buckets()).hasSize(1);
+        Facet.Bucket bronx = facet.buckets().getFirst();
+        assertThat(bronx.key()).isEqualTo("Bronx");
+        assertThat(bronx.count()).isEqualTo(7);
+        assertThat(bronx.facets().get("cuisines").buckets())
+                .extracting(Facet.Bucket::key, Facet.Bucket::count)
+                .containsExactly(tuple("Pizza", 5L), tuple("Bakery", 2L));
+    }
+
+    @Test
+    void decodesRangesSkippingEmptyBuckets() {
+        Aggregate dateRange =
+                Aggregate.of(
+                        aggregate ->
+                                aggregate.dateRange(
+                                        range ->
+                                                range.buckets(
+                                                        ranges(
+                                                                rangeBucket(
+                                                                        "*-01-01-2020",
+                                                                        null,
+                                                                        "01-01-2020",
+                                                                        4),
+                                                                rangeBucket(
+                                                                        "01-01-2020-*",
+                                                                        "01-01-2020",
+                                                                        null,
+                                                                        0)))));
+        Aggregate geoDistance =
+                Aggregate.of(
+                        aggregate ->
+                                aggregate.geoDistance(
+                                        range ->
+                                                range.buckets(
+                                                        ranges(
+                                                                rangeBucket(
+                                                                        "*-1000.0",
+                                                                        null,
+                                                                        null,
+                                                                        3)))));
+        Map<String, ElasticsearchAggregation> aggregationMap = new LinkedHashMap<>();
+        aggregationMap.putAll(aggregations("grades", dateRange));
+        aggregationMap.putAll(aggregations("nearby", geoDistance));
+
+        Map<String, Facet> facets = aggregationProcessor.processAggregations(aggregationMap);
+
+        assertThat(facets).containsOnlyKeys("grades", "nearby");
+        assertThat(facets.get("grades").type()).isEqualTo(Facet.Type.DATE_RANGE);
+        assertThat(facets.get("grades").buckets())
+                .containsExactly(new Facet.Bucket("*-01-01-2020", 4, null, "01-01-2020", Map.of()));
+        assertThat(facets.get("nearby").type()).isEqualTo(Facet.Type.GEO_DISTANCE);
+        assertThat(facets.get("nearby").buckets())
+                .containsExactly(new Facet.Bucket("*-1000.0", 3, null, null, Map.of()));
+    }
+
+    @Test
+    void decodesHistogramWithinNestedAggregation() {
+        Aggregate scores =
+                Aggregate.of(
+                        aggregate ->
+                                aggregate.histogram(
+                                        histogram ->
+                                                histogram.buckets(
+                                                        buckets ->
+                                                                buckets.array(
+                                                                        List.of(
+                                                                                HistogramBucket.of(
+                                                                                        bucket ->
+                                                                                                bucket.key(
+                                                                                                                10)
+                                                                                                        .docCount(
+                                                                                                                6)))))));
+        Aggregate grades =
+                Aggregate.of(
+                        aggregate ->
+                                aggregate.nested(
+                                        nested ->
+                                                nested.docCount(9).aggregations("scores", scores)));
+
+        Map<String, Facet> facets =
+                aggregationProcessor.processAggregations(aggregations("grades", grades));
+
+        Facet facet = facets.get("grades");
+        assertThat(facet.type()).isEqualTo(Facet.Type.NESTED);
+        assertThat(facet.buckets()).hasSize(1);
+        Facet.Bucket nested = facet.buckets().getFirst();
+        assertThat(nested.count()).isEqualTo(9);
+        assertThat(nested.facets().get("scores").type()).isEqualTo(Facet.Type.HISTOGRAM);
+        assertThat(nested.facets().get("scores").buckets())
+                .containsExactly(new Facet.Bucket("10.0", 6, null, null, Map.of()));
+    }
+
+    @Test
+    void skipsUnsupportedAggregations() {
+        Aggregate average = Aggregate.of(aggregate -> aggregate.avg(avg -> avg.value(1.5)));
+
+        assertThat(aggregationProcessor.processAggregations(aggregations("average", average)))
+                .isEmpty();
+    }
+
+    @Test
+    void rejectsNullAggregationMap() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> aggregationProcessor.processAggregations(null));
+    }
+
+    private static Map<String, ElasticsearchAggregation> aggregations(
+            String name, Aggregate aggregate) {
+        return Map.of(name, new ElasticsearchAggregation(new Aggregation(name, aggregate)));
+    }
+
+    private static Aggregate stringTerms(StringTermsBucket... buckets) {
+        return Aggregate.of(
+                aggregate ->
+                        aggregate.sterms(
+                                terms ->
+                                        terms.sumOtherDocCount(0L)
+                                                .buckets(b -> b.array(List.of(buckets)))));
+    }
+
+    private static Buckets<RangeBucket> ranges(RangeBucket... buckets) {
+        return Buckets.of(b -> b.array(List.of(buckets)));
+    }
+
+    private static RangeBucket rangeBucket(
+            String key, String fromAsString, String toAsString, long docCount) {
+        return RangeBucket.of(
+                bucket ->
+                        bucket.key(key)
+                                .fromAsString(fromAsString)
+                                .toAsString(toAsString)
+                                .docCount(docCount));
+    }
+}
@@ -1,13 +1,24 @@
 package com.example.opensearch.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties("application")
 public class ApplicationProperties {
 
     @NestedConfigurationProperty private Cors cors = new Cors();
 
+    @NestedConfigurationProperty private Loader loader = new Loader();
+
+    @NestedConfigurationProperty private Export export = new Export();
+
+    @NestedConfigurationProperty private GeoIndex geoIndex = new GeoIndex();
+
+    @NestedConfigurationProperty private Reindex reindex = new Reindex();
+
     public Cors getCors() {
         return cors;
     }
@@ -16,6 +27,38 @@ public class ApplicationProperties {
         this.cors = cors;
     }
 
+    public Loader getLoader() {
+        return loader;
+    }
+
+    public void setLoader(Loader loader) {
+        this.loader = loader;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public void setExport(Export export) {
+        this.export = export;
+    }
+
+    public GeoIndex getGeoIndex() {
+        return geoIndex;
+    }
+
+    public void setGeoIndex(GeoIndex geoIndex) {
+        this.geoIndex = geoIndex;
+    }
+
+    public Reindex getReindex() {
+        return reindex;
+    }
+
+    public void setReindex(Reindex reindex) {
+        this.reindex = reindex;
+    }
+
     public static class Cors {
 
         private String pathPattern = "/api/**";
@@ -64,4 +107,148 @@ public class ApplicationProperties {
             this.allowCredentials = allowCredentials;
         }
     }
+
+    public static class Loader {
+
+        /** location of a line delimited restaurant seed file, nothing is loaded when unset. */
+        private Resource resource;
+
+        /** number of restaurants indexed with a single bulk request. */
+        private int batchSize = 1_000;
+
+        public Resource getResource() {
+            return resource;
+        }
+
+        public void setResource(Resource resource) {
+            this.resource = resource;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Export {
+
+        /** number of hits fetched from opensearch per scroll page. */
+        private int batchSize = 1_000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class GeoIndex {
+
+        /** whether range and nearest searches are answered from the in memory grid. */
+        private boolean enabled = true;
+
+        /** edge length of a grid cell in degrees, 0.01 is about 1.1 km of latitude. */
+        private double cellDegrees = 0.01;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getCellDegrees() {
+            return cellDegrees;
+        }
+
+        public void setCellDegrees(double cellDegrees) {
+            this.cellDegrees = cellDegrees;
+        }
+    }
+
+    public static class Reindex {
+
+        /** number of scroll slices read and written in parallel, one thread each. */
+        private int slices = 4;
+
+        /** number of hits fetched per scroll page of a slice. */
+        private int scrollSize = 1_000;
+
+        /** how long a scroll context is kept open between two pages. */
+        private Duration scrollKeepAlive = Duration.ofMinutes(5);
+
+        /** size of the documents sent with one bulk request. */
+        private DataSize bulkSize = DataSize.ofMegabytes(5);
+
+        /** how often documents rejected by a full write queue are sent again. */
+        private int maxRetries = 5;
+
+        /** wait before the first resend of rejected documents, doubled on every further try. */
+        private Duration retryBackoff = Duration.ofMillis(500);
+
+        /** whether the indices the alias pointed to before are deleted after the swap. */
+        private boolean deletePreviousIndices;
+
+        public int getSlices() {
+            return slices;
+        }
+
+        public void setSlices(int slices) {
+            this.slices = slices;
+        }
+
+        public int getScrollSize() {
+            return scrollSize;
+        }
+
+        public void setScrollSize(int scrollSize) {
+            this.scrollSize = scrollSize;
+        }
+
+        public Duration getScrollKeepAlive() {
+            return scrollKeepAlive;
+        }
+
+        public void setScrollKeepAlive(Duration scrollKeepAlive) {
+            this.scrollKeepAlive = scrollKeepAlive;
+        }
+
+        public DataSize getBulkSize() {
+            return bulkSize;
+        }
+
+        public void setBulkSize(DataSize bulkSize) {
+            this.bulkSize = bulkSize;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public boolean isDeletePreviousIndices() {
+            return deletePreviousIndices;
+        }
+
+        public void setDeletePreviousIndices(boolean deletePreviousIndices) {
+            this.deletePreviousIndices = deletePreviousIndices;
+        }
+    }
 }
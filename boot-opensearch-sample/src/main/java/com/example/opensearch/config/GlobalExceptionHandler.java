@@ -1,5 +1,6 @@
 package com.example.opensearch.config;
 
+import com.example.opensearch.web.exception.InvalidCursorException;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
@@ -43,5 +44,12 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    ProblemDetail onException(InvalidCursorException invalidCursorException) {
+        return ProblemDetail.forStatusAndDetail(
+                invalidCursorException.getHttpStatus(), invalidCursorException.getMessage());
+    }
+
     record ApiValidationError(String object, String field, Object rejectedValue, String message) {}
 }
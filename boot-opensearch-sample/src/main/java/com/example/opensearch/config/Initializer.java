@@ -1,8 +1,11 @@
 package com.example.opensearch.config;
 
+import com.example.opensearch.config.loader.RestaurantBulkLoader;
+import java.io.IOException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -11,13 +14,21 @@ public class Initializer implements CommandLineRunner {
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
     private final ApplicationProperties properties;
+    private final RestaurantBulkLoader restaurantBulkLoader;
 
-    public Initializer(ApplicationProperties properties) {
+    public Initializer(
+            ApplicationProperties properties, RestaurantBulkLoader restaurantBulkLoader) {
         this.properties = properties;
+        this.restaurantBulkLoader = restaurantBulkLoader;
     }
 
     @Override
-    public void run(String... args) {
+    public void run(String... args) throws IOException {
         log.info("Running Initializer..... {}", properties.getCors());
+        Resource seedResource = properties.getLoader().getResource();
+        if (seedResource != null && seedResource.exists()) {
+            long loaded = restaurantBulkLoader.load(seedResource);
+            log.info("Loaded {} restaurants from {}", loaded, seedResource.getDescription());
+        }
     }
 }
@@ -0,0 +1,102 @@
+package com.example.opensearch.config.loader;
+
+import com.example.opensearch.config.ApplicationProperties;
+import com.example.opensearch.entities.Restaurant;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Streams a line delimited restaurant seed file, in the same format as the mongodb-elasticsearch
+ * sample's {@code restaurants.json}, into OpenSearch with bounded memory. Restaurants are decoded
+ * one at a time from the input stream and indexed with one bulk request per {@code batchSize}
+ * documents, so at most one batch is held in memory.
+ */
+@Component
+public class RestaurantBulkLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantBulkLoader.class);
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ApplicationProperties.Loader properties;
+    private final ObjectReader restaurantReader;
+    private final Counter documentsCounter;
+    private final Timer batchTimer;
+
+    public RestaurantBulkLoader(
+            ElasticsearchOperations elasticsearchOperations,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.properties = applicationProperties.getLoader();
+        this.restaurantReader =
+                JsonMapper.builder()
+                        .addModule(
+                                new SimpleModule()
+                                        .addDeserializer(
+                                                Restaurant.class, new RestaurantSeedDeserializer()))
+                        .build()
+                        .readerFor(Restaurant.class);
+        this.documentsCounter =
+                Counter.builder("restaurant.loader.documents")
+                        .description("Restaurants indexed by the bulk loader")
+                        .register(meterRegistry);
+        this.batchTimer =
+                Timer.builder("restaurant.loader.batch")
+                        .description("Time taken to index one batch of restaurants")
+                        .register(meterRegistry);
+    }
+
+    /** Indexes every restaurant of {@code resource} and returns the number of documents written. */
+    public long load(Resource resource) throws IOException {
+        long startNanos = System.nanoTime();
+        long loaded = 0;
+        List<Restaurant> batch = new ArrayList<>(properties.getBatchSize());
+        try (InputStream inputStream = resource.getInputStream();
+                MappingIterator<Restaurant> restaurants =
+                        restaurantReader.readValues(inputStream)) {
+            while (restaurants.hasNextValue()) {
+                batch.add(restaurants.nextValue());
+                if (batch.size() == properties.getBatchSize()) {
+                    loaded += indexBatch(batch);
+                    logProgress(resource, loaded, startNanos);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            loaded += indexBatch(batch);
+            logProgress(resource, loaded, startNanos);
+        }
+        return loaded;
+    }
+
+    private int indexBatch(List<Restaurant> batch) {
+        batchTimer.record(() -> elasticsearchOperations.save(batch));
+        documentsCounter.increment(batch.size());
+        return batch.size();
+    }
+
+    private void logProgress(Resource resource, long loaded, long startNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        log.info(
+                "Loaded {} restaurants from {} ({} docs/s)",
+                loaded,
+                resource.getFilename(),
+                loaded * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.opensearch.config.loader;
+
+import com.example.opensearch.entities.Address;
+import com.example.opensearch.entities.Grades;
+import com.example.opensearch.entities.Restaurant;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.geo.Point;
+
+/**
+ * Reads one restaurant of the mongo extended JSON seed file straight from the parser tokens,
+ * without materializing an intermediate {@code org.bson.Document} or {@code JsonNode} tree.
+ */
+class RestaurantSeedDeserializer extends StdDeserializer<Restaurant> {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantSeedDeserializer.class);
+
+    RestaurantSeedDeserializer() {
+        super(Restaurant.class);
+    }
+
+    @Override
+    public Restaurant deserialize(JsonParser parser, DeserializationContext context)
+            throws IOException {
+        Restaurant restaurant = new Restaurant();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "restaurant_id" -> {
+                    String restaurantId = parser.getValueAsString();
+                    if (restaurantId != null && !restaurantId.isBlank()) {
+                        restaurant.setId(restaurantId);
+                    }
+                }
+                case "name" -> restaurant.setName(parser.getValueAsString());
+                case "cuisine" -> restaurant.setCuisine(parser.getValueAsString());
+                case "borough" -> restaurant.setBorough(parser.getValueAsString());
+                case "address" -> restaurant.setAddress(readAddress(parser));
+                case "grades" -> restaurant.setGrades(readGrades(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        if (restaurant.getId() == null) {
+            throw new IllegalArgumentException("Restaurant ID is required");
+        }
+        if (restaurant.getAddress() != null && restaurant.getAddress().getLocation() == null) {
+            log.warn("Invalid coordinates for restaurant ID: {}", restaurant.getId());
+        }
+        return restaurant;
+    }
+
+    private Address readAddress(JsonParser parser) throws IOException {
+        Address address = new Address();
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return address;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            parser.nextToken();
+            switch (fieldName) {
+                case "building" -> address.setBuilding(parser.getValueAsString());
+                case "street" -> address.setStreet(parser.getValueAsString());
+                case "zipcode" -> {
+                    String zipcode = parser.getValueAsString();
+                    if (zipcode != null && !zipcode.isBlank()) {
+                        address.setZipcode(Integer.valueOf(zipcode));
+                    }
+                }
+                case "coord" -> address.setLocation(readPoint(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        return address;
+    }
+
+    private Point readPoint(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        double[] coordinates = new double[2];
+        int count = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (count < coordinates.length) {
+                coordinates[count] = parser.getValueAsDouble();
+            }
+            count++;
+        }
+        return count == 2 ? new Point(coordinates[0], coordinates[1]) : null;
+    }
+
+    private List<Grades> readGrades(JsonParser parser) throws IOException {
+        List<Grades> gradesList = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return gradesList;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            Grades grades = new Grades();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                switch (fieldName) {
+                    case "grade" -> grades.setGrade(parser.getValueAsString());
+                    case "score" ->
+                            grades.setScore(
+                                    parser.currentToken() == JsonToken.VALUE_NULL
+                                            ? null
+                                            : parser.getValueAsInt());
+                    case "date" -> grades.setDate(readDate(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+            gradesList.add(grades);
+        }
+        return gradesList;
+    }
+
+    /** Accepts both {@code {"$date": <epoch millis>}} and {@code {"$date": "<iso instant>"}}. */
+    private LocalDateTime readDate(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        LocalDateTime date = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+            if ("$date".equals(fieldName) && valueToken == JsonToken.VALUE_NUMBER_INT) {
+                date = toLocalDateTime(Instant.ofEpochMilli(parser.getLongValue()));
+            } else if ("$date".equals(fieldName) && valueToken == JsonToken.VALUE_STRING) {
+                date = toLocalDateTime(Instant.parse(parser.getText()));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return date;
+    }
+
+    private static LocalDateTime toLocalDateTime(Instant instant) {
+        return instant.atZone(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.opensearch.config.reindex;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code POST /actuator/reindex} rebuilds the restaurant index and answers once the alias points at
+ * the new one.
+ */
+@Component
+@Endpoint(id = "reindex")
+public class ReindexEndpoint {
+
+    private final RestaurantReindexJob restaurantReindexJob;
+
+    public ReindexEndpoint(RestaurantReindexJob restaurantReindexJob) {
+        this.restaurantReindexJob = restaurantReindexJob;
+    }
+
+    @WriteOperation
+    public ReindexReport reindex() {
+        return restaurantReindexJob.reindex();
+    }
+}
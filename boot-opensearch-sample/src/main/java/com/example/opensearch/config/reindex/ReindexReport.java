@@ -0,0 +1,29 @@
+package com.example.opensearch.config.reindex;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a reindex run.
+ *
+ * @param alias alias that now points at {@code targetIndex}
+ * @param previousIndices indices the alias pointed at before, or the index that had its name
+ * @param targetIndex index the documents were copied into
+ * @param documents documents written to {@code targetIndex}
+ * @param bulkRequests bulk requests sent, resends of rejected documents included
+ * @param rejections documents turned away by a full write queue and sent again
+ * @param took time from the first scroll to the alias swap
+ */
+public record ReindexReport(
+        String alias,
+        List<String> previousIndices,
+        String targetIndex,
+        long documents,
+        long bulkRequests,
+        long rejections,
+        Duration took) {
+
+    public long documentsPerSecond() {
+        return documents * 1_000 / Math.max(1, took.toMillis());
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.opensearch.config.reindex;
+
+import com.example.opensearch.config.ApplicationProperties;
+import com.example.opensearch.entities.Restaurant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import org.opensearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.opensearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.opensearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.opensearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.opensearch.action.admin.indices.refresh.RefreshRequest;
+import org.opensearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.opensearch.action.search.ClearScrollRequest;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.action.search.SearchScrollRequest;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.RestHighLevelClient;
+import org.opensearch.client.indices.CreateIndexRequest;
+import org.opensearch.client.indices.GetIndexRequest;
+import org.opensearch.common.settings.Settings;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.search.SearchHit;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.opensearch.search.slice.SliceBuilder;
+import org.opensearch.search.sort.SortOrder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuilds the restaurant index with the current mapping without taking searches offline.
+ *
+ * <p>The documents are copied into a new index named after the alias and the start time. {@code
+ * slices} threads each scroll through one slice of the current index and write it with bulk
+ * requests of about {@code bulkSize} each. Refreshes of the new index are turned off while it is
+ * filled. Once every document is copied the alias is moved to the new index in a single, atomic
+ * aliases request, so searches switch from the complete old index to the complete new one. The
+ * first run finds a concrete index named like the alias, which is removed in that same request.
+ *
+ * <p>Restaurants saved or deleted while the job runs are not carried over, writes should be paused
+ * for its duration. A failed run deletes its new index and leaves the alias untouched.
+ */
+@Component
+public class RestaurantReindexJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantReindexJob.class);
+
+    private static final String REFRESH_INTERVAL = "index.refresh_interval";
+    private static final DateTimeFormatter INDEX_SUFFIX =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final RestHighLevelClient client;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ApplicationProperties.Reindex properties;
+    private final Counter documents;
+    private final Counter rejections;
+    private final Timer runs;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RestaurantReindexJob(
+            RestHighLevelClient client,
+            ElasticsearchOperations elasticsearchOperations,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.client = client;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.properties = applicationProperties.getReindex();
+        this.documents =
+                Counter.builder("restaurant.reindex.documents")
+                        .description("Restaurants copied into a new index by the reindex job")
+                        .register(meterRegistry);
+        this.rejections =
+                Counter.builder("restaurant.reindex.bulk.rejections")
+                        .description("Documents of reindex bulk requests rejected by a full queue")
+                        .register(meterRegistry);
+        this.runs =
+                Timer.builder("restaurant.reindex")
+                        .description("Time taken by a complete reindex run")
+                        .register(meterRegistry);
+    }
+
+    /** Copies every restaurant into a new index and points the alias at it. */
+    public ReindexReport reindex() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reindex of the restaurants is already running");
+        }
+        try {
+            return runs.record(this::copyAndSwap);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReindexReport copyAndSwap() {
+        String alias =
+                elasticsearchOperations.getIndexCoordinatesFor(Restaurant.class).getIndexName();
+        long startNanos = System.nanoTime();
+        try {
+            List<String> previousIndices = aliasedIndices(alias);
+            boolean concreteIndex = previousIndices.isEmpty();
+            if (concreteIndex) {
+                if (!client.indices().exists(new GetIndexRequest(alias), RequestOptions.DEFAULT)) {
+                    throw new IllegalStateException(
+                            "There is neither an index nor an alias named " + alias);
+                }
+                previousIndices = List.of(alias);
+            }
+            String targetIndex = alias + "-" + INDEX_SUFFIX.format(Instant.now());
+            String refreshInterval = createIndex(targetIndex);
+            List<SizedBulkWriter> writers;
+            try {
+                writers = copy(alias, targetIndex);
+                long failed = writers.stream().mapToLong(SizedBulkWriter::failed).sum();
+                if (failed > 0) {
+                    throw new IllegalStateException(
+                            "%d restaurants could not be copied into %s"
+                                    .formatted(failed, targetIndex));
+                }
+                Settings.Builder restoredSettings = Settings.builder();
+                if (refreshInterval == null) {
+                    restoredSettings.putNull(REFRESH_INTERVAL);
+                } else {
+                    restoredSettings.put(REFRESH_INTERVAL, refreshInterval);
+                }
+                client.indices()
+                        .putSettings(
+                                new UpdateSettingsRequest(targetIndex)
+                                        .settings(restoredSettings.build()),
+                                RequestOptions.DEFAULT);
+                client.indices().refresh(new RefreshRequest(targetIndex), RequestOptions.DEFAULT);
+            } catch (IOException | RuntimeException e) {
+                deleteIndex(targetIndex);
+                throw e;
+            }
+            swapAlias(alias, previousIndices, concreteIndex, targetIndex);
+            if (properties.isDeletePreviousIndices() && !concreteIndex) {
+                previousIndices.forEach(this::deleteIndex);
+            }
+            ReindexReport report =
+                    new ReindexReport(
+                            alias,
+                            previousIndices,
+                            targetIndex,
+                            writers.stream().mapToLong(SizedBulkWriter::written).sum(),
+                            writers.stream().mapToLong(SizedBulkWriter::bulkRequests).sum(),
+                            writers.stream().mapToLong(SizedBulkWriter::rejected).sum(),
+                            Duration.ofNanos(System.nanoTime() - startNanos));
+            log.info(
+                    "Reindexed {} restaurants from {} into {} ({} docs/s, {} bulk requests, {} rejections)",
+                    report.documents(),
+                    previousIndices,
+                    targetIndex,
+                    report.documentsPerSecond(),
+                    report.bulkRequests(),
+                    report.rejections());
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reindex of " + alias + " failed", e);
+        }
+    }
+
+    private List<String> aliasedIndices(String alias) throws IOException {
+        return new ArrayList<>(
+                client.indices()
+                        .getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT)
+                        .getAliases()
+                        .keySet());
+    }
+
+    /**
+     * Creates the index with the mapping and settings of {@link Restaurant}, refreshes turned off.
+     * Returns the refresh interval to restore once it is filled, {@code null} for the default.
+     */
+    private String createIndex(String index) throws IOException {
+        IndexOperations indexOperations = elasticsearchOperations.indexOps(Restaurant.class);
+        Settings settings =
+                Settings.builder()
+                        .loadFromSource(
+                                indexOperations.createSettings().toJson(), XContentType.JSON)
+                        .build();
+        client.indices()
+                .create(
+                        new CreateIndexRequest(index)
+                                .settings(
+                                        Settings.builder()
+                                                .put(settings)
+                                                .put(REFRESH_INTERVAL, "-1"))
+                                .mapping(
+                                        indexOperations.createMapping().toJson(),
+                                        XContentType.JSON),
+                        RequestOptions.DEFAULT);
+        return settings.get(REFRESH_INTERVAL);
+    }
+
+    private List<SizedBulkWriter> copy(String source, String target) {
+        int slices = properties.getSlices();
+        List<SizedBulkWriter> writers =
+                IntStream.range(0, slices)
+                        .mapToObj(
+                                slice ->
+                                        new SizedBulkWriter(
+                                                client,
+                                                target,
+                                                properties.getBulkSize().toBytes(),
+                                                properties.getMaxRetries(),
+                                                properties.getRetryBackoff(),
+                                                documents,
+                                                rejections))
+                        .toList();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> copies =
+                    IntStream.range(0, slices)
+                            .<Future<?>>mapToObj(
+                                    slice ->
+                                            executor.submit(
+                                                    () -> {
+                                                        copySlice(
+                                                                source,
+                                                                slice,
+                                                                slices,
+                                                                writers.get(slice));
+                                                        return null;
+                                                    }))
+                            .toList();
+            for (Future<?> copy : copies) {
+                try {
+                    copy.get();
+                } catch (ExecutionException e) {
+                    // no point in finishing the other slices
+                    copies.forEach(other -> other.cancel(true));
+                    throw e.getCause() instanceof IOException ioException
+                            ? new UncheckedIOException(ioException)
+                            : new IllegalStateException("Reindex slice failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    copies.forEach(other -> other.cancel(true));
+                    throw new IllegalStateException("Interrupted while reindexing", e);
+                }
+            }
+        }
+        return writers;
+    }
+
+    private void copySlice(String source, int slice, int slices, SizedBulkWriter writer)
+            throws IOException {
+        TimeValue keepAlive = TimeValue.timeValueMillis(properties.getScrollKeepAlive().toMillis());
+        // _doc order is the cheapest way to scroll
+        SearchSourceBuilder searchSource =
+                new SearchSourceBuilder()
+                        .size(properties.getScrollSize())
+                        .sort("_doc", SortOrder.ASC);
+        if (slices > 1) {
+            searchSource.slice(new SliceBuilder(slice, slices));
+        }
+        SearchResponse response =
+                client.search(
+                        new SearchRequest(source).source(searchSource).scroll(keepAlive),
+                        RequestOptions.DEFAULT);
+        String scrollId = response.getScrollId();
+        try {
+            while (response.getHits().getHits().length > 0) {
+                for (SearchHit hit : response.getHits().getHits()) {
+                    writer.add(hit.getId(), hit.getSourceRef());
+                }
+                response =
+                        client.scroll(
+                                new SearchScrollRequest(scrollId).scroll(keepAlive),
+                                RequestOptions.DEFAULT);
+                scrollId = response.getScrollId();
+            }
+            writer.flush();
+            log.debug("Slice {} of {} copied {} restaurants", slice, slices, writer.written());
+        } finally {
+            clearScroll(scrollId);
+        }
+    }
+
+    private void swapAlias(
+            String alias, List<String> previousIndices, boolean concreteIndex, String targetIndex)
+            throws IOException {
+        IndicesAliasesRequest request = new IndicesAliasesRequest();
+        request.addAliasAction(AliasActions.add().index(targetIndex).alias(alias));
+        if (concreteIndex) {
+            // an alias cannot share its name with an index, so the old index goes in the same step
+            request.addAliasAction(AliasActions.removeIndex().index(alias));
+        } else {
+            request.addAliasAction(
+                    AliasActions.remove()
+                            .indices(previousIndices.toArray(String[]::new))
+                            .alias(alias));
+        }
+        client.indices().updateAliases(request, RequestOptions.DEFAULT);
+    }
+
+    private void clearScroll(String scrollId) {
+        if (scrollId == null) {
+            return;
+        }
+        ClearScrollRequest request = new ClearScrollRequest();
+        request.addScrollId(scrollId);
+        try {
+            client.clearScroll(request, RequestOptions.DEFAULT);
+        } catch (IOException | RuntimeException e) {
+            // the scroll expires after its keep alive anyway
+            log.warn("Failed to clear reindex scroll: {}", e.getMessage());
+        }
+    }
+
+    private void deleteIndex(String index) {
+        try {
+            client.indices().delete(new DeleteIndexRequest(index), RequestOptions.DEFAULT);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete index {}: {}", index, e.getMessage());
+        }
+    }
+}
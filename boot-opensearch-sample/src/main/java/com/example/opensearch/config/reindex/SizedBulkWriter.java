@@ -0,0 +1,158 @@
+package com.example.opensearch.config.reindex;
+
+import io.micrometer.core.instrument.Counter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.RestHighLevelClient;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects index requests of one reindex slice into bulk requests of about {@code maxBytes} of
+ * source each. Documents rejected because the write queue of a node is full are sent again after an
+ * exponentially growing backoff, up to {@code maxRetries} times; any other failure is counted and
+ * never retried. Not thread safe, every slice uses its own writer.
+ */
+class SizedBulkWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SizedBulkWriter.class);
+
+    private final RestHighLevelClient client;
+    private final String index;
+    private final long maxBytes;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Counter documents;
+    private final Counter rejections;
+    private BulkRequest pending = new BulkRequest();
+    private long written;
+    private long failed;
+    private long rejected;
+    private long bulkRequests;
+
+    SizedBulkWriter(
+            RestHighLevelClient client,
+            String index,
+            long maxBytes,
+            int maxRetries,
+            Duration retryBackoff,
+            Counter documents,
+            Counter rejections) {
+        this.client = client;
+        this.index = index;
+        this.maxBytes = maxBytes;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.documents = documents;
+        this.rejections = rejections;
+    }
+
+    /** Queues the document and sends the bulk request once it holds {@code maxBytes}. */
+    void add(String id, BytesReference source) {
+        pending.add(new IndexRequest(index).id(id).source(source, XContentType.JSON));
+        if (pending.estimatedSizeInBytes() >= maxBytes) {
+            flush();
+        }
+    }
+
+    /** Sends whatever is queued. */
+    void flush() {
+        if (pending.numberOfActions() == 0) {
+            return;
+        }
+        BulkRequest request = pending;
+        pending = new BulkRequest();
+        for (int attempt = 0; request.numberOfActions() > 0; attempt++) {
+            if (attempt > 0) {
+                if (attempt > maxRetries) {
+                    failed += request.numberOfActions();
+                    log.error(
+                            "Giving up on {} documents for {} still rejected after {} retries",
+                            request.numberOfActions(),
+                            index,
+                            maxRetries);
+                    return;
+                }
+                sleep(retryBackoff.multipliedBy(1L << (attempt - 1)));
+            }
+            request = send(request);
+        }
+    }
+
+    long written() {
+        return written;
+    }
+
+    long failed() {
+        return failed;
+    }
+
+    long rejected() {
+        return rejected;
+    }
+
+    long bulkRequests() {
+        return bulkRequests;
+    }
+
+    /** Sends {@code request}, returns the rejected part of it to be sent again. */
+    private BulkRequest send(BulkRequest request) {
+        BulkResponse response;
+        try {
+            bulkRequests++;
+            response = client.bulk(request, RequestOptions.DEFAULT);
+        } catch (OpenSearchStatusException e) {
+            if (e.status() != RestStatus.TOO_MANY_REQUESTS) {
+                throw e;
+            }
+            // the whole request was turned away
+            rejected += request.numberOfActions();
+            rejections.increment(request.numberOfActions());
+            return request;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Bulk request to " + index + " failed", e);
+        }
+        BulkRequest retries = new BulkRequest();
+        int succeeded = 0;
+        for (BulkItemResponse item : response.getItems()) {
+            if (!item.isFailed()) {
+                succeeded++;
+            } else if (item.status() == RestStatus.TOO_MANY_REQUESTS) {
+                DocWriteRequest<?> retry = request.requests().get(item.getItemId());
+                retries.add(retry);
+            } else {
+                failed++;
+                log.error(
+                        "Failed to index {} into {}: {}",
+                        item.getId(),
+                        index,
+                        item.getFailureMessage());
+            }
+        }
+        written += succeeded;
+        documents.increment(succeeded);
+        rejected += retries.numberOfActions();
+        rejections.increment(retries.numberOfActions());
+        return retries;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off bulk rejections", e);
+        }
+    }
+}
@@ -3,11 +3,11 @@ package com.example.opensearch.model.response;
 import com.example.opensearch.entities.Restaurant;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.springframework.data.domain.Page;
 import org.springframework.data.elasticsearch.core.SearchPage;
+import org.springframework.lang.Nullable;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record PagedResult<T>(
@@ -15,11 +15,12 @@ public record PagedResult<T>(
         long totalElements,
         int pageNumber,
         int totalPages,
-        Map<String, Map<String, Long>> aggregationMap,
+        Map<String, Facet> aggregationMap,
         @JsonProperty("isFirst") boolean isFirst,
         @JsonProperty("isLast") boolean isLast,
         @JsonProperty("hasNext") boolean hasNext,
-        @JsonProperty("hasPrevious") boolean hasPrevious) {
+        @JsonProperty("hasPrevious") boolean hasPrevious,
+        @Nullable String nextCursor) {
 
     public PagedResult(Page<T> page) {
         this(
@@ -27,11 +28,12 @@ public record PagedResult<T>(
                 page.getTotalElements(),
                 page.getNumber() + 1,
                 page.getTotalPages(),
-                new HashMap<>(),
+                Map.of(),
                 page.isFirst(),
                 page.isLast(),
                 page.hasNext(),
-                page.hasPrevious());
+                page.hasPrevious(),
+                null);
     }
 
     public PagedResult(SearchPage<T> searchPage) {
@@ -40,15 +42,15 @@ public record PagedResult<T>(
                 searchPage.getTotalElements(),
                 searchPage.getNumber() + 1,
                 searchPage.getTotalPages(),
-                new HashMap<>(),
+                Map.of(),
                 searchPage.isFirst(),
                 searchPage.isLast(),
                 searchPage.hasNext(),
-                searchPage.hasPrevious());
+                searchPage.hasPrevious(),
+                null);
     }
 
-    public PagedResult(
-            SearchPage<Restaurant> searchPage, Map<String, Map<String, Long>> aggregationMap) {
+    public PagedResult(SearchPage<Restaurant> searchPage, Map<String, Facet> aggregationMap) {
         this(
                 (List<T>) searchPage.getContent(),
                 searchPage.getTotalElements(),
@@ -58,6 +60,25 @@ public record PagedResult<T>(
                 searchPage.isFirst(),
                 searchPage.isLast(),
                 searchPage.hasNext(),
-                searchPage.hasPrevious());
+                searchPage.hasPrevious(),
+                null);
+    }
+
+    /**
+     * Copy carrying the token to pass as {@code cursor} for the next page of a cursor scan, {@code
+     * null} in offset mode and on the last page.
+     */
+    public PagedResult<T> withNextCursor(@Nullable String nextCursor) {
+        return new PagedResult<>(
+                data,
+                totalElements,
+                pageNumber,
+                totalPages,
+                aggregationMap,
+                isFirst,
+                isLast,
+                hasNext,
+                hasPrevious,
+                nextCursor);
     }
 }
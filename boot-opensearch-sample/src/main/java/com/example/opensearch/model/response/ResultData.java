@@ -1,5 +1,17 @@
 package com.example.opensearch.model.response;
 
+import com.example.opensearch.entities.Restaurant;
+import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.geo.Point;
 
-public record ResultData(String name, Point location, Double dist) {}
+public record ResultData(String name, Point location, Double dist) {
+
+    /** Expects the geo distance as first sort value of {@code searchHit}. */
+    public static ResultData of(SearchHit<Restaurant> searchHit) {
+        Restaurant restaurant = searchHit.getContent();
+        return new ResultData(
+                restaurant.getName(),
+                restaurant.getAddress().getLocation(),
+                (Double) searchHit.getSortValues().getFirst());
+    }
+}
@@ -2,16 +2,34 @@ package com.example.opensearch.repositories;
 
 import com.example.opensearch.entities.Restaurant;
 import com.example.opensearch.model.response.PagedResult;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.SearchHitsIterator;
 import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.lang.Nullable;
 
 public interface CustomRestaurantRepository {
     SearchHitsIterator<Restaurant> searchWithin(GeoPoint geoPoint, Double distance, String unit);
 
+    /**
+     * Scrolls through every restaurant, or those of {@code borough}, {@code batchSize} hits at a
+     * time. Only the given {@code properties} are fetched, all of them when empty. The caller must
+     * close the returned iterator.
+     */
+    SearchHitsIterator<Restaurant> export(
+            @Nullable String borough, Collection<String> properties, int batchSize);
+
+    SearchPage<Restaurant> searchWithin(
+            GeoPoint geoPoint, Double distance, String unit, Pageable pageable);
+
+    /** The {@code limit} restaurants nearest to {@code geoPoint}, distances in {@code unit}. */
+    SearchHits<Restaurant> searchNearest(GeoPoint geoPoint, String unit, int limit);
+
     PagedResult<Restaurant> findByBoroughOrCuisineOrName(
             String query, Boolean prefixPhraseEnabled, Pageable pageable);
 
@@ -34,11 +52,25 @@ public interface CustomRestaurantRepository {
 
     PagedResult<Restaurant> searchDateRange(String fromDate, String toDate, Pageable pageable);
 
-    SearchPage<Restaurant> aggregateSearch(
+    default SearchPage<Restaurant> aggregateSearch(
             String searchKeyword,
             List<String> fieldNames,
             Sort.Direction direction,
             Integer limit,
             Integer offset,
+            String[] sortFields) {
+        return aggregateSearch(
+                searchKeyword, fieldNames, direction, PageRequest.of(offset, limit), sortFields);
+    }
+
+    /**
+     * Pass a {@link CursorPageRequest} to page with {@code search_after}; aggregations are then
+     * only computed for the first page of the scan.
+     */
+    SearchPage<Restaurant> aggregateSearch(
+            String searchKeyword,
+            List<String> fieldNames,
+            Sort.Direction direction,
+            Pageable pageable,
             String[] sortFields);
 }
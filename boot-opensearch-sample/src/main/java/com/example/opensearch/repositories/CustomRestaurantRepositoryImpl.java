@@ -4,9 +4,11 @@ import com.example.opensearch.entities.Restaurant;
 import com.example.opensearch.model.response.PagedResult;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import org.opensearch.data.client.orhlc.NativeSearchQuery;
 import org.opensearch.data.client.orhlc.NativeSearchQueryBuilder;
 import org.opensearch.index.query.BoolQueryBuilder;
@@ -17,18 +19,26 @@ import org.opensearch.search.aggregations.AggregationBuilders;
 import org.opensearch.search.aggregations.BucketOrder;
 import org.opensearch.search.aggregations.bucket.range.DateRangeAggregationBuilder;
 import org.opensearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.elasticsearch.core.*;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.elasticsearch.core.query.BaseQuery;
 import org.springframework.data.elasticsearch.core.query.Criteria;
 import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
 import org.springframework.data.elasticsearch.core.query.GeoDistanceOrder;
 import org.springframework.data.elasticsearch.core.query.Query;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
 
 public class CustomRestaurantRepositoryImpl implements CustomRestaurantRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(CustomRestaurantRepositoryImpl.class);
+
     private final ElasticsearchOperations elasticsearchOperations;
 
     private static final int PAGE_SIZE = 1_000;
@@ -40,7 +50,46 @@ public class CustomRestaurantRepositoryImpl implements CustomRestaurantRepositor
     @Override
     public SearchHitsIterator<Restaurant> searchWithin(
             GeoPoint geoPoint, Double distance, String unit) {
+        return elasticsearchOperations.searchForStream(
+                withinQuery(geoPoint, distance, unit), Restaurant.class);
+    }
+
+    @Override
+    public SearchHitsIterator<Restaurant> export(
+            @Nullable String borough, Collection<String> properties, int batchSize) {
+        Query query =
+                StringUtils.hasText(borough)
+                        ? new CriteriaQuery(new Criteria("borough").is(borough))
+                        : Query.findAll();
+        if (!properties.isEmpty()) {
+            query.addSourceFilter(new FetchSourceFilter(properties.toArray(String[]::new), null));
+        }
+        // searchForStream scrolls with the page size as batch size
+        query.setPageable(PageRequest.of(0, batchSize));
+        return elasticsearchOperations.searchForStream(query, Restaurant.class);
+    }
+
+    @Override
+    public SearchPage<Restaurant> searchWithin(
+            GeoPoint geoPoint, Double distance, String unit, Pageable pageable) {
+        Query query = withinQuery(geoPoint, distance, unit);
+        query.setPageable(pageable);
+        return searchPage(query);
+    }
+
+    @Override
+    public SearchHits<Restaurant> searchNearest(GeoPoint geoPoint, String unit, int limit) {
+        Query query =
+                new CriteriaQuery(new Criteria("address.coord").exists())
+                        .addSort(
+                                Sort.by(
+                                        new GeoDistanceOrder("address.coord", geoPoint)
+                                                .withUnit(unit)));
+        query.setPageable(PageRequest.of(0, limit));
+        return elasticsearchOperations.search(query, Restaurant.class);
+    }
 
+    private Query withinQuery(GeoPoint geoPoint, Double distance, String unit) {
         Query query =
                 new CriteriaQuery(
                         new Criteria("address.coord").within(geoPoint, distance.toString() + unit));
@@ -48,8 +97,7 @@ public class CustomRestaurantRepositoryImpl implements CustomRestaurantRepositor
         // add a sort to get the actual distance back in the sort value
         Sort sort = Sort.by(new GeoDistanceOrder("address.coord", geoPoint).withUnit(unit));
         query.addSort(sort);
-
-        return elasticsearchOperations.searchForStream(query, Restaurant.class);
+        return query;
     }
 
     @Override
@@ -68,10 +116,63 @@ public class CustomRestaurantRepositoryImpl implements CustomRestaurantRepositor
     }
 
     private PagedResult<Restaurant> getResults(Query query) {
-        SearchHits<Restaurant> searchHits = elasticsearchOperations.search(query, Restaurant.class);
+        SearchPage<Restaurant> searchPage = searchPage(query);
+        return new PagedResult<>(searchPage).withNextCursor(SearchCursor.next(searchPage));
+    }
+
+    /**
+     * Runs {@code query} for its pageable. A {@link CursorPageRequest} reads from a point in time
+     * and continues after the sort values of the previous page instead of using {@code from}, so
+     * deep pages cost the same as the first one and are not shifted by concurrent writes. The point
+     * in time is opened with the first page and closed as soon as a page comes back short;
+     * abandoned scans expire after {@link CursorPageRequest#KEEP_ALIVE}.
+     */
+    private SearchPage<Restaurant> searchPage(Query query) {
+        if (!(query.getPageable() instanceof CursorPageRequest cursorPageRequest)) {
+            return SearchHitSupport.searchPageFor(
+                    elasticsearchOperations.search(query, Restaurant.class), query.getPageable());
+        }
+        if (query.getSort() == null || query.getSort().isUnsorted()) {
+            query.addSort(Sort.by(Sort.Direction.DESC, "_score"));
+        }
+        // the document id doubles as unique tiebreaker, so no two hits share a search_after
+        // position
+        query.addSort(Sort.by(Sort.Direction.ASC, "id"));
+
+        String pointInTimeId =
+                cursorPageRequest
+                        .cursor()
+                        .map(
+                                cursor -> {
+                                    query.setSearchAfter(cursor.searchAfter());
+                                    return cursor.pointInTimeId();
+                                })
+                        .orElseGet(
+                                () ->
+                                        elasticsearchOperations.openPointInTime(
+                                                elasticsearchOperations.getIndexCoordinatesFor(
+                                                        Restaurant.class),
+                                                CursorPageRequest.KEEP_ALIVE));
+        ((BaseQuery) query)
+                .setPointInTime(new Query.PointInTime(pointInTimeId, CursorPageRequest.KEEP_ALIVE));
         SearchPage<Restaurant> searchPage =
-                SearchHitSupport.searchPageFor(searchHits, query.getPageable());
-        return new PagedResult<>(searchPage);
+                SearchHitSupport.searchPageFor(
+                        elasticsearchOperations.search(query, Restaurant.class), cursorPageRequest);
+        if (searchPage.getContent().size() < cursorPageRequest.getPageSize()) {
+            closePointInTime(
+                    Objects.requireNonNullElse(
+                            searchPage.getSearchHits().getPointInTimeId(), pointInTimeId));
+        }
+        return searchPage;
+    }
+
+    private void closePointInTime(String pointInTimeId) {
+        try {
+            elasticsearchOperations.closePointInTime(pointInTimeId);
+        } catch (RuntimeException e) {
+            // best effort, an unclosed point in time is released when its keep alive runs out
+            log.debug("Unable to close point in time {}", pointInTimeId, e);
+        }
     }
 
     @Override
@@ -171,8 +272,7 @@ public class CustomRestaurantRepositoryImpl implements CustomRestaurantRepositor
             String searchKeyword,
             List<String> fieldNames,
             Sort.Direction direction,
-            Integer limit,
-            Integer offset,
+            Pageable pageable,
             String[] sortFields) {
         TermsAggregationBuilder cuisineTermsBuilder =
                 AggregationBuilders.terms("MyCuisine")
@@ -188,20 +288,23 @@ public class CustomRestaurantRepositoryImpl implements CustomRestaurantRepositor
                 AggregationBuilders.dateRange("MyDateRange").field("grades.date");
         addDateRange(dateRangeBuilder);
 
-        Query query =
+        NativeSearchQueryBuilder queryBuilder =
                 new NativeSearchQueryBuilder()
                         .withQuery(
                                 QueryBuilders.multiMatchQuery(
                                                 searchKeyword, fieldNames.toArray(String[]::new))
                                         .operator(Operator.OR))
-                        .withSort(Sort.by(direction, sortFields))
-                        .withAggregations(
-                                cuisineTermsBuilder, boroughTermsBuilder, dateRangeBuilder)
-                        .build();
-        query.setPageable(PageRequest.of(offset, limit));
-
-        return SearchHitSupport.searchPageFor(
-                elasticsearchOperations.search(query, Restaurant.class), query.getPageable());
+                        .withSort(Sort.by(direction, sortFields));
+        // facets describe the whole result set, so continuation pages of a scan skip them
+        if (!(pageable instanceof CursorPageRequest cursorPageRequest)
+                || cursorPageRequest.cursor().isEmpty()) {
+            queryBuilder.withAggregations(
+                    cuisineTermsBuilder, boroughTermsBuilder, dateRangeBuilder);
+        }
+        Query query = queryBuilder.build();
+        query.setPageable(pageable);
+
+        return searchPage(query);
     }
 
     private void addDateRange(DateRangeAggregationBuilder dateRangeBuilder) {
@@ -0,0 +1,161 @@
+package com.example.opensearch.repositories;
+
+import com.example.opensearch.config.ApplicationProperties;
+import com.example.opensearch.entities.Restaurant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.data.geo.Point;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Restaurant locations held in a {@link GeoGridIndex}, so that range and nearest searches are
+ * answered without a round trip to opensearch.
+ *
+ * <p>The grid is loaded by scrolling the index once the application is ready, after the seed data
+ * has been loaded, and kept current by the restaurant service which applies every save and delete
+ * here as well. Restaurants written while the load is still running are skipped by the load, their
+ * write already put them in their latest state. Until the load is done searches return empty so
+ * that callers fall back to opensearch.
+ */
+@Component
+public class RestaurantGeoIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantGeoIndex.class);
+
+    private final RestaurantRepository restaurantRepository;
+    private final ApplicationProperties applicationProperties;
+    private final GeoGridIndex<String> index;
+    private final AtomicBoolean warm = new AtomicBoolean();
+    private final Set<String> writtenWhileLoading = ConcurrentHashMap.newKeySet();
+    private final Counter localSearches;
+    private final Counter coldSearches;
+
+    public RestaurantGeoIndex(
+            RestaurantRepository restaurantRepository,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        this.restaurantRepository = restaurantRepository;
+        this.applicationProperties = applicationProperties;
+        this.index = new GeoGridIndex<>(applicationProperties.getGeoIndex().getCellDegrees());
+        Gauge.builder("restaurant.geo.index.size", index, GeoGridIndex::size)
+                .description("Restaurant locations held in the in memory geo index")
+                .register(meterRegistry);
+        this.localSearches = searches(meterRegistry, "local");
+        this.coldSearches = searches(meterRegistry, "cold");
+    }
+
+    private static Counter searches(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("restaurant.geo.index.searches")
+                .description("Geo searches answered from the index, or left to opensearch")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (applicationProperties.getGeoIndex().isEnabled()) {
+            Thread.ofVirtual().name("geo-index-warm-up").start(this::warmUp);
+        }
+    }
+
+    /** Scrolls every restaurant location out of opensearch, the index is warm once it returns. */
+    public long warmUp() {
+        warm.set(false);
+        writtenWhileLoading.clear();
+        long loaded = 0;
+        try (SearchHitsIterator<Restaurant> hits =
+                restaurantRepository.export(
+                        null,
+                        List.of("name", "address.coord"),
+                        applicationProperties.getExport().getBatchSize())) {
+            while (hits.hasNext()) {
+                SearchHit<Restaurant> hit = hits.next();
+                Restaurant restaurant = hit.getContent();
+                if (restaurant.getId() == null) {
+                    restaurant.setId(hit.getId());
+                }
+                if (!writtenWhileLoading.contains(restaurant.getId())) {
+                    put(restaurant);
+                    loaded++;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn(
+                    "Geo index warm up failed, geo searches stay on opensearch: {}",
+                    e.getMessage());
+            return loaded;
+        }
+        warm.set(true);
+        writtenWhileLoading.clear();
+        log.info("Geo index warmed up with {} restaurants", loaded);
+        return loaded;
+    }
+
+    /** Applies a restaurant that has just been saved. */
+    public void saved(Restaurant restaurant) {
+        if (!warm.get()) {
+            writtenWhileLoading.add(restaurant.getId());
+        }
+        put(restaurant);
+    }
+
+    /** Applies a restaurant that has just been deleted. */
+    public void deleted(String id) {
+        if (!warm.get()) {
+            writtenWhileLoading.add(id);
+        }
+        index.remove(id);
+    }
+
+    public boolean isWarm() {
+        return warm.get();
+    }
+
+    /** Restaurants within {@code meters} of the point nearest first, empty while not warm. */
+    public Optional<List<GeoGridIndex.Neighbor<String>>> withinDistance(
+            double lat, double lon, double meters) {
+        if (!warm.get()) {
+            coldSearches.increment();
+            return Optional.empty();
+        }
+        localSearches.increment();
+        return Optional.of(index.withinDistance(lat, lon, meters));
+    }
+
+    /** The {@code k} restaurants nearest to the point, empty while not warm. */
+    public Optional<List<GeoGridIndex.Neighbor<String>>> nearest(double lat, double lon, int k) {
+        if (!warm.get()) {
+            coldSearches.increment();
+            return Optional.empty();
+        }
+        localSearches.increment();
+        return Optional.of(index.nearest(lat, lon, k));
+    }
+
+    private void put(Restaurant restaurant) {
+        Point location = location(restaurant);
+        if (location == null) {
+            // a restaurant that lost its location must not be found at the old one
+            index.remove(restaurant.getId());
+            return;
+        }
+        index.put(restaurant.getId(), location.getY(), location.getX(), null, restaurant.getName());
+    }
+
+    @Nullable private static Point location(Restaurant restaurant) {
+        return restaurant.getAddress() == null ? null : restaurant.getAddress().getLocation();
+    }
+}
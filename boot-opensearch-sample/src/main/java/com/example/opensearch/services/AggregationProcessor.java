@@ -0,0 +1,120 @@
+package com.example.opensearch.services;
+
+import com.example.opensearch.model.response.Facet;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.opensearch.search.aggregations.Aggregation;
+import org.opensearch.search.aggregations.Aggregations;
+import org.opensearch.search.aggregations.bucket.MultiBucketsAggregation;
+import org.opensearch.search.aggregations.bucket.histogram.Histogram;
+import org.opensearch.search.aggregations.bucket.histogram.ParsedDateHistogram;
+import org.opensearch.search.aggregations.bucket.nested.Nested;
+import org.opensearch.search.aggregations.bucket.range.ParsedDateRange;
+import org.opensearch.search.aggregations.bucket.range.ParsedGeoDistance;
+import org.opensearch.search.aggregations.bucket.range.Range;
+import org.opensearch.search.aggregations.bucket.terms.Terms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decodes OpenSearch aggregations into {@link Facet}s. Supports 'terms', 'range', 'date_range',
+ * 'geo_distance', 'histogram', 'date_histogram' and 'nested' aggregations, including their sub
+ * aggregations.
+ *
+ * <p>Every bucket list is sized from the client response up front and bucket keys are taken as
+ * rendered by opensearch, so decoding allocates one object per bucket and nothing per request
+ * beyond that.
+ */
+@Service
+public class AggregationProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(AggregationProcessor.class);
+
+    /**
+     * @return Map of aggregation name to facet, in response order; unsupported aggregation types
+     *     are left out
+     */
+    public Map<String, Facet> processAggregations(Aggregations aggregations) {
+        List<Aggregation> aggregationList = aggregations.asList();
+        if (aggregationList.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Facet> facets = LinkedHashMap.newLinkedHashMap(aggregationList.size());
+        for (Aggregation aggregation : aggregationList) {
+            Facet facet = processAggregation(aggregation);
+            if (facet != null) {
+                facets.put(aggregation.getName(), facet);
+            }
+        }
+        return facets;
+    }
+
+    @Nullable private Facet processAggregation(Aggregation aggregation) {
+        if (aggregation instanceof Terms terms) {
+            return new Facet(Facet.Type.TERMS, processBuckets(terms.getBuckets()));
+        } else if (aggregation instanceof ParsedDateRange dateRange) {
+            return new Facet(Facet.Type.DATE_RANGE, processRanges(dateRange.getBuckets(), true));
+        } else if (aggregation instanceof ParsedGeoDistance geoDistance) {
+            return new Facet(
+                    Facet.Type.GEO_DISTANCE, processRanges(geoDistance.getBuckets(), false));
+        } else if (aggregation instanceof Range range) {
+            return new Facet(Facet.Type.RANGE, processRanges(range.getBuckets(), false));
+        } else if (aggregation instanceof ParsedDateHistogram dateHistogram) {
+            return new Facet(Facet.Type.DATE_HISTOGRAM, processBuckets(dateHistogram.getBuckets()));
+        } else if (aggregation instanceof Histogram histogram) {
+            return new Facet(Facet.Type.HISTOGRAM, processBuckets(histogram.getBuckets()));
+        } else if (aggregation instanceof Nested nested) {
+            return new Facet(
+                    Facet.Type.NESTED,
+                    List.of(
+                            new Facet.Bucket(
+                                    null,
+                                    nested.getDocCount(),
+                                    null,
+                                    null,
+                                    processAggregations(nested.getAggregations()))));
+        }
+        log.debug("Unsupported aggregation type encountered: {}", aggregation.getType());
+        return null;
+    }
+
+    private List<Facet.Bucket> processBuckets(
+            List<? extends MultiBucketsAggregation.Bucket> buckets) {
+        List<Facet.Bucket> facetBuckets = new ArrayList<>(buckets.size());
+        for (MultiBucketsAggregation.Bucket bucket : buckets) {
+            facetBuckets.add(
+                    new Facet.Bucket(
+                            bucket.getKeyAsString(),
+                            bucket.getDocCount(),
+                            null,
+                            null,
+                            processAggregations(bucket.getAggregations())));
+        }
+        return facetBuckets;
+    }
+
+    /**
+     * Ranges without documents are left out. Only date ranges keep their bounds, in the form
+     * opensearch already rendered them, so no number is formatted per bucket.
+     */
+    private List<Facet.Bucket> processRanges(
+            List<? extends Range.Bucket> buckets, boolean keepBounds) {
+        List<Facet.Bucket> facetBuckets = new ArrayList<>(buckets.size());
+        for (Range.Bucket bucket : buckets) {
+            if (bucket.getDocCount() != 0) {
+                facetBuckets.add(
+                        new Facet.Bucket(
+                                bucket.getKeyAsString(),
+                                bucket.getDocCount(),
+                                keepBounds ? bucket.getFromAsString() : null,
+                                keepBounds ? bucket.getToAsString() : null,
+                                processAggregations(bucket.getAggregations())));
+            }
+        }
+        return facetBuckets;
+    }
+}
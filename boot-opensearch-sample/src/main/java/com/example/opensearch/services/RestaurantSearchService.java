@@ -1,34 +1,48 @@
 package com.example.opensearch.services;
 
 import com.example.opensearch.entities.Restaurant;
+import com.example.opensearch.model.response.Facet;
 import com.example.opensearch.model.response.PagedResult;
 import com.example.opensearch.model.response.ResultData;
+import com.example.opensearch.repositories.CursorPageRequest;
+import com.example.opensearch.repositories.GeoGridIndex;
+import com.example.opensearch.repositories.RestaurantGeoIndex;
 import com.example.opensearch.repositories.RestaurantRepository;
-import java.util.HashMap;
+import com.example.opensearch.repositories.SearchCursor;
+import com.example.opensearch.web.exception.InvalidCursorException;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Optional;
 import org.apache.commons.lang3.StringUtils;
 import org.opensearch.data.client.orhlc.OpenSearchAggregations;
-import org.opensearch.search.aggregations.Aggregation;
-import org.opensearch.search.aggregations.bucket.MultiBucketsAggregation;
-import org.opensearch.search.aggregations.bucket.range.ParsedDateRange;
-import org.opensearch.search.aggregations.bucket.terms.ParsedStringTerms;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
 import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.geo.GeoPoint;
+import org.springframework.data.geo.Point;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 @Service
 public class RestaurantSearchService {
 
+    // distance units the geo index can answer in
+    private static final Map<String, Double> METERS_PER_UNIT =
+            Map.of("km", 1_000d, "mi", 1_609.344);
+
     private final RestaurantRepository restaurantRepository;
+    private final AggregationProcessor aggregationProcessor;
+    private final RestaurantGeoIndex restaurantGeoIndex;
 
-    public RestaurantSearchService(RestaurantRepository restaurantRepository) {
+    public RestaurantSearchService(
+            RestaurantRepository restaurantRepository,
+            AggregationProcessor aggregationProcessor,
+            RestaurantGeoIndex restaurantGeoIndex) {
         this.restaurantRepository = restaurantRepository;
+        this.aggregationProcessor = aggregationProcessor;
+        this.restaurantGeoIndex = restaurantGeoIndex;
     }
 
     public PagedResult<Restaurant> findByBorough(String query, Integer offset, Integer limit) {
@@ -37,8 +51,12 @@ public class RestaurantSearchService {
     }
 
     public PagedResult<Restaurant> multiSearchQuery(
-            String query, Integer offset, Integer limit, Boolean prefixPhraseEnabled) {
-        Pageable pageable = PageRequest.of(offset, limit);
+            String query,
+            Integer offset,
+            Integer limit,
+            Boolean prefixPhraseEnabled,
+            @Nullable String cursor) {
+        Pageable pageable = pageRequest(offset, limit, cursor);
         return restaurantRepository.findByBoroughOrCuisineOrName(
                 query, prefixPhraseEnabled, pageable);
     }
@@ -64,8 +82,13 @@ public class RestaurantSearchService {
     }
 
     public PagedResult<Restaurant> queryBoolWithShould(
-            String borough, String cuisine, String name, Integer offset, Integer limit) {
-        Pageable pageable = PageRequest.of(offset, limit);
+            String borough,
+            String cuisine,
+            String name,
+            Integer offset,
+            Integer limit,
+            @Nullable String cursor) {
+        Pageable pageable = pageRequest(offset, limit, cursor);
         return restaurantRepository.queryBoolWithShould(borough, cuisine, name, pageable);
     }
 
@@ -88,14 +111,22 @@ public class RestaurantSearchService {
     }
 
     public PagedResult<Restaurant> searchRestaurantIdRange(
-            Long lowerLimit, Long upperLimit, Integer offset, Integer limit) {
-        Pageable pageable = PageRequest.of(offset, limit);
+            Long lowerLimit,
+            Long upperLimit,
+            Integer offset,
+            Integer limit,
+            @Nullable String cursor) {
+        Pageable pageable = pageRequest(offset, limit, cursor);
         return restaurantRepository.searchRestaurantIdRange(lowerLimit, upperLimit, pageable);
     }
 
     public PagedResult<Restaurant> searchDateRange(
-            String fromDate, String toDate, Integer offset, Integer limit) {
-        Pageable pageable = PageRequest.of(offset, limit);
+            String fromDate,
+            String toDate,
+            Integer offset,
+            Integer limit,
+            @Nullable String cursor) {
+        Pageable pageable = pageRequest(offset, limit, cursor);
         return restaurantRepository.searchDateRange(fromDate, toDate, pageable);
     }
 
@@ -105,6 +136,7 @@ public class RestaurantSearchService {
             String sortOrder,
             Integer limit,
             Integer offset,
+            @Nullable String cursor,
             String... sortFields) {
         Sort.Direction direction;
         if (StringUtils.endsWithIgnoreCase(sortOrder, "ASC")) {
@@ -115,67 +147,93 @@ public class RestaurantSearchService {
 
         SearchPage<Restaurant> searchPage =
                 restaurantRepository.aggregateSearch(
-                        searchKeyword, fieldNames, direction, limit, offset, sortFields);
+                        searchKeyword,
+                        fieldNames,
+                        direction,
+                        pageRequest(offset, limit, cursor),
+                        sortFields);
 
         OpenSearchAggregations elasticsearchAggregations =
                 (OpenSearchAggregations) searchPage.getSearchHits().getAggregations();
-        Map<String, Map<String, Long>> map = new HashMap<>();
+        Map<String, Facet> facets = Map.of();
         if (elasticsearchAggregations != null) {
-            map = aggregationFunction.apply(elasticsearchAggregations.aggregations().asMap());
+            facets =
+                    aggregationProcessor.processAggregations(
+                            elasticsearchAggregations.aggregations());
         }
-        return new PagedResult<>(searchPage, map);
-    }
-
-    final Function<Map<String, Aggregation>, Map<String, Map<String, Long>>> aggregationFunction =
-            aggregationMap -> {
-                Map<String, Map<String, Long>> resultMap = new HashMap<>();
-                aggregationMap.forEach(
-                        (String aggregateKey, Aggregation aggregation) -> {
-                            Map<String, Long> countMap = new HashMap<>();
-
-                            if (aggregation instanceof ParsedStringTerms parsedStringTerms) {
-
-                                countMap =
-                                        parsedStringTerms.getBuckets().stream()
-                                                .collect(
-                                                        Collectors.toMap(
-                                                                MultiBucketsAggregation.Bucket
-                                                                        ::getKeyAsString,
-                                                                MultiBucketsAggregation.Bucket
-                                                                        ::getDocCount));
-                            } else if (aggregation instanceof ParsedDateRange parsedDateRange) {
-                                countMap =
-                                        parsedDateRange.getBuckets().stream()
-                                                .filter(bucket -> bucket.getDocCount() != 0)
-                                                .collect(
-                                                        Collectors.toMap(
-                                                                bucket ->
-                                                                        bucket.getFromAsString()
-                                                                                + " - "
-                                                                                + bucket
-                                                                                        .getToAsString(),
-                                                                MultiBucketsAggregation.Bucket
-                                                                        ::getDocCount));
-                            }
-                            resultMap.put(aggregateKey, countMap);
-                        });
-
-                return resultMap;
-            };
+        return new PagedResult<Restaurant>(searchPage, facets)
+                .withNextCursor(SearchCursor.next(searchPage));
+    }
 
+    /**
+     * Restaurants within range nearest first, answered by the geo index once it is warm and by
+     * opensearch until then, or for units the index does not know.
+     */
     public List<ResultData> searchRestaurantsWithInRange(
             Double lat, Double lon, Double distance, String unit) {
+        Double metersPerUnit = METERS_PER_UNIT.get(unit);
+        if (metersPerUnit != null) {
+            Optional<List<GeoGridIndex.Neighbor<String>>> neighbors =
+                    restaurantGeoIndex.withinDistance(lat, lon, distance * metersPerUnit);
+            if (neighbors.isPresent()) {
+                return neighbors.get().stream()
+                        .map(neighbor -> resultData(neighbor, metersPerUnit))
+                        .toList();
+            }
+        }
         GeoPoint location = new GeoPoint(lat, lon);
-        return this.restaurantRepository.searchWithin(location, distance, unit).stream()
-                .map(
-                        restaurantSearchHit -> {
-                            Double dist = (Double) restaurantSearchHit.getSortValues().getFirst();
-                            Restaurant eRestaurant = restaurantSearchHit.getContent();
-                            return new ResultData(
-                                    eRestaurant.getName(),
-                                    eRestaurant.getAddress().getLocation(),
-                                    dist);
-                        })
+        try (SearchHitsIterator<Restaurant> hits =
+                this.restaurantRepository.searchWithin(location, distance, unit)) {
+            return hits.stream().map(ResultData::of).toList();
+        }
+    }
+
+    /** The {@code limit} restaurants nearest to the location, like the range search. */
+    public List<ResultData> searchNearestRestaurants(
+            Double lat, Double lon, String unit, Integer limit) {
+        Double metersPerUnit = METERS_PER_UNIT.get(unit);
+        if (metersPerUnit != null) {
+            Optional<List<GeoGridIndex.Neighbor<String>>> neighbors =
+                    restaurantGeoIndex.nearest(lat, lon, limit);
+            if (neighbors.isPresent()) {
+                return neighbors.get().stream()
+                        .map(neighbor -> resultData(neighbor, metersPerUnit))
+                        .toList();
+            }
+        }
+        return this.restaurantRepository.searchNearest(new GeoPoint(lat, lon), unit, limit).stream()
+                .map(ResultData::of)
                 .toList();
     }
+
+    private static ResultData resultData(
+            GeoGridIndex.Neighbor<String> neighbor, double metersPerUnit) {
+        return new ResultData(
+                neighbor.value(),
+                new Point(neighbor.lon(), neighbor.lat()),
+                neighbor.distanceMeters() / metersPerUnit);
+    }
+
+    /** One page of the restaurants within range, nearest first. */
+    public SearchPage<Restaurant> searchRestaurantsWithInRange(
+            Double lat, Double lon, Double distance, String unit, Integer limit, String cursor) {
+        GeoPoint location = new GeoPoint(lat, lon);
+        return this.restaurantRepository.searchWithin(
+                location, distance, unit, pageRequest(0, limit, cursor));
+    }
+
+    /**
+     * Offset based page request, or a search_after scan when a {@code cursor} is given. Pass {@link
+     * SearchCursor#START} to open a scan; {@code offset} is ignored in that mode.
+     */
+    private Pageable pageRequest(Integer offset, Integer limit, @Nullable String cursor) {
+        if (cursor == null) {
+            return PageRequest.of(offset, limit);
+        }
+        try {
+            return CursorPageRequest.of(limit, cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor, e);
+        }
+    }
 }
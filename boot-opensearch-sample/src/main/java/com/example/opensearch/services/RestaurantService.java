@@ -1,13 +1,18 @@
 package com.example.opensearch.services;
 
+import com.example.opensearch.config.ApplicationProperties;
 import com.example.opensearch.entities.Restaurant;
 import com.example.opensearch.model.response.PagedResult;
+import com.example.opensearch.repositories.RestaurantGeoIndex;
 import com.example.opensearch.repositories.RestaurantRepository;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,9 +21,16 @@ import org.springframework.transaction.annotation.Transactional;
 public class RestaurantService {
 
     private final RestaurantRepository restaurantRepository;
+    private final ApplicationProperties applicationProperties;
+    private final RestaurantGeoIndex restaurantGeoIndex;
 
-    public RestaurantService(RestaurantRepository restaurantRepository) {
+    public RestaurantService(
+            RestaurantRepository restaurantRepository,
+            ApplicationProperties applicationProperties,
+            RestaurantGeoIndex restaurantGeoIndex) {
         this.restaurantRepository = restaurantRepository;
+        this.applicationProperties = applicationProperties;
+        this.restaurantGeoIndex = restaurantGeoIndex;
     }
 
     public PagedResult<Restaurant> findAllRestaurants(
@@ -39,11 +51,20 @@ public class RestaurantService {
         return restaurantRepository.findById(id);
     }
 
+    public SearchHitsIterator<Restaurant> exportRestaurants(
+            @Nullable String borough, List<String> fields) {
+        return restaurantRepository.export(
+                borough, fields, applicationProperties.getExport().getBatchSize());
+    }
+
     public Restaurant saveRestaurant(Restaurant restaurant) {
-        return restaurantRepository.save(restaurant);
+        Restaurant saved = restaurantRepository.save(restaurant);
+        restaurantGeoIndex.saved(saved);
+        return saved;
     }
 
     public void deleteRestaurantById(String id) {
         restaurantRepository.deleteById(id);
+        restaurantGeoIndex.deleted(id);
     }
 }
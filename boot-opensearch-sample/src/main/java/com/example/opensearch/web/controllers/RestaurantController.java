@@ -5,7 +5,16 @@ import com.example.opensearch.model.request.RestaurantRequest;
 import com.example.opensearch.model.response.PagedResult;
 import com.example.opensearch.services.RestaurantService;
 import com.example.opensearch.utils.AppConstants;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.constraints.Pattern;
+import java.util.List;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,15 +27,30 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/restaurants")
 public class RestaurantController {
 
+    private static final String EXPORTABLE_FIELDS = "^(id|name|address|borough|cuisine|grades)$";
+
+    /** number of exported restaurants after which buffered output is pushed to the client. */
+    private static final int EXPORT_FLUSH_INTERVAL = 1_000;
+
     private final RestaurantService restaurantService;
+    private final ObjectWriter exportWriter;
 
-    public RestaurantController(RestaurantService restaurantService) {
+    public RestaurantController(RestaurantService restaurantService, ObjectMapper objectMapper) {
         this.restaurantService = restaurantService;
+        // fields left out of the export are dropped instead of written as null, and the output is
+        // only flushed once per batch rather than after every line
+        this.exportWriter =
+                objectMapper
+                        .copy()
+                        .setSerializationInclusion(JsonInclude.Include.NON_EMPTY)
+                        .writerFor(Restaurant.class)
+                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @GetMapping
@@ -42,6 +66,41 @@ public class RestaurantController {
         return restaurantService.findAllRestaurants(pageNo, pageSize, sortBy, sortDir);
     }
 
+    /**
+     * Streams the restaurants of {@code borough}, or all of them, as newline delimited json. Hits
+     * are scrolled one batch at a time and written straight to the response, so memory stays
+     * constant and a slow client holds back the scroll instead of buffering the index.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportRestaurants(
+            @RequestParam(required = false) String borough,
+            @RequestParam(required = false, defaultValue = "")
+                    List<
+                                    @Pattern(
+                                            regexp = EXPORTABLE_FIELDS,
+                                            message = "Unknown restaurant field")
+                                    String>
+                            fields) {
+        StreamingResponseBody body =
+                outputStream -> {
+                    try (SearchHitsIterator<Restaurant> hits =
+                                    restaurantService.exportRestaurants(borough, fields);
+                            JsonGenerator generator = exportWriter.createGenerator(outputStream)) {
+                        // every line is terminated explicitly instead of separated by a space
+                        generator.setRootValueSeparator(null);
+                        int written = 0;
+                        while (hits.hasNext()) {
+                            exportWriter.writeValue(generator, hits.next().getContent());
+                            generator.writeRaw('\n');
+                            if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                                generator.flush();
+                            }
+                        }
+                    }
+                };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Restaurant> getRestaurantById(@PathVariable String id) {
         return restaurantService
@@ -3,9 +3,11 @@ package com.example.opensearch.web.controllers;
 import com.example.opensearch.entities.Restaurant;
 import com.example.opensearch.model.response.PagedResult;
 import com.example.opensearch.model.response.ResultData;
+import com.example.opensearch.repositories.SearchCursor;
 import com.example.opensearch.services.RestaurantSearchService;
 import io.micrometer.core.annotation.Timed;
 import java.util.List;
+import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -15,6 +17,8 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 public class SearchController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final RestaurantSearchService searchService;
 
     public SearchController(RestaurantSearchService searchService) {
@@ -35,9 +39,10 @@ public class SearchController {
             @RequestParam(defaultValue = "10") Integer limit,
             @RequestParam(defaultValue = "0") Integer offset,
             @RequestParam(value = "prefix_phrase_enabled", defaultValue = "false")
-                    Boolean prefixPhraseEnabled) {
+                    Boolean prefixPhraseEnabled,
+            @RequestParam(required = false) String cursor) {
         return ResponseEntity.ok(
-                searchService.multiSearchQuery(query, offset, limit, prefixPhraseEnabled));
+                searchService.multiSearchQuery(query, offset, limit, prefixPhraseEnabled, cursor));
     }
 
     @GetMapping("/search/term/borough")
@@ -73,9 +78,10 @@ public class SearchController {
             @RequestParam String cuisine,
             @RequestParam String name,
             @RequestParam(defaultValue = "10") Integer limit,
-            @RequestParam(defaultValue = "0") Integer offset) {
+            @RequestParam(defaultValue = "0") Integer offset,
+            @RequestParam(required = false) String cursor) {
         return ResponseEntity.ok(
-                searchService.queryBoolWithShould(borough, cuisine, name, offset, limit));
+                searchService.queryBoolWithShould(borough, cuisine, name, offset, limit, cursor));
     }
 
     @GetMapping("/search/wildcard/borough")
@@ -108,9 +114,11 @@ public class SearchController {
             @RequestParam Long lowerLimit,
             @RequestParam Long upperLimit,
             @RequestParam(defaultValue = "10") Integer limit,
-            @RequestParam(defaultValue = "0") Integer offset) {
+            @RequestParam(defaultValue = "0") Integer offset,
+            @RequestParam(required = false) String cursor) {
         return ResponseEntity.ok(
-                searchService.searchRestaurantIdRange(lowerLimit, upperLimit, offset, limit));
+                searchService.searchRestaurantIdRange(
+                        lowerLimit, upperLimit, offset, limit, cursor));
     }
 
     @GetMapping("/search/date/range")
@@ -118,8 +126,10 @@ public class SearchController {
             @RequestParam String fromDate,
             @RequestParam String toDate,
             @RequestParam(defaultValue = "10") Integer limit,
-            @RequestParam(defaultValue = "0") Integer offset) {
-        return ResponseEntity.ok(searchService.searchDateRange(fromDate, toDate, offset, limit));
+            @RequestParam(defaultValue = "0") Integer offset,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(
+                searchService.searchDateRange(fromDate, toDate, offset, limit, cursor));
     }
 
     @GetMapping("/search/aggregate")
@@ -129,10 +139,11 @@ public class SearchController {
             @RequestParam(required = false, defaultValue = "15") Integer limit,
             @RequestParam(required = false, defaultValue = "0") Integer offset,
             @RequestParam(required = false, defaultValue = "DESC") String sortOrder,
+            @RequestParam(required = false) String cursor,
             @RequestParam(required = false, defaultValue = "id") String... sortFields) {
         return ResponseEntity.ok(
                 searchService.aggregateSearch(
-                        searchKeyword, fieldNames, sortOrder, limit, offset, sortFields));
+                        searchKeyword, fieldNames, sortOrder, limit, offset, cursor, sortFields));
     }
 
     @GetMapping("/search/restaurant/withInRange")
@@ -140,8 +151,29 @@ public class SearchController {
             @RequestParam Double lat,
             @RequestParam Double lon,
             @RequestParam Double distance,
-            @RequestParam(defaultValue = "km", required = false) String unit) {
-        return ResponseEntity.ok(
-                searchService.searchRestaurantsWithInRange(lat, lon, distance, unit));
+            @RequestParam(defaultValue = "km", required = false) String unit,
+            @RequestParam(defaultValue = "100") Integer limit,
+            @RequestParam(required = false) String cursor) {
+        if (cursor == null) {
+            return ResponseEntity.ok(
+                    searchService.searchRestaurantsWithInRange(lat, lon, distance, unit));
+        }
+        SearchPage<Restaurant> searchPage =
+                searchService.searchRestaurantsWithInRange(lat, lon, distance, unit, limit, cursor);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        String nextCursor = SearchCursor.next(searchPage);
+        if (nextCursor != null) {
+            builder.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return builder.body(searchPage.getContent().stream().map(ResultData::of).toList());
+    }
+
+    @GetMapping("/search/restaurant/nearest")
+    public ResponseEntity<List<ResultData>> searchNearestRestaurants(
+            @RequestParam Double lat,
+            @RequestParam Double lon,
+            @RequestParam(defaultValue = "km", required = false) String unit,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        return ResponseEntity.ok(searchService.searchNearestRestaurants(lat, lon, unit, limit));
     }
 }
@@ -0,0 +1,49 @@
+package com.example.opensearch.config.loader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.opensearch.config.ApplicationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+
+class RestaurantBulkLoaderTest {
+
+    private static final String SEED =
+            """
+            {"address": {"building": "1007", "coord": [-73.856077, 40.848447], "street": "Morris Park Ave", "zipcode": "10462"}, "borough": "Bronx", "cuisine": "Bakery", "grades": [{"date": {"$date": 1393804800000}, "grade": "A", "score": 2}], "name": "Morris Park Bake Shop", "restaurant_id": "30075445"}
+            {"address": {"building": "469", "coord": [-73.961704, 40.662942], "street": "Flatbush Avenue", "zipcode": "11225"}, "borough": "Brooklyn", "cuisine": "Hamburgers", "grades": [], "name": "Wendy'S", "restaurant_id": "30112340"}
+            {"address": {"building": "351", "coord": [-73.98513559999999, 40.7676919], "street": "West   57 Street", "zipcode": "10019"}, "borough": "Manhattan", "cuisine": "Irish", "grades": [], "name": "Dj Reynolds Pub And Restaurant", "restaurant_id": "30191841"}
+            """;
+
+    private final ElasticsearchOperations elasticsearchOperations =
+            mock(ElasticsearchOperations.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void indexesInConfiguredBatches() throws IOException {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getLoader().setBatchSize(2);
+        RestaurantBulkLoader loader =
+                new RestaurantBulkLoader(
+                        elasticsearchOperations, applicationProperties, meterRegistry);
+
+        long loaded =
+                loader.load(
+                        new ByteArrayResource(
+                                SEED.getBytes(StandardCharsets.UTF_8), "restaurants.json"));
+
+        assertThat(loaded).isEqualTo(3);
+        verify(elasticsearchOperations, times(2)).save(anyIterable());
+        assertThat(meterRegistry.counter("restaurant.loader.documents").count()).isEqualTo(3);
+        assertThat(meterRegistry.timer("restaurant.loader.batch").count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.opensearch.config.reindex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.opensearch.common.AbstractIntegrationTest;
+import com.example.opensearch.entities.Address;
+import com.example.opensearch.entities.Restaurant;
+import com.example.opensearch.repositories.RestaurantRepository;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.opensearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.RestHighLevelClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.geo.Point;
+
+class RestaurantReindexJobIT extends AbstractIntegrationTest {
+
+    @Autowired private RestaurantRepository restaurantRepository;
+
+    @Autowired private RestHighLevelClient client;
+
+    @Test
+    void copiesEveryRestaurantAndMovesTheAlias() throws Exception {
+        restaurantRepository.deleteAll();
+        Address address = new Address();
+        address.setLocation(new Point(-73.9, 40.8));
+        restaurantRepository.saveAll(
+                IntStream.range(0, 250)
+                        .mapToObj(
+                                i ->
+                                        new Restaurant(
+                                                "reindex-" + i,
+                                                "Restaurant " + i,
+                                                "Bronx",
+                                                "Bakery",
+                                                address,
+                                                List.of()))
+                        .toList());
+
+        this.mockMvc
+                .perform(post("/actuator/reindex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alias").value("restaurants"))
+                .andExpect(jsonPath("$.documents").value(250));
+        List<String> first = aliasedIndices();
+        this.mockMvc
+                .perform(post("/actuator/reindex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.previousIndices[0]").value(first.getFirst()))
+                .andExpect(jsonPath("$.documents").value(250));
+
+        assertThat(aliasedIndices()).hasSize(1).doesNotContainAnyElementsOf(first);
+        assertThat(restaurantRepository.count()).isEqualTo(250);
+        assertThat(restaurantRepository.findById("reindex-42"))
+                .get()
+                .extracting(Restaurant::getName)
+                .isEqualTo("Restaurant 42");
+    }
+
+    private List<String> aliasedIndices() throws IOException {
+        return List.copyOf(
+                client.indices()
+                        .getAlias(new GetAliasesRequest("restaurants"), RequestOptions.DEFAULT)
+                        .getAliases()
+                        .keySet());
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.opensearch.config.reindex;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BulkItemResponse;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.index.IndexResponse;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.RestHighLevelClient;
+import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.common.bytes.BytesArray;
+import org.opensearch.core.index.shard.ShardId;
+import org.opensearch.core.rest.RestStatus;
+
+class SizedBulkWriterTest {
+
+    private static final BytesArray SOURCE =
+            new BytesArray("{\"name\":\"" + "x".repeat(90) + "\"}");
+
+    private final RestHighLevelClient client = mock(RestHighLevelClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Counter documents = meterRegistry.counter("documents");
+    private final Counter rejections = meterRegistry.counter("rejections");
+
+    @Test
+    void sendsBulkRequestsOfConfiguredSize() throws IOException {
+        List<Integer> sizes = new ArrayList<>();
+        when(client.bulk(any(BulkRequest.class), eq(RequestOptions.DEFAULT)))
+                .thenAnswer(
+                        invocation -> {
+                            BulkRequest request = invocation.getArgument(0);
+                            sizes.add(request.numberOfActions());
+                            return response(request, List.of());
+                        });
+        // the estimate includes some overhead per request on top of the source
+        long perDocument =
+                new BulkRequest()
+                        .add(
+                                new IndexRequest("restaurants-new")
+                                        .id("0")
+                                        .source(SOURCE, XContentType.JSON))
+                        .estimatedSizeInBytes();
+        SizedBulkWriter writer = writer(5 * perDocument, 3);
+
+        IntStream.range(0, 12).forEach(i -> writer.add(String.valueOf(i), SOURCE));
+        writer.flush();
+
+        assertThat(sizes).containsExactly(5, 5, 2);
+        assertThat(writer.written()).isEqualTo(12);
+        assertThat(writer.bulkRequests()).isEqualTo(3);
+        assertThat(documents.count()).isEqualTo(12);
+    }
+
+    @Test
+    void resendsOnlyRejectedDocuments() throws IOException {
+        List<List<String>> sent = new ArrayList<>();
+        when(client.bulk(any(BulkRequest.class), eq(RequestOptions.DEFAULT)))
+                .thenAnswer(
+                        invocation -> {
+                            BulkRequest request = invocation.getArgument(0);
+                            sent.add(request.requests().stream().map(DocWriteRequest::id).toList());
+                            // the first attempt has its second and third documents rejected
+                            return response(request, sent.size() == 1 ? List.of(1, 2) : List.of());
+                        });
+        SizedBulkWriter writer = writer(Long.MAX_VALUE, 3);
+
+        IntStream.range(0, 4).forEach(i -> writer.add(String.valueOf(i), SOURCE));
+        writer.flush();
+
+        assertThat(sent).containsExactly(List.of("0", "1", "2", "3"), List.of("1", "2"));
+        assertThat(writer.written()).isEqualTo(4);
+        assertThat(writer.rejected()).isEqualTo(2);
+        assertThat(writer.failed()).isZero();
+        assertThat(rejections.count()).isEqualTo(2);
+    }
+
+    @Test
+    void givesUpAfterMaxRetries() throws IOException {
+        when(client.bulk(any(BulkRequest.class), eq(RequestOptions.DEFAULT)))
+                .thenThrow(
+                        new OpenSearchStatusException(
+                                "rejected execution", RestStatus.TOO_MANY_REQUESTS));
+        SizedBulkWriter writer = writer(Long.MAX_VALUE, 2);
+
+        writer.add("1", SOURCE);
+        writer.add("2", SOURCE);
+        writer.flush();
+
+        verify(client, times(3)).bulk(any(BulkRequest.class), eq(RequestOptions.DEFAULT));
+        assertThat(writer.written()).isZero();
+        assertThat(writer.failed()).isEqualTo(2);
+        assertThat(writer.rejected()).isEqualTo(6);
+    }
+
+    private SizedBulkWriter writer(long maxBytes, int maxRetries) {
+        return new SizedBulkWriter(
+                client,
+                "restaurants-new",
+                maxBytes,
+                maxRetries,
+                Duration.ofMillis(1),
+                documents,
+                rejections);
+    }
+
+    private static BulkResponse response(BulkRequest request, List<Integer> rejected) {
+        ShardId shardId = new ShardId("restaurants-new", "_na_", 0);
+        BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+        for (int i = 0; i < items.length; i++) {
+            String id = request.requests().get(i).id();
+            items[i] =
+                    rejected.contains(i)
+                            ? new BulkItemResponse(
+                                    i,
+                                    DocWriteRequest.OpType.INDEX,
+                                    new BulkItemResponse.Failure(
+                                            "restaurants-new",
+                                            id,
+                                            new IllegalStateException("queue full"),
+                                            RestStatus.TOO_MANY_REQUESTS))
+                            : new BulkItemResponse(
+                                    i,
+                                    DocWriteRequest.OpType.INDEX,
+                                    new IndexResponse(shardId, id, 1, 1, 1, true));
+        }
+        return new BulkResponse(items, 1);
+    }
+}
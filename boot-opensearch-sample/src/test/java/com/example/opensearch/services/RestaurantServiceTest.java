@@ -8,6 +8,7 @@ import static org.mockito.BDDMockito.willDoNothing;
 
 import com.example.opensearch.entities.Restaurant;
 import com.example.opensearch.model.response.PagedResult;
+import com.example.opensearch.repositories.RestaurantGeoIndex;
 import com.example.opensearch.repositories.RestaurantRepository;
 import java.util.List;
 import java.util.Optional;
@@ -27,6 +28,8 @@ class RestaurantServiceTest {
 
     @Mock private RestaurantRepository restaurantRepository;
 
+    @Mock private RestaurantGeoIndex restaurantGeoIndex;
+
     @InjectMocks private RestaurantService restaurantService;
 
     @Test
@@ -75,6 +78,7 @@ class RestaurantServiceTest {
         assertThat(persistedRestaurant).isNotNull();
         assertThat(persistedRestaurant.getId()).isEqualTo("1");
         assertThat(persistedRestaurant.getName()).isEqualTo("junitTest");
+        verify(restaurantGeoIndex, times(1)).saved(persistedRestaurant);
     }
 
     @Test
@@ -85,6 +89,7 @@ class RestaurantServiceTest {
         restaurantService.deleteRestaurantById("1");
         // then
         verify(restaurantRepository, times(1)).deleteById("1");
+        verify(restaurantGeoIndex, times(1)).deleted("1");
     }
 
     private Restaurant getRestaurant() {
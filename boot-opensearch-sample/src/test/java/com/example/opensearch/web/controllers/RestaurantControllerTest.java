@@ -6,12 +6,17 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.example.opensearch.entities.Address;
@@ -31,11 +36,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
 import org.springframework.data.geo.Point;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 @WebMvcTest(controllers = RestaurantController.class)
 @ActiveProfiles(PROFILE_TEST)
@@ -87,6 +95,48 @@ class RestaurantControllerTest {
                 .andExpect(jsonPath("$.hasPrevious", is(false)));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldExportRestaurantsAsNdjson() throws Exception {
+        SearchHit<Restaurant> first = mock(SearchHit.class);
+        given(first.getContent()).willReturn(new Restaurant("1", "text 1", null, null, null, null));
+        SearchHit<Restaurant> second = mock(SearchHit.class);
+        given(second.getContent())
+                .willReturn(new Restaurant("2", "text 2", null, null, null, null));
+        SearchHitsIterator<Restaurant> hits = mock(SearchHitsIterator.class);
+        given(hits.hasNext()).willReturn(true, true, false);
+        given(hits.next()).willReturn(first, second);
+        given(restaurantService.exportRestaurants("borough1", List.of("id", "name")))
+                .willReturn(hits);
+
+        MvcResult mvcResult =
+                this.mockMvc
+                        .perform(
+                                get("/api/restaurants/export")
+                                        .param("borough", "borough1")
+                                        .param("fields", "id", "name"))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+
+        this.mockMvc
+                .perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(
+                        content()
+                                .string(
+                                        "{\"id\":\"1\",\"name\":\"text 1\"}\n"
+                                                + "{\"id\":\"2\",\"name\":\"text 2\"}\n"));
+        verify(hits).close();
+    }
+
+    @Test
+    void shouldReturn400WhenExportingUnknownField() throws Exception {
+        this.mockMvc
+                .perform(get("/api/restaurants/export").param("fields", "name", "secret"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void shouldFindRestaurantById() throws Exception {
         String restaurantId = "1";
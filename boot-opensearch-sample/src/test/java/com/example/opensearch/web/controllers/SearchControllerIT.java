@@ -10,7 +10,9 @@ import com.example.opensearch.common.AbstractIntegrationTest;
 import com.example.opensearch.entities.Address;
 import com.example.opensearch.entities.Grades;
 import com.example.opensearch.entities.Restaurant;
+import com.example.opensearch.repositories.RestaurantGeoIndex;
 import com.example.opensearch.repositories.RestaurantRepository;
+import com.jayway.jsonpath.JsonPath;
 import java.time.LocalDateTime;
 import java.util.List;
 import org.junit.jupiter.api.BeforeAll;
@@ -25,6 +27,8 @@ class SearchControllerIT extends AbstractIntegrationTest {
 
     @Autowired private RestaurantRepository restaurantRepository;
 
+    @Autowired private RestaurantGeoIndex restaurantGeoIndex;
+
     private static final String RESTAURANT_NAME = "Lb Spumoni Gardens";
     private static final String BOROUGH_NAME = "Brooklyn";
     private static final String CUISINE_NAME = "Pizza/Italian";
@@ -51,6 +55,8 @@ class SearchControllerIT extends AbstractIntegrationTest {
         restaurant1.setName("Yono gardens");
         restaurant1.setGrades(List.of(grade, grade1));
         this.restaurantRepository.saveAll(List.of(restaurant, restaurant1));
+        // written past the restaurant service, so the geo index has to load them itself
+        this.restaurantGeoIndex.warmUp();
     }
 
     @Test
@@ -292,6 +298,50 @@ class SearchControllerIT extends AbstractIntegrationTest {
                                 is("40363920"))); // Check the second item's "id"
     }
 
+    @Test
+    void searchDateRangeWithCursor() throws Exception {
+        String fromDate = LocalDateTime.of(2021, 12, 31, 23, 59, 59).toString();
+        String toDate = LocalDateTime.of(2022, 4, 11, 0, 0, 0).toString();
+        String response =
+                this.mockMvc
+                        .perform(
+                                get("/search/date/range")
+                                        .param("fromDate", fromDate)
+                                        .param("toDate", toDate)
+                                        .param("limit", "1")
+                                        .param("cursor", "*"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.size()", is(1)))
+                        .andExpect(jsonPath("$.nextCursor").exists())
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString();
+        String nextCursor = JsonPath.read(response, "$.nextCursor");
+
+        this.mockMvc
+                .perform(
+                        get("/search/date/range")
+                                .param("fromDate", fromDate)
+                                .param("toDate", toDate)
+                                .param("limit", "2")
+                                .param("cursor", nextCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.size()", is(1)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void searchDateRangeWithMalformedCursor() throws Exception {
+        this.mockMvc
+                .perform(
+                        get("/search/date/range")
+                                .param("fromDate", "2021-12-31")
+                                .param("toDate", "2022-04-11")
+                                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("Invalid cursor 'not-a-cursor'")));
+    }
+
     @Test
     void aggregateSearch() throws Exception {
         this.mockMvc
@@ -301,10 +351,18 @@ class SearchControllerIT extends AbstractIntegrationTest {
                                 .param("fieldNames", "name", "borough", "cuisine"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.aggregationMap.length()").value(3))
-                .andExpect(jsonPath("$.aggregationMap.MyBorough.brooklyn").value(1))
-                .andExpect(jsonPath("$.aggregationMap.MyCuisine.italian").value(1))
-                .andExpect(jsonPath("$.aggregationMap.MyCuisine.pizza").value(1))
-                .andExpect(jsonPath("$.aggregationMap.MyDateRange.length()").value(1))
+                .andExpect(jsonPath("$.aggregationMap.MyBorough.type").value("terms"))
+                .andExpect(
+                        jsonPath("$.aggregationMap.MyBorough.buckets[?(@.key == 'brooklyn')].count")
+                                .value(1))
+                .andExpect(
+                        jsonPath("$.aggregationMap.MyCuisine.buckets[?(@.key == 'italian')].count")
+                                .value(1))
+                .andExpect(
+                        jsonPath("$.aggregationMap.MyCuisine.buckets[?(@.key == 'pizza')].count")
+                                .value(1))
+                .andExpect(jsonPath("$.aggregationMap.MyDateRange.type").value("date_range"))
+                .andExpect(jsonPath("$.aggregationMap.MyDateRange.buckets.length()").value(1))
                 .andExpect(
                         jsonPath(
                                 "$.data.length()", is(1))) // Check the number of items in "content"
@@ -331,8 +389,23 @@ class SearchControllerIT extends AbstractIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.size()", is(1)))
                 .andExpect(jsonPath("$[0].name", is("Lb Spumoni Gardens")))
-                .andExpect(jsonPath("$[0].dist", is(5.559751998519038)))
+                .andExpect(jsonPath("$[0].dist", is(closeTo(5.559751998519038, 1e-6))))
                 .andExpect(jsonPath("$[0].location.x", is(closeTo(-73.9, 0.001))))
                 .andExpect(jsonPath("$[0].location.y", is(closeTo(40.8, 0.001))));
     }
+
+    @Test
+    void searchNearestRestaurants() throws Exception {
+        this.mockMvc
+                .perform(
+                        get("/search/restaurant/nearest")
+                                .param("lat", "40.75")
+                                .param("lon", "-73.9")
+                                .param("unit", "mi")
+                                .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].name", is(RESTAURANT_NAME)))
+                .andExpect(jsonPath("$[0].dist", is(closeTo(3.4547, 0.001))));
+    }
 }
@@ -62,6 +62,7 @@ public class Initializer implements CommandLineRunner {
         log.info("deleted Actor: {}", actorService.findActorById(savedActor.getId()).isEmpty());
 
         actorService.saveActors(List.of(new Actor(null, "tom", 30), new Actor(null, "brad", 45)));
+        log.info("Actors aged 40 to 50: {}", actorService.findActorsByAgeBetween(40, 50));
         Optional<Actor> actorTom = actorService.findActorByNameAndAge("tom", 30);
         if (actorTom.isPresent()) {
             log.info("Saved Actor using Data: {}", actorTom.get());
@@ -0,0 +1,91 @@
+package com.example.ultimateredis.config;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A bounded pool of growable byte buffers, so that encoding and compressing a cache value does not
+ * allocate scratch arrays on every call. Requests run on virtual threads, hence a shared pool
+ * rather than thread locals. Buffers that grew past {@code maxRetainedCapacity} are dropped instead
+ * of pooled, so one huge value does not pin its memory forever.
+ */
+class BufferPool {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final BlockingQueue<Buffer> buffers;
+    private final int maxRetainedCapacity;
+
+    BufferPool(int maxPooled, int maxRetainedCapacity) {
+        this.buffers = new ArrayBlockingQueue<>(maxPooled);
+        this.maxRetainedCapacity = maxRetainedCapacity;
+    }
+
+    Buffer acquire() {
+        Buffer buffer = buffers.poll();
+        return buffer != null ? buffer : new Buffer(INITIAL_CAPACITY);
+    }
+
+    void release(Buffer buffer) {
+        if (buffer.bytes.length <= maxRetainedCapacity) {
+            buffer.size = 0;
+            buffers.offer(buffer);
+        }
+    }
+
+    /** An unsynchronized {@link java.io.ByteArrayOutputStream} whose array can be written to. */
+    static final class Buffer extends OutputStream {
+
+        private byte[] bytes;
+        private int size;
+
+        Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(size + 1)[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            System.arraycopy(b, off, ensureCapacity(size + len), size, len);
+            size += len;
+        }
+
+        void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        /** Grows the buffer to hold at least {@code capacity} bytes and returns its array. */
+        byte[] ensureCapacity(int capacity) {
+            if (bytes.length < capacity) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+            return bytes;
+        }
+
+        /** Accounts for {@code count} bytes written straight into the array past {@link #size}. */
+        void advance(int count) {
+            size += count;
+        }
+
+        byte[] array() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.ultimateredis.config;
+
+import com.github.luben.zstd.Zstd;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * How {@link CompactRedisSerializer} compresses encoded values. The id is written as the first byte
+ * of every value, so ids must never be reused.
+ */
+public enum CacheCompression {
+    NONE(0) {
+        @Override
+        void compress(byte[] src, int offset, int length, BufferPool.Buffer target) {
+            target.write(src, offset, length);
+        }
+
+        @Override
+        void decompress(byte[] src, int offset, int length, byte[] target, int originalLength) {
+            System.arraycopy(src, offset, target, 0, originalLength);
+        }
+    },
+
+    GZIP(1) {
+        @Override
+        void compress(byte[] src, int offset, int length, BufferPool.Buffer target)
+                throws IOException {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(target)) {
+                gzip.write(src, offset, length);
+            }
+        }
+
+        @Override
+        void decompress(byte[] src, int offset, int length, byte[] target, int originalLength)
+                throws IOException {
+            try (GZIPInputStream gzip =
+                    new GZIPInputStream(new ByteArrayInputStream(src, offset, length))) {
+                checkLength(gzip.readNBytes(target, 0, originalLength), originalLength);
+            }
+        }
+    },
+
+    /** Fastest to compress and decompress, compresses the least. */
+    LZ4(2) {
+        private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+        private final LZ4SafeDecompressor decompressor =
+                LZ4Factory.fastestInstance().safeDecompressor();
+
+        @Override
+        void compress(byte[] src, int offset, int length, BufferPool.Buffer target) {
+            int maxLength = compressor.maxCompressedLength(length);
+            byte[] dest = target.ensureCapacity(target.size() + maxLength);
+            target.advance(
+                    compressor.compress(src, offset, length, dest, target.size(), maxLength));
+        }
+
+        @Override
+        void decompress(byte[] src, int offset, int length, byte[] target, int originalLength)
+                throws IOException {
+            checkLength(
+                    decompressor.decompress(src, offset, length, target, 0, originalLength),
+                    originalLength);
+        }
+    },
+
+    /** Compresses about as well as gzip, at a fraction of its cost. */
+    ZSTD(3) {
+        private static final int LEVEL = 3;
+
+        @Override
+        void compress(byte[] src, int offset, int length, BufferPool.Buffer target)
+                throws IOException {
+            int maxLength = (int) Zstd.compressBound(length);
+            byte[] dest = target.ensureCapacity(target.size() + maxLength);
+            long written =
+                    Zstd.compressByteArray(
+                            dest, target.size(), maxLength, src, offset, length, LEVEL);
+            if (Zstd.isError(written)) {
+                throw new IOException(Zstd.getErrorName(written));
+            }
+            target.advance((int) written);
+        }
+
+        @Override
+        void decompress(byte[] src, int offset, int length, byte[] target, int originalLength)
+                throws IOException {
+            long read = Zstd.decompressByteArray(target, 0, originalLength, src, offset, length);
+            if (Zstd.isError(read)) {
+                throw new IOException(Zstd.getErrorName(read));
+            }
+            checkLength((int) read, originalLength);
+        }
+    };
+
+    private final byte id;
+
+    CacheCompression(int id) {
+        this.id = (byte) id;
+    }
+
+    byte id() {
+        return id;
+    }
+
+    /** Appends the compressed form of {@code src} to {@code target}. */
+    abstract void compress(byte[] src, int offset, int length, BufferPool.Buffer target)
+            throws IOException;
+
+    /** Decompresses {@code src} into the first {@code originalLength} bytes of {@code target}. */
+    abstract void decompress(byte[] src, int offset, int length, byte[] target, int originalLength)
+            throws IOException;
+
+    static CacheCompression of(byte id) {
+        for (CacheCompression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cache compression id " + id);
+    }
+
+    private static void checkLength(int actual, int expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException(
+                    "Expected " + expected + " bytes after decompression but got " + actual);
+        }
+    }
+}
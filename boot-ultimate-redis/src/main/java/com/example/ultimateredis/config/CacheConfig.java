@@ -2,14 +2,18 @@ package com.example.ultimateredis.config;
 
 import com.example.ultimateredis.utils.AppConstants;
 import io.lettuce.core.ReadFrom;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
 import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurer;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.cache.interceptor.CacheResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -18,28 +22,48 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.lang.Nullable;
 
 @Configuration(proxyBeanMethods = false)
-@EnableConfigurationProperties(CacheConfigurationProperties.class)
+@EnableConfigurationProperties({CacheConfigurationProperties.class, RedisBatchProperties.class})
 @EnableCaching
 public class CacheConfig implements CachingConfigurer {
 
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<CacheConfigurationProperties> cacheConfigurationProperties;
+
+    public CacheConfig(
+            ObjectProvider<CacheManager> cacheManager,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            ObjectProvider<CacheConfigurationProperties> cacheConfigurationProperties) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.cacheConfigurationProperties = cacheConfigurationProperties;
+    }
+
     @Bean
     RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer(
             CacheConfigurationProperties cacheConfigurationProperties) {
-        RedisCacheGZIPSerializer serializerGzip = new RedisCacheGZIPSerializer();
+        CacheConfigurationProperties.Codec codec = cacheConfigurationProperties.getCodec();
+        CompactRedisSerializer serializer =
+                new CompactRedisSerializer(
+                        codec.getEncoding(),
+                        codec.getCompression(),
+                        (int) codec.getCompressionThreshold().toBytes());
         return builder -> {
-            builder.cacheDefaults()
-                    .disableCachingNullValues()
-                    .serializeValuesWith(
-                            RedisSerializationContext.SerializationPair.fromSerializer(
-                                    serializerGzip));
+            // configurations are immutable, the customized copy has to be set back
+            RedisCacheConfiguration defaults =
+                    builder.cacheDefaults()
+                            .disableCachingNullValues()
+                            .serializeValuesWith(
+                                    RedisSerializationContext.SerializationPair.fromSerializer(
+                                            serializer));
+            builder.cacheDefaults(defaults);
             cacheConfigurationProperties
                     .getCacheExpirations()
                     .forEach(
                             (cacheName, timeout) ->
                                     builder.withCacheConfiguration(
                                             cacheName,
-                                            RedisCacheConfiguration.defaultCacheConfig()
-                                                    .entryTtl(Duration.ofSeconds(timeout))));
+                                            defaults.entryTtl(Duration.ofSeconds(timeout))));
         };
     }
 
@@ -50,6 +74,14 @@ public class CacheConfig implements CachingConfigurer {
                 clientConfigurationBuilder.readFrom(ReadFrom.REPLICA_PREFERRED);
     }
 
+    @Override
+    public CacheResolver cacheResolver() {
+        return new CoalescingCacheResolver(
+                cacheManager,
+                meterRegistry,
+                cacheConfigurationProperties.getObject().getEarlyRefreshBeta());
+    }
+
     @Override
     public CacheErrorHandler errorHandler() {
 
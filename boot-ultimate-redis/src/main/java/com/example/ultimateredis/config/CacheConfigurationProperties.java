@@ -3,6 +3,7 @@ package com.example.ultimateredis.config;
 import java.util.HashMap;
 import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 @ConfigurationProperties(prefix = "cache")
 public class CacheConfigurationProperties {
@@ -10,6 +11,9 @@ public class CacheConfigurationProperties {
     private long timeoutSeconds = 60;
     // Mapping of cacheNames to expire-after-write timeout in seconds
     private Map<String, Long> cacheExpirations = new HashMap<>();
+    // XFetch beta, larger values recompute hot keys earlier before they expire, 0 disables it
+    private double earlyRefreshBeta = 1.0;
+    private Codec codec = new Codec();
 
     public long getTimeoutSeconds() {
         return timeoutSeconds;
@@ -26,4 +30,52 @@ public class CacheConfigurationProperties {
     public void setCacheExpirations(Map<String, Long> cacheExpirations) {
         this.cacheExpirations = cacheExpirations;
     }
+
+    public double getEarlyRefreshBeta() {
+        return earlyRefreshBeta;
+    }
+
+    public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    public static class Codec {
+
+        private CacheEncoding encoding = CacheEncoding.SMILE;
+        private CacheCompression compression = CacheCompression.LZ4;
+        // values encoded smaller than this are stored uncompressed
+        private DataSize compressionThreshold = DataSize.ofKilobytes(1);
+
+        public CacheEncoding getEncoding() {
+            return encoding;
+        }
+
+        public void setEncoding(CacheEncoding encoding) {
+            this.encoding = encoding;
+        }
+
+        public CacheCompression getCompression() {
+            return compression;
+        }
+
+        public void setCompression(CacheCompression compression) {
+            this.compression = compression;
+        }
+
+        public DataSize getCompressionThreshold() {
+            return compressionThreshold;
+        }
+
+        public void setCompressionThreshold(DataSize compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.ultimateredis.config;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+
+/** How {@link CompactRedisSerializer} turns cache values into bytes before compressing them. */
+public enum CacheEncoding {
+
+    /** Java serialization, values must be {@link java.io.Serializable}. */
+    JDK {
+        private final DefaultSerializer serializer = new DefaultSerializer();
+        private final DefaultDeserializer deserializer = new DefaultDeserializer();
+
+        @Override
+        void write(Object value, OutputStream out) throws IOException {
+            serializer.serialize(value, out);
+        }
+
+        @Override
+        Object read(byte[] bytes, int offset, int length) throws IOException {
+            return deserializer.deserialize(new ByteArrayInputStream(bytes, offset, length));
+        }
+    },
+
+    /**
+     * Binary JSON: no class descriptors, repeated property names are back references, and values
+     * need only be Jackson bound rather than {@code Serializable}. Strings, numbers and booleans
+     * are kept as JSON, numbers coming back as the smallest type that holds them. Other values keep
+     * their class name as type id, limited to the application's classes and the lists caches store.
+     */
+    SMILE {
+        private final ObjectMapper mapper =
+                SmileMapper.builder()
+                        .activateDefaultTyping(
+                                BasicPolymorphicTypeValidator.builder()
+                                        .allowIfSubType("com.example.ultimateredis.")
+                                        .allowIfSubType(ArrayList.class)
+                                        .build(),
+                                ObjectMapper.DefaultTyping.NON_FINAL,
+                                JsonTypeInfo.As.PROPERTY)
+                        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                        .build();
+        private final ObjectWriter writer = mapper.writerFor(Object.class);
+        private final ObjectReader reader = mapper.readerFor(Object.class);
+
+        @Override
+        void write(Object value, OutputStream out) throws IOException {
+            writer.writeValue(out, value);
+        }
+
+        @Override
+        Object read(byte[] bytes, int offset, int length) throws IOException {
+            return reader.readValue(bytes, offset, length);
+        }
+    };
+
+    abstract void write(Object value, OutputStream out) throws IOException;
+
+    abstract Object read(byte[] bytes, int offset, int length) throws IOException;
+}
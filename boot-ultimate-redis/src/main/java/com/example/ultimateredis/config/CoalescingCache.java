@@ -0,0 +1,237 @@
+package com.example.ultimateredis.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.lang.Nullable;
+
+/**
+ * Decorates a cache so that concurrent misses for the same key run the loader once.
+ *
+ * <p>Only {@code @Cacheable(sync = true)} goes through {@link #get(Object, Callable)}: the first
+ * caller for a key loads the value, the others wait for its result instead of calling the backing
+ * store as well. Values it loads are stored with the time the load took and when they expire, so
+ * that hot keys can be recomputed before they expire (XFetch): a hit recomputes the value with a
+ * probability that grows as the expiry nears, scaled by that load time and by {@code beta}, while
+ * everybody else keeps getting the current value. Values stored by {@code @CachePut} or directly
+ * are never refreshed early.
+ */
+public class CoalescingCache implements Cache {
+
+    private final Cache delegate;
+    private final double beta;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> loads =
+            new ConcurrentHashMap<>();
+    private final Counter loaded;
+    private final Counter coalesced;
+    private final Counter earlyRefreshes;
+
+    public CoalescingCache(Cache delegate, double beta, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.beta = beta;
+        this.loaded =
+                Counter.builder("cache.loads")
+                        .description("Cache misses, by whether they shared a load already running")
+                        .tag("cache", delegate.getName())
+                        .tag("result", "loaded")
+                        .register(meterRegistry);
+        this.coalesced =
+                Counter.builder("cache.loads")
+                        .description("Cache misses, by whether they shared a load already running")
+                        .tag("cache", delegate.getName())
+                        .tag("result", "coalesced")
+                        .register(meterRegistry);
+        this.earlyRefreshes =
+                Counter.builder("cache.early.refreshes")
+                        .description("Cached values recomputed before they expired")
+                        .tag("cache", delegate.getName())
+                        .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        return unwrap(delegate.get(key));
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            if (!(wrapper.get() instanceof Stamped stamped)) {
+                return (T) wrapper.get();
+            }
+            if (loads.containsKey(key) || !stamped.refreshEarly(beta, System.currentTimeMillis())) {
+                return (T) stamped.value();
+            }
+            earlyRefreshes.increment();
+        }
+        return load(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        return unwrap(delegate.putIfAbsent(key, value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<?> retrieve(Object key) {
+        CompletableFuture<?> retrieved = delegate.retrieve(key);
+        return retrieved == null ? null : retrieved.thenApply(CoalescingCache::unwrapValue);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(
+            Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return delegate.retrieve(key, valueLoader).thenApply(value -> (T) unwrapValue(value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Object key, Callable<T> valueLoader) {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loads.putIfAbsent(key, mine);
+        if (inFlight != null) {
+            coalesced.increment();
+            return (T) await(inFlight, key, valueLoader);
+        }
+        loaded.increment();
+        try {
+            long start = System.currentTimeMillis();
+            T value = valueLoader.call();
+            store(key, value, System.currentTimeMillis() - start);
+            mine.complete(value);
+            return value;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loads.remove(key, mine);
+        }
+    }
+
+    private void store(Object key, @Nullable Object value, long loadMillis) {
+        if (value == null) {
+            // nothing worth sharing, and redis caches may refuse nulls
+            return;
+        }
+        Duration timeToLive = timeToLive(key, value);
+        if (timeToLive.isZero() || timeToLive.isNegative()) {
+            delegate.put(key, value);
+        } else {
+            delegate.put(
+                    key,
+                    new Stamped(
+                            value, loadMillis, System.currentTimeMillis() + timeToLive.toMillis()));
+        }
+    }
+
+    private Duration timeToLive(Object key, Object value) {
+        if (delegate instanceof RedisCache redisCache) {
+            return redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(key, value);
+        }
+        return Duration.ZERO;
+    }
+
+    @Nullable
+    private static Object await(
+            CompletableFuture<Object> inFlight, Object key, Callable<?> valueLoader) {
+        try {
+            return inFlight.get();
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Nullable
+    private static ValueWrapper unwrap(@Nullable ValueWrapper wrapper) {
+        if (wrapper != null && wrapper.get() instanceof Stamped stamped) {
+            return new SimpleValueWrapper(stamped.value());
+        }
+        return wrapper;
+    }
+
+    @Nullable
+    private static Object unwrapValue(@Nullable Object value) {
+        if (value instanceof ValueWrapper wrapper) {
+            return unwrap(wrapper);
+        }
+        return value instanceof Stamped stamped ? stamped.value() : value;
+    }
+
+    /** A loaded value with how long it took to load and when it expires, for XFetch. */
+    record Stamped(Object value, long loadMillis, long expiresAtMillis) implements Serializable {
+
+        boolean refreshEarly(double beta, long nowMillis) {
+            // log of (0, 1] is never positive, so this moves "now" forward by a random amount
+            double random = 1 - ThreadLocalRandom.current().nextDouble();
+            return nowMillis - loadMillis * beta * Math.log(random) >= expiresAtMillis;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ultimateredis.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+
+/**
+ * Resolves the caches of an operation like the default resolver does, each wrapped in a {@link
+ * CoalescingCache}. The cache manager is looked up on first use, it is not yet created when the
+ * caching infrastructure asks for the resolver.
+ */
+class CoalescingCacheResolver implements CacheResolver {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final double beta;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    CoalescingCacheResolver(
+            ObjectProvider<CacheManager> cacheManager,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            double beta) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.beta = beta;
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        Collection<String> cacheNames = context.getOperation().getCacheNames();
+        List<Cache> resolved = new ArrayList<>(cacheNames.size());
+        for (String cacheName : cacheNames) {
+            resolved.add(
+                    caches.computeIfAbsent(
+                            cacheName,
+                            name -> {
+                                Cache cache = cacheManager.getObject().getCache(name);
+                                if (cache == null) {
+                                    throw new IllegalArgumentException(
+                                            "Cannot find cache named '"
+                                                    + name
+                                                    + "' for "
+                                                    + context.getOperation());
+                                }
+                                return new CoalescingCache(cache, beta, meterRegistry.getObject());
+                            }));
+        }
+        return resolved;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ultimateredis.config;
+
+import java.io.IOException;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+/**
+ * Serializes cache values with a configurable {@link CacheEncoding} and {@link CacheCompression}.
+ *
+ * <p>Values are encoded into a pooled buffer. Those smaller than {@code compressionThreshold}
+ * bytes, or that do not shrink when compressed, are stored as is: the first byte of the stored
+ * value is the id of its compression, followed by the encoded value, or by its length and the
+ * compressed bytes. Reading therefore does not depend on the current settings, and values written
+ * before this serializer existed, which are plain Java serialization, are still read.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte[] EMPTY = new byte[0];
+    // first byte of the Java serialization stream magic, 0xACED
+    private static final byte JDK_SERIALIZATION = (byte) 0xAC;
+    private static final int HEADER_LENGTH = 1 + Integer.BYTES;
+
+    private final CacheEncoding encoding;
+    private final CacheCompression compression;
+    private final int compressionThreshold;
+    private final BufferPool buffers =
+            new BufferPool(4 * Runtime.getRuntime().availableProcessors(), 1024 * 1024);
+    private final JdkSerializationRedisSerializer legacy = new JdkSerializationRedisSerializer();
+
+    public CompactRedisSerializer(
+            CacheEncoding encoding, CacheCompression compression, int compressionThreshold) {
+        this.encoding = encoding;
+        this.compression = compression;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) {
+        if (value == null) {
+            return EMPTY;
+        }
+        BufferPool.Buffer encoded = buffers.acquire();
+        BufferPool.Buffer compressed = null;
+        try {
+            encoded.write(CacheCompression.NONE.id());
+            encoding.write(value, encoded);
+            int length = encoded.size() - 1;
+            if (compression == CacheCompression.NONE || length < compressionThreshold) {
+                return encoded.toByteArray();
+            }
+            compressed = buffers.acquire();
+            compressed.write(compression.id());
+            compressed.writeInt(length);
+            compression.compress(encoded.array(), 1, length, compressed);
+            return compressed.size() < encoded.size()
+                    ? compressed.toByteArray()
+                    : encoded.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException(
+                    "Cannot serialize " + value.getClass().getName() + " with " + encoding, e);
+        } finally {
+            buffers.release(encoded);
+            if (compressed != null) {
+                buffers.release(compressed);
+            }
+        }
+    }
+
+    @Override
+    @Nullable
+    public Object deserialize(@Nullable byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == JDK_SERIALIZATION) {
+            return legacy.deserialize(bytes);
+        }
+        try {
+            CacheCompression stored = CacheCompression.of(bytes[0]);
+            if (stored == CacheCompression.NONE) {
+                return encoding.read(bytes, 1, bytes.length - 1);
+            }
+            int length = readInt(bytes, 1);
+            BufferPool.Buffer decompressed = buffers.acquire();
+            try {
+                byte[] target = decompressed.ensureCapacity(length);
+                stored.decompress(
+                        bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, target, length);
+                return encoding.read(target, 0, length);
+            } finally {
+                buffers.release(decompressed);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Cannot deserialize cached value", e);
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24
+                | (bytes[offset + 1] & 0xFF) << 16
+                | (bytes[offset + 2] & 0xFF) << 8
+                | (bytes[offset + 3] & 0xFF);
+    }
+}
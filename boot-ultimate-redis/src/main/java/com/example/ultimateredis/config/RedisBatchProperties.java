@@ -0,0 +1,18 @@
+package com.example.ultimateredis.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "redis.batch")
+public class RedisBatchProperties {
+
+    // Number of keys sent per pipeline or MGET, bounds the replies buffered at once
+    private int chunkSize = 500;
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
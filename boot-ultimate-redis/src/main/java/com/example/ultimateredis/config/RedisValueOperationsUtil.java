@@ -1,25 +1,47 @@
 package com.example.ultimateredis.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.stereotype.Component;
 
+/**
+ * Single and multi key value operations. Multi key operations send {@code redis.batch.chunkSize}
+ * keys per round trip: writes and expiries as a pipeline, reads as one {@code MGET}.
+ */
 @Component
 public class RedisValueOperationsUtil<T> {
 
     private final RedisTemplate<String, T> redisTemplate;
     private final ValueOperations<String, T> valueOperations;
+    private final int chunkSize;
 
-    public RedisValueOperationsUtil(RedisTemplate<String, T> redisTemplate) {
+    public RedisValueOperationsUtil(
+            RedisTemplate<String, T> redisTemplate, RedisBatchProperties redisBatchProperties) {
         this.redisTemplate = redisTemplate;
         this.valueOperations = redisTemplate.opsForValue();
+        this.chunkSize = redisBatchProperties.getChunkSize();
     }
 
     public void putValue(String key, T value) {
         valueOperations.set(key, value);
     }
 
+    /** Sets the value and its time to live in one {@code SET EX}, so it is never left without. */
+    public void putValue(String key, T value, Duration timeToLive) {
+        valueOperations.set(key, value, timeToLive);
+    }
+
     public T getValue(String key) {
         return valueOperations.get(key);
     }
@@ -27,4 +49,65 @@ public class RedisValueOperationsUtil<T> {
     public void setExpire(String key, long timeout, TimeUnit unit) {
         redisTemplate.expire(key, timeout, unit);
     }
+
+    /** Sets every value with the same time to live, one {@code SET EX} per key. */
+    public void putAll(Map<String, T> values, Duration timeToLive) {
+        pipelined(
+                List.copyOf(values.entrySet()),
+                (operations, entry) ->
+                        operations.opsForValue().set(entry.getKey(), entry.getValue(), timeToLive));
+    }
+
+    /** Returns the values of the keys that exist, in the order of {@code keys}. */
+    public Map<String, T> getAll(Collection<String> keys) {
+        List<String> distinctKeys = keys.stream().distinct().toList();
+        Map<String, T> values = new LinkedHashMap<>();
+        for (List<String> chunk : chunks(distinctKeys)) {
+            List<T> chunkValues = valueOperations.multiGet(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                if (chunkValues != null && chunkValues.get(i) != null) {
+                    values.put(chunk.get(i), chunkValues.get(i));
+                }
+            }
+        }
+        return values;
+    }
+
+    /** Sets the time to live of every key, returns how many of them exist. */
+    public long expireAll(Collection<String> keys, Duration timeToLive) {
+        return pipelined(List.copyOf(keys), (operations, key) -> operations.expire(key, timeToLive))
+                .stream()
+                .filter(Boolean.TRUE::equals)
+                .count();
+    }
+
+    private <E> List<Object> pipelined(
+            List<E> elements, BiConsumer<RedisOperations<String, T>, E> command) {
+        List<Object> results = new ArrayList<>(elements.size());
+        for (List<E> chunk : chunks(elements)) {
+            results.addAll(
+                    redisTemplate.executePipelined(
+                            new SessionCallback<>() {
+                                @Override
+                                @SuppressWarnings("unchecked")
+                                public <K, V> Object execute(RedisOperations<K, V> operations)
+                                        throws DataAccessException {
+                                    RedisOperations<String, T> typed =
+                                            (RedisOperations<String, T>) operations;
+                                    chunk.forEach(element -> command.accept(typed, element));
+                                    // results are read from the pipeline, not returned here
+                                    return null;
+                                }
+                            }));
+        }
+        return results;
+    }
+
+    private <E> List<List<E>> chunks(List<E> elements) {
+        List<List<E>> chunks = new ArrayList<>();
+        for (int from = 0; from < elements.size(); from += chunkSize) {
+            chunks.add(elements.subList(from, Math.min(from + chunkSize, elements.size())));
+        }
+        return chunks;
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.ultimateredis.controller;
+
+import com.example.ultimateredis.model.Actor;
+import com.example.ultimateredis.model.GenericResponse;
+import com.example.ultimateredis.service.ActorService;
+import java.util.List;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/actors")
+public class ActorController {
+
+    private final ActorService actorService;
+
+    public ActorController(ActorService actorService) {
+        this.actorService = actorService;
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<GenericResponse<List<Actor>>> saveActors(
+            @RequestBody List<Actor> actors) {
+
+        return new ResponseEntity<>(
+                new GenericResponse<>(actorService.saveActors(actors)), HttpStatus.CREATED);
+    }
+
+    @GetMapping
+    public ResponseEntity<GenericResponse<List<Actor>>> findActorsByAgeBetween(
+            @RequestParam int minAge, @RequestParam int maxAge) {
+
+        return ResponseEntity.ok(
+                new GenericResponse<>(actorService.findActorsByAgeBetween(minAge, maxAge)));
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.ultimateredis.controller;
 
 import com.example.ultimateredis.model.AddRedisRequest;
+import com.example.ultimateredis.model.ExpireRedisRequest;
 import com.example.ultimateredis.model.GenericResponse;
 import com.example.ultimateredis.service.RedisService;
+import java.util.List;
+import java.util.Map;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -36,4 +39,26 @@ public class RedisController {
         String value = redisService.getValue(key);
         return ResponseEntity.ok(new GenericResponse<>(value));
     }
+
+    @PostMapping("/batch")
+    public ResponseEntity<GenericResponse<Integer>> addRedisKeyValues(
+            @RequestBody List<AddRedisRequest> redisRequests) {
+
+        int added = redisService.addAll(redisRequests);
+        return new ResponseEntity<>(new GenericResponse<>(added), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<GenericResponse<Map<String, String>>> getAllFromCache(
+            @RequestParam List<String> keys) {
+
+        return ResponseEntity.ok(new GenericResponse<>(redisService.getValues(keys)));
+    }
+
+    @PostMapping("/batch/expire")
+    public ResponseEntity<GenericResponse<Long>> expireKeys(
+            @RequestBody ExpireRedisRequest expireRequest) {
+
+        return ResponseEntity.ok(new GenericResponse<>(redisService.expireAll(expireRequest)));
+    }
 }
@@ -0,0 +1,5 @@
+package com.example.ultimateredis.model;
+
+import java.util.List;
+
+public record ExpireRedisRequest(List<String> keys, Integer expireMinutes) {}
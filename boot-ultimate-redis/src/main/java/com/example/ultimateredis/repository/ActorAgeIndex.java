@@ -0,0 +1,72 @@
+package com.example.ultimateredis.repository;
+
+import com.example.ultimateredis.model.Actor;
+import java.util.List;
+import java.util.Set;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.keyvalue.core.event.KeyValueEvent;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * A sorted set of actor ids scored by age, for the range queries {@code @Indexed} cannot answer:
+ * its indexes are one set per distinct value. Saves and deletes through {@link ActorRepository}
+ * keep it up to date from the key value events; {@link ActorBulkOperations#bulkSave} writes it in
+ * its own pipeline. Dropping the keyspace removes it along with every other {@code actor:} key.
+ */
+@Component
+public class ActorAgeIndex {
+
+    static final String KEY = "actor:age:range";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ZSetOperations<String, String> ages;
+
+    public ActorAgeIndex(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.ages = redisTemplate.opsForZSet();
+    }
+
+    /** Ids of the actors aged {@code minAge} to {@code maxAge} inclusive, youngest first. */
+    public List<String> idsBetween(int minAge, int maxAge) {
+        Set<String> ids = ages.rangeByScore(KEY, minAge, maxAge);
+        return ids == null ? List.of() : List.copyOf(ids);
+    }
+
+    @EventListener
+    void onInsert(KeyValueEvent.AfterInsertEvent<?> event) {
+        if (event.getPayload() instanceof Actor actor) {
+            index(actor);
+        }
+    }
+
+    @EventListener
+    void onUpdate(KeyValueEvent.AfterUpdateEvent<?> event) {
+        if (event.getPayload() instanceof Actor actor) {
+            index(actor);
+        }
+    }
+
+    @EventListener
+    void onDelete(KeyValueEvent.AfterDeleteEvent<?> event) {
+        if (Actor.class.equals(event.getType())) {
+            ages.remove(KEY, String.valueOf(event.getKey()));
+        }
+    }
+
+    @EventListener
+    void onDropKeySpace(KeyValueEvent.AfterDropKeySpaceEvent<?> event) {
+        if (Actor.class.equals(event.getSource())) {
+            redisTemplate.delete(KEY);
+        }
+    }
+
+    private void index(Actor actor) {
+        if (actor.getAge() == null) {
+            ages.remove(KEY, actor.getId());
+        } else {
+            ages.add(KEY, actor.getId(), actor.getAge());
+        }
+    }
+}
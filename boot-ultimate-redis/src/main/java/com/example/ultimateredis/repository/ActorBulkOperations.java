@@ -0,0 +1,21 @@
+package com.example.ultimateredis.repository;
+
+import com.example.ultimateredis.model.Actor;
+import java.util.List;
+
+/** Actor operations that Spring Data Redis repositories cannot derive or run efficiently. */
+public interface ActorBulkOperations {
+
+    /**
+     * Writes the actors with their indexes in pipelines of {@code redis.batch.chunkSize} actors,
+     * instead of one round trip per command. Meant for loading actors that are not stored yet: the
+     * index entries of a replaced actor's former values are not removed.
+     */
+    List<Actor> bulkSave(List<Actor> actors);
+
+    /** Deletes every actor and index in pipelines, without the {@code KEYS} scan of deleteAll. */
+    void bulkDeleteAll();
+
+    /** Actors aged {@code minAge} to {@code maxAge} inclusive, youngest first. */
+    List<Actor> findByAgeBetween(int minAge, int maxAge);
+}
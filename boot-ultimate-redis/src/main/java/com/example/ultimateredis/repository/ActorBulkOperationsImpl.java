@@ -0,0 +1,211 @@
+package com.example.ultimateredis.repository;
+
+import com.example.ultimateredis.config.RedisBatchProperties;
+import com.example.ultimateredis.model.Actor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.convert.IndexedData;
+import org.springframework.data.redis.core.convert.RedisConverter;
+import org.springframework.data.redis.core.convert.RedisData;
+import org.springframework.data.redis.core.convert.SimpleIndexedPropertyValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+/**
+ * Writes and reads actors in the layout of {@code RedisKeyValueAdapter}: a hash per actor under
+ * {@code actor:<id>}, the ids in the set {@code actor}, one set per indexed value under {@code
+ * actor:<property>:<value>} and the index keys of each actor in {@code actor:<id>:idx}. The
+ * converter of the repositories turns actors into hashes and index entries, so both stay readable
+ * by {@link ActorRepository}.
+ */
+class ActorBulkOperationsImpl implements ActorBulkOperations {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConverter redisConverter;
+    private final ActorAgeIndex actorAgeIndex;
+    private final int chunkSize;
+    private final String keyspace;
+
+    ActorBulkOperationsImpl(
+            StringRedisTemplate redisTemplate,
+            RedisConverter redisConverter,
+            ActorAgeIndex actorAgeIndex,
+            RedisBatchProperties redisBatchProperties) {
+        this.redisTemplate = redisTemplate;
+        this.redisConverter = redisConverter;
+        this.actorAgeIndex = actorAgeIndex;
+        this.chunkSize = redisBatchProperties.getChunkSize();
+        this.keyspace =
+                redisConverter
+                        .getMappingContext()
+                        .getRequiredPersistentEntity(Actor.class)
+                        .getKeySpace();
+    }
+
+    @Override
+    public List<Actor> bulkSave(List<Actor> actors) {
+        for (List<Actor> chunk : chunks(actors)) {
+            redisTemplate.executePipelined(
+                    (RedisCallback<Object>)
+                            connection -> {
+                                chunk.forEach(actor -> write(connection, actor));
+                                return null;
+                            });
+        }
+        return actors;
+    }
+
+    @Override
+    public void bulkDeleteAll() {
+        Set<String> indexKeys = new LinkedHashSet<>();
+        List<String> ids = new ArrayList<>(chunkSize);
+        try (Cursor<String> cursor =
+                redisTemplate
+                        .opsForSet()
+                        .scan(keyspace, ScanOptions.scanOptions().count(chunkSize).build())) {
+            while (cursor.hasNext()) {
+                ids.add(cursor.next());
+                if (ids.size() == chunkSize) {
+                    deleteActors(ids, indexKeys);
+                    ids.clear();
+                }
+            }
+        }
+        deleteActors(ids, indexKeys);
+        List<String> keys = new ArrayList<>(indexKeys);
+        keys.add(keyspace);
+        keys.add(ActorAgeIndex.KEY);
+        for (List<String> chunk : chunks(keys)) {
+            redisTemplate.delete(chunk);
+        }
+    }
+
+    @Override
+    public List<Actor> findByAgeBetween(int minAge, int maxAge) {
+        List<String> ids = actorAgeIndex.idsBetween(minAge, maxAge);
+        List<Actor> actors = new ArrayList<>(ids.size());
+        for (List<String> chunk : chunks(ids)) {
+            List<Object> hashes =
+                    redisTemplate.executePipelined(
+                            (RedisCallback<Object>)
+                                    connection -> {
+                                        chunk.forEach(
+                                                id ->
+                                                        connection
+                                                                .hashCommands()
+                                                                .hGetAll(toBytes(key(id))));
+                                        return null;
+                                    },
+                            RedisSerializer.byteArray());
+            for (int i = 0; i < chunk.size(); i++) {
+                if (hashes.get(i) instanceof Map<?, ?> hash && !hash.isEmpty()) {
+                    actors.add(read(chunk.get(i), hash));
+                }
+            }
+        }
+        return actors;
+    }
+
+    private void write(RedisConnection connection, Actor actor) {
+        if (actor.getId() == null) {
+            // what the repositories' identifier generator would have assigned
+            actor.setId(UUID.randomUUID().toString());
+        }
+        RedisData data = new RedisData();
+        redisConverter.write(actor, data);
+        byte[] id = toBytes(data.getId());
+        byte[] key = toBytes(key(data.getId()));
+        connection.keyCommands().del(key);
+        connection.hashCommands().hMSet(key, data.getBucket().rawMap());
+        connection.setCommands().sAdd(toBytes(keyspace), id);
+        byte[] actorIndexes = toBytes(key(data.getId()) + ":idx");
+        for (IndexedData indexedData : data.getIndexedData()) {
+            if (indexedData instanceof SimpleIndexedPropertyValue indexedValue
+                    && indexedValue.getValue() != null) {
+                byte[] indexKey =
+                        ByteUtils.concat(
+                                toBytes(
+                                        indexedValue.getKeyspace()
+                                                + ":"
+                                                + indexedValue.getIndexName()
+                                                + ":"),
+                                toBytes(indexedValue.getValue()));
+                connection.setCommands().sAdd(indexKey, id);
+                connection.setCommands().sAdd(actorIndexes, indexKey);
+            }
+        }
+        if (actor.getAge() != null) {
+            connection.zSetCommands().zAdd(toBytes(ActorAgeIndex.KEY), actor.getAge(), id);
+        }
+    }
+
+    /** Deletes the hashes and index lists of {@code ids}, collecting the index keys they used. */
+    private void deleteActors(List<String> ids, Collection<String> indexKeys) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Object> actorIndexes =
+                redisTemplate.executePipelined(
+                        (RedisCallback<Object>)
+                                connection -> {
+                                    ids.forEach(
+                                            id ->
+                                                    connection
+                                                            .setCommands()
+                                                            .sMembers(toBytes(key(id) + ":idx")));
+                                    return null;
+                                });
+        for (Object members : actorIndexes) {
+            if (members instanceof Collection<?> keys) {
+                keys.stream().map(Objects::toString).forEach(indexKeys::add);
+            }
+        }
+        redisTemplate.executePipelined(
+                (RedisCallback<Object>)
+                        connection -> {
+                            ids.forEach(
+                                    id ->
+                                            connection
+                                                    .keyCommands()
+                                                    .del(
+                                                            toBytes(key(id)),
+                                                            toBytes(key(id) + ":idx")));
+                            return null;
+                        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Actor read(String id, Map<?, ?> hash) {
+        RedisData data = new RedisData((Map<byte[], byte[]>) hash);
+        data.setId(id);
+        data.setKeyspace(keyspace);
+        return redisConverter.read(Actor.class, data);
+    }
+
+    private String key(String id) {
+        return keyspace + ":" + id;
+    }
+
+    private byte[] toBytes(Object value) {
+        return redisConverter.getConversionService().convert(value, byte[].class);
+    }
+
+    private <E> List<List<E>> chunks(List<E> elements) {
+        List<List<E>> chunks = new ArrayList<>();
+        for (int from = 0; from < elements.size(); from += chunkSize) {
+            chunks.add(elements.subList(from, Math.min(from + chunkSize, elements.size())));
+        }
+        return chunks;
+    }
+}
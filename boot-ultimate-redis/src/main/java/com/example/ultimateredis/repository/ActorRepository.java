@@ -6,7 +6,7 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface ActorRepository extends CrudRepository<Actor, String> {
+public interface ActorRepository extends CrudRepository<Actor, String>, ActorBulkOperations {
 
     Optional<Actor> findByName(String name);
 
@@ -35,10 +35,22 @@ public class ActorService {
         return actorRepository.save(actor);
     }
 
+    /**
+     * Saves {@code actors}. When none of them has an id yet they are new, and their hashes and
+     * index entries are written in pipelines; otherwise one of them may replace a stored actor
+     * whose former index entries have to go, which only the repository's saves do.
+     */
     public List<Actor> saveActors(List<Actor> actors) {
+        if (actors.stream().allMatch(actor -> actor.getId() == null)) {
+            return actorRepository.bulkSave(actors);
+        }
         return (List<Actor>) actorRepository.saveAll(actors);
     }
 
+    public List<Actor> findActorsByAgeBetween(int minAge, int maxAge) {
+        return actorRepository.findByAgeBetween(minAge, maxAge);
+    }
+
     public void deleteActorById(String id) {
         actorRepository.deleteById(id);
     }
@@ -48,6 +60,6 @@ public class ActorService {
     }
 
     public void deleteAll() {
-        actorRepository.deleteAll();
+        actorRepository.bulkDeleteAll();
     }
 }
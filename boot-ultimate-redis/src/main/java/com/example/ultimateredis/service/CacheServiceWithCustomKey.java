@@ -11,7 +11,8 @@ public class CacheServiceWithCustomKey {
 
     private static final Logger log = LoggerFactory.getLogger(CacheServiceWithCustomKey.class);
 
-    @Cacheable(cacheNames = "myCache", key = "'myPrefix_'.concat(#relevant)")
+    // sync: concurrent misses for the same key wait for a single load
+    @Cacheable(cacheNames = "myCache", key = "'myPrefix_'.concat(#relevant)", sync = true)
     public String cacheThis(String relevant, String unRelevantTrackingId) {
         log.info("Returning NOT from cache. Tracking: {}!", unRelevantTrackingId);
         return "this Is it";
@@ -17,7 +17,8 @@ public class ControlledCacheServiceWithGenericKey {
     @Cacheable(
             cacheNames = "myControlledCache",
             key =
-                    "T(com.example.ultimateredis.service.ControlledCacheServiceWithGenericKey).getCacheKey(#relevant)")
+                    "T(com.example.ultimateredis.service.ControlledCacheServiceWithGenericKey).getCacheKey(#relevant)",
+            sync = true)
     public String getFromCache(String relevant) {
         return null;
     }
@@ -2,7 +2,12 @@ package com.example.ultimateredis.service;
 
 import com.example.ultimateredis.config.RedisValueOperationsUtil;
 import com.example.ultimateredis.model.AddRedisRequest;
-import java.util.concurrent.TimeUnit;
+import com.example.ultimateredis.model.ExpireRedisRequest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -20,14 +25,44 @@ public class RedisService {
 
     public void addRedis(AddRedisRequest request) {
         log.info("add redis {}", request);
-        redisStringUtil.putValue(request.key(), request.value());
-        log.info(
-                "adding expiry for key {} as : {} minutes", request.key(), request.expireMinutes());
-        redisStringUtil.setExpire(request.key(), request.expireMinutes(), TimeUnit.MINUTES);
+        redisStringUtil.putValue(
+                request.key(), request.value(), Duration.ofMinutes(request.expireMinutes()));
+    }
+
+    /** Adds every key in pipelined batches, one batch per distinct expiry. */
+    public int addAll(List<AddRedisRequest> requests) {
+        log.info("add {} redis keys", requests.size());
+        requests.stream()
+                .collect(
+                        Collectors.groupingBy(
+                                AddRedisRequest::expireMinutes,
+                                Collectors.toMap(
+                                        AddRedisRequest::key,
+                                        AddRedisRequest::value,
+                                        (first, last) -> last,
+                                        LinkedHashMap::new)))
+                .forEach(
+                        (expireMinutes, values) ->
+                                redisStringUtil.putAll(values, Duration.ofMinutes(expireMinutes)));
+        return requests.size();
     }
 
     public String getValue(String key) {
         log.info("get value {}", key);
         return redisStringUtil.getValue(key);
     }
+
+    public Map<String, String> getValues(List<String> keys) {
+        log.info("get {} values", keys.size());
+        return redisStringUtil.getAll(keys);
+    }
+
+    public long expireAll(ExpireRedisRequest request) {
+        log.info(
+                "adding expiry for {} keys as : {} minutes",
+                request.keys().size(),
+                request.expireMinutes());
+        return redisStringUtil.expireAll(
+                request.keys(), Duration.ofMinutes(request.expireMinutes()));
+    }
 }
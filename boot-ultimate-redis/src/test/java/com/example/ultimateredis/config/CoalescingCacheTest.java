@@ -0,0 +1,105 @@
+package com.example.ultimateredis.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+class CoalescingCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ConcurrentMapCache delegate = new ConcurrentMapCache("myCache");
+
+    private final CoalescingCache cache = new CoalescingCache(delegate, 1.0, meterRegistry);
+
+    @Test
+    void concurrentMissesRunTheLoaderOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10; i++) {
+                results.add(
+                        executor.submit(
+                                () ->
+                                        cache.get(
+                                                "key",
+                                                () -> {
+                                                    loads.incrementAndGet();
+                                                    release.await();
+                                                    return "value";
+                                                })));
+            }
+            // every caller is either loading or waiting for the load by now
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(count("loaded")).isEqualTo(1);
+        assertThat(count("coalesced")).isEqualTo(9);
+        assertThat(cache.get("key", String.class)).isEqualTo("value");
+    }
+
+    @Test
+    void failedLoadsReachEveryWaitingCaller() {
+        assertThatThrownBy(
+                        () ->
+                                cache.get(
+                                        "key",
+                                        () -> {
+                                            throw new IllegalStateException("backing store down");
+                                        }))
+                .isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasRootCauseMessage("backing store down");
+        // nothing is remembered about the failure
+        assertThat(cache.get("key", () -> "value")).isEqualTo("value");
+    }
+
+    @Test
+    void refreshesEarlyOnlyWhenCloseToExpiry() {
+        long now = System.currentTimeMillis();
+        CoalescingCache.Stamped fresh = new CoalescingCache.Stamped("value", 10, now + 60_000);
+        CoalescingCache.Stamped expiring = new CoalescingCache.Stamped("value", 10_000, now + 1);
+
+        assertThat(fresh.refreshEarly(1.0, now)).isFalse();
+        assertThat(expiring.refreshEarly(1.0, now + 1)).isTrue();
+    }
+
+    @Test
+    void recomputesStampedValuesThatAreAboutToExpire() {
+        delegate.put("key", new CoalescingCache.Stamped("old", 10_000, System.currentTimeMillis()));
+
+        assertThat(cache.get("key", () -> "new")).isEqualTo("new");
+        assertThat(cache.get("key")).extracting(Cache.ValueWrapper::get).isEqualTo("new");
+        assertThat(meterRegistry.counter("cache.early.refreshes", "cache", "myCache").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void doesNotCacheNulls() {
+        String loaded = cache.get("key", () -> null);
+
+        assertThat(loaded).isNull();
+        assertThat(delegate.get("key", String.class)).isNull();
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("cache.loads", "cache", "myCache", "result", result).count();
+    }
+}
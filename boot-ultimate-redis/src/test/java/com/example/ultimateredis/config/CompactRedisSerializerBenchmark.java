@@ -0,0 +1,86 @@
+package com.example.ultimateredis.config;
+
+import com.example.ultimateredis.model.Actor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Time to write and read cache values with {@link CompactRedisSerializer}, for each compression at
+ * the default threshold of 1 KB. Actors are not {@code Serializable}, compare with the former Java
+ * serialization on strings only, with {@code -p encoding=JDK -p payload=string,longString}. Run
+ * {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class CompactRedisSerializerBenchmark {
+
+    @Param({"SMILE"})
+    private CacheEncoding encoding;
+
+    @Param({"NONE", "GZIP", "LZ4", "ZSTD"})
+    private CacheCompression compression;
+
+    @Param({"actor", "actors", "string", "longString"})
+    private String payload;
+
+    private CompactRedisSerializer serializer;
+    private Object value;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() {
+        serializer = new CompactRedisSerializer(encoding, compression, 1024);
+        value =
+                switch (payload) {
+                    case "actor" -> new Actor("1", "John", 30);
+                    case "actors" -> {
+                        List<Actor> actors = new ArrayList<>();
+                        for (int i = 0; i < 100; i++) {
+                            actors.add(new Actor(String.valueOf(i), "John" + i, 30 + i % 40));
+                        }
+                        yield actors;
+                    }
+                    case "string" -> "this Is it";
+                    case "longString" -> "this is it again! ".repeat(500);
+                    default -> throw new IllegalArgumentException(payload);
+                };
+        serialized = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(CompactRedisSerializerBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ultimateredis.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.ultimateredis.model.Actor;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class CompactRedisSerializerTest {
+
+    private static final String LONG_STRING = "this Is it ".repeat(200);
+
+    @ParameterizedTest
+    @EnumSource(CacheCompression.class)
+    void roundTripsEveryCompression(CacheCompression compression) {
+        CompactRedisSerializer serializer =
+                new CompactRedisSerializer(CacheEncoding.SMILE, compression, 64);
+
+        byte[] bytes = serializer.serialize(LONG_STRING);
+
+        assertThat(bytes[0]).isEqualTo(compression.id());
+        assertThat(serializer.deserialize(bytes)).isEqualTo(LONG_STRING);
+    }
+
+    @Test
+    void smileKeepsTheTypeOfBeansAndStampedValues() {
+        CompactRedisSerializer serializer =
+                new CompactRedisSerializer(CacheEncoding.SMILE, CacheCompression.ZSTD, 64);
+        Actor actor = new Actor("1", "Tom", 42);
+
+        Object read = serializer.deserialize(serializer.serialize(actor));
+        assertThat(read).isInstanceOf(Actor.class).usingRecursiveComparison().isEqualTo(actor);
+
+        CoalescingCache.Stamped stamped = new CoalescingCache.Stamped("cached", 15, 1_000);
+        assertThat(serializer.deserialize(serializer.serialize(stamped))).isEqualTo(stamped);
+
+        List<Actor> actors = new ArrayList<>(List.of(actor));
+        assertThat(serializer.deserialize(serializer.serialize(actors)))
+                .asInstanceOf(InstanceOfAssertFactories.LIST)
+                .singleElement()
+                .isInstanceOf(Actor.class);
+    }
+
+    @Test
+    void smileRejectsTypesOutsideTheAllowList() {
+        CompactRedisSerializer serializer =
+                new CompactRedisSerializer(CacheEncoding.SMILE, CacheCompression.NONE, 1024);
+
+        byte[] bytes = serializer.serialize(new LinkedList<>(List.of("a", "b")));
+
+        assertThatThrownBy(() -> serializer.deserialize(bytes))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void smallValuesAreNotCompressed() {
+        CompactRedisSerializer serializer =
+                new CompactRedisSerializer(CacheEncoding.SMILE, CacheCompression.GZIP, 1024);
+
+        byte[] bytes = serializer.serialize("this Is it");
+
+        assertThat(bytes[0]).isEqualTo(CacheCompression.NONE.id());
+        assertThat(serializer.deserialize(bytes)).isEqualTo("this Is it");
+    }
+
+    @Test
+    void valuesThatDoNotShrinkAreNotCompressed() {
+        CompactRedisSerializer serializer =
+                new CompactRedisSerializer(CacheEncoding.JDK, CacheCompression.LZ4, 0);
+        byte[] random = new byte[4096];
+        ThreadLocalRandom.current().nextBytes(random);
+
+        byte[] bytes = serializer.serialize(random);
+
+        assertThat(bytes[0]).isEqualTo(CacheCompression.NONE.id());
+        assertThat(serializer.deserialize(bytes)).isEqualTo(random);
+    }
+
+    @Test
+    void readsValuesWrittenWithJavaSerialization() {
+        CompactRedisSerializer serializer =
+                new CompactRedisSerializer(CacheEncoding.SMILE, CacheCompression.LZ4, 1024);
+
+        byte[] legacy = new JdkSerializationRedisSerializer().serialize(LONG_STRING);
+
+        assertThat(serializer.deserialize(legacy)).isEqualTo(LONG_STRING);
+    }
+
+    @Test
+    void rejectsUnknownCompressionIds() {
+        CompactRedisSerializer serializer =
+                new CompactRedisSerializer(CacheEncoding.SMILE, CacheCompression.LZ4, 1024);
+
+        assertThatThrownBy(() -> serializer.deserialize(new byte[] {42, 1, 2}))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ultimateredis.controller;
+
+import com.example.ultimateredis.common.AbstractIntegrationTest;
+import com.example.ultimateredis.model.Actor;
+import com.example.ultimateredis.repository.ActorRepository;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+class ActorControllerTest extends AbstractIntegrationTest {
+
+    @Autowired private ActorRepository actorRepository;
+
+    @AfterEach
+    void tearDown() {
+        actorRepository.bulkDeleteAll();
+    }
+
+    @Test
+    void savesActorsAndFindsThemByAgeRange() throws Exception {
+        List<Actor> actors =
+                List.of(
+                        new Actor(null, "tom", 30),
+                        new Actor(null, "brad", 45),
+                        new Actor(null, "meryl", 52));
+        this.mockMvcTester
+                .post()
+                .uri("/v1/actors/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(actors))
+                .assertThat()
+                .hasStatus(HttpStatus.CREATED)
+                .hasContentType(MediaType.APPLICATION_JSON)
+                .bodyJson()
+                .extractingPath("$.response[*].id")
+                .asArray()
+                .hasSize(3)
+                .doesNotContainNull();
+
+        this.mockMvcTester
+                .get()
+                .uri("/v1/actors")
+                .param("minAge", "40")
+                .param("maxAge", "60")
+                .assertThat()
+                .hasStatusOk()
+                .hasContentType(MediaType.APPLICATION_JSON)
+                .bodyJson()
+                .extractingPath("$.response[*].name")
+                .asArray()
+                .containsExactly("brad", "meryl");
+    }
+}
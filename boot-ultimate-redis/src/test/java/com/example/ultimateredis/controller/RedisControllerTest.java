@@ -5,8 +5,11 @@ import static org.awaitility.Awaitility.await;
 
 import com.example.ultimateredis.common.AbstractIntegrationTest;
 import com.example.ultimateredis.model.AddRedisRequest;
+import com.example.ultimateredis.model.ExpireRedisRequest;
 import com.example.ultimateredis.model.GenericResponse;
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
@@ -70,4 +73,64 @@ class RedisControllerTest extends AbstractIntegrationTest {
                                                 response ->
                                                         assertThat(response.response()).isNull()));
     }
+
+    @Test
+    @Order(4)
+    void addRedisKeyValues() throws Exception {
+        List<AddRedisRequest> addRedisRequests =
+                List.of(
+                        new AddRedisRequest("junit-batch-1", "JunitValue1", 5),
+                        new AddRedisRequest("junit-batch-2", "JunitValue2", 5),
+                        new AddRedisRequest("junit-batch-3", "JunitValue3", 10));
+        this.mockMvcTester
+                .post()
+                .uri("/v1/redis/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(addRedisRequests))
+                .assertThat()
+                .hasStatus(HttpStatus.CREATED)
+                .hasContentType(MediaType.APPLICATION_JSON)
+                .bodyJson()
+                .convertTo(GenericResponse.class)
+                .satisfies(response -> assertThat(response.response()).isEqualTo(3));
+    }
+
+    @Test
+    @Order(5)
+    void getAllFromCache() {
+        this.mockMvcTester
+                .get()
+                .uri("/v1/redis/batch")
+                .param("keys", "junit-batch-1", "junit-batch-3", "junit-missing")
+                .assertThat()
+                .hasStatusOk()
+                .hasContentType(MediaType.APPLICATION_JSON)
+                .bodyJson()
+                .convertTo(GenericResponse.class)
+                .satisfies(
+                        response ->
+                                assertThat(response.response())
+                                        .isEqualTo(
+                                                Map.of(
+                                                        "junit-batch-1", "JunitValue1",
+                                                        "junit-batch-3", "JunitValue3")));
+    }
+
+    @Test
+    @Order(6)
+    void expireKeys() throws Exception {
+        ExpireRedisRequest expireRedisRequest =
+                new ExpireRedisRequest(List.of("junit-batch-1", "junit-missing"), 1);
+        this.mockMvcTester
+                .post()
+                .uri("/v1/redis/batch/expire")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(expireRedisRequest))
+                .assertThat()
+                .hasStatusOk()
+                .hasContentType(MediaType.APPLICATION_JSON)
+                .bodyJson()
+                .convertTo(GenericResponse.class)
+                .satisfies(response -> assertThat(response.response()).isEqualTo(1));
+    }
 }
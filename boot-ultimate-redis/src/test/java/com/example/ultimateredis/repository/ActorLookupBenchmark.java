@@ -0,0 +1,98 @@
+package com.example.ultimateredis.repository;
+
+import com.example.ultimateredis.UltimateRedisApplication;
+import com.example.ultimateredis.common.TestcontainersConfiguration;
+import com.example.ultimateredis.model.Actor;
+import com.example.ultimateredis.utils.AppConstants;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Latency of lookups by indexed values as the actor catalog grows: {@code findByNameAndAge}
+ * intersects the {@code @Indexed} sets, {@code findByAgeBetween} reads one age of the sorted set
+ * and the hashes it names. Sampled, so the report has the p50 and p99 of each. The application runs
+ * against a Redis container, which needs Docker. Run {@link #main(String[])} from the test
+ * classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class ActorLookupBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private ActorRepository actorRepository;
+
+    @Setup
+    public void setup() {
+        context =
+                SpringApplication.from(UltimateRedisApplication::main)
+                        .with(TestcontainersConfiguration.class)
+                        .withAdditionalProfiles(AppConstants.PROFILE_STANDALONE)
+                        .run("--spring.main.web-application-type=none")
+                        .getApplicationContext();
+        actorRepository = context.getBean(ActorRepository.class);
+        actorRepository.bulkDeleteAll();
+        actorRepository.bulkSave(
+                IntStream.range(0, catalogSize)
+                        .mapToObj(i -> new Actor(null, name(i), age(i)))
+                        .toList());
+    }
+
+    @TearDown
+    public void tearDown() {
+        actorRepository.bulkDeleteAll();
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Actor> findByNameAndAge() {
+        int i = ThreadLocalRandom.current().nextInt(catalogSize);
+        return actorRepository.findByNameAndAge(name(i), age(i));
+    }
+
+    @Benchmark
+    public List<Actor> findByAgeBetween() {
+        int age = ThreadLocalRandom.current().nextInt(20, 80);
+        return actorRepository.findByAgeBetween(age, age);
+    }
+
+    private static String name(int i) {
+        // a name shared by a few actors of different ages, like a real catalog
+        return "actor-" + i / 4;
+    }
+
+    private static int age(int i) {
+        return 20 + i % 60;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ActorLookupBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ultimateredis.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.ultimateredis.common.AbstractIntegrationTest;
+import com.example.ultimateredis.model.Actor;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class ActorRepositoryTest extends AbstractIntegrationTest {
+
+    @Autowired private ActorRepository actorRepository;
+    @Autowired private StringRedisTemplate stringRedisTemplate;
+
+    @AfterEach
+    void tearDown() {
+        actorRepository.bulkDeleteAll();
+    }
+
+    @Test
+    void bulkSavedActorsAreFoundByEveryIndex() {
+        List<Actor> saved =
+                actorRepository.bulkSave(
+                        List.of(
+                                new Actor(null, "tom", 30),
+                                new Actor(null, "brad", 45),
+                                new Actor(null, "meryl", 52)));
+
+        assertThat(saved).allSatisfy(actor -> assertThat(actor.getId()).isNotNull());
+        assertThat(actorRepository.count()).isEqualTo(3);
+        assertThat(actorRepository.findByNameAndAge("brad", 45))
+                .get()
+                .usingRecursiveComparison()
+                .isEqualTo(saved.get(1));
+        assertThat(actorRepository.findByAgeBetween(40, 60))
+                .extracting(Actor::getName)
+                .containsExactly("brad", "meryl");
+    }
+
+    @Test
+    void repositorySavesAndDeletesKeepTheAgeIndexCurrent() {
+        Actor tom = actorRepository.save(new Actor(null, "tom", 30));
+        assertThat(actorRepository.findByAgeBetween(25, 35))
+                .extracting(Actor::getId)
+                .containsExactly(tom.getId());
+
+        tom.setAge(61);
+        actorRepository.save(tom);
+        assertThat(actorRepository.findByAgeBetween(25, 35)).isEmpty();
+        assertThat(actorRepository.findByAgeBetween(60, 70)).hasSize(1);
+
+        actorRepository.deleteById(tom.getId());
+        assertThat(actorRepository.findByAgeBetween(0, 100)).isEmpty();
+    }
+
+    @Test
+    void bulkDeleteAllLeavesNoActorKeys() {
+        actorRepository.bulkSave(actors(0, 1_200));
+
+        actorRepository.bulkDeleteAll();
+
+        assertThat(stringRedisTemplate.keys("actor*")).isEmpty();
+    }
+
+    @Test
+    void findByAgeBetweenReturnsTheActorsOfTheRangeUntilBulkDeleteAll() {
+        List<Actor> saved =
+                actorRepository.bulkSave(
+                        List.of(
+                                new Actor(null, "kate", 20),
+                                new Actor(null, "tom", 30),
+                                new Actor(null, "brad", 40),
+                                new Actor(null, "meryl", 52)));
+
+        assertThat(actorRepository.findByAgeBetween(30, 40))
+                .extracting(Actor::getId)
+                .containsExactly(saved.get(1).getId(), saved.get(2).getId());
+        assertThat(actorRepository.findByAgeBetween(41, 51)).isEmpty();
+        assertThat(actorRepository.findByAgeBetween(0, 100))
+                .extracting(Actor::getName)
+                .containsExactly("kate", "tom", "brad", "meryl");
+
+        actorRepository.bulkDeleteAll();
+
+        assertThat(actorRepository.findByAgeBetween(0, 100)).isEmpty();
+        assertThat(actorRepository.findByNameAndAge("tom", 30)).isEmpty();
+        assertThat(actorRepository.count()).isZero();
+    }
+
+    private static List<Actor> actors(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> new Actor(null, name(i), age(i))).toList();
+    }
+
+    private static String name(int i) {
+        // a name shared by a few actors of different ages, like a real catalog
+        return "actor-" + i / 4;
+    }
+
+    private static int age(int i) {
+        return 20 + i % 60;
+    }
+}
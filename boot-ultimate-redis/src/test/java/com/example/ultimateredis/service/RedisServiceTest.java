@@ -0,0 +1,71 @@
+package com.example.ultimateredis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.ultimateredis.common.AbstractIntegrationTest;
+import com.example.ultimateredis.model.AddRedisRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class RedisServiceTest extends AbstractIntegrationTest {
+
+    private static final int KEYS = 20;
+
+    @Autowired private RedisService redisService;
+    @Autowired private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    void perKeyWritesStoreValuesWithTheirExpiry() {
+        List<AddRedisRequest> perKey = requests("per-key");
+
+        perKey.forEach(redisService::addRedis);
+
+        assertStoredWithExpiry(perKey);
+    }
+
+    @Test
+    void batchedWritesStoreValuesWithTheirExpiry() {
+        List<AddRedisRequest> batched = requests("batched");
+
+        assertThat(redisService.addAll(batched)).isEqualTo(KEYS);
+
+        assertStoredWithExpiry(batched);
+    }
+
+    @Test
+    void getValuesReadsRepeatedKeysOnce() {
+        redisService.addAll(requests("repeated"));
+
+        assertThat(
+                        redisService.getValues(
+                                List.of("repeated-1", "repeated-0", "repeated-1", "missing")))
+                .containsExactly(
+                        Map.entry("repeated-1", "value-1"), Map.entry("repeated-0", "value-0"));
+    }
+
+    private void assertStoredWithExpiry(List<AddRedisRequest> requests) {
+        assertThat(redisService.getValues(requests.stream().map(AddRedisRequest::key).toList()))
+                .hasSize(KEYS)
+                .containsEntry(requests.getFirst().key(), "value-0")
+                .containsEntry(requests.getLast().key(), "value-" + (KEYS - 1));
+        // value and expiry were set by the same SET EX, no key is left without one
+        assertThat(requests)
+                .allSatisfy(
+                        request ->
+                                assertThat(
+                                                stringRedisTemplate.getExpire(
+                                                        request.key(), TimeUnit.SECONDS))
+                                        .isBetween(1L, 600L));
+    }
+
+    private static List<AddRedisRequest> requests(String prefix) {
+        return IntStream.range(0, KEYS)
+                .mapToObj(i -> new AddRedisRequest(prefix + "-" + i, "value-" + i, 10))
+                .toList();
+    }
+}
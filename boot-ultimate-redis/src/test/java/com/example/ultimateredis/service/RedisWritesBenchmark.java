@@ -0,0 +1,97 @@
+package com.example.ultimateredis.service;
+
+import com.example.ultimateredis.UltimateRedisApplication;
+import com.example.ultimateredis.common.TestcontainersConfiguration;
+import com.example.ultimateredis.config.RedisValueOperationsUtil;
+import com.example.ultimateredis.model.AddRedisRequest;
+import com.example.ultimateredis.utils.AppConstants;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Time to write {@code keys} keys with an expiry: a SET then an EXPIRE per key, a SET EX per key
+ * with {@link RedisService#addRedis}, and pipelined SET EX batches with {@link
+ * RedisService#addAll}. The application runs against a Redis container, which needs Docker. Run
+ * {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(1)
+public class RedisWritesBenchmark {
+
+    @Param({"1000", "5000"})
+    private int keys;
+
+    private ConfigurableApplicationContext context;
+    private RedisService redisService;
+    private RedisValueOperationsUtil<String> redisStringUtil;
+    private List<AddRedisRequest> requests;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        context =
+                SpringApplication.from(UltimateRedisApplication::main)
+                        .with(TestcontainersConfiguration.class)
+                        .withAdditionalProfiles(AppConstants.PROFILE_STANDALONE)
+                        .run("--spring.main.web-application-type=none")
+                        .getApplicationContext();
+        redisService = context.getBean(RedisService.class);
+        redisStringUtil = context.getBean(RedisValueOperationsUtil.class);
+        requests =
+                IntStream.range(0, keys)
+                        .mapToObj(i -> new AddRedisRequest("bench-" + i, "value-" + i, 10))
+                        .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void setThenExpire() {
+        requests.forEach(
+                request -> {
+                    redisStringUtil.putValue(request.key(), request.value());
+                    redisStringUtil.setExpire(
+                            request.key(), request.expireMinutes(), TimeUnit.MINUTES);
+                });
+    }
+
+    @Benchmark
+    public void setExPerKey() {
+        requests.forEach(redisService::addRedis);
+    }
+
+    @Benchmark
+    public int pipelined() {
+        return redisService.addAll(requests);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RedisWritesBenchmark.class.getSimpleName()).build())
+                .run();
+    }
+}
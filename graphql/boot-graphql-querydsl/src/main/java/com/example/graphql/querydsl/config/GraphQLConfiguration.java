@@ -1,9 +1,16 @@
 package com.example.graphql.querydsl.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
 
 @Slf4j
 @Configuration(proxyBeanMethods = false)
@@ -13,4 +20,36 @@ class GraphQLConfiguration {
     GraphQlSourceBuilderCustomizer inspectionCustomizer() {
         return source -> source.inspectSchemaMappings(report -> log.info(report.toString()));
     }
+
+    @Bean
+    QueryCostInstrumentation queryCostInstrumentation(
+            ApplicationProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new QueryCostInstrumentation(
+                properties.getQueryCost(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * Charges operations to the address they come from. Only trusted addresses, such as a gateway's,
+     * may charge them to the client they name in the client id header instead.
+     */
+    @Bean
+    WebGraphQlInterceptor clientIdInterceptor(ApplicationProperties properties) {
+        String clientIdHeader = properties.getQueryCost().getClientIdHeader();
+        Set<String> trustedClientAddresses =
+                Set.copyOf(properties.getQueryCost().getTrustedClientAddresses());
+        return (request, chain) -> {
+            InetSocketAddress remoteAddress = request.getRemoteAddress();
+            if (remoteAddress != null) {
+                String clientId = remoteAddress.getHostString();
+                String namedClientId = request.getHeaders().getFirst(clientIdHeader);
+                if (namedClientId != null && trustedClientAddresses.contains(clientId)) {
+                    clientId = namedClientId;
+                }
+                Map<String, Object> context = Map.of(QueryCostInstrumentation.CLIENT_ID, clientId);
+                request.configureExecutionInput(
+                        (input, builder) -> builder.graphQLContext(context).build());
+            }
+            return chain.next(request);
+        };
+    }
 }
@@ -1,22 +1,47 @@
 package com.example.graphql.querydsl.gql;
 
+import com.example.graphql.querydsl.config.ApplicationProperties;
 import com.example.graphql.querydsl.model.request.AddTagRequest;
 import com.example.graphql.querydsl.model.request.CreatePostRequest;
+import com.example.graphql.querydsl.model.response.PostCommentResponse;
 import com.example.graphql.querydsl.model.response.PostResponse;
+import com.example.graphql.querydsl.model.response.TagResponse;
+import com.example.graphql.querydsl.services.PostCommentService;
 import com.example.graphql.querydsl.services.PostService;
+import com.example.graphql.querydsl.services.TagService;
+import com.example.graphql.querydsl.utils.BatchLoaders;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
 import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Mono;
 
 @Controller
 class PostControllerQL {
 
     private final PostService postService;
+    private final PostCommentService postCommentService;
+    private final TagService tagService;
+    private final ApplicationProperties.BatchLoading batchLoading;
+    private final ApplicationProperties.Pagination pagination;
 
-    PostControllerQL(PostService postService) {
+    PostControllerQL(
+            PostService postService,
+            PostCommentService postCommentService,
+            TagService tagService,
+            ApplicationProperties applicationProperties) {
         this.postService = postService;
+        this.postCommentService = postCommentService;
+        this.tagService = tagService;
+        this.batchLoading = applicationProperties.getBatchLoading();
+        this.pagination = applicationProperties.getPagination();
     }
 
     @QueryMapping
@@ -25,8 +50,20 @@ class PostControllerQL {
     }
 
     @QueryMapping
-    List<PostResponse> getPostsByUserName(@Argument("name") String name) {
-        return this.postService.getPostsByUserName(name);
+    Window<PostResponse> getPostsByUserName(@Argument("name") String name, ScrollSubrange subrange) {
+        int pageSize =
+                Math.clamp(subrange.count().orElse(pagination.getDefaultPageSize()), 1, pagination.getMaxPageSize());
+        return this.postService.getPostsByUserName(name, subrange.position().orElse(ScrollPosition.keyset()), pageSize);
+    }
+
+    @BatchMapping(typeName = "PostResponse")
+    Mono<Map<PostResponse, List<PostCommentResponse>>> comments(List<PostResponse> posts) {
+        return loadById(posts, this.postCommentService::getCommentsByPostIdIn);
+    }
+
+    @BatchMapping(typeName = "PostResponse")
+    Mono<Map<PostResponse, List<TagResponse>>> tags(List<PostResponse> posts) {
+        return loadById(posts, this.tagService::getTagsByPostIdIn);
     }
 
     @MutationMapping
@@ -38,4 +75,15 @@ class PostControllerQL {
     PostResponse addTagsToPost(@Argument("addTagRequest") AddTagRequest addTagRequest) {
         return this.postService.addTagsToPost(addTagRequest);
     }
+
+    private <C> Mono<Map<PostResponse, List<C>>> loadById(
+            List<PostResponse> posts, Function<List<Long>, Map<Long, List<C>>> loadChunk) {
+        return BatchLoaders.loadBlocking(
+                posts,
+                PostResponse::id,
+                List.of(),
+                batchLoading.getMaxBatchSize(),
+                batchLoading.getConcurrency(),
+                loadChunk);
+    }
 }
@@ -11,6 +11,7 @@ import org.mapstruct.InjectionStrategy;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.Named;
 
 @Mapper(uses = PostMapperHelper.class, injectionStrategy = InjectionStrategy.CONSTRUCTOR)
 public interface PostMapper {
@@ -38,6 +39,12 @@ public interface PostMapper {
 
     List<PostResponse> toResponseList(List<Post> postList);
 
+    @Named("summary")
+    @Mapping(target = "createdOn", source = "details.createdOn")
+    @Mapping(target = "comments", ignore = true)
+    @Mapping(target = "tags", ignore = true)
+    PostResponse toSummary(Post post);
+
     @Mapping(target = "tags", ignore = true)
     Post setTags(List<TagRequest> tagRequests, Post post);
 }
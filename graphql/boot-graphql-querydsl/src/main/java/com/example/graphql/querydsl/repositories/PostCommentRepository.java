@@ -1,8 +1,13 @@
 package com.example.graphql.querydsl.repositories;
 
 import com.example.graphql.querydsl.entities.PostComment;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 
 public interface PostCommentRepository
-        extends JpaRepository<PostComment, Long>, QuerydslPredicateExecutor<PostComment> {}
+        extends JpaRepository<PostComment, Long>, QuerydslPredicateExecutor<PostComment> {
+
+    List<PostComment> findByPost_IdInOrderByIdAsc(Collection<Long> postIds);
+}
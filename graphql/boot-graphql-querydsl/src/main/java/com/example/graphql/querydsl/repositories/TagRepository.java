@@ -1,11 +1,19 @@
 package com.example.graphql.querydsl.repositories;
 
+import com.example.graphql.querydsl.entities.PostTag;
 import com.example.graphql.querydsl.entities.Tag;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
 
 public interface TagRepository extends JpaRepository<Tag, Long>, QuerydslPredicateExecutor<Tag> {
 
     Optional<Tag> findByName(String name);
+
+    @Query("select pt from PostTag pt join fetch pt.tag where pt.post.id in :postIds order by pt.tag.name")
+    List<PostTag> findPostTagsByPostIdIn(@Param("postIds") Collection<Long> postIds);
 }
@@ -11,7 +11,9 @@ import com.example.graphql.querydsl.model.response.PostCommentResponse;
 import com.example.graphql.querydsl.repositories.PostCommentRepository;
 import com.example.graphql.querydsl.utils.PageUtil;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -39,6 +41,13 @@ public class PostCommentService {
         return new PagedResult<>(postCommentsPage, postCommentResponseList);
     }
 
+    public Map<Long, List<PostCommentResponse>> getCommentsByPostIdIn(List<Long> postIds) {
+        return postCommentRepository.findByPost_IdInOrderByIdAsc(postIds).stream()
+                .collect(Collectors.groupingBy(
+                        postComment -> postComment.getPost().getId(),
+                        Collectors.mapping(postCommentMapper::toResponse, Collectors.toList())));
+    }
+
     public Optional<PostCommentResponse> findPostCommentById(Long id) {
         return postCommentRepository.findById(id).map(postCommentMapper::toResponse);
     }
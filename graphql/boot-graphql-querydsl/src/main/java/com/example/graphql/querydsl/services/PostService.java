@@ -1,6 +1,7 @@
 package com.example.graphql.querydsl.services;
 
 import com.example.graphql.querydsl.entities.Post;
+import com.example.graphql.querydsl.entities.QPost;
 import com.example.graphql.querydsl.exception.PostNotFoundException;
 import com.example.graphql.querydsl.mapper.PostMapper;
 import com.example.graphql.querydsl.model.query.FindQuery;
@@ -16,6 +17,9 @@ import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -72,15 +76,22 @@ public class PostService {
         return postRepository.count();
     }
 
-    public List<PostResponse> getPostsByUserName(String name) {
-        List<Post> posts = postRepository.findByDetails_CreatedByEqualsIgnoreCase(name);
-        if (posts.isEmpty()) {
+    /**
+     * Returns the next {@code pageSize} posts {@code name} created, by id, reading on from the post id
+     * of {@code position} rather than skipping the rows before it. Throws {@link
+     * PostNotFoundException} when {@code name} has created no posts at all.
+     */
+    public Window<PostResponse> getPostsByUserName(String name, ScrollPosition position, int pageSize) {
+        Window<Post> posts = postRepository.findBy(
+                QPost.post.details.createdBy.equalsIgnoreCase(name), query -> query.project("details")
+                        .sortBy(Sort.by("id"))
+                        .limit(pageSize)
+                        .scroll(position));
+        if (posts.isEmpty() && position.isInitial()) {
             throw new PostNotFoundException(name);
-        } else {
-            // Fixing MultiBagException
-            List<Post> fullyMappedPosts = postRepository.findAllPostsWithTags(posts);
-            return postMapper.toResponseList(fullyMappedPosts);
         }
+        // comments and tags are loaded in batches by PostControllerQL, for this page only
+        return posts.map(postMapper::toSummary);
     }
 
     @Transactional
@@ -10,7 +10,9 @@ import com.example.graphql.querydsl.model.response.TagResponse;
 import com.example.graphql.querydsl.repositories.TagRepository;
 import com.example.graphql.querydsl.utils.PageUtil;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -37,6 +39,13 @@ public class TagService {
         return new PagedResult<>(tagsPage, tagResponseList);
     }
 
+    public Map<Long, List<TagResponse>> getTagsByPostIdIn(List<Long> postIds) {
+        return tagRepository.findPostTagsByPostIdIn(postIds).stream()
+                .collect(Collectors.groupingBy(
+                        postTag -> postTag.getId().postId(),
+                        Collectors.mapping(postTag -> tagMapper.toResponse(postTag.getTag()), Collectors.toList())));
+    }
+
     public Optional<TagResponse> findTagById(Long id) {
         return tagRepository.findById(id).map(tagMapper::toResponse);
     }
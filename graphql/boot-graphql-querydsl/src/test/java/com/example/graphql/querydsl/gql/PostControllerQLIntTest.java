@@ -97,28 +97,65 @@ class PostControllerQLIntTest extends AbstractIntegrationTest {
                 .documentName("getPostsByUserName")
                 .variable("name", "appUser")
                 .execute()
-                .path("getPostsByUserName")
+                .path("getPostsByUserName.edges[*].node")
                 .entityList(PostResponse.class)
                 .hasSize(3)
-                .path("getPostsByUserName[0].id")
+                .path("getPostsByUserName.edges[0].node.id")
                 .entity(Long.class)
                 .satisfies(id -> assertThat(id).isPositive())
-                .path("getPostsByUserName[0].title")
+                .path("getPostsByUserName.edges[0].node.title")
                 .entity(String.class)
                 .isEqualTo("First Post")
-                .path("getPostsByUserName[0].content")
+                .path("getPostsByUserName.edges[0].node.content")
                 .entity(String.class)
                 .isEqualTo("First Content")
-                .path("getPostsByUserName[0].comments")
+                .path("getPostsByUserName.edges[0].node.comments")
                 .entityList(PostCommentResponse.class)
                 .hasSize(1)
                 .satisfies(postCommentResponses -> {
                     assertThat(postCommentResponses.getFirst().review()).isEqualTo("First Review");
                     assertThat(postCommentResponses.getFirst().createdOn()).isInstanceOf(LocalDateTime.class);
                 })
-                .path("getPostsByUserName[0].tags")
+                .path("getPostsByUserName.edges[0].node.tags")
                 .entityList(TagResponse.class)
-                .hasSize(0);
+                .hasSize(0)
+                .path("getPostsByUserName.pageInfo.hasNextPage")
+                .entity(Boolean.class)
+                .isEqualTo(false);
+    }
+
+    @Test
+    void getPostsByUserNamePageByPage() {
+        String endCursor = graphQlTester
+                .documentName("getPostsByUserName")
+                .variable("name", "appUser")
+                .variable("first", 2)
+                .execute()
+                .path("getPostsByUserName.edges[*].node.title")
+                .entityList(String.class)
+                .containsExactly("First Post", "Second Post")
+                .path("getPostsByUserName.pageInfo.hasNextPage")
+                .entity(Boolean.class)
+                .isEqualTo(true)
+                .path("getPostsByUserName.pageInfo.endCursor")
+                .entity(String.class)
+                .get();
+
+        graphQlTester
+                .documentName("getPostsByUserName")
+                .variable("name", "appUser")
+                .variable("first", 2)
+                .variable("after", endCursor)
+                .execute()
+                .path("getPostsByUserName.edges[*].node.title")
+                .entityList(String.class)
+                .containsExactly("Third Post")
+                .path("getPostsByUserName.edges[0].node.comments[*].review")
+                .entityList(String.class)
+                .containsExactly("Third Review")
+                .path("getPostsByUserName.pageInfo.hasNextPage")
+                .entity(Boolean.class)
+                .isEqualTo(false);
     }
 
     @Test
@@ -1,6 +1,48 @@
 package com.example.graphql.config;
 
+import com.example.graphql.utils.EventHub;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties("application")
-public record ApplicationProperties(String endpointUri, String region) {}
+public record ApplicationProperties(
+        String endpointUri,
+        String region,
+        @DefaultValue QueryCost queryCost,
+        @DefaultValue BatchLoading batchLoading,
+        @DefaultValue Subscriptions subscriptions) {
+
+    /**
+     * @param maxCost most a single operation may cost, see {@link QueryCostInstrumentation}
+     * @param defaultListSize items a list field is assumed to hold when the schema gives no
+     *     {@code @listSize}
+     * @param budget cost a client may spend at once
+     * @param budgetRefillPerSecond how fast a client may spend afterwards
+     * @param clientIdHeader header naming the client an operation is charged to
+     * @param trustedClientAddresses addresses, such as a gateway's, allowed to name the client in
+     *     {@code clientIdHeader}, requests from anywhere else are charged to their address
+     */
+    public record QueryCost(
+            @DefaultValue("10") int maxDepth,
+            @DefaultValue("5000") long maxCost,
+            @DefaultValue("10") int defaultListSize,
+            @DefaultValue("20000") long budget,
+            @DefaultValue("2000") long budgetRefillPerSecond,
+            @DefaultValue("X-Client-Id") String clientIdHeader,
+            @DefaultValue List<String> trustedClientAddresses) {}
+
+    /**
+     * @param maxBatchSize most keys a {@code @BatchMapping} loads with one query, see {@link
+     *     com.example.graphql.utils.BatchLoaders}
+     * @param concurrency queries of the same batch run at a time
+     */
+    public record BatchLoading(@DefaultValue("500") int maxBatchSize, @DefaultValue("4") int concurrency) {}
+
+    /**
+     * @param bufferSize events kept for a subscriber that cannot keep up, see {@link EventHub}
+     * @param overflowPolicy which event such a subscriber loses once its buffer is full
+     */
+    public record Subscriptions(
+            @DefaultValue("256") int bufferSize, @DefaultValue("LATEST") EventHub.OverflowPolicy overflowPolicy) {}
+}
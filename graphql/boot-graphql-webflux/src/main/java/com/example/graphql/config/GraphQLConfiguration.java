@@ -0,0 +1,69 @@
+package com.example.graphql.config;
+
+import com.example.graphql.dtos.Customer;
+import com.example.graphql.dtos.Orders;
+import com.example.graphql.utils.EventHub;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+
+@Configuration(proxyBeanMethods = false)
+public class GraphQLConfiguration {
+
+    @Bean
+    QueryCostInstrumentation queryCostInstrumentation(
+            ApplicationProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new QueryCostInstrumentation(
+                properties.queryCost(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    EventHub<Customer> customerAddedHub(ApplicationProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return eventHub("customerAdded", properties, meterRegistry);
+    }
+
+    @Bean
+    EventHub<Orders> orderAddedHub(ApplicationProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return eventHub("orderAdded", properties, meterRegistry);
+    }
+
+    /**
+     * Charges operations to the address they come from. Only trusted addresses, such as a gateway's,
+     * may charge them to the client they name in the client id header instead.
+     */
+    @Bean
+    WebGraphQlInterceptor clientIdInterceptor(ApplicationProperties properties) {
+        String clientIdHeader = properties.queryCost().clientIdHeader();
+        Set<String> trustedClientAddresses = Set.copyOf(properties.queryCost().trustedClientAddresses());
+        return (request, chain) -> {
+            InetSocketAddress remoteAddress = request.getRemoteAddress();
+            if (remoteAddress != null) {
+                String clientId = remoteAddress.getHostString();
+                String namedClientId = request.getHeaders().getFirst(clientIdHeader);
+                if (namedClientId != null && trustedClientAddresses.contains(clientId)) {
+                    clientId = namedClientId;
+                }
+                Map<String, Object> context = Map.of(QueryCostInstrumentation.CLIENT_ID, clientId);
+                request.configureExecutionInput(
+                        (input, builder) -> builder.graphQLContext(context).build());
+            }
+            return chain.next(request);
+        };
+    }
+
+    private static <T> EventHub<T> eventHub(
+            String name, ApplicationProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        ApplicationProperties.Subscriptions subscriptions = properties.subscriptions();
+        return new EventHub<>(
+                name,
+                subscriptions.bufferSize(),
+                subscriptions.overflowPolicy(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SubscriptionMapping;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import reactor.core.publisher.Flux;
@@ -57,4 +58,14 @@ public class CustomerGraphQLController {
     Mono<Orders> addOrderToCustomer(@Argument @Positive Integer id) {
         return this.customerGraphQLService.addOrderToCustomer(id);
     }
+
+    @SubscriptionMapping
+    Flux<Customer> customerAdded() {
+        return this.customerGraphQLService.customerAdded();
+    }
+
+    @SubscriptionMapping
+    Flux<Orders> orderAdded(@Argument @Positive Integer customerId) {
+        return this.customerGraphQLService.orderAdded(customerId);
+    }
 }
@@ -17,4 +17,8 @@ public interface CustomerGraphQLService {
     Mono<Customer> addCustomer(String name);
 
     Mono<Orders> addOrderToCustomer(Integer id);
+
+    Flux<Customer> customerAdded();
+
+    Flux<Orders> orderAdded(Integer customerId);
 }
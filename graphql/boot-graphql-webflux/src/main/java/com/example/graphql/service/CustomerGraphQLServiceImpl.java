@@ -1,11 +1,12 @@
 package com.example.graphql.service;
 
+import com.example.graphql.config.ApplicationProperties;
 import com.example.graphql.dtos.Customer;
 import com.example.graphql.dtos.Orders;
 import com.example.graphql.repository.CustomerRepository;
 import com.example.graphql.repository.OrdersRepository;
-import java.util.ArrayList;
-import java.util.HashMap;
+import com.example.graphql.utils.BatchLoaders;
+import com.example.graphql.utils.EventHub;
 import java.util.List;
 import java.util.Map;
 import org.springframework.stereotype.Service;
@@ -19,9 +20,23 @@ public class CustomerGraphQLServiceImpl implements CustomerGraphQLService {
 
     private final OrdersRepository ordersRepository;
 
-    public CustomerGraphQLServiceImpl(CustomerRepository customerRepository, OrdersRepository ordersRepository) {
+    private final ApplicationProperties.BatchLoading batchLoading;
+
+    private final EventHub<Customer> customerAddedHub;
+
+    private final EventHub<Orders> orderAddedHub;
+
+    public CustomerGraphQLServiceImpl(
+            CustomerRepository customerRepository,
+            OrdersRepository ordersRepository,
+            ApplicationProperties applicationProperties,
+            EventHub<Customer> customerAddedHub,
+            EventHub<Orders> orderAddedHub) {
         this.customerRepository = customerRepository;
         this.ordersRepository = ordersRepository;
+        this.batchLoading = applicationProperties.batchLoading();
+        this.customerAddedHub = customerAddedHub;
+        this.orderAddedHub = orderAddedHub;
     }
 
     @Override
@@ -36,30 +51,32 @@ public class CustomerGraphQLServiceImpl implements CustomerGraphQLService {
 
     @Override
     public Mono<Map<Customer, List<Orders>>> findAllOrdersByCustomers(List<Customer> customers) {
-        var keys = customers.stream().map(Customer::id).toList();
-        return this.ordersRepository
-                .findByCustomerIdIn(keys)
-                .collectMultimap(Orders::customerId)
-                .map(customerOrderMap -> {
-                    var result = new HashMap<Customer, List<Orders>>();
-                    customerOrderMap.keySet().forEach(customerId -> {
-                        var customer = customers.stream()
-                                .filter(cust -> cust.id().equals(customerId))
-                                .findAny()
-                                .orElseThrow();
-                        result.put(customer, new ArrayList<>(customerOrderMap.get(customerId)));
-                    });
-                    return result;
-                });
+        return BatchLoaders.loadMany(
+                customers,
+                Customer::id,
+                Orders::customerId,
+                batchLoading.maxBatchSize(),
+                batchLoading.concurrency(),
+                this.ordersRepository::findByCustomerIdIn);
     }
 
     @Override
     public Mono<Customer> addCustomer(String name) {
-        return this.customerRepository.save(new Customer(null, name));
+        return this.customerRepository.save(new Customer(null, name)).doOnNext(customerAddedHub::publish);
     }
 
     @Override
     public Mono<Orders> addOrderToCustomer(Integer id) {
-        return this.ordersRepository.save(new Orders(null, id));
+        return this.ordersRepository.save(new Orders(null, id)).doOnNext(orderAddedHub::publish);
+    }
+
+    @Override
+    public Flux<Customer> customerAdded() {
+        return this.customerAddedHub.subscribe(customer -> true);
+    }
+
+    @Override
+    public Flux<Orders> orderAdded(Integer customerId) {
+        return this.orderAddedHub.subscribe(order -> customerId.equals(order.customerId()));
     }
 }
@@ -0,0 +1,74 @@
+package com.example.graphql.utils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Builds the results of {@code @BatchMapping} methods.
+ *
+ * <p>Spring for GraphQL gives every request a {@code DataLoader} of its own for each batch
+ * mapping, which passes every distinct parent once and caches its result until the request ends.
+ * On top of that, the children of parents sharing a key are loaded once, and keys are loaded in
+ * chunks of at most {@code maxBatchSize}, {@code concurrency} chunks at a time, so that no {@code
+ * IN} list grows with the batch. The result is assembled in one pass over the parents and holds
+ * every one of them, those without children mapped to an empty list rather than left out.
+ */
+public final class BatchLoaders {
+
+    private BatchLoaders() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Maps every parent to its children.
+     *
+     * @param keyOf the key of a parent, which its children refer to
+     * @param parentKeyOf the key of the parent a child belongs to
+     * @param loadChunk loads the children of at most {@code maxBatchSize} distinct keys
+     */
+    public static <P, K, C> Mono<Map<P, List<C>>> loadMany(
+            Collection<P> parents,
+            Function<P, K> keyOf,
+            Function<C, K> parentKeyOf,
+            int maxBatchSize,
+            int concurrency,
+            Function<List<K>, ? extends Publisher<C>> loadChunk) {
+        return load(parents, keyOf, List.of(), maxBatchSize, concurrency, chunk -> Flux.from(loadChunk.apply(chunk))
+                .collect(Collectors.groupingBy(parentKeyOf)));
+    }
+
+    /**
+     * Maps every parent to the value loaded for its key, or to {@code missing} if none was.
+     *
+     * @param loadChunk loads the values of at most {@code maxBatchSize} distinct keys
+     */
+    public static <P, K, V> Mono<Map<P, V>> load(
+            Collection<P> parents,
+            Function<P, K> keyOf,
+            V missing,
+            int maxBatchSize,
+            int concurrency,
+            Function<List<K>, Mono<Map<K, V>>> loadChunk) {
+        Set<K> keys = LinkedHashSet.newLinkedHashSet(parents.size());
+        parents.forEach(parent -> keys.add(keyOf.apply(parent)));
+        return Flux.fromIterable(keys)
+                .buffer(maxBatchSize)
+                .flatMap(loadChunk, concurrency)
+                .collect(() -> HashMap.<K, V>newHashMap(keys.size()), Map::putAll)
+                .map(values -> {
+                    Map<P, V> result = LinkedHashMap.newLinkedHashMap(parents.size());
+                    parents.forEach(parent -> result.put(parent, values.getOrDefault(keyOf.apply(parent), missing)));
+                    return result;
+                });
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.graphql.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.function.Predicate;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Hands every event published to all of its current subscribers.
+ *
+ * <p>Publishing never waits for a subscriber and nothing is buffered for all of them at once.
+ * Instead each subscriber has a buffer of its own of at most {@code bufferSize} events, which fills
+ * while it cannot keep up, for instance while its WebSocket drains slowly. Once it is full the
+ * {@link OverflowPolicy} decides which event that subscriber loses. A slow subscriber thus only
+ * ever loses events of its own, and neither holds up the publisher nor makes memory grow with the
+ * events the others have yet to read.
+ *
+ * <p>The subscribers connected are reported in {@code graphql.subscriptions.subscribers} and the
+ * events they lost in {@code graphql.subscriptions.dropped}, both tagged with the name of the hub.
+ */
+public class EventHub<T> {
+
+    /** Which event a subscriber whose buffer is full loses. */
+    public enum OverflowPolicy {
+        /** The event published, the events buffered stay as they are. */
+        DROP,
+        /** The oldest event buffered, so that the buffer holds the latest events. */
+        LATEST
+    }
+
+    /** How long a publisher waits for the others to hand their events over before it fails. */
+    static final Duration PUBLISH_TIMEOUT = Duration.ofMillis(100);
+
+    private final Sinks.Many<T> sink = Sinks.many().multicast().directBestEffort();
+    private final int bufferSize;
+    private final BufferOverflowStrategy overflowStrategy;
+    private final Counter dropped;
+
+    public EventHub(String name, int bufferSize, OverflowPolicy overflowPolicy, MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.overflowStrategy = switch (overflowPolicy) {
+            case DROP -> BufferOverflowStrategy.DROP_LATEST;
+            case LATEST -> BufferOverflowStrategy.DROP_OLDEST;
+        };
+        Gauge.builder("graphql.subscriptions.subscribers", sink, Sinks.Many::currentSubscriberCount)
+                .description("Subscribers connected to an event hub")
+                .tag("hub", name)
+                .register(meterRegistry);
+        this.dropped = Counter.builder("graphql.subscriptions.dropped")
+                .description("Events subscribers lost because their buffer was full")
+                .tag("hub", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hands {@code event} to every subscriber connected, without waiting for any of them.
+     *
+     * @throws Sinks.EmissionException if other publishers kept the hub busy for longer than {@link
+     *     #PUBLISH_TIMEOUT}
+     */
+    public void publish(T event) {
+        // the sink takes one event at a time, concurrent publishers retry until it is their turn;
+        // subscribers buffer on their own, so it never overflows
+        sink.emitNext(event, Sinks.EmitFailureHandler.busyLooping(PUBLISH_TIMEOUT));
+    }
+
+    /** Returns the events published from now on that match {@code filter}. */
+    public Flux<T> subscribe(Predicate<? super T> filter) {
+        return sink.asFlux()
+                .filter(filter)
+                .onBackpressureBuffer(bufferSize, event -> dropped.increment(), overflowStrategy);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.graphql.controller;
 
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
 
+import com.example.graphql.config.GraphQLConfiguration;
 import com.example.graphql.dtos.Customer;
 import com.example.graphql.dtos.CustomerDTO;
 import com.example.graphql.dtos.Orders;
@@ -11,12 +13,15 @@ import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.graphql.test.tester.GraphQlTester;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 @GraphQlTest(CustomerGraphQLController.class)
+@Import(GraphQLConfiguration.class)
 class CustomerGraphQLControllerTest {
 
     @Autowired
@@ -50,4 +55,47 @@ class CustomerGraphQLControllerTest {
                 .entityList(CustomerDTO.class)
                 .hasSize(1);
     }
+
+    @Test
+    void subscribe_to_orders_added_to_a_customer() {
+        given(customerGraphQLService.orderAdded(1)).willReturn(Flux.just(new Orders(2, 1), new Orders(3, 1)));
+        this.graphQlTester
+                .document(
+                        """
+            subscription {
+              orderAdded(customerId: 1) {
+                id
+                customerId
+              }
+            }
+            """)
+                .executeSubscription()
+                .toFlux("orderAdded", Orders.class)
+                .as(StepVerifier::create)
+                .expectNext(new Orders(2, 1), new Orders(3, 1))
+                .verifyComplete();
+    }
+
+    @Test
+    void query_over_the_cost_limit_is_rejected_before_running() {
+        // each alias may load 100 customers with 10 orders each
+        this.graphQlTester
+                .document(
+                        """
+            query {
+              a: customers { orders { id } }
+              b: customers { orders { id } }
+              c: customers { orders { id } }
+              d: customers { orders { id } }
+              e: customers { orders { id } }
+            }
+            """)
+                .execute()
+                .errors()
+                .expect(error -> "Query cost 5500 exceeds the limit of 5000".equals(error.getMessage()))
+                .verify()
+                .path("a")
+                .pathDoesNotExist();
+        verifyNoInteractions(customerGraphQLService);
+    }
 }
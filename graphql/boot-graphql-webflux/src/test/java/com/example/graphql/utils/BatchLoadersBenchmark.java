@@ -0,0 +1,103 @@
+package com.example.graphql.utils;
+
+import com.example.graphql.dtos.Customer;
+import com.example.graphql.dtos.Orders;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import reactor.core.publisher.Flux;
+
+/**
+ * Assembles the orders of a batch of customers with {@link BatchLoaders#loadMany}, against the
+ * former lookup of every customer in the batch with a stream. Orders are served from memory and a
+ * third of the customers have none, so what is measured is the assembly and the chunking, not a
+ * database. Run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class BatchLoadersBenchmark {
+
+    // the defaults of application.batch-loading
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int CONCURRENCY = 4;
+
+    @Param({"1000", "10000"})
+    private int customerCount;
+
+    private List<Customer> customers;
+    private Map<Integer, List<Orders>> ordersByCustomerId;
+
+    @Setup
+    public void setup() {
+        customers = new ArrayList<>(customerCount);
+        ordersByCustomerId = new HashMap<>();
+        for (int id = 1; id <= customerCount; id++) {
+            customers.add(new Customer(id, "customer" + id));
+            if (id % 3 != 0) {
+                ordersByCustomerId.put(id, List.of(new Orders(id * 10, id), new Orders(id * 10 + 1, id)));
+            }
+        }
+    }
+
+    @Benchmark
+    public Map<Customer, List<Orders>> streamLookup() {
+        List<Integer> keys = customers.stream().map(Customer::id).toList();
+        return findByCustomerIdIn(keys)
+                .collectMultimap(Orders::customerId)
+                .map(customerOrderMap -> {
+                    var result = new HashMap<Customer, List<Orders>>();
+                    customerOrderMap.keySet().forEach(customerId -> {
+                        var customer = customers.stream()
+                                .filter(cust -> cust.id().equals(customerId))
+                                .findAny()
+                                .orElseThrow();
+                        result.put(customer, new ArrayList<>(customerOrderMap.get(customerId)));
+                    });
+                    return result;
+                })
+                .block();
+    }
+
+    @Benchmark
+    public Map<Customer, List<Orders>> loadMany() {
+        return BatchLoaders.loadMany(
+                        customers,
+                        Customer::id,
+                        Orders::customerId,
+                        MAX_BATCH_SIZE,
+                        CONCURRENCY,
+                        this::findByCustomerIdIn)
+                .block();
+    }
+
+    private Flux<Orders> findByCustomerIdIn(List<Integer> customerIds) {
+        return Flux.fromIterable(customerIds).flatMapIterable(id -> ordersByCustomerId.getOrDefault(id, List.of()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(BatchLoadersBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
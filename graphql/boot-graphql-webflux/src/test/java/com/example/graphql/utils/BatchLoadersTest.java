@@ -0,0 +1,77 @@
+package com.example.graphql.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.graphql.dtos.Customer;
+import com.example.graphql.dtos.Orders;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class BatchLoadersTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchLoadersTest.class);
+
+    @Test
+    void mapsEveryCustomerToItsOrdersInChunksLoadedConcurrently() {
+        List<Customer> customers = IntStream.rangeClosed(1, 10_000)
+                .mapToObj(id -> new Customer(id, "customer" + id))
+                .toList();
+        List<List<Integer>> chunks = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+
+        long start = System.nanoTime();
+        StepVerifier.create(BatchLoaders.loadMany(customers, Customer::id, Orders::customerId, 500, 4, chunk -> {
+                    chunks.add(chunk);
+                    // every other customer has two orders, the others none
+                    return Flux.fromIterable(chunk)
+                            .filter(customerId -> customerId % 2 == 0)
+                            .flatMapIterable(customerId -> List.of(
+                                    new Orders(customerId * 10, customerId),
+                                    new Orders(customerId * 10 + 1, customerId)))
+                            .delaySubscription(Duration.ofMillis(5))
+                            .doOnSubscribe(
+                                    subscription -> mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                            .doOnTerminate(running::decrementAndGet);
+                }))
+                .assertNext(ordersByCustomer -> {
+                    assertThat(ordersByCustomer).hasSize(10_000);
+                    assertThat(ordersByCustomer.get(customers.get(1)))
+                            .containsExactly(new Orders(20, 2), new Orders(21, 2));
+                    assertThat(ordersByCustomer.get(customers.getFirst())).isEmpty();
+                })
+                .verifyComplete();
+        log.info("Loaded the orders of 10000 customers in {} ms", (System.nanoTime() - start) / 1_000_000);
+
+        assertThat(chunks).hasSize(20).allSatisfy(chunk -> assertThat(chunk).hasSize(500));
+        assertThat(mostRunning).hasValueBetween(2, 4);
+    }
+
+    @Test
+    void loadsKeysSharedByParentsOnce() {
+        List<String> parents = List.of("a1", "b1", "a2", "a3");
+        List<List<Character>> chunks = new ArrayList<>();
+
+        Map<String, Integer> lengths = BatchLoaders.<String, Character, Integer>load(
+                        parents, parent -> parent.charAt(0), 0, 10, 1, chunk -> {
+                            chunks.add(chunk);
+                            return Mono.just(Map.of('a', 3));
+                        })
+                .block();
+
+        assertThat(chunks).containsExactly(List.of('a', 'b'));
+        assertThat(lengths)
+                .containsExactly(Map.entry("a1", 3), Map.entry("b1", 0), Map.entry("a2", 3), Map.entry("a3", 3));
+    }
+}
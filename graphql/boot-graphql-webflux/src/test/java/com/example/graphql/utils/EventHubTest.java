@@ -0,0 +1,137 @@
+package com.example.graphql.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import com.example.graphql.dtos.Orders;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class EventHubTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void handsEveryEventToThousandsOfSubscribers() {
+        EventHub<Orders> hub = new EventHub<>("orderAdded", 16, EventHub.OverflowPolicy.LATEST, meterRegistry);
+        AtomicInteger received = new AtomicInteger();
+        List<Disposable> subscribers = IntStream.range(0, 5_000)
+                .mapToObj(subscriber -> hub.subscribe(order -> true).subscribe(order -> received.incrementAndGet()))
+                .toList();
+        assertThat(subscribers()).isEqualTo(5_000);
+
+        IntStream.rangeClosed(1, 10).forEach(id -> hub.publish(new Orders(id, 1)));
+
+        assertThat(received).hasValue(5_000 * 10);
+        assertThat(dropped()).isZero();
+        subscribers.forEach(Disposable::dispose);
+        assertThat(subscribers()).isZero();
+    }
+
+    @Test
+    void keepsTheLatestEventsForSubscribersThatFallBehind() {
+        EventHub<Orders> hub = new EventHub<>("orderAdded", 4, EventHub.OverflowPolicy.LATEST, meterRegistry);
+
+        StepVerifier.create(hub.subscribe(order -> true).map(Orders::id), 0)
+                .then(() -> IntStream.rangeClosed(1, 10).forEach(id -> hub.publish(new Orders(id, 1))))
+                .thenRequest(10)
+                .expectNext(7, 8, 9, 10)
+                .thenCancel()
+                .verify();
+
+        assertThat(dropped()).isEqualTo(6);
+    }
+
+    @Test
+    void dropsNewEventsForSubscribersThatFallBehind() {
+        EventHub<Orders> hub = new EventHub<>("orderAdded", 4, EventHub.OverflowPolicy.DROP, meterRegistry);
+        AtomicInteger fastSubscriber = new AtomicInteger();
+        Disposable fast = hub.subscribe(order -> true).subscribe(order -> fastSubscriber.incrementAndGet());
+
+        StepVerifier.create(hub.subscribe(order -> true).map(Orders::id), 0)
+                .then(() -> IntStream.rangeClosed(1, 10).forEach(id -> hub.publish(new Orders(id, 1))))
+                .thenRequest(10)
+                .expectNext(1, 2, 3, 4)
+                .thenCancel()
+                .verify();
+
+        // only the subscriber that fell behind lost events
+        assertThat(fastSubscriber).hasValue(10);
+        assertThat(dropped()).isEqualTo(6);
+        fast.dispose();
+    }
+
+    @Test
+    void buffersOnlyTheEventsASubscriberAskedFor() {
+        EventHub<Orders> hub = new EventHub<>("orderAdded", 2, EventHub.OverflowPolicy.DROP, meterRegistry);
+
+        StepVerifier.create(hub.subscribe(order -> order.customerId() == 2).map(Orders::id), 0)
+                .then(() -> IntStream.rangeClosed(1, 10).forEach(id -> hub.publish(new Orders(id, id % 5))))
+                .thenRequest(10)
+                .expectNext(2, 7)
+                .thenCancel()
+                .verify();
+
+        assertThat(dropped()).isZero();
+    }
+
+    @Test
+    void failsToPublishWhileAnotherPublisherStalls() throws Exception {
+        EventHub<Orders> hub = new EventHub<>("orderAdded", 4, EventHub.OverflowPolicy.DROP, meterRegistry);
+        CountDownLatch stalled = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // the filter runs on the publishing thread, so the first publisher stalls in it
+        Disposable subscriber = hub.subscribe(order -> {
+                    if (order.id() == 1) {
+                        stalled.countDown();
+                        awaitUninterruptibly(release);
+                    }
+                    return true;
+                })
+                .subscribe();
+        CompletableFuture<Void> stalledPublisher = CompletableFuture.runAsync(() -> hub.publish(new Orders(1, 1)));
+        assertThat(stalled.await(5, TimeUnit.SECONDS)).isTrue();
+
+        long start = System.nanoTime();
+        assertThatExceptionOfType(Sinks.EmissionException.class).isThrownBy(() -> hub.publish(new Orders(2, 1)));
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(EventHub.PUBLISH_TIMEOUT.toNanos());
+
+        release.countDown();
+        stalledPublisher.get(5, TimeUnit.SECONDS);
+        hub.publish(new Orders(3, 1));
+        subscriber.dispose();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double subscribers() {
+        return meterRegistry
+                .get("graphql.subscriptions.subscribers")
+                .tag("hub", "orderAdded")
+                .gauge()
+                .value();
+    }
+
+    private double dropped() {
+        return meterRegistry
+                .get("graphql.subscriptions.dropped")
+                .tag("hub", "orderAdded")
+                .counter()
+                .count();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.graphql.config;
 
+import java.util.ArrayList;
+import java.util.List;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
@@ -11,6 +13,18 @@ public class ApplicationProperties {
     @NestedConfigurationProperty
     private Cors cors = new Cors();
 
+    @NestedConfigurationProperty
+    private QueryCost queryCost = new QueryCost();
+
+    @NestedConfigurationProperty
+    private BatchLoading batchLoading = new BatchLoading();
+
+    @NestedConfigurationProperty
+    private PersistedQueries persistedQueries = new PersistedQueries();
+
+    @NestedConfigurationProperty
+    private Pagination pagination = new Pagination();
+
     @Data
     public static class Cors {
         private String pathPattern = "/api/**";
@@ -19,4 +33,48 @@ public class ApplicationProperties {
         private String allowedOriginPatterns = "*";
         private boolean allowCredentials = true;
     }
+
+    @Data
+    public static class QueryCost {
+        private int maxDepth = 10;
+        // most a single operation may cost, see QueryCostInstrumentation
+        private long maxCost = 5_000;
+        // items a list field is assumed to hold when the schema gives no @listSize
+        private int defaultListSize = 10;
+        // cost a client may spend at once, and how fast it may spend it afterwards
+        private long budget = 20_000;
+        private long budgetRefillPerSecond = 2_000;
+        // header naming the client an operation is charged to, believed only from the addresses
+        // below, such as a gateway's, requests from anywhere else are charged to their address
+        private String clientIdHeader = "X-Client-Id";
+        private List<String> trustedClientAddresses = new ArrayList<>();
+    }
+
+    @Data
+    public static class PersistedQueries {
+        // operations the clients are built with, in Apollo's persisted query manifest format
+        private String manifest = "classpath:graphql/persisted-query-manifest.json";
+        // run only the operations of the manifest, clients cannot register queries by hash either
+        private boolean allowListOnly = false;
+        // queries clients registered by hash, see PersistedQueryDocumentProvider
+        private long automaticQueriesSize = 1_000;
+        // parsed and validated documents kept, by query text
+        private long documentCacheSize = 500;
+    }
+
+    @Data
+    public static class BatchLoading {
+        // most keys a @BatchMapping loads with one query, see BatchLoaders
+        private int maxBatchSize = 500;
+        // queries of the same batch run at a time
+        private int concurrency = 4;
+    }
+
+    @Data
+    public static class Pagination {
+        // items of a connection returned when its query gives no first
+        private int defaultPageSize = 20;
+        // most items of a connection returned at once, whatever first asks for
+        private int maxPageSize = 100;
+    }
 }
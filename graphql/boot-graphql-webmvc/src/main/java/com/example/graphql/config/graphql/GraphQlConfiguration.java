@@ -1,11 +1,21 @@
 package com.example.graphql.config.graphql;
 
+import com.example.graphql.config.ApplicationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import graphql.scalars.ExtendedScalars;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.graphql.GraphQlSourceBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.graphql.execution.RuntimeWiringConfigurer;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
 
 @Slf4j
 @Configuration(proxyBeanMethods = false)
@@ -20,4 +30,56 @@ public class GraphQlConfiguration {
     GraphQlSourceBuilderCustomizer inspectionCustomizer() {
         return source -> source.inspectSchemaMappings(report -> log.info(report.toString()));
     }
+
+    @Bean
+    QueryCostInstrumentation queryCostInstrumentation(
+            ApplicationProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new QueryCostInstrumentation(
+                properties.getQueryCost(), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    PersistedQueryDocumentProvider persistedQueryDocumentProvider(
+            ApplicationProperties properties,
+            ResourceLoader resourceLoader,
+            ObjectProvider<ObjectMapper> objectMapper,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        ApplicationProperties.PersistedQueries persistedQueries = properties.getPersistedQueries();
+        PersistedQueryRegistry registry = PersistedQueryRegistry.load(
+                resourceLoader.getResource(persistedQueries.getManifest()),
+                objectMapper.getIfAvailable(ObjectMapper::new));
+        log.info("Loaded {} persisted queries from {}", registry.size(), persistedQueries.getManifest());
+        return new PersistedQueryDocumentProvider(
+                registry, persistedQueries, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    GraphQlSourceBuilderCustomizer persistedQueryCustomizer(PersistedQueryDocumentProvider documentProvider) {
+        return source -> source.configureGraphQl(graphQl -> graphQl.preparsedDocumentProvider(documentProvider));
+    }
+
+    /**
+     * Charges operations to the address they come from. Only trusted addresses, such as a gateway's,
+     * may charge them to the client they name in the client id header instead.
+     */
+    @Bean
+    WebGraphQlInterceptor clientIdInterceptor(ApplicationProperties properties) {
+        String clientIdHeader = properties.getQueryCost().getClientIdHeader();
+        Set<String> trustedClientAddresses =
+                Set.copyOf(properties.getQueryCost().getTrustedClientAddresses());
+        return (request, chain) -> {
+            InetSocketAddress remoteAddress = request.getRemoteAddress();
+            if (remoteAddress != null) {
+                String clientId = remoteAddress.getHostString();
+                String namedClientId = request.getHeaders().getFirst(clientIdHeader);
+                if (namedClientId != null && trustedClientAddresses.contains(clientId)) {
+                    clientId = namedClientId;
+                }
+                Map<String, Object> context = Map.of(QueryCostInstrumentation.CLIENT_ID, clientId);
+                request.configureExecutionInput(
+                        (input, builder) -> builder.graphQLContext(context).build());
+            }
+            return chain.next(request);
+        };
+    }
 }
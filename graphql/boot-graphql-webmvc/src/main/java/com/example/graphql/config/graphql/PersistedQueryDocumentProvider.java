@@ -0,0 +1,126 @@
+package com.example.graphql.config.graphql;
+
+import com.example.graphql.config.ApplicationProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+/**
+ * Runs operations sent by their sha256 hash, and parses and validates every query only once.
+ *
+ * <p>A request whose {@code extensions.persistedQuery.sha256Hash} is set may leave its query out.
+ * The query is then looked up in the {@link PersistedQueryRegistry allow list}, then among the
+ * queries clients registered, as Apollo's automatic persisted queries work: a client sends the hash
+ * alone, and sends the query along with it once answered {@code PersistedQueryNotFound}. Such
+ * registrations are kept for the {@code application.persisted-queries.automatic-queries-size}
+ * hashes used last. With {@code application.persisted-queries.allow-list-only} only the operations
+ * of the allow list run, whether sent by hash or in full, and nothing can be registered.
+ *
+ * <p>Parsing and validating depend on nothing but the query and the schema, so their outcome,
+ * errors included, is kept by query text for the {@code document-cache-size} queries used last.
+ * Both caches report the {@code cache.*} metrics, tagged {@code cache=graphql.documents} and {@code
+ * cache=graphql.persisted-queries}.
+ */
+public class PersistedQueryDocumentProvider implements PreparsedDocumentProvider {
+
+    private final PersistedQueryRegistry registry;
+    private final boolean allowListOnly;
+    private final Cache<String, String> automaticQueries;
+    private final Cache<String, PreparsedDocumentEntry> documents;
+
+    public PersistedQueryDocumentProvider(
+            PersistedQueryRegistry registry,
+            ApplicationProperties.PersistedQueries properties,
+            MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.allowListOnly = properties.isAllowListOnly();
+        this.automaticQueries = Caffeine.newBuilder()
+                .maximumSize(properties.getAutomaticQueriesSize())
+                .recordStats()
+                .build();
+        this.documents = Caffeine.newBuilder()
+                .maximumSize(properties.getDocumentCacheSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, automaticQueries, "graphql.persisted-queries");
+        CaffeineCacheMetrics.monitor(meterRegistry, documents, "graphql.documents");
+    }
+
+    @Override
+    public CompletableFuture<PreparsedDocumentEntry> getDocumentAsync(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        return CompletableFuture.completedFuture(getDocument(executionInput, parseAndValidateFunction));
+    }
+
+    private PreparsedDocumentEntry getDocument(
+            ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        String hash = persistedQueryHash(executionInput.getExtensions());
+        String query = executionInput.getQuery();
+        boolean querySent = StringUtils.hasText(query) && !PersistedQuerySupport.PERSISTED_QUERY_MARKER.equals(query);
+        if (hash == null) {
+            if (allowListOnly && !registry.contains(query)) {
+                return notAllowed(null);
+            }
+        } else if (!querySent) {
+            query = persistedQuery(hash);
+            if (query == null) {
+                return allowListOnly
+                        ? notAllowed(hash)
+                        : error("PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND", hash);
+            }
+        } else if (!query.equals(persistedQuery(hash))) {
+            if (!hash.equals(PersistedQueryRegistry.sha256(query))) {
+                return error("PersistedQueryIdInvalid", "PERSISTED_QUERY_ID_INVALID", hash);
+            }
+            if (allowListOnly) {
+                return notAllowed(hash);
+            }
+            automaticQueries.put(hash, query);
+        }
+        if (query.equals(executionInput.getQuery())) {
+            return documents.get(query, key -> parseAndValidateFunction.apply(executionInput));
+        }
+        return documents.get(
+                query, key -> parseAndValidateFunction.apply(executionInput.transform(builder -> builder.query(key))));
+    }
+
+    @Nullable private String persistedQuery(String hash) {
+        String query = registry.find(hash);
+        return query != null ? query : automaticQueries.getIfPresent(hash);
+    }
+
+    @Nullable private static String persistedQueryHash(Map<String, Object> extensions) {
+        return extensions.get("persistedQuery") instanceof Map<?, ?> persistedQuery
+                        && persistedQuery.get("sha256Hash") instanceof String hash
+                ? hash
+                : null;
+    }
+
+    private static PreparsedDocumentEntry notAllowed(@Nullable String hash) {
+        return error("Operation is not in the allow list of persisted queries", "PERSISTED_QUERY_NOT_ALLOWED", hash);
+    }
+
+    private static PreparsedDocumentEntry error(String message, String classification, @Nullable String hash) {
+        Map<String, Object> extensions = new HashMap<>();
+        extensions.put("classification", classification);
+        if (hash != null) {
+            extensions.put("persistedQueryId", hash);
+        }
+        return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                .message(message)
+                .extensions(extensions)
+                .build());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.graphql.config.graphql;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+/**
+ * The allow list of operations clients are built with.
+ *
+ * <p>It is read from a manifest in the format Apollo's {@code generate-persisted-query-manifest}
+ * writes, {@code {"format": "apollo-persisted-query-manifest", "version": 1, "operations": [{"id":
+ * ..., "name": ..., "type": ..., "body": ...}]}}, where the id of an operation is the hex sha256
+ * of its body. Ids that do not match their body fail the startup, as clients would never send
+ * them.
+ */
+public final class PersistedQueryRegistry {
+
+    private final Map<String, String> bodiesById = new HashMap<>();
+    private final Set<String> bodies = new HashSet<>();
+
+    PersistedQueryRegistry(List<Operation> operations) {
+        for (Operation operation : operations) {
+            if (!operation.id().equals(sha256(operation.body()))) {
+                throw new IllegalStateException("Persisted query %s (%s) is not the sha256 of its body"
+                        .formatted(operation.id(), operation.name()));
+            }
+            bodiesById.put(operation.id(), operation.body());
+            bodies.add(operation.body());
+        }
+    }
+
+    /** Reads the manifest at {@code manifest}, the allow list is empty if there is none. */
+    public static PersistedQueryRegistry load(Resource manifest, ObjectMapper objectMapper) {
+        if (!manifest.exists()) {
+            return new PersistedQueryRegistry(List.of());
+        }
+        try (InputStream inputStream = manifest.getInputStream()) {
+            return new PersistedQueryRegistry(
+                    objectMapper.readValue(inputStream, Manifest.class).operations());
+        } catch (IOException e) {
+            throw new IllegalStateException("Persisted query manifest " + manifest + " cannot be read", e);
+        }
+    }
+
+    @Nullable String find(String id) {
+        return bodiesById.get(id);
+    }
+
+    boolean contains(String body) {
+        return bodies.contains(body);
+    }
+
+    int size() {
+        return bodiesById.size();
+    }
+
+    static String sha256(String text) {
+        try {
+            return HexFormat.of()
+                    .formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Manifest(List<Operation> operations) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Operation(String id, String name, String type, String body) {}
+}
@@ -0,0 +1,63 @@
+package com.example.graphql.config.graphql;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bucket of query cost per client, holding up to {@code capacity} and refilled by {@code
+ * refillPerSecond}. A client may run an operation when its bucket holds the operation's cost.
+ *
+ * <p>Clients are told apart by what the server sees of them, see the {@code clientIdInterceptor}
+ * bean, so a client cannot get a fresh bucket by naming itself anew.
+ */
+class QueryCostBudget {
+
+    // beyond this many clients the least recently seen ones start over with a full bucket
+    private static final int MAX_TRACKED_CLIENTS = 10_000;
+
+    private final long capacity;
+    private final double refillPerNano;
+    private final Cache<String, Bucket> buckets;
+
+    QueryCostBudget(long capacity, long refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = (double) refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_CLIENTS)
+                // a bucket left alone this long is full again, the same as no bucket
+                .expireAfterAccess(Duration.ofNanos((long) Math.ceil(capacity / refillPerNano)))
+                .build();
+    }
+
+    /**
+     * Takes {@code cost} from the bucket of {@code clientId}.
+     *
+     * @return 0 if the bucket held enough, else how many milliseconds until it will
+     */
+    long tryConsume(String clientId, long cost) {
+        return buckets.get(clientId, key -> new Bucket()).tryConsume(cost);
+    }
+
+    private final class Bucket {
+
+        private double tokens = capacity;
+        private long refilledAt = System.nanoTime();
+
+        synchronized long tryConsume(long cost) {
+            refill(System.nanoTime());
+            if (tokens >= cost) {
+                tokens -= cost;
+                return 0;
+            }
+            long missingNanos = (long) Math.ceil((cost - tokens) / refillPerNano);
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis(missingNanos));
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.graphql.config.graphql;
+
+import com.example.graphql.config.ApplicationProperties;
+import graphql.ExecutionResult;
+import graphql.GraphQLError;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.DataFetcherResult;
+import graphql.execution.instrumentation.FieldFetchingInstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationCreateStateParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import graphql.normalized.ExecutableNormalizedField;
+import graphql.normalized.ExecutableNormalizedOperation;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLAppliedDirective;
+import graphql.schema.GraphQLAppliedDirectiveArgument;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLFieldsContainer;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.GraphQLType;
+import graphql.schema.GraphQLTypeUtil;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.lang.Nullable;
+
+/**
+ * Rejects operations that are too deep or too costly before they run, and records what they
+ * actually cost.
+ *
+ * <p>The static cost of a field is its weight plus its children's cost, times the number of items
+ * it is expected to return, so every object an operation may load counts. Weights come from
+ * {@code @cost(weight:)} on the field in the schema and default to 1 for objects and 0 for
+ * scalars. Lists are expected to hold the value of the first
+ * of their {@code @listSize(slicingArguments:)} arguments given, else {@code
+ * @listSize(assumedSize:)}, else {@code application.query-cost.default-list-size} items. A
+ * connection names its list in {@code @listSize(sizedFields:)} instead, which is then sized by the
+ * arguments of the connection field, as its {@code edges} hold as many items as {@code first} asks.
+ *
+ * <p>Every client, identified by {@link #CLIENT_ID} in the GraphQL context, also has a budget of
+ * cost that refills over time, see {@link QueryCostBudget}. Once a run is allowed, each field
+ * fetched adds its weight for every item it really returned to the actual cost.
+ * Both costs are recorded in {@code graphql.query.cost} and each field's fetch time in {@code
+ * graphql.field.fetch}, so weights and list sizes can be tuned against real traffic.
+ */
+public class QueryCostInstrumentation extends SimplePerformantInstrumentation {
+
+    /** GraphQL context key of the client an operation is charged to. */
+    public static final String CLIENT_ID = "queryCost.clientId";
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private final ApplicationProperties.QueryCost properties;
+    private final QueryCostBudget budget;
+    private final MeterRegistry meterRegistry;
+    private final Map<FieldCoordinates, Timer> fetchTimers = new ConcurrentHashMap<>();
+    private final DistributionSummary estimatedCost;
+    private final DistributionSummary actualCost;
+
+    public QueryCostInstrumentation(ApplicationProperties.QueryCost properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.budget = new QueryCostBudget(properties.getBudget(), properties.getBudgetRefillPerSecond());
+        this.meterRegistry = meterRegistry;
+        this.estimatedCost = costSummary("estimated");
+        this.actualCost = costSummary("actual");
+    }
+
+    @Override
+    public InstrumentationState createState(InstrumentationCreateStateParameters parameters) {
+        return new CostState();
+    }
+
+    @Override
+    public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+            InstrumentationExecuteOperationParameters parameters, InstrumentationState state) {
+        var executionContext = parameters.getExecutionContext();
+        Cost cost = estimate(executionContext.getNormalizedQueryTree().get(), executionContext.getGraphQLSchema());
+        if (cost.depth() > properties.getMaxDepth()) {
+            throw abort(
+                    "Query depth %d exceeds the limit of %d".formatted(cost.depth(), properties.getMaxDepth()),
+                    Map.of("depth", cost.depth(), "maxDepth", properties.getMaxDepth()));
+        }
+        if (cost.cost() > properties.getMaxCost()) {
+            throw abort(
+                    "Query cost %d exceeds the limit of %d".formatted(cost.cost(), properties.getMaxCost()),
+                    Map.of("cost", cost.cost(), "maxCost", properties.getMaxCost()));
+        }
+        String clientId =
+                Objects.requireNonNullElse(executionContext.getGraphQLContext().get(CLIENT_ID), ANONYMOUS);
+        long retryAfterMillis = budget.tryConsume(clientId, cost.cost());
+        if (retryAfterMillis > 0) {
+            throw abort(
+                    "Client %s is over its query budget, retry in %d ms".formatted(clientId, retryAfterMillis),
+                    Map.of("cost", cost.cost(), "retryAfterMillis", retryAfterMillis));
+        }
+        estimatedCost.record(cost.cost());
+        CostState costState = (CostState) state;
+        return SimpleInstrumentationContext.whenCompleted(
+                (result, throwable) -> actualCost.record(costState.actualCost.sum()));
+    }
+
+    @Override
+    public FieldFetchingInstrumentationContext beginFieldFetching(
+            InstrumentationFieldFetchParameters parameters, InstrumentationState state) {
+        long weight = weight(parameters.getField());
+        if (parameters.isTrivialDataFetcher()) {
+            return weight == 0 || !(state instanceof CostState costState)
+                    ? FieldFetchingInstrumentationContext.NOOP
+                    : FieldFetchingInstrumentationContext.adapter(SimpleInstrumentationContext.whenCompleted(
+                            (value, throwable) -> costState.actualCost.add(weight * items(value))));
+        }
+        GraphQLFieldsContainer parentType = parameters.getExecutionStepInfo().getObjectType();
+        Timer timer = fetchTimers.computeIfAbsent(
+                FieldCoordinates.coordinates(parentType, parameters.getField()),
+                coordinates -> Timer.builder("graphql.field.fetch")
+                        .description("Time taken to fetch a field, including waiting for its batch")
+                        .tag("field", coordinates.toString())
+                        .register(meterRegistry));
+        long start = System.nanoTime();
+        return FieldFetchingInstrumentationContext.adapter(
+                SimpleInstrumentationContext.whenCompleted((value, throwable) -> {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    if (state instanceof CostState costState) {
+                        costState.actualCost.add(weight * items(value));
+                    }
+                }));
+    }
+
+    /** Works out the static cost and the depth of {@code operation}, leaving introspection out. */
+    Cost estimate(ExecutableNormalizedOperation operation, GraphQLSchema schema) {
+        return estimate(operation.getTopLevelFields(), schema, null);
+    }
+
+    private Cost estimate(
+            List<ExecutableNormalizedField> fields, GraphQLSchema schema, @Nullable SizedFields sizedFields) {
+        long cost = 0;
+        int depth = 0;
+        for (ExecutableNormalizedField field : fields) {
+            if (field.getName().startsWith("__")) {
+                continue;
+            }
+            GraphQLFieldDefinition definition =
+                    field.getFieldDefinitions(schema).getFirst();
+            Cost children = estimate(field.getChildren(), schema, sizedFields(field, definition));
+            long listSize = sizedFields != null && sizedFields.names().contains(field.getName())
+                    ? sizedFields.size()
+                    : listSize(field, definition);
+            long fieldCost = saturatedMultiply(listSize, saturatedAdd(weight(definition), children.cost()));
+            cost = saturatedAdd(cost, fieldCost);
+            depth = Math.max(depth, children.depth() + 1);
+        }
+        return new Cost(cost, depth);
+    }
+
+    private long weight(GraphQLFieldDefinition definition) {
+        Integer weight = directiveArgument(definition, "cost", "weight");
+        if (weight != null) {
+            return weight;
+        }
+        return GraphQLTypeUtil.isLeaf(GraphQLTypeUtil.unwrapAll(definition.getType())) ? 0 : 1;
+    }
+
+    private long listSize(ExecutableNormalizedField field, GraphQLFieldDefinition definition) {
+        GraphQLType type = GraphQLTypeUtil.unwrapNonNull(definition.getType());
+        return GraphQLTypeUtil.isList(type) ? slicedSize(field, definition) : 1;
+    }
+
+    @Nullable private SizedFields sizedFields(ExecutableNormalizedField field, GraphQLFieldDefinition definition) {
+        List<String> names = directiveArgument(definition, "listSize", "sizedFields");
+        return names == null ? null : new SizedFields(names, slicedSize(field, definition));
+    }
+
+    private long slicedSize(ExecutableNormalizedField field, GraphQLFieldDefinition definition) {
+        List<String> slicingArguments = directiveArgument(definition, "listSize", "slicingArguments");
+        if (slicingArguments != null) {
+            for (String slicingArgument : slicingArguments) {
+                if (field.getResolvedArguments().get(slicingArgument) instanceof Number size) {
+                    return size.longValue();
+                }
+            }
+        }
+        Integer assumedSize = directiveArgument(definition, "listSize", "assumedSize");
+        return assumedSize != null ? assumedSize : properties.getDefaultListSize();
+    }
+
+    private static long items(@Nullable Object value) {
+        Object data = value instanceof DataFetcherResult<?> result ? result.getData() : value;
+        if (data instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        return data == null ? 0 : 1;
+    }
+
+    @Nullable private static <T> T directiveArgument(GraphQLFieldDefinition definition, String directive, String argument) {
+        GraphQLAppliedDirective appliedDirective = definition.getAppliedDirective(directive);
+        if (appliedDirective == null) {
+            return null;
+        }
+        GraphQLAppliedDirectiveArgument appliedArgument = appliedDirective.getArgument(argument);
+        return appliedArgument == null ? null : appliedArgument.getValue();
+    }
+
+    private DistributionSummary costSummary(String kind) {
+        return DistributionSummary.builder("graphql.query.cost")
+                .description("Cost of the GraphQL operations run, as estimated before running them or as fetched")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    private static AbortExecutionException abort(String message, Map<String, Object> extensions) {
+        GraphQLError error = GraphqlErrorBuilder.newError()
+                .message(message)
+                .extensions(Map.of("classification", "QUERY_TOO_EXPENSIVE", "limits", extensions))
+                .build();
+        return new AbortExecutionException(List.of(error));
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long product = a * b;
+        return high != 0 || product < 0 ? Long.MAX_VALUE : product;
+    }
+
+    record Cost(long cost, int depth) {}
+
+    private record SizedFields(List<String> names, long size) {}
+
+    private static final class CostState implements InstrumentationState {
+
+        private final LongAdder actualCost = new LongAdder();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.graphql.gql;
 
+import com.example.graphql.config.ApplicationProperties;
 import com.example.graphql.entities.TagEntity;
 import com.example.graphql.exception.AuthorNotFoundException;
 import com.example.graphql.model.request.AuthorRequest;
@@ -10,20 +11,23 @@ import com.example.graphql.services.AuthorService;
 import com.example.graphql.services.PostCommentService;
 import com.example.graphql.services.PostService;
 import com.example.graphql.services.TagService;
+import com.example.graphql.utils.BatchLoaders;
 import jakarta.validation.Valid;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.query.ScrollSubrange;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
 
 @Controller
 @Validated
@@ -39,45 +43,29 @@ public class AuthorGraphQlController {
 
     private final TagService tagService;
 
+    private final ApplicationProperties applicationProperties;
+
     @BatchMapping(typeName = "Author")
-    public Map<AuthorResponse, List<PostInfo>> posts(List<AuthorResponse> authorResponses) {
+    public Mono<Map<AuthorResponse, List<PostInfo>>> posts(List<AuthorResponse> authorResponses) {
         log.info("Fetching PostInformation by AuthorIds");
-        List<Long> authorIds = authorResponses.stream().map(AuthorResponse::id).toList();
-
-        var authorPostsMap = this.postService.getPostByAuthorIdIn(authorIds);
-
-        return authorResponses.stream()
-                .collect(Collectors.toMap(
-                        Function.identity(), author -> authorPostsMap.getOrDefault(author.id(), new ArrayList<>())));
+        return loadById(authorResponses, AuthorResponse::id, this.postService::getPostByAuthorIdIn);
     }
 
     @BatchMapping(typeName = "Post")
-    public Map<PostInfo, List<PostCommentResponse>> comments(List<PostInfo> posts) {
+    public Mono<Map<PostInfo, List<PostCommentResponse>>> comments(List<PostInfo> posts) {
         log.info("Fetching PostComments by PostIds");
-        List<Long> postIds = posts.stream().map(PostInfo::getId).toList();
-
-        var postCommentsMap = this.postCommentService.getCommentsByPostIdIn(postIds);
-
-        return posts.stream()
-                .collect(Collectors.toMap(
-                        Function.identity(), post -> postCommentsMap.getOrDefault(post.getId(), new ArrayList<>())));
+        return loadById(posts, PostInfo::getId, this.postCommentService::getCommentsByPostIdIn);
     }
 
     @BatchMapping(typeName = "Post")
-    public Map<PostInfo, List<TagEntity>> tags(List<PostInfo> posts) {
+    public Mono<Map<PostInfo, List<TagEntity>>> tags(List<PostInfo> posts) {
         log.info("Fetching Tags by PostIds");
-        List<Long> postIds = posts.stream().map(PostInfo::getId).toList();
-
-        var postCommentsMap = this.tagService.getTagsByPostIdIn(postIds);
-
-        return posts.stream()
-                .collect(Collectors.toMap(
-                        Function.identity(), post -> postCommentsMap.getOrDefault(post.getId(), new ArrayList<>())));
+        return loadById(posts, PostInfo::getId, this.tagService::getTagsByPostIdIn);
     }
 
     @QueryMapping
-    public List<AuthorResponse> allAuthors() {
-        return this.authorService.findAllAuthors();
+    public Window<AuthorResponse> allAuthors(ScrollSubrange subrange) {
+        return this.authorService.findAuthors(subrange.position().orElse(ScrollPosition.keyset()), pageSize(subrange));
     }
 
     @QueryMapping
@@ -89,4 +77,16 @@ public class AuthorGraphQlController {
     public AuthorResponse createAuthor(@Valid @Argument("authorInput") AuthorRequest authorRequest) {
         return this.authorService.saveAuthor(authorRequest);
     }
+
+    private int pageSize(ScrollSubrange subrange) {
+        ApplicationProperties.Pagination pagination = applicationProperties.getPagination();
+        return Math.clamp(subrange.count().orElse(pagination.getDefaultPageSize()), 1, pagination.getMaxPageSize());
+    }
+
+    private <P, C> Mono<Map<P, List<C>>> loadById(
+            List<P> parents, Function<P, Long> idOf, Function<List<Long>, Map<Long, List<C>>> loadChunk) {
+        ApplicationProperties.BatchLoading batchLoading = applicationProperties.getBatchLoading();
+        return BatchLoaders.loadBlocking(
+                parents, idOf, List.of(), batchLoading.getMaxBatchSize(), batchLoading.getConcurrency(), loadChunk);
+    }
 }
@@ -3,8 +3,9 @@ package com.example.graphql.repositories;
 import com.example.graphql.entities.AuthorEntity;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
-public interface AuthorRepository extends JpaRepository<AuthorEntity, Long> {
+public interface AuthorRepository extends JpaRepository<AuthorEntity, Long>, JpaSpecificationExecutor<AuthorEntity> {
 
     Optional<AuthorEntity> findByEmailAllIgnoreCase(String email);
 
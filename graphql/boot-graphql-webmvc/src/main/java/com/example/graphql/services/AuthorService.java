@@ -11,6 +11,10 @@ import java.util.Objects;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,6 +35,20 @@ public class AuthorService {
                 .toList();
     }
 
+    /**
+     * Returns at most {@code pageSize} authors after {@code position}, by id. A keyset position
+     * starts the query at the last id returned, so every page costs the same however deep it is.
+     */
+    @Transactional(readOnly = true)
+    public Window<AuthorResponse> findAuthors(ScrollPosition position, int pageSize) {
+        Specification<AuthorEntity> allAuthors = (root, query, builder) -> builder.conjunction();
+        return authorRepository
+                .findBy(
+                        allAuthors,
+                        query -> query.sortBy(Sort.by("id")).limit(pageSize).scroll(position))
+                .map(authorEntity -> appConversionService.convert(authorEntity, AuthorResponse.class));
+    }
+
     @Transactional(readOnly = true)
     public Optional<AuthorResponse> findAuthorById(Long id) {
         return authorRepository
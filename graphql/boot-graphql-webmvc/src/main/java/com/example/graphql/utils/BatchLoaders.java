@@ -0,0 +1,71 @@
+package com.example.graphql.utils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Builds the results of {@code @BatchMapping} methods.
+ *
+ * <p>Spring for GraphQL gives every request a {@code DataLoader} of its own for each batch
+ * mapping, which passes every distinct parent once and caches its result until the request ends.
+ * On top of that, the children of parents sharing a key are loaded once, and keys are loaded in
+ * chunks of at most {@code maxBatchSize}, {@code concurrency} chunks at a time, so that no {@code
+ * IN} list grows with the batch. The result is assembled in one pass over the parents and holds
+ * every one of them, those nothing was loaded for mapped to a default rather than left out.
+ */
+public final class BatchLoaders {
+
+    private BatchLoaders() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Maps every parent to the value loaded for its key, or to {@code missing} if none was.
+     *
+     * @param loadChunk loads the values of at most {@code maxBatchSize} distinct keys
+     */
+    public static <P, K, V> Mono<Map<P, V>> load(
+            Collection<P> parents,
+            Function<P, K> keyOf,
+            V missing,
+            int maxBatchSize,
+            int concurrency,
+            Function<List<K>, Mono<Map<K, V>>> loadChunk) {
+        Set<K> keys = LinkedHashSet.newLinkedHashSet(parents.size());
+        parents.forEach(parent -> keys.add(keyOf.apply(parent)));
+        return Flux.fromIterable(keys)
+                .buffer(maxBatchSize)
+                .flatMap(loadChunk, concurrency)
+                .collect(() -> HashMap.<K, V>newHashMap(keys.size()), Map::putAll)
+                .map(values -> {
+                    Map<P, V> result = LinkedHashMap.newLinkedHashMap(parents.size());
+                    parents.forEach(parent -> result.put(parent, values.getOrDefault(keyOf.apply(parent), missing)));
+                    return result;
+                });
+    }
+
+    /**
+     * Same as {@link #load}, for services that block: each chunk is loaded on the bounded elastic
+     * scheduler.
+     */
+    public static <P, K, V> Mono<Map<P, V>> loadBlocking(
+            Collection<P> parents,
+            Function<P, K> keyOf,
+            V missing,
+            int maxBatchSize,
+            int concurrency,
+            Function<List<K>, Map<K, V>> loadChunk) {
+        return load(parents, keyOf, missing, maxBatchSize, concurrency, chunk -> Mono.fromCallable(
+                        () -> loadChunk.apply(chunk))
+                .subscribeOn(Schedulers.boundedElastic()));
+    }
+}
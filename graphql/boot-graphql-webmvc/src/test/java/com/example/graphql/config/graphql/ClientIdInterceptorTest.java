@@ -0,0 +1,65 @@
+package com.example.graphql.config.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.graphql.config.ApplicationProperties;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.springframework.graphql.server.WebGraphQlInterceptor;
+import org.springframework.graphql.server.WebGraphQlRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Mono;
+
+class ClientIdInterceptorTest {
+
+    private final ApplicationProperties properties = new ApplicationProperties();
+
+    @Test
+    void chargesUntrustedClientsToTheirAddressWhateverTheyCallThemselves() {
+        WebGraphQlInterceptor interceptor = new GraphQlConfiguration().clientIdInterceptor(properties);
+
+        assertThat(clientId(interceptor, "203.0.113.7", "someone-else")).isEqualTo("203.0.113.7");
+        assertThat(clientId(interceptor, "203.0.113.7", null)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void chargesClientsNamedByATrustedAddressToTheirName() {
+        properties.getQueryCost().setTrustedClientAddresses(List.of("10.0.0.1"));
+        WebGraphQlInterceptor interceptor = new GraphQlConfiguration().clientIdInterceptor(properties);
+
+        assertThat(clientId(interceptor, "10.0.0.1", "mobile")).isEqualTo("mobile");
+        assertThat(clientId(interceptor, "10.0.0.1", null)).isEqualTo("10.0.0.1");
+        assertThat(clientId(interceptor, "10.0.0.2", "mobile")).isEqualTo("10.0.0.2");
+    }
+
+    private String clientId(WebGraphQlInterceptor interceptor, String remoteAddress, String clientIdHeader) {
+        HttpHeaders headers = new HttpHeaders();
+        if (clientIdHeader != null) {
+            headers.add(properties.getQueryCost().getClientIdHeader(), clientIdHeader);
+        }
+        WebGraphQlRequest request = new WebGraphQlRequest(
+                URI.create("http://localhost/graphql"),
+                headers,
+                new LinkedMultiValueMap<>(),
+                new InetSocketAddress(remoteAddress, 443),
+                Map.of(),
+                Map.of("query", "{ allTags { tagName } }"),
+                "1",
+                Locale.ENGLISH);
+        AtomicReference<String> clientId = new AtomicReference<>();
+        interceptor
+                .intercept(request, chained -> {
+                    clientId.set(
+                            chained.toExecutionInput().getGraphQLContext().get(QueryCostInstrumentation.CLIENT_ID));
+                    return Mono.empty();
+                })
+                .block();
+        return clientId.get();
+    }
+}
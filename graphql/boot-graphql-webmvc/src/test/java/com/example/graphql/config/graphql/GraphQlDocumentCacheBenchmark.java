@@ -0,0 +1,131 @@
+package com.example.graphql.config.graphql;
+
+import com.example.graphql.config.ApplicationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.ParseAndValidate;
+import graphql.ParseAndValidateResult;
+import graphql.execution.preparsed.NoOpPreparsedDocumentProvider;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+
+/**
+ * Compares running the operations of {@code graphql/persisted-query-manifest.json} with and without
+ * the {@link PersistedQueryDocumentProvider}: parsing and validating a query from scratch against
+ * looking its outcome up, and a whole execution with graphql-java's default provider against ours.
+ * Every field resolves to null, so the execution numbers are the per-request overhead left once the
+ * data is fetched.
+ *
+ * <p>Run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class GraphQlDocumentCacheBenchmark {
+
+    @Param({"AllAuthors", "AuthorWithPosts", "PostsByEmail"})
+    private String operation;
+
+    @Param({"none", "cached"})
+    private String documentCache;
+
+    private GraphQLSchema schema;
+    private PreparsedDocumentProvider documentProvider;
+    private GraphQL graphQL;
+    private ExecutionInput executionInput;
+
+    @Setup
+    public void setup() throws IOException {
+        try (InputStream schemaFile = new ClassPathResource("graphql/schema.graphqls").getInputStream()) {
+            schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(
+                    new SchemaParser().parse(new String(schemaFile.readAllBytes(), StandardCharsets.UTF_8)));
+        }
+        Resource manifest = new ClassPathResource("graphql/persisted-query-manifest.json");
+        ObjectMapper objectMapper = new ObjectMapper();
+        String query;
+        try (InputStream inputStream = manifest.getInputStream()) {
+            query = objectMapper.readValue(inputStream, PersistedQueryRegistry.Manifest.class).operations().stream()
+                    .filter(candidate -> candidate.name().equals(operation))
+                    .map(PersistedQueryRegistry.Operation::body)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(operation + " is not in " + manifest));
+        }
+        documentProvider = documentCache.equals("cached")
+                ? new PersistedQueryDocumentProvider(
+                        PersistedQueryRegistry.load(manifest, objectMapper),
+                        new ApplicationProperties.PersistedQueries(),
+                        new SimpleMeterRegistry())
+                : NoOpPreparsedDocumentProvider.INSTANCE;
+        graphQL = GraphQL.newGraphQL(schema)
+                .preparsedDocumentProvider(documentProvider)
+                .build();
+        executionInput = ExecutionInput.newExecutionInput(query)
+                .variables(Map.of("email", "junit@email.com"))
+                .build();
+        document();
+    }
+
+    @Benchmark
+    public PreparsedDocumentEntry document() {
+        return documentProvider
+                .getDocumentAsync(executionInput, this::parseAndValidate)
+                .join();
+    }
+
+    @Benchmark
+    public ExecutionResult execute() {
+        ExecutionResult result = graphQL.execute(executionInput);
+        // fields resolve to null, only a document that failed to parse or validate is wrong here
+        if (result.getErrors().stream()
+                .anyMatch(error -> error.getErrorType() == ErrorType.InvalidSyntax
+                        || error.getErrorType() == ErrorType.ValidationError)) {
+            throw new IllegalStateException(operation + " failed: " + result.getErrors());
+        }
+        return result;
+    }
+
+    private PreparsedDocumentEntry parseAndValidate(ExecutionInput input) {
+        ParseAndValidateResult result = ParseAndValidate.parseAndValidate(schema, input);
+        return result.isFailure()
+                ? new PreparsedDocumentEntry(result.getErrors())
+                : new PreparsedDocumentEntry(result.getDocument());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                        .include(GraphQlDocumentCacheBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
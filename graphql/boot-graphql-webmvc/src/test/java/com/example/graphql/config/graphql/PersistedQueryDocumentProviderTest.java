@@ -0,0 +1,196 @@
+package com.example.graphql.config.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import com.example.graphql.config.ApplicationProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphQLError;
+import graphql.execution.preparsed.persisted.PersistedQuerySupport;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+class PersistedQueryDocumentProviderTest {
+
+    // the AllAuthors operation of graphql/persisted-query-manifest.json
+    private static final String ALL_AUTHORS =
+            "query AllAuthors($first: Int, $after: String) { allAuthors(first: $first, after: $after) { edges { cursor node { id firstName lastName email } } pageInfo { hasNextPage endCursor } } }";
+    private static final String AUTHOR_EMAILS = "query AuthorEmails { allAuthors { edges { node { email } } } }";
+
+    private static final Map<String, Object> AUTHOR =
+            Map.of("id", 1, "firstName", "first", "lastName", "last", "email", "junit@email.com");
+
+    private final ApplicationProperties.PersistedQueries properties = new ApplicationProperties.PersistedQueries();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PersistedQueryRegistry registry;
+    private GraphQLSchema schema;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        registry = PersistedQueryRegistry.load(
+                new ClassPathResource("graphql/persisted-query-manifest.json"), new ObjectMapper());
+        try (InputStream schemaFile = new ClassPathResource("graphql/schema.graphqls").getInputStream()) {
+            RuntimeWiring runtimeWiring = RuntimeWiring.newRuntimeWiring()
+                    .scalar(ExtendedScalars.DateTime)
+                    .scalar(LocalDateTimeScalar.INSTANCE)
+                    .type(
+                            "Query",
+                            type -> type.dataFetcher(
+                                    "allAuthors",
+                                    environment -> Map.of(
+                                            "edges",
+                                            List.of(Map.of("cursor", "cursor1", "node", AUTHOR)),
+                                            "pageInfo",
+                                            Map.of("hasNextPage", false, "endCursor", "cursor1"))))
+                    .build();
+            schema = new SchemaGenerator()
+                    .makeExecutableSchema(
+                            new SchemaParser().parse(new String(schemaFile.readAllBytes(), StandardCharsets.UTF_8)),
+                            runtimeWiring);
+        }
+    }
+
+    @Test
+    void runsOperationsOfTheAllowListByHash() {
+        GraphQL graphQL = graphQL(new PersistedQueryDocumentProvider(registry, properties, meterRegistry));
+
+        ExecutionResult result = graphQL.execute(byHash(PersistedQueryRegistry.sha256(ALL_AUTHORS)));
+
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(result.<Map<String, Object>>getData())
+                .containsEntry(
+                        "allAuthors",
+                        Map.of(
+                                "edges",
+                                List.of(Map.of(
+                                        "cursor",
+                                        "cursor1",
+                                        "node",
+                                        Map.of(
+                                                "id",
+                                                "1",
+                                                "firstName",
+                                                "first",
+                                                "lastName",
+                                                "last",
+                                                "email",
+                                                "junit@email.com"))),
+                                "pageInfo",
+                                Map.of("hasNextPage", false, "endCursor", "cursor1")));
+    }
+
+    @Test
+    void registersQueriesSentWithTheirHash() {
+        GraphQL graphQL = graphQL(new PersistedQueryDocumentProvider(registry, properties, meterRegistry));
+        String hash = PersistedQueryRegistry.sha256(AUTHOR_EMAILS);
+
+        assertThat(graphQL.execute(byHash(hash)).getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getMessage()).isEqualTo("PersistedQueryNotFound");
+            assertThat(error.getExtensions()).containsEntry("persistedQueryId", hash);
+        });
+        assertThat(graphQL.execute(withHash(AUTHOR_EMAILS, hash)).getErrors()).isEmpty();
+        assertThat(graphQL.execute(byHash(hash)).<Map<String, Object>>getData())
+                .containsEntry(
+                        "allAuthors", Map.of("edges", List.of(Map.of("node", Map.of("email", "junit@email.com")))));
+    }
+
+    @Test
+    void rejectsHashesThatAreNotTheHashOfTheQuery() {
+        GraphQL graphQL = graphQL(new PersistedQueryDocumentProvider(registry, properties, meterRegistry));
+
+        ExecutionResult result = graphQL.execute(withHash(AUTHOR_EMAILS, PersistedQueryRegistry.sha256(ALL_AUTHORS)));
+
+        assertThat(result.getErrors())
+                .singleElement()
+                .extracting(GraphQLError::getMessage)
+                .isEqualTo("PersistedQueryIdInvalid");
+    }
+
+    @Test
+    void runsOnlyTheAllowListWhenAllowListOnly() {
+        properties.setAllowListOnly(true);
+        GraphQL graphQL = graphQL(new PersistedQueryDocumentProvider(registry, properties, meterRegistry));
+
+        assertThat(graphQL.execute(ALL_AUTHORS).getErrors()).isEmpty();
+        assertThat(graphQL.execute(AUTHOR_EMAILS).getErrors()).singleElement().satisfies(error -> assertThat(
+                        error.getExtensions())
+                .containsEntry("classification", "PERSISTED_QUERY_NOT_ALLOWED"));
+        assertThat(graphQL.execute(withHash(AUTHOR_EMAILS, PersistedQueryRegistry.sha256(AUTHOR_EMAILS)))
+                        .getErrors())
+                .singleElement()
+                .extracting(GraphQLError::getMessage)
+                .isEqualTo("Operation is not in the allow list of persisted queries");
+    }
+
+    @Test
+    void parsesAndValidatesEachQueryOnce() {
+        GraphQL graphQL = graphQL(new PersistedQueryDocumentProvider(registry, properties, meterRegistry));
+        String invalid = "query { allAuthors { edges { node { unknownField } } } }";
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(graphQL.execute(AUTHOR_EMAILS).getErrors()).isEmpty();
+            assertThat(graphQL.execute(byHash(PersistedQueryRegistry.sha256(ALL_AUTHORS)))
+                            .getErrors())
+                    .isEmpty();
+            assertThat(graphQL.execute(invalid).getErrors())
+                    .singleElement()
+                    .extracting(GraphQLError::getMessage)
+                    .asString()
+                    .contains("unknownField");
+        }
+
+        assertThat(meterRegistry
+                        .get("cache.gets")
+                        .tag("cache", "graphql.documents")
+                        .tag("result", "miss")
+                        .functionCounter()
+                        .count())
+                .isEqualTo(3);
+        assertThat(meterRegistry
+                        .get("cache.gets")
+                        .tag("cache", "graphql.documents")
+                        .tag("result", "hit")
+                        .functionCounter()
+                        .count())
+                .isEqualTo(6);
+    }
+
+    @Test
+    void refusesManifestsWhoseIdsDoNotMatchTheirBody() {
+        assertThatIllegalStateException()
+                .isThrownBy(() -> new PersistedQueryRegistry(
+                        List.of(new PersistedQueryRegistry.Operation("abc", "AllAuthors", "query", ALL_AUTHORS))))
+                .withMessage("Persisted query abc (AllAuthors) is not the sha256 of its body");
+    }
+
+    private GraphQL graphQL(PersistedQueryDocumentProvider documentProvider) {
+        return GraphQL.newGraphQL(schema)
+                .preparsedDocumentProvider(documentProvider)
+                .build();
+    }
+
+    private static ExecutionInput byHash(String hash) {
+        return withHash(PersistedQuerySupport.PERSISTED_QUERY_MARKER, hash);
+    }
+
+    private static ExecutionInput withHash(String query, String hash) {
+        return ExecutionInput.newExecutionInput(query)
+                .extensions(Map.of("persistedQuery", Map.of("version", 1, "sha256Hash", hash)))
+                .build();
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.graphql.config.graphql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.graphql.config.ApplicationProperties;
+import graphql.ExecutionInput;
+import graphql.ExecutionResult;
+import graphql.GraphQL;
+import graphql.GraphQLError;
+import graphql.execution.CoercedVariables;
+import graphql.normalized.ExecutableNormalizedOperationFactory;
+import graphql.parser.Parser;
+import graphql.scalars.ExtendedScalars;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+class QueryCostInstrumentationTest {
+
+    private static final String AUTHORS_WITH_POSTS =
+            """
+            query {
+              allAuthors {
+                edges {
+                  node {
+                    email
+                    posts { title }
+                  }
+                }
+              }
+            }""";
+
+    private static final String AUTHORS_WITH_COMMENTS_AND_TAGS =
+            """
+            query {
+              allAuthors(first: 100) {
+                edges {
+                  node {
+                    posts {
+                      comments { title }
+                      tags { tagName }
+                    }
+                  }
+                }
+              }
+            }""";
+
+    private final ApplicationProperties.QueryCost properties = new ApplicationProperties.QueryCost();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private GraphQLSchema schema;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream schemaFile = new ClassPathResource("graphql/schema.graphqls").getInputStream()) {
+            RuntimeWiring runtimeWiring = RuntimeWiring.newRuntimeWiring()
+                    .scalar(ExtendedScalars.DateTime)
+                    .scalar(LocalDateTimeScalar.INSTANCE)
+                    .type("Query", type -> type.dataFetcher("allAuthors", environment -> authors(3, 2)))
+                    .build();
+            schema = new SchemaGenerator()
+                    .makeExecutableSchema(
+                            new SchemaParser().parse(new String(schemaFile.readAllBytes(), StandardCharsets.UTF_8)),
+                            runtimeWiring);
+        }
+    }
+
+    @Test
+    void estimatesEveryObjectTheListSizeHintsAllow() {
+        QueryCostInstrumentation instrumentation = new QueryCostInstrumentation(properties, meterRegistry);
+
+        // a page of 20 authors, each with 20 posts, the edges holding them costing nothing
+        assertThat(estimate(instrumentation, AUTHORS_WITH_POSTS))
+                .isEqualTo(new QueryCostInstrumentation.Cost(1 + 20 * (1 + 20), 5));
+        // a page of the 100 authors asked for, each with 20 posts, each with 20 comments and 5 tags
+        assertThat(estimate(instrumentation, AUTHORS_WITH_COMMENTS_AND_TAGS))
+                .isEqualTo(new QueryCostInstrumentation.Cost(1 + 100 * (1 + 20 * (1 + 20 + 5)), 6));
+        assertThat(estimate(instrumentation, "query { allAuthors(first: 5) { pageInfo { hasNextPage } } }"))
+                .isEqualTo(new QueryCostInstrumentation.Cost(1 + 1, 3));
+        assertThat(estimate(instrumentation, "query { __schema { types { name fields { name } } } }"))
+                .isEqualTo(new QueryCostInstrumentation.Cost(0, 0));
+    }
+
+    @Test
+    void rejectsOperationsOverTheCostLimitBeforeRunningThem() {
+        ExecutionResult result =
+                execute(new QueryCostInstrumentation(properties, meterRegistry), AUTHORS_WITH_COMMENTS_AND_TAGS);
+
+        assertThat(result.getErrors())
+                .singleElement()
+                .extracting(GraphQLError::getMessage)
+                .isEqualTo("Query cost 52101 exceeds the limit of 5000");
+        assertThat(result.<Object>getData()).isNull();
+    }
+
+    @Test
+    void rejectsOperationsNestedTooDeep() {
+        properties.setMaxDepth(4);
+
+        ExecutionResult result = execute(new QueryCostInstrumentation(properties, meterRegistry), AUTHORS_WITH_POSTS);
+
+        assertThat(result.getErrors())
+                .singleElement()
+                .extracting(GraphQLError::getMessage)
+                .isEqualTo("Query depth 5 exceeds the limit of 4");
+    }
+
+    @Test
+    void throttlesClientsOverTheirBudget() {
+        properties.setBudget(500);
+        properties.setBudgetRefillPerSecond(1);
+        QueryCostInstrumentation instrumentation = new QueryCostInstrumentation(properties, meterRegistry);
+
+        assertThat(execute(instrumentation, AUTHORS_WITH_POSTS, "mobile").getErrors())
+                .isEmpty();
+        ExecutionResult throttled = execute(instrumentation, AUTHORS_WITH_POSTS, "mobile");
+        assertThat(throttled.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getMessage()).startsWith("Client mobile is over its query budget");
+            assertThat(error.getExtensions()).containsEntry("classification", "QUERY_TOO_EXPENSIVE");
+        });
+        // other clients have budgets of their own
+        assertThat(execute(instrumentation, AUTHORS_WITH_POSTS, "web").getErrors())
+                .isEmpty();
+    }
+
+    @Test
+    void recordsEstimatedAndActualCostAndFieldFetchTimes() {
+        ExecutionResult result = execute(new QueryCostInstrumentation(properties, meterRegistry), AUTHORS_WITH_POSTS);
+
+        assertThat(result.getErrors()).isEmpty();
+        assertThat(meterRegistry
+                        .get("graphql.query.cost")
+                        .tag("kind", "estimated")
+                        .summary()
+                        .totalAmount())
+                .isEqualTo(421);
+        // a page of 3 authors with 2 posts each
+        assertThat(meterRegistry
+                        .get("graphql.query.cost")
+                        .tag("kind", "actual")
+                        .summary()
+                        .totalAmount())
+                .isEqualTo(1 + 3 + 3 * 2);
+        assertThat(meterRegistry
+                        .get("graphql.field.fetch")
+                        .tag("field", "Query.allAuthors")
+                        .timer()
+                        .count())
+                .isEqualTo(1);
+    }
+
+    private QueryCostInstrumentation.Cost estimate(QueryCostInstrumentation instrumentation, String query) {
+        return instrumentation.estimate(
+                ExecutableNormalizedOperationFactory.createExecutableNormalizedOperation(
+                        schema, Parser.parse(query), null, CoercedVariables.emptyVariables()),
+                schema);
+    }
+
+    private ExecutionResult execute(QueryCostInstrumentation instrumentation, String query) {
+        return execute(instrumentation, query, "junit");
+    }
+
+    private ExecutionResult execute(QueryCostInstrumentation instrumentation, String query, String clientId) {
+        GraphQL graphQL =
+                GraphQL.newGraphQL(schema).instrumentation(instrumentation).build();
+        return graphQL.execute(ExecutionInput.newExecutionInput(query)
+                .graphQLContext(Map.of(QueryCostInstrumentation.CLIENT_ID, clientId))
+                .build());
+    }
+
+    private static Map<String, Object> authors(int authors, int postsPerAuthor) {
+        List<Map<String, Object>> edges = IntStream.range(0, authors)
+                .mapToObj(author -> Map.<String, Object>of(
+                        "cursor",
+                        "cursor" + author,
+                        "node",
+                        Map.of(
+                                "email",
+                                "author" + author + "@email.com",
+                                "posts",
+                                IntStream.range(0, postsPerAuthor)
+                                        .mapToObj(post -> Map.of("title", "post " + post))
+                                        .toList())))
+                .toList();
+        return Map.of("edges", edges, "pageInfo", Map.of("hasPreviousPage", false, "hasNextPage", false));
+    }
+}
@@ -15,11 +15,14 @@ import com.example.graphql.services.PostService;
 import com.example.graphql.services.TagService;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.graphql.GraphQlTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.graphql.test.tester.GraphQlTester;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
@@ -44,45 +47,80 @@ class AuthorEntityQueryTest {
 
     @Test
     void allAuthors() {
-        given(authorService.findAllAuthors())
-                .willReturn(List.of(
-                        new AuthorResponse(
-                                1L,
-                                "firstName",
-                                "middleName",
-                                "lastName",
-                                9848022338L,
-                                "junit1@email.com",
-                                LocalDateTime.now()),
-                        new AuthorResponse(
-                                2L,
-                                "secondName",
-                                "middleName",
-                                "lastName",
-                                9848022338L,
-                                "junit2@email.com",
-                                LocalDateTime.now())));
+        List<AuthorResponse> authors = List.of(
+                new AuthorResponse(
+                        1L,
+                        "firstName",
+                        "middleName",
+                        "lastName",
+                        9848022338L,
+                        "junit1@email.com",
+                        LocalDateTime.now()),
+                new AuthorResponse(
+                        2L,
+                        "secondName",
+                        "middleName",
+                        "lastName",
+                        9848022338L,
+                        "junit2@email.com",
+                        LocalDateTime.now()));
+        given(authorService.findAuthors(ScrollPosition.keyset(), 20))
+                .willReturn(Window.from(
+                        authors,
+                        index -> ScrollPosition.forward(
+                                Map.of("id", authors.get(index).id())),
+                        true));
 
         var allAuthors =
                 """
                 query authorEntities{
                     allAuthors{
-                     id
-                     firstName
-                     email
+                      edges {
+                        node {
+                          id
+                          firstName
+                          email
+                        }
+                      }
+                      pageInfo {
+                        hasNextPage
+                        endCursor
+                      }
                    }
                  }""";
         graphQlTester
                 .document(allAuthors)
                 .execute()
-                .path("allAuthors[*].email")
+                .path("allAuthors.edges[*].node.email")
                 .entityList(String.class)
                 .satisfies(emails -> assertThat(emails).contains("junit1@email.com", "junit2@email.com"))
-                .path("allAuthors[*].firstName")
+                .path("allAuthors.edges[*].node.firstName")
                 .entityList(String.class)
-                .satisfies(names -> assertThat(names).containsAll(List.of("firstName", "secondName")));
+                .satisfies(names -> assertThat(names).containsAll(List.of("firstName", "secondName")))
+                .path("allAuthors.pageInfo.hasNextPage")
+                .entity(Boolean.class)
+                .isEqualTo(true)
+                .path("allAuthors.pageInfo.endCursor")
+                .entity(String.class)
+                .satisfies(cursor -> assertThat(cursor).isNotBlank());
 
-        verify(authorService, times(1)).findAllAuthors();
+        verify(authorService, times(1)).findAuthors(ScrollPosition.keyset(), 20);
+        verifyNoMoreInteractions(authorService);
+    }
+
+    @Test
+    void allAuthorsCapsThePageSize() {
+        given(authorService.findAuthors(ScrollPosition.keyset(), 100))
+                .willReturn(Window.from(List.of(), index -> null));
+
+        graphQlTester
+                .document("query { allAuthors(first: 1000) { edges { node { email } } } }")
+                .execute()
+                .path("allAuthors.edges")
+                .entityList(Object.class)
+                .hasSize(0);
+
+        verify(authorService, times(1)).findAuthors(ScrollPosition.keyset(), 100);
         verifyNoMoreInteractions(authorService);
     }
 
@@ -24,18 +24,51 @@ class GQLApplicationIntegrationTest extends AbstractIntegrationTest {
         graphQlTester
                 .documentName("allAuthors")
                 .execute()
-                .path("allAuthors[*].email")
+                .path("allAuthors.edges[*].node.email")
                 .entityList(String.class)
                 .satisfies(emails -> assertThat(emails).contains("user4@example.com"))
                 .hasSize(4)
-                .path("allAuthors[*].firstName")
+                .path("allAuthors.edges[*].node.firstName")
                 .entityList(String.class)
                 .satisfies(names -> assertThat(names).contains("first name2"))
                 .hasSize(4)
-                .path("allAuthors[*].lastName")
+                .path("allAuthors.edges[*].node.lastName")
                 .entityList(String.class)
                 .satisfies(names -> assertThat(names).contains("last name3"))
-                .hasSize(4);
+                .hasSize(4)
+                .path("allAuthors.pageInfo.hasNextPage")
+                .entity(Boolean.class)
+                .isEqualTo(false);
+    }
+
+    @Test
+    @Order(1)
+    void allAuthorsPageByPage() {
+        String endCursor = graphQlTester
+                .documentName("allAuthors")
+                .variable("first", 3)
+                .execute()
+                .path("allAuthors.edges[*].node.email")
+                .entityList(String.class)
+                .containsExactly("user1@example.com", "user2@example.com", "user3@example.com")
+                .path("allAuthors.pageInfo.hasNextPage")
+                .entity(Boolean.class)
+                .isEqualTo(true)
+                .path("allAuthors.pageInfo.endCursor")
+                .entity(String.class)
+                .get();
+
+        graphQlTester
+                .documentName("allAuthors")
+                .variable("first", 3)
+                .variable("after", endCursor)
+                .execute()
+                .path("allAuthors.edges[*].node.email")
+                .entityList(String.class)
+                .containsExactly("user4@example.com")
+                .path("allAuthors.pageInfo.hasNextPage")
+                .entity(Boolean.class)
+                .isEqualTo(false);
     }
 
     @Order(2)
@@ -10,6 +10,8 @@ public class ApplicationProperties {
 
     @NestedConfigurationProperty private Cors cors = new Cors();
 
+    @NestedConfigurationProperty private Cursor cursor = new Cursor();
+
     @Data
     public static class Cors {
         private String pathPattern = "/api/**";
@@ -18,4 +20,10 @@ public class ApplicationProperties {
         private String allowedOriginPatterns = "*";
         private boolean allowCredentials = true;
     }
+
+    @Data
+    public static class Cursor {
+        /** Key that signs scroll cursors, shared by every instance that must accept them. */
+        private String secret;
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.keysetpagination.exception;
+
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String errorMessage) {
+        super(errorMessage);
+    }
+}
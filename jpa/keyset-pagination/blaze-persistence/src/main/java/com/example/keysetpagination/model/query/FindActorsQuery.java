@@ -1,4 +1,3 @@
 package com.example.keysetpagination.model.query;
 
-public record FindActorsQuery(
-        int pageNo, int pageSize, Long lowest, Long highest, String sortBy, String sortDir) {}
+public record FindActorsQuery(int pageSize, String cursor, String sortBy, String sortDir) {}
@@ -1,3 +0,0 @@
-package com.example.keysetpagination.model.response;
-
-public record KeySetPageResponse(int maxResults, int firstResult, Long lowest, Long highest) {}
@@ -1,9 +1,17 @@
 package com.example.keysetpagination.model.response;
 
-import com.blazebit.persistence.spring.data.repository.KeysetAwarePage;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
 
+/**
+ * One page of a keyset scroll.
+ *
+ * @param totalElements the row count of the table as the planner estimates it, ignoring the search
+ *     criteria
+ * @param totalPages pages of {@code totalElements}
+ * @param nextCursor continues with the page after this one, {@code null} when {@code isLast}
+ * @param previousCursor continues with the page before this one, {@code null} when {@code isFirst}
+ */
 public record PagedResult<T>(
         List<T> data,
         long totalElements,
@@ -13,34 +21,5 @@ public record PagedResult<T>(
         @JsonProperty("isLast") boolean isLast,
         @JsonProperty("hasNext") boolean hasNext,
         @JsonProperty("hasPrevious") boolean hasPrevious,
-        KeySetPageResponse keySetPageResponse) {
-    public PagedResult(KeysetAwarePage<T> page) {
-        this(
-                page.getContent(),
-                page.getTotalElements(),
-                page.getNumber() + 1,
-                page.getTotalPages(),
-                page.isFirst(),
-                page.isLast(),
-                page.hasNext(),
-                page.hasPrevious(),
-                new KeySetPageResponse(
-                        page.getKeysetPage().getMaxResults(),
-                        page.getKeysetPage().getFirstResult(),
-                        (Long) page.getKeysetPage().getLowest().getTuple()[0],
-                        (Long) page.getKeysetPage().getHighest().getTuple()[0]));
-    }
-
-    public <R> PagedResult<R> toResponseRecord(List<R> data) {
-        return new PagedResult<>(
-                data,
-                totalElements,
-                pageNumber,
-                totalPages,
-                isFirst,
-                isLast,
-                hasNext,
-                hasPrevious,
-                keySetPageResponse);
-    }
-}
+        String nextCursor,
+        String previousCursor) {}
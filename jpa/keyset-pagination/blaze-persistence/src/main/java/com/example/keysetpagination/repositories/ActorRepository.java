@@ -4,6 +4,7 @@ import com.blazebit.persistence.spring.data.repository.KeysetAwarePage;
 import com.blazebit.persistence.spring.data.repository.KeysetPageable;
 import com.example.keysetpagination.entities.Actor;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
 
 public interface ActorRepository extends ListCrudRepository<Actor, Long> {
@@ -11,4 +12,14 @@ public interface ActorRepository extends ListCrudRepository<Actor, Long> {
     KeysetAwarePage<Actor> findAll(Specification<Actor> specification, KeysetPageable pageable);
 
     KeysetAwarePage<Actor> findAll(KeysetPageable keysetPageable);
+
+    /**
+     * Returns the row count of the table as last estimated by {@code ANALYZE} or autovacuum,
+     * without scanning it. Zero until the table is first analyzed.
+     */
+    @Query(
+            value =
+                    "select coalesce((select greatest(cast(reltuples as bigint), 0) from pg_class where oid = to_regclass('actors')), 0)",
+            nativeQuery = true)
+    long estimateCount();
 }
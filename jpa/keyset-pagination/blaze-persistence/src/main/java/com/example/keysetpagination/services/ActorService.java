@@ -7,6 +7,7 @@ import com.blazebit.persistence.spring.data.repository.KeysetPageRequest;
 import com.blazebit.persistence.spring.data.repository.KeysetPageable;
 import com.example.keysetpagination.entities.Actor;
 import com.example.keysetpagination.exception.ActorNotFoundException;
+import com.example.keysetpagination.exception.InvalidCursorException;
 import com.example.keysetpagination.mapper.ActorMapper;
 import com.example.keysetpagination.model.query.FindActorsQuery;
 import com.example.keysetpagination.model.query.SearchCriteria;
@@ -14,15 +15,23 @@ import com.example.keysetpagination.model.request.ActorRequest;
 import com.example.keysetpagination.model.response.ActorResponse;
 import com.example.keysetpagination.model.response.PagedResult;
 import com.example.keysetpagination.repositories.ActorRepository;
+import com.example.keysetpagination.utils.AppConstants;
+import com.example.keysetpagination.utils.CursorCodec;
 import com.example.keysetpagination.utils.EntitySpecification;
 import java.io.Serializable;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import org.springframework.data.domain.PageRequest;
+import java.util.function.Function;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 @Service
 @Transactional(readOnly = true)
@@ -31,10 +40,13 @@ public class ActorService {
     private final ActorRepository actorRepository;
     private final ActorMapper actorMapper;
     private final EntitySpecification<Actor> actorEntitySpecification;
+    private final CursorCodec cursorCodec;
 
-    public ActorService(ActorRepository actorRepository, ActorMapper actorMapper) {
+    public ActorService(
+            ActorRepository actorRepository, ActorMapper actorMapper, CursorCodec cursorCodec) {
         this.actorRepository = actorRepository;
         this.actorMapper = actorMapper;
+        this.cursorCodec = cursorCodec;
         actorEntitySpecification = new EntitySpecification<>();
     }
 
@@ -42,13 +54,13 @@ public class ActorService {
             SearchCriteria[] searchCriteria, FindActorsQuery findActorsQuery) {
         Specification<Actor> specification =
                 actorEntitySpecification.specificationBuilder(searchCriteria, Actor.class);
-        KeysetPageable keysetPageable = createPageable(findActorsQuery);
-        return getActorResponsePagedResult(actorRepository.findAll(specification, keysetPageable));
+        return scroll(
+                keysetPageable -> actorRepository.findAll(specification, keysetPageable),
+                findActorsQuery);
     }
 
     public PagedResult<ActorResponse> findAll(FindActorsQuery findActorsQuery) {
-        KeysetPageable keysetPageable = createPageable(findActorsQuery);
-        return getActorResponsePagedResult(actorRepository.findAll(keysetPageable));
+        return scroll(actorRepository::findAll, findActorsQuery);
     }
 
     public Optional<ActorResponse> findActorById(Long id) {
@@ -81,29 +93,126 @@ public class ActorService {
         actorRepository.deleteById(id);
     }
 
-    private PagedResult<ActorResponse> getActorResponsePagedResult(
-            KeysetAwarePage<Actor> keysetAwarePage) {
-        List<ActorResponse> actorResponseList =
-                actorMapper.toResponseList(keysetAwarePage.getContent());
-        PagedResult<Actor> actorPagedResult = new PagedResult<>(keysetAwarePage);
+    /**
+     * Reads the first page, or the page after or before the one a cursor was issued for. Blaze
+     * Persistence reads a page by keyset when it is next to the page of the keyset, so the keyset
+     * page is placed one page before or after the requested offset; the offset is never scanned.
+     * One row more than a page is read to tell whether there is another page, instead of counting.
+     * A cursor carries its sort; a request that names a sort as well must name that one.
+     */
+    private PagedResult<ActorResponse> scroll(
+            Function<KeysetPageable, KeysetAwarePage<Actor>> finder,
+            FindActorsQuery findActorsQuery) {
+        int pageSize = findActorsQuery.pageSize();
+        int fetchSize = pageSize + 1;
+        Sort sort;
+        boolean forward = true;
+        boolean initial = true;
+        int pageNumber = 1;
+        KeysetPage keysetPage = null;
+        int offset = 0;
+        if (StringUtils.hasText(findActorsQuery.cursor())) {
+            CursorCodec.Cursor cursor = cursorCodec.decode(findActorsQuery.cursor(), Actor.class);
+            Serializable[] tuple =
+                    cursor.keys().values().stream()
+                            .map(Serializable.class::cast)
+                            .toArray(Serializable[]::new);
+            if (StringUtils.hasText(findActorsQuery.sortBy())
+                    || StringUtils.hasText(findActorsQuery.sortDir())) {
+                Sort requested = requestedSort(findActorsQuery);
+                if (!cursor.sort().equals(requested)) {
+                    throw new InvalidCursorException(
+                            "Cursor was issued for sort %s, not %s"
+                                    .formatted(cursor.sort(), requested));
+                }
+            }
+            sort = cursor.sort();
+            forward = cursor.direction() == ScrollPosition.Direction.FORWARD;
+            initial = false;
+            pageNumber = cursor.page() + (forward ? 1 : -1);
+            keysetPage = new DefaultKeysetPage(fetchSize, fetchSize, () -> tuple, () -> tuple);
+            offset = forward ? 2 * fetchSize : 0;
+        } else {
+            sort = requestedSort(findActorsQuery);
+        }
+
+        List<Actor> actors =
+                finder.apply(
+                                new KeysetPageRequest(
+                                        keysetPage, sort, offset, fetchSize, false, false))
+                        .getContent();
+        boolean hasMore = actors.size() > pageSize;
+        if (hasMore) {
+            // the extra row is the one furthest from the cursor
+            actors = forward ? actors.subList(0, pageSize) : actors.subList(1, actors.size());
+        }
+
+        // Scrolling backward ends at the cursor, so there are rows after the page
+        boolean hasNext = !forward || hasMore;
+        boolean hasPrevious = forward ? !initial : hasMore;
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!actors.isEmpty()) {
+            if (hasNext) {
+                nextCursor =
+                        cursorCodec.encode(
+                                new CursorCodec.Cursor(
+                                        ScrollPosition.Direction.FORWARD,
+                                        sort,
+                                        keysOf(actors.getLast(), sort),
+                                        pageNumber));
+            }
+            if (hasPrevious) {
+                previousCursor =
+                        cursorCodec.encode(
+                                new CursorCodec.Cursor(
+                                        ScrollPosition.Direction.BACKWARD,
+                                        sort,
+                                        keysOf(actors.getFirst(), sort),
+                                        pageNumber));
+            }
+        }
+        long estimatedCount = actorRepository.estimateCount();
+        return new PagedResult<>(
+                actorMapper.toResponseList(actors),
+                estimatedCount,
+                pageNumber,
+                (int) ((estimatedCount + pageSize - 1) / pageSize),
+                !hasPrevious,
+                !hasNext,
+                hasNext,
+                hasPrevious,
+                nextCursor,
+                previousCursor);
+    }
 
-        return actorPagedResult.toResponseRecord(actorResponseList);
+    private static Sort requestedSort(FindActorsQuery findActorsQuery) {
+        String sortBy =
+                StringUtils.hasText(findActorsQuery.sortBy())
+                        ? findActorsQuery.sortBy()
+                        : AppConstants.DEFAULT_SORT_BY;
+        String sortDir =
+                StringUtils.hasText(findActorsQuery.sortDir())
+                        ? findActorsQuery.sortDir()
+                        : AppConstants.DEFAULT_SORT_DIRECTION;
+        Sort.Order order =
+                sortDir.equalsIgnoreCase(Sort.Direction.ASC.name())
+                        ? Sort.Order.asc(sortBy)
+                        : Sort.Order.desc(sortBy);
+        // the id makes every keyset unique
+        return order.getProperty().equals("id")
+                ? Sort.by(order)
+                : Sort.by(order, Sort.Order.asc("id"));
     }
 
-    private KeysetPageable createPageable(FindActorsQuery findActorsQuery) {
-        int pageNo = Math.max(findActorsQuery.pageNo() - 1, 0);
-        Sort sort =
-                Sort.by(
-                        findActorsQuery.sortDir().equalsIgnoreCase(Sort.Direction.ASC.name())
-                                ? Sort.Order.asc(findActorsQuery.sortBy())
-                                : Sort.Order.desc(findActorsQuery.sortBy()));
-        KeysetPage keysetPage =
-                new DefaultKeysetPage(
-                        findActorsQuery.pageNo() - 1,
-                        findActorsQuery.pageSize(),
-                        () -> new Serializable[] {findActorsQuery.lowest()},
-                        () -> new Serializable[] {findActorsQuery.highest()});
-        return new KeysetPageRequest(
-                keysetPage, PageRequest.of(pageNo, findActorsQuery.pageSize(), sort));
+    private static Map<String, Object> keysOf(Actor actor, Sort sort) {
+        BeanWrapper beanWrapper = PropertyAccessorFactory.forBeanPropertyAccess(actor);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        sort.forEach(
+                order ->
+                        keys.put(
+                                order.getProperty(),
+                                beanWrapper.getPropertyValue(order.getProperty())));
+        return keys;
     }
 }
@@ -4,7 +4,6 @@ public final class AppConstants {
     public static final String PROFILE_PROD = "prod";
     public static final String PROFILE_NOT_PROD = "!" + PROFILE_PROD;
     public static final String PROFILE_TEST = "test";
-    public static final String DEFAULT_PAGE_NUMBER = "1";
     public static final String DEFAULT_PAGE_SIZE = "10";
     public static final String DEFAULT_SORT_BY = "id";
     public static final String DEFAULT_SORT_DIRECTION = "asc";
@@ -0,0 +1,174 @@
+package com.example.keysetpagination.utils;
+
+import com.example.keysetpagination.config.ApplicationProperties;
+import com.example.keysetpagination.exception.InvalidCursorException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Turns scroll positions into opaque cursors and back.
+ *
+ * <p>A cursor is the URL safe base64 of a version byte, a JSON payload holding the direction, the
+ * sort and every keyset value, and an HMAC-SHA256 of both. Clients cannot forge or edit a cursor,
+ * so its keys and sort properties can be used in queries as they are. Keyset values are read back
+ * as the types of the entity properties they belong to.
+ */
+@Component
+public class CursorCodec {
+
+    private static final Logger log = LoggerFactory.getLogger(CursorCodec.class);
+
+    private static final byte VERSION = 1;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+    private final ObjectMapper objectMapper;
+    private final SecretKeySpec key;
+
+    public CursorCodec(ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.objectMapper = objectMapper;
+        String secret = applicationProperties.getCursor().getSecret();
+        byte[] keyBytes;
+        if (StringUtils.hasText(secret)) {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        } else {
+            keyBytes = new byte[MAC_LENGTH];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn(
+                    "application.cursor.secret is not set, cursors are only accepted by this instance until it stops");
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    public String encode(Cursor cursor) {
+        List<SortKey> sort =
+                cursor.sort().stream()
+                        .map(order -> new SortKey(order.getProperty(), order.getDirection()))
+                        .toList();
+        byte[] payload;
+        try {
+            payload =
+                    objectMapper.writeValueAsBytes(
+                            new Payload(cursor.direction(), sort, cursor.keys(), cursor.page()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(
+                    "Cursor keys " + cursor.keys() + " cannot be written", e);
+        }
+        byte[] token = new byte[1 + payload.length + MAC_LENGTH];
+        token[0] = VERSION;
+        System.arraycopy(payload, 0, token, 1, payload.length);
+        System.arraycopy(mac(token, 1 + payload.length), 0, token, 1 + payload.length, MAC_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    /**
+     * @param entityClass the entity whose properties the sort and the keys refer to
+     * @throws InvalidCursorException if the cursor was not issued by this codec's key, or refers to
+     *     properties {@code entityClass} does not have
+     */
+    public Cursor decode(String cursor, Class<?> entityClass) {
+        byte[] token;
+        try {
+            token = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Cursor is not url safe base64");
+        }
+        if (token.length <= 1 + MAC_LENGTH) {
+            throw new InvalidCursorException("Cursor is too short");
+        }
+        if (token[0] != VERSION) {
+            throw new InvalidCursorException(
+                    "Cursor version %d is not supported".formatted(token[0]));
+        }
+        int signedLength = token.length - MAC_LENGTH;
+        if (!MessageDigest.isEqual(
+                mac(token, signedLength), Arrays.copyOfRange(token, signedLength, token.length))) {
+            throw new InvalidCursorException("Cursor signature does not match");
+        }
+        Payload payload;
+        try {
+            payload = objectMapper.readValue(token, 1, signedLength - 1, Payload.class);
+        } catch (IOException e) {
+            throw new InvalidCursorException("Cursor payload cannot be read");
+        }
+        Map<String, Object> keys = new LinkedHashMap<>();
+        payload.keys()
+                .forEach(
+                        (property, value) ->
+                                keys.put(
+                                        property,
+                                        objectMapper.convertValue(
+                                                value, propertyType(entityClass, property))));
+        Sort sort =
+                Sort.by(
+                        payload.sort().stream()
+                                .map(
+                                        sortKey -> {
+                                            propertyType(entityClass, sortKey.property());
+                                            return new Sort.Order(
+                                                    sortKey.direction(), sortKey.property());
+                                        })
+                                .toList());
+        return new Cursor(payload.direction(), sort, keys, payload.page());
+    }
+
+    private byte[] mac(byte[] bytes, int length) {
+        try {
+            // Mac instances are not thread safe and cheap to create
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(bytes, 0, length);
+            return mac.doFinal();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static Class<?> propertyType(Class<?> entityClass, String property) {
+        PropertyDescriptor propertyDescriptor =
+                BeanUtils.getPropertyDescriptor(entityClass, property);
+        if (propertyDescriptor == null) {
+            throw new InvalidCursorException(
+                    "Cursor refers to unknown property '%s' of %s"
+                            .formatted(property, entityClass.getSimpleName()));
+        }
+        return propertyDescriptor.getPropertyType();
+    }
+
+    /**
+     * @param direction whether to read the rows after or before {@code keys}
+     * @param sort the sort the keys were read with
+     * @param keys the values of every sort property of the row to continue from, in sort order
+     * @param page number of the page the keys were read from, for responses that number their pages
+     */
+    public record Cursor(
+            ScrollPosition.Direction direction, Sort sort, Map<String, Object> keys, int page) {}
+
+    private record SortKey(String property, Sort.Direction direction) {}
+
+    private record Payload(
+            ScrollPosition.Direction direction,
+            List<SortKey> sort,
+            Map<String, Object> keys,
+            int page) {}
+}
@@ -33,39 +33,27 @@ public class ActorController {
 
     @GetMapping
     public PagedResult<ActorResponse> findAllActors(
-            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false)
-                    int pageNo,
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false)
                     int pageSize,
-            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY, required = false)
-                    String sortBy,
-            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false)
-                    String sortDir,
-            @RequestParam(required = false) Long lowest,
-            @RequestParam(required = false) Long highest) {
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String sortDir,
+            @RequestParam(required = false) String cursor) {
 
-        FindActorsQuery findActorsQuery =
-                new FindActorsQuery(pageNo, pageSize, lowest, highest, sortBy, sortDir);
+        FindActorsQuery findActorsQuery = new FindActorsQuery(pageSize, cursor, sortBy, sortDir);
 
         return actorService.findAll(findActorsQuery);
     }
 
     @PostMapping("/search")
     public PagedResult<ActorResponse> searchActors(
-            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false)
-                    int pageNo,
             @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false)
                     int pageSize,
-            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY, required = false)
-                    String sortBy,
-            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false)
-                    String sortDir,
-            @RequestParam(required = false) Long lowest,
-            @RequestParam(required = false) Long highest,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(required = false) String sortDir,
+            @RequestParam(required = false) String cursor,
             @RequestBody SearchCriteria[] searchCriteria) {
 
-        FindActorsQuery findActorsQuery =
-                new FindActorsQuery(pageNo, pageSize, lowest, highest, sortBy, sortDir);
+        FindActorsQuery findActorsQuery = new FindActorsQuery(pageSize, cursor, sortBy, sortDir);
 
         return actorService.findAll(searchCriteria, findActorsQuery);
     }
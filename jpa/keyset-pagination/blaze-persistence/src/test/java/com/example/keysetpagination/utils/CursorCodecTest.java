@@ -0,0 +1,117 @@
+package com.example.keysetpagination.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.keysetpagination.config.ApplicationProperties;
+import com.example.keysetpagination.entities.Actor;
+import com.example.keysetpagination.exception.InvalidCursorException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+class CursorCodecTest {
+
+    private final CursorCodec cursorCodec = cursorCodec("secret");
+
+    @Test
+    void decodesTheKeysAsTheirPropertyTypes() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdOn", LocalDate.of(2024, 5, 1));
+        keys.put("name", null);
+        keys.put("id", 42L);
+        CursorCodec.Cursor cursor =
+                new CursorCodec.Cursor(
+                        ScrollPosition.Direction.BACKWARD,
+                        Sort.by(Sort.Order.desc("createdOn"), Sort.Order.asc("name")),
+                        keys,
+                        3);
+
+        CursorCodec.Cursor decoded = cursorCodec.decode(cursorCodec.encode(cursor), Actor.class);
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.keys()).containsKeys("createdOn", "name", "id");
+    }
+
+    @Test
+    void rejectsEditedCursors() {
+        String encoded = cursorCodec.encode(cursor());
+        byte[] token = Base64.getUrlDecoder().decode(encoded);
+        token[5] ^= 1;
+
+        assertThatThrownBy(
+                        () ->
+                                cursorCodec.decode(
+                                        Base64.getUrlEncoder()
+                                                .withoutPadding()
+                                                .encodeToString(token),
+                                        Actor.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor signature does not match");
+    }
+
+    @Test
+    void rejectsCursorsSignedWithAnotherSecret() {
+        String encoded = cursorCodec("other secret").encode(cursor());
+
+        assertThatThrownBy(() -> cursorCodec.decode(encoded, Actor.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor signature does not match");
+    }
+
+    @Test
+    void rejectsUnknownVersions() {
+        byte[] token = Base64.getUrlDecoder().decode(cursorCodec.encode(cursor()));
+        token[0] = 2;
+
+        assertThatThrownBy(
+                        () ->
+                                cursorCodec.decode(
+                                        Base64.getUrlEncoder()
+                                                .withoutPadding()
+                                                .encodeToString(token),
+                                        Actor.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor version 2 is not supported");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> cursorCodec.decode("not a cursor!", Actor.class))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> cursorCodec.decode("AQ", Actor.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor is too short");
+    }
+
+    @Test
+    void rejectsPropertiesTheEntityDoesNotHave() {
+        String encoded =
+                cursorCodec.encode(
+                        new CursorCodec.Cursor(
+                                ScrollPosition.Direction.FORWARD,
+                                Sort.by("legs"),
+                                Map.of("legs", 4, "id", 1L),
+                                0));
+
+        assertThatThrownBy(() -> cursorCodec.decode(encoded, Actor.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor refers to unknown property 'legs' of Actor");
+    }
+
+    private static CursorCodec.Cursor cursor() {
+        return new CursorCodec.Cursor(
+                ScrollPosition.Direction.FORWARD, Sort.by("id"), Map.of("id", 7L), 0);
+    }
+
+    private static CursorCodec cursorCodec(String secret) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCursor().setSecret(secret);
+        return new CursorCodec(new ObjectMapper().findAndRegisterModules(), applicationProperties);
+    }
+}
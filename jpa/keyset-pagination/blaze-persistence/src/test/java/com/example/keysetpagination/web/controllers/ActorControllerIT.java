@@ -46,54 +46,92 @@ class ActorControllerIT extends AbstractIntegrationTest {
     void shouldFetchAllActors() throws Exception {
         String contentAsString =
                 this.mockMvc
-                        .perform(get("/api/actors?pageNo=0&pageSize=2&sortDir=desc"))
+                        .perform(get("/api/actors?pageSize=2&sortDir=desc"))
                         .andExpect(status().isOk())
                         .andExpect(jsonPath("$.data.size()", is(2)))
-                        .andExpect(jsonPath("$.totalElements", is(3)))
                         .andExpect(jsonPath("$.pageNumber", is(1)))
-                        .andExpect(jsonPath("$.totalPages", is(2)))
                         .andExpect(jsonPath("$.isFirst", is(true)))
                         .andExpect(jsonPath("$.isLast", is(false)))
                         .andExpect(jsonPath("$.hasNext", is(true)))
                         .andExpect(jsonPath("$.hasPrevious", is(false)))
-                        .andExpect(jsonPath("$.keySetPageResponse.maxResults", is(2)))
-                        .andExpect(jsonPath("$.keySetPageResponse.firstResult", is(0)))
+                        .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                        .andExpect(jsonPath("$.previousCursor").doesNotExist())
                         .andReturn()
                         .getResponse()
                         .getContentAsString();
 
-        PagedResult<Actor> pagedResult = objectMapper.readValue(contentAsString, PagedResult.class);
+        PagedResult<?> pagedResult = objectMapper.readValue(contentAsString, PagedResult.class);
+
+        // the cursor carries the sort
+        String secondPage =
+                this.mockMvc
+                        .perform(get("/api/actors").param("cursor", pagedResult.nextCursor()))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.data.size()", is(1)))
+                        .andExpect(jsonPath("$.data[0].name", is("First Actor")))
+                        .andExpect(jsonPath("$.pageNumber", is(2)))
+                        .andExpect(jsonPath("$.isFirst", is(false)))
+                        .andExpect(jsonPath("$.isLast", is(true)))
+                        .andExpect(jsonPath("$.hasNext", is(false)))
+                        .andExpect(jsonPath("$.hasPrevious", is(true)))
+                        .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString();
 
         this.mockMvc
                 .perform(
                         get("/api/actors")
-                                .param("pageNo", "2")
-                                .param("pageSize", "2")
-                                .param("sortDir", "desc")
                                 .param(
-                                        "lowest",
-                                        String.valueOf(pagedResult.keySetPageResponse().lowest()))
-                                .param(
-                                        "highest",
-                                        String.valueOf(pagedResult.keySetPageResponse().highest())))
+                                        "cursor",
+                                        objectMapper
+                                                .readValue(secondPage, PagedResult.class)
+                                                .previousCursor()))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.data.size()", is(1)))
-                .andExpect(jsonPath("$.totalElements", is(3)))
-                .andExpect(jsonPath("$.pageNumber", is(2)))
-                .andExpect(jsonPath("$.totalPages", is(2)))
-                .andExpect(jsonPath("$.isFirst", is(false)))
-                .andExpect(jsonPath("$.isLast", is(true)))
-                .andExpect(jsonPath("$.hasNext", is(false)))
-                .andExpect(jsonPath("$.hasPrevious", is(true)))
-                .andExpect(jsonPath("$.keySetPageResponse.maxResults", is(2)))
-                .andExpect(jsonPath("$.keySetPageResponse.firstResult", is(2)));
+                .andExpect(jsonPath("$.data.size()", is(2)))
+                .andExpect(jsonPath("$.data[0].name", is("Third Actor")))
+                .andExpect(jsonPath("$.data[1].name", is("Second Actor")))
+                .andExpect(jsonPath("$.pageNumber", is(1)))
+                .andExpect(jsonPath("$.isFirst", is(true)))
+                .andExpect(jsonPath("$.hasNext", is(true)));
+    }
+
+    @Test
+    void shouldRejectCursorOfAnotherSort() throws Exception {
+        String firstPage =
+                this.mockMvc
+                        .perform(get("/api/actors?pageSize=2&sortDir=desc"))
+                        .andExpect(status().isOk())
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString();
+
+        this.mockMvc
+                .perform(
+                        get("/api/actors")
+                                .param("sortDir", "asc")
+                                .param(
+                                        "cursor",
+                                        objectMapper
+                                                .readValue(firstPage, PagedResult.class)
+                                                .nextCursor()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Invalid Cursor")));
+    }
+
+    @Test
+    void shouldRejectTamperedCursor() throws Exception {
+        this.mockMvc
+                .perform(get("/api/actors").param("cursor", "AQ" + "A".repeat(60)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Invalid Cursor")));
     }
 
     @Test
     void shouldSearchAllActors() throws Exception {
         this.mockMvc
                 .perform(
-                        post("/api/actors/search?pageNo=0&pageSize=2&sortDir=desc")
+                        post("/api/actors/search?pageSize=2&sortDir=desc")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(
                                         """
@@ -117,15 +155,11 @@ class ActorControllerIT extends AbstractIntegrationTest {
                                                 .formatted(LocalDate.now())))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data.size()", is(2)))
-                .andExpect(jsonPath("$.totalElements", is(3)))
                 .andExpect(jsonPath("$.pageNumber", is(1)))
-                .andExpect(jsonPath("$.totalPages", is(2)))
                 .andExpect(jsonPath("$.isFirst", is(true)))
                 .andExpect(jsonPath("$.isLast", is(false)))
                 .andExpect(jsonPath("$.hasNext", is(true)))
-                .andExpect(jsonPath("$.hasPrevious", is(false)))
-                .andExpect(jsonPath("$.keySetPageResponse.maxResults", is(2)))
-                .andExpect(jsonPath("$.keySetPageResponse.firstResult", is(0)));
+                .andExpect(jsonPath("$.hasPrevious", is(false)));
     }
 
     @Test
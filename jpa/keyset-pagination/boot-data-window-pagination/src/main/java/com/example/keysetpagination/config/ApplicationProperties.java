@@ -12,6 +12,9 @@ public class ApplicationProperties {
     @NestedConfigurationProperty
     @Valid private Cors cors = new Cors();
 
+    @NestedConfigurationProperty
+    private Cursor cursor = new Cursor();
+
     public Cors getCors() {
         return cors;
     }
@@ -20,6 +23,14 @@ public class ApplicationProperties {
         this.cors = cors;
     }
 
+    public Cursor getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(Cursor cursor) {
+        this.cursor = cursor;
+    }
+
     public static class Cors {
         private String pathPattern = "/api/**";
         private String allowedMethods = "*";
@@ -67,4 +78,17 @@ public class ApplicationProperties {
             this.pathPattern = pathPattern;
         }
     }
+
+    public static class Cursor {
+        /** Key that signs scroll cursors, shared by every instance that must accept them. */
+        private String secret;
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.keysetpagination.config;
 
+import com.example.keysetpagination.exception.InvalidCursorException;
 import com.example.keysetpagination.exception.ResourceNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import java.net.URI;
@@ -61,6 +62,17 @@ class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    ProblemDetail onException(InvalidCursorException invalidCursorException) {
+        ProblemDetail problemDetail =
+                ProblemDetail.forStatusAndDetail(HttpStatusCode.valueOf(400), invalidCursorException.getMessage());
+        problemDetail.setTitle("Invalid Cursor");
+        problemDetail.setType(URI.create("https://api.boot-data-window-pagination.com/errors/invalid-cursor"));
+        problemDetail.setProperty("errorCategory", "Validation");
+        problemDetail.setProperty("timestamp", Instant.now());
+        return problemDetail;
+    }
+
     @ExceptionHandler(Exception.class)
     ProblemDetail onException(Exception exception) {
         if (exception instanceof ResourceNotFoundException resourceNotFoundException) {
@@ -0,0 +1,17 @@
+package com.example.keysetpagination.model.response;
+
+import java.util.List;
+
+/**
+ * One page of a keyset scroll.
+ *
+ * @param content the rows of the page, in sort order
+ * @param first whether there are no rows before the page
+ * @param last whether there are no rows after the page
+ * @param nextCursor continues with the rows after the page, {@code null} when {@code last}
+ * @param previousCursor continues with the rows before the page, {@code null} when {@code first}
+ * @param estimatedTotal the row count of the table as the planner estimates it, ignoring the search
+ *     criteria
+ */
+public record ScrollResult<T>(
+        List<T> content, boolean first, boolean last, String nextCursor, String previousCursor, long estimatedTotal) {}
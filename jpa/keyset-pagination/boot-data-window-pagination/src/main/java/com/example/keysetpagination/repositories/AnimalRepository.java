@@ -3,6 +3,18 @@ package com.example.keysetpagination.repositories;
 import com.example.keysetpagination.entities.Animal;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 public interface AnimalRepository
-        extends JpaRepository<Animal, Long>, CustomRepository<Animal>, JpaSpecificationExecutor<Animal> {}
+        extends JpaRepository<Animal, Long>, CustomRepository<Animal>, JpaSpecificationExecutor<Animal> {
+
+    /**
+     * Returns the row count of the table as last estimated by {@code ANALYZE} or autovacuum, without
+     * scanning it. Zero until the table is first analyzed.
+     */
+    @Query(
+            value =
+                    "select coalesce((select greatest(cast(reltuples as bigint), 0) from pg_class where oid = to_regclass('public.animals')), 0)",
+            nativeQuery = true)
+    long estimateCount();
+}
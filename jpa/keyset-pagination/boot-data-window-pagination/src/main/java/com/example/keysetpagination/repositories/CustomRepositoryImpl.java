@@ -1,18 +1,41 @@
 package com.example.keysetpagination.repositories;
 
+import com.example.keysetpagination.exception.ResourceNotFoundException;
+import jakarta.persistence.Column;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.springframework.beans.PropertyAccessor;
+import org.springframework.beans.PropertyAccessorFactory;
 import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Keyset pagination over a {@link Specification}.
+ *
+ * <p>The sort always ends with the identifier, so that every row has a distinct position. A keyset
+ * holds the values of every sort property of the row to continue from, and the rows after it are
+ * those that sort after it lexicographically: {@code (a > ?) OR (a = ? AND b > ?) OR ...}, where
+ * each comparison follows the direction of its sort property and the scroll direction. A bound on
+ * the leading property is added in front, so that a composite index on the sort properties is
+ * range scanned from the position on instead of filtered from the start. Nullable properties
+ * compare like PostgreSQL orders them, with nulls after every value.
+ */
 @Repository
 public class CustomRepositoryImpl<T> implements CustomRepository<T> {
 
@@ -33,17 +56,22 @@ public class CustomRepositoryImpl<T> implements CustomRepository<T> {
 
         Predicate filterPredicate = spec != null ? spec.toPredicate(root, query, cb) : cb.conjunction();
 
+        List<Sort.Order> orders = withTieBreaker(pageRequest.getSort(), idProperty(entityClass));
+
         // Determine scroll direction and apply keyset filters if necessary
         ScrollPosition.Direction direction = ScrollPosition.Direction.FORWARD;
         if (scrollPosition instanceof KeysetScrollPosition keysetPosition) {
             direction = keysetPosition.getDirection();
-            filterPredicate = applyKeySetFilter(keysetPosition, root, cb, filterPredicate, direction);
+            if (!keysetPosition.isInitial()) {
+                Map<String, Object> keys = resolveKeys(keysetPosition.getKeys(), orders, entityClass);
+                filterPredicate = cb.and(filterPredicate, applyKeySetFilter(keys, orders, root, cb, direction));
+            }
         }
 
         query.where(filterPredicate);
 
-        // Apply sorting
-        applySorting(query, root, cb, pageRequest);
+        // Scrolling backward reads the rows before the position nearest first
+        applySorting(query, root, cb, direction == ScrollPosition.Direction.FORWARD ? orders : reverse(orders));
 
         // Create and execute query
         TypedQuery<T> typedQuery = entityManager.createQuery(query);
@@ -58,42 +86,73 @@ public class CustomRepositoryImpl<T> implements CustomRepository<T> {
         if (hasMore) {
             results = results.subList(0, pageRequest.getPageSize());
         }
+        if (direction == ScrollPosition.Direction.BACKWARD) {
+            results = new ArrayList<>(results);
+            Collections.reverse(results);
+        }
 
-        // Generate next scroll position
-        ScrollPosition nextScrollPosition = generateNextScrollPosition(results, direction);
-
-        // Return a new Window object
-        return new CustomWindow<>(results, nextScrollPosition, hasMore);
+        // Every row's position carries all of its sort keys
+        List<T> content = results;
+        return new CustomWindow<>(
+                content, index -> ScrollPosition.forward(keysOf(content.get(index), orders)), hasMore);
     }
 
     private Predicate applyKeySetFilter(
-            KeysetScrollPosition scrollPosition,
+            Map<String, Object> keys,
+            List<Sort.Order> orders,
             Root<T> root,
             CriteriaBuilder cb,
-            Predicate currentPredicate,
             ScrollPosition.Direction direction) {
 
-        Map<String, Object> keysetMap = scrollPosition.getKeys();
-        for (Map.Entry<String, Object> entry : keysetMap.entrySet()) {
-            String property = entry.getKey();
-            Object value = entry.getValue();
-            Predicate scrollPredicate;
-
-            if (direction == ScrollPosition.Direction.FORWARD) {
-                scrollPredicate = cb.greaterThan(root.get(property), (Comparable) value);
-            } else {
-                scrollPredicate = cb.lessThan(root.get(property), (Comparable) value);
-            }
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalSoFar = new ArrayList<>();
+        for (Sort.Order order : orders) {
+            Path<Comparable<Object>> path = root.get(order.getProperty());
+            Comparable<Object> value = comparable(keys.get(order.getProperty()));
+            boolean after = order.isAscending() == (direction == ScrollPosition.Direction.FORWARD);
+            boolean nullable = isNullable(root, order.getProperty());
+
+            List<Predicate> alternative = new ArrayList<>(equalSoFar);
+            alternative.add(beyond(path, value, after, nullable, cb));
+            alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            equalSoFar.add(value == null ? cb.isNull(path) : cb.equal(path, value));
+        }
+        Predicate keysetPredicate = cb.or(alternatives.toArray(Predicate[]::new));
+
+        // Redundant, but lets the database start an index range scan at the position
+        Sort.Order leading = orders.getFirst();
+        Comparable<Object> leadingValue = comparable(keys.get(leading.getProperty()));
+        if (leadingValue != null && !isNullable(root, leading.getProperty())) {
+            Path<Comparable<Object>> path = root.get(leading.getProperty());
+            Predicate bound = leading.isAscending() == (direction == ScrollPosition.Direction.FORWARD)
+                    ? cb.greaterThanOrEqualTo(path, leadingValue)
+                    : cb.lessThanOrEqualTo(path, leadingValue);
+            keysetPredicate = cb.and(bound, keysetPredicate);
+        }
+        return keysetPredicate;
+    }
 
-            currentPredicate = cb.and(currentPredicate, scrollPredicate);
+    /** Rows whose value sorts strictly {@code after} (or before) {@code value}, nulls sorting last. */
+    private Predicate beyond(
+            Path<Comparable<Object>> path,
+            Comparable<Object> value,
+            boolean after,
+            boolean nullable,
+            CriteriaBuilder cb) {
+        if (value == null) {
+            return after ? cb.disjunction() : cb.isNotNull(path);
         }
-        return currentPredicate;
+        if (!after) {
+            return cb.lessThan(path, value);
+        }
+        Predicate greater = cb.greaterThan(path, value);
+        return nullable ? cb.or(greater, cb.isNull(path)) : greater;
     }
 
-    private void applySorting(CriteriaQuery<T> query, Root<T> root, CriteriaBuilder cb, PageRequest pageRequest) {
+    private void applySorting(CriteriaQuery<T> query, Root<T> root, CriteriaBuilder cb, List<Sort.Order> sortOrders) {
 
         List<Order> orders = new ArrayList<>();
-        pageRequest.getSort().forEach(order -> {
+        sortOrders.forEach(order -> {
             Path<?> path = root.get(order.getProperty());
             orders.add(order.isAscending() ? cb.asc(path) : cb.desc(path));
         });
@@ -103,15 +162,77 @@ public class CustomRepositoryImpl<T> implements CustomRepository<T> {
         }
     }
 
-    private ScrollPosition generateNextScrollPosition(List<T> results, ScrollPosition.Direction direction) {
+    /**
+     * Returns the keyset as is when it holds every sort property. A keyset holding only the
+     * identifier, as scroll ids do, is completed from the row it identifies.
+     */
+    private Map<String, Object> resolveKeys(Map<String, Object> keys, List<Sort.Order> orders, Class<T> entityClass) {
+        if (orders.stream().allMatch(order -> keys.containsKey(order.getProperty()))) {
+            return keys;
+        }
+        String idProperty = idProperty(entityClass);
+        Object id = keys.get(idProperty);
+        if (id == null) {
+            throw new IllegalArgumentException("Keyset " + keys + " does not match the sort " + orders);
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        query.multiselect(orders.stream()
+                        .map(order -> root.get(order.getProperty()).alias(order.getProperty()))
+                        .toArray(Selection[]::new))
+                .where(cb.equal(root.get(idProperty), id));
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Scroll position with id '%s' not found".formatted(id));
+        }
+        Map<String, Object> resolved = new LinkedHashMap<>();
+        orders.forEach(
+                order -> resolved.put(order.getProperty(), rows.getFirst().get(order.getProperty())));
+        return resolved;
+    }
+
+    private Map<String, Object> keysOf(T entity, List<Sort.Order> orders) {
+        PropertyAccessor accessor = PropertyAccessorFactory.forDirectFieldAccess(entity);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        orders.forEach(order -> keys.put(order.getProperty(), accessor.getPropertyValue(order.getProperty())));
+        return keys;
+    }
 
-        if (results.isEmpty()) {
-            return ScrollPosition.offset();
+    private String idProperty(Class<T> entityClass) {
+        EntityType<T> entityType = entityManager.getMetamodel().entity(entityClass);
+        return entityType.getId(entityType.getIdType().getJavaType()).getName();
+    }
+
+    private boolean isNullable(Root<T> root, String property) {
+        Attribute<? super T, ?> attribute = root.getModel().getAttribute(property);
+        if (attribute instanceof SingularAttribute<?, ?> singularAttribute
+                && (singularAttribute.isId() || !singularAttribute.isOptional())) {
+            return false;
+        }
+        if (attribute.getJavaMember() instanceof Field field) {
+            Column column = field.getAnnotation(Column.class);
+            return column == null || column.nullable();
         }
+        return true;
+    }
+
+    private static List<Sort.Order> withTieBreaker(Sort sort, String idProperty) {
+        List<Sort.Order> orders = new ArrayList<>(sort.toList());
+        if (orders.stream().noneMatch(order -> order.getProperty().equals(idProperty))) {
+            orders.add(Sort.Order.asc(idProperty));
+        }
+        return orders;
+    }
+
+    private static List<Sort.Order> reverse(List<Sort.Order> orders) {
+        return orders.stream()
+                .map(order -> order.with(order.getDirection().isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC))
+                .toList();
+    }
 
-        // Assuming 'id' is used for keyset pagination; customize as needed
-        Object lastId =
-                entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(results.getLast());
-        return ScrollPosition.of(Map.of("id", lastId), direction);
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> comparable(Object value) {
+        return (Comparable<Object>) value;
     }
 }
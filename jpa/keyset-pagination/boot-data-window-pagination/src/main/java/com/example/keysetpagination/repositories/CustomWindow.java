@@ -3,6 +3,7 @@ package com.example.keysetpagination.repositories;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Window;
@@ -11,12 +12,20 @@ import org.springframework.util.Assert;
 public class CustomWindow<T> implements Window<T> {
 
     private List<T> content;
-    private ScrollPosition position;
+    private IntFunction<ScrollPosition> positionFunction;
     private boolean hasNext;
 
     public CustomWindow(List<T> content, ScrollPosition position, boolean hasNext) {
+        this(content, index -> position, hasNext);
+    }
+
+    /**
+     * @param positionFunction the position of the element at an index, which is only computed when
+     *     asked for
+     */
+    public CustomWindow(List<T> content, IntFunction<ScrollPosition> positionFunction, boolean hasNext) {
         this.content = content;
-        this.position = position;
+        this.positionFunction = positionFunction;
         this.hasNext = hasNext;
     }
 
@@ -47,15 +56,14 @@ public class CustomWindow<T> implements Window<T> {
         if (index < 0 || index >= content.size()) {
             throw new IndexOutOfBoundsException("Index out of bounds for content size: " + content.size());
         }
-        // You can customize this if you have additional scroll position data per item
-        return position;
+        return positionFunction.apply(index);
     }
 
     @Override
     public <U> Window<U> map(Function<? super T, ? extends U> converter) {
         Assert.notNull(converter, "Function must not be null");
 
-        return new CustomWindow<>(stream().map(converter).collect(Collectors.toList()), position, hasNext);
+        return new CustomWindow<>(stream().map(converter).collect(Collectors.toList()), positionFunction, hasNext);
     }
 
     @Override
@@ -2,18 +2,23 @@ package com.example.keysetpagination.services;
 
 import com.example.keysetpagination.entities.Animal;
 import com.example.keysetpagination.exception.AnimalNotFoundException;
+import com.example.keysetpagination.exception.InvalidCursorException;
 import com.example.keysetpagination.mapper.AnimalMapper;
 import com.example.keysetpagination.model.query.FindAnimalsQuery;
 import com.example.keysetpagination.model.query.SearchRequest;
 import com.example.keysetpagination.model.request.AnimalRequest;
 import com.example.keysetpagination.model.response.AnimalResponse;
 import com.example.keysetpagination.model.response.PagedResult;
+import com.example.keysetpagination.model.response.ScrollResult;
 import com.example.keysetpagination.repositories.AnimalRepository;
+import com.example.keysetpagination.utils.CursorCodec;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -24,6 +29,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
 @Service
 @Transactional(readOnly = true)
@@ -34,14 +40,17 @@ public class AnimalService {
     private final AnimalRepository animalRepository;
     private final AnimalMapper animalMapper;
     private final EntitySpecification<Animal> animalEntitySpecification;
+    private final CursorCodec cursorCodec;
 
     public AnimalService(
             AnimalRepository animalRepository,
             AnimalMapper animalMapper,
-            EntitySpecification<Animal> animalEntitySpecification) {
+            EntitySpecification<Animal> animalEntitySpecification,
+            CursorCodec cursorCodec) {
         this.animalRepository = animalRepository;
         this.animalMapper = animalMapper;
         this.animalEntitySpecification = animalEntitySpecification;
+        this.cursorCodec = cursorCodec;
     }
 
     public PagedResult<AnimalResponse> findAllAnimals(FindAnimalsQuery findAnimalsQuery) {
@@ -65,37 +74,81 @@ public class AnimalService {
         return PageRequest.of(pageNo, findAnimalsQuery.pageSize(), sort);
     }
 
-    public Window<AnimalResponse> searchAnimals(SearchRequest searchRequest, int pageSize, Long scrollId) {
+    /**
+     * Scrolls through the animals matching {@code searchRequest}. A {@code cursor} from a previous
+     * result continues after or before that result with the sort it was issued for; a {@code
+     * scrollId} continues after the animal with that id. Neither skips rows with an offset nor
+     * counts the matches.
+     */
+    public ScrollResult<AnimalResponse> searchAnimals(
+            SearchRequest searchRequest, int pageSize, Long scrollId, String cursor) {
 
         Specification<Animal> specification =
                 animalEntitySpecification.specificationBuilder(searchRequest.getSearchCriteriaList(), Animal.class);
 
-        // Create initial ScrollPosition or continue from the given scrollId
-        ScrollPosition position = scrollId == null
-                ? ScrollPosition.keyset()
-                : ScrollPosition.of(Collections.singletonMap("id", scrollId), ScrollPosition.Direction.FORWARD);
-
         // Parse and create sort orders
-        List<Sort.Order> orders = CollectionUtils.isEmpty(searchRequest.getSortRequests())
-                ? Collections.singletonList(new Sort.Order(Sort.Direction.ASC, "id"))
-                : searchRequest.getSortRequests().stream()
-                        .map(sortRequest -> {
-                            Sort.Direction direction = "desc"
-                                            .equalsIgnoreCase(Optional.ofNullable(sortRequest.getDirection())
-                                                    .orElse("asc"))
-                                    ? Sort.Direction.DESC
-                                    : Sort.Direction.ASC;
-                            return new Sort.Order(direction, sortRequest.getField());
-                        })
-                        .toList();
-
-        log.debug(
-                "Executing search with criteria: {} and sort orders: {}",
-                searchRequest.getSearchCriteriaList(),
-                orders);
-        return animalRepository
-                .findAll(specification, PageRequest.of(0, pageSize, Sort.by(orders)), position, Animal.class)
-                .map(animalMapper::toResponse);
+        Sort sort = Sort.by(
+                CollectionUtils.isEmpty(searchRequest.getSortRequests())
+                        ? Collections.singletonList(new Sort.Order(Sort.Direction.ASC, "id"))
+                        : searchRequest.getSortRequests().stream()
+                                .map(sortRequest -> {
+                                    Sort.Direction direction = "desc"
+                                                    .equalsIgnoreCase(Optional.ofNullable(sortRequest.getDirection())
+                                                            .orElse("asc"))
+                                            ? Sort.Direction.DESC
+                                            : Sort.Direction.ASC;
+                                    return new Sort.Order(direction, sortRequest.getField());
+                                })
+                                .toList());
+
+        // Create initial ScrollPosition or continue from the given cursor or scrollId
+        KeysetScrollPosition position;
+        if (StringUtils.hasText(cursor)) {
+            CursorCodec.Cursor decoded = cursorCodec.decode(cursor, Animal.class);
+            if (!CollectionUtils.isEmpty(searchRequest.getSortRequests())
+                    && !decoded.sort().equals(sort)) {
+                throw new InvalidCursorException(
+                        "Cursor was issued for sort %s, not %s".formatted(decoded.sort(), sort));
+            }
+            sort = decoded.sort();
+            position = ScrollPosition.of(decoded.keys(), decoded.direction());
+        } else if (scrollId != null) {
+            position = ScrollPosition.of(Collections.singletonMap("id", scrollId), ScrollPosition.Direction.FORWARD);
+        } else {
+            position = ScrollPosition.keyset();
+        }
+
+        log.debug("Executing search with criteria: {} and sort: {}", searchRequest.getSearchCriteriaList(), sort);
+        Window<Animal> window =
+                animalRepository.findAll(specification, PageRequest.of(0, pageSize, sort), position, Animal.class);
+
+        // Scrolling backward ends at the position, so there are rows after the window
+        boolean backward = position.scrollsBackward();
+        boolean rowsAfter = backward || window.hasNext();
+        boolean rowsBefore = backward ? window.hasNext() : !position.isInitial();
+        String nextCursor = null;
+        String previousCursor = null;
+        if (!window.isEmpty()) {
+            if (rowsAfter) {
+                nextCursor = cursorCodec.encode(new CursorCodec.Cursor(
+                        ScrollPosition.Direction.FORWARD, sort, keysAt(window, window.size() - 1), 0));
+            }
+            if (rowsBefore) {
+                previousCursor = cursorCodec.encode(
+                        new CursorCodec.Cursor(ScrollPosition.Direction.BACKWARD, sort, keysAt(window, 0), 0));
+            }
+        }
+        return new ScrollResult<>(
+                animalMapper.toResponseList(window.getContent()),
+                previousCursor == null,
+                nextCursor == null,
+                nextCursor,
+                previousCursor,
+                animalRepository.estimateCount());
+    }
+
+    private static Map<String, Object> keysAt(Window<Animal> window, int index) {
+        return ((KeysetScrollPosition) window.positionAt(index)).getKeys();
     }
 
     public Optional<AnimalResponse> findAnimalById(Long id) {
@@ -6,6 +6,7 @@ import com.example.keysetpagination.model.query.SearchRequest;
 import com.example.keysetpagination.model.request.AnimalRequest;
 import com.example.keysetpagination.model.response.AnimalResponse;
 import com.example.keysetpagination.model.response.PagedResult;
+import com.example.keysetpagination.model.response.ScrollResult;
 import com.example.keysetpagination.services.AnimalService;
 import com.example.keysetpagination.utils.AppConstants;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,7 +18,6 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import java.net.URI;
-import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -60,15 +60,20 @@ class AnimalController {
                 @ApiResponse(responseCode = "404", description = "No animals found matching criteria")
             })
     @PostMapping("/search")
-    public Window<AnimalResponse> searchAnimals(
+    public ScrollResult<AnimalResponse> searchAnimals(
             @Parameter(description = "Number of items per page (max 100)", in = ParameterIn.QUERY)
                     @RequestParam(defaultValue = "10")
                     @Min(1) @Max(100) int pageSize,
             @Parameter(description = "Scroll ID for pagination", in = ParameterIn.QUERY) @RequestParam(required = false)
                     Long scrollId,
+            @Parameter(
+                            description = "Cursor from the nextCursor or previousCursor of a previous result",
+                            in = ParameterIn.QUERY)
+                    @RequestParam(required = false)
+                    String cursor,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true) @RequestBody @Valid SearchRequest searchRequest) {
 
-        return animalService.searchAnimals(searchRequest, pageSize, scrollId);
+        return animalService.searchAnimals(searchRequest, pageSize, scrollId, cursor);
     }
 
     @GetMapping("/{id}")
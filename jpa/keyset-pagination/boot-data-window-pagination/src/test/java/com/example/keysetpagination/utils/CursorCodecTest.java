@@ -0,0 +1,100 @@
+package com.example.keysetpagination.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.example.keysetpagination.config.ApplicationProperties;
+import com.example.keysetpagination.entities.Animal;
+import com.example.keysetpagination.exception.InvalidCursorException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+class CursorCodecTest {
+
+    private final CursorCodec cursorCodec = cursorCodec("secret");
+
+    @Test
+    void decodesTheKeysAsTheirPropertyTypes() {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("created", LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        keys.put("habitat", null);
+        keys.put("id", 42L);
+        CursorCodec.Cursor cursor = new CursorCodec.Cursor(
+                ScrollPosition.Direction.BACKWARD,
+                Sort.by(Sort.Order.desc("created"), Sort.Order.asc("habitat")),
+                keys,
+                3);
+
+        CursorCodec.Cursor decoded = cursorCodec.decode(cursorCodec.encode(cursor), Animal.class);
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.keys()).containsKeys("created", "habitat", "id");
+    }
+
+    @Test
+    void rejectsEditedCursors() {
+        String encoded = cursorCodec.encode(cursor());
+        byte[] token = Base64.getUrlDecoder().decode(encoded);
+        token[5] ^= 1;
+
+        assertThatThrownBy(() -> cursorCodec.decode(
+                        Base64.getUrlEncoder().withoutPadding().encodeToString(token), Animal.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor signature does not match");
+    }
+
+    @Test
+    void rejectsCursorsSignedWithAnotherSecret() {
+        String encoded = cursorCodec("other secret").encode(cursor());
+
+        assertThatThrownBy(() -> cursorCodec.decode(encoded, Animal.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor signature does not match");
+    }
+
+    @Test
+    void rejectsUnknownVersions() {
+        byte[] token = Base64.getUrlDecoder().decode(cursorCodec.encode(cursor()));
+        token[0] = 2;
+
+        assertThatThrownBy(() -> cursorCodec.decode(
+                        Base64.getUrlEncoder().withoutPadding().encodeToString(token), Animal.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor version 2 is not supported");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThatThrownBy(() -> cursorCodec.decode("not a cursor!", Animal.class))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> cursorCodec.decode("AQ", Animal.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor is too short");
+    }
+
+    @Test
+    void rejectsPropertiesTheEntityDoesNotHave() {
+        String encoded = cursorCodec.encode(new CursorCodec.Cursor(
+                ScrollPosition.Direction.FORWARD, Sort.by("legs"), Map.of("legs", 4, "id", 1L), 0));
+
+        assertThatThrownBy(() -> cursorCodec.decode(encoded, Animal.class))
+                .isInstanceOf(InvalidCursorException.class)
+                .hasMessage("Cursor refers to unknown property 'legs' of Animal");
+    }
+
+    private static CursorCodec.Cursor cursor() {
+        return new CursorCodec.Cursor(ScrollPosition.Direction.FORWARD, Sort.by("id"), Map.of("id", 7L), 0);
+    }
+
+    private static CursorCodec cursorCodec(String secret) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getCursor().setSecret(secret);
+        return new CursorCodec(new ObjectMapper().findAndRegisterModules(), applicationProperties);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.keysetpagination.web.controllers;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -17,6 +19,7 @@ import com.example.keysetpagination.model.request.AnimalRequest;
 import com.example.keysetpagination.repositories.AnimalRepository;
 import com.example.keysetpagination.repositories.CustomWindow;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -138,6 +141,130 @@ class AnimalControllerIT extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$.last", is(true)));
     }
 
+    @Test
+    void shouldScrollThroughTiesOfMultiColumnSort() throws Exception {
+        List<String> expectedNames = animalList.stream()
+                .sorted(Comparator.comparing(Animal::getType, Comparator.reverseOrder())
+                        .thenComparing(Animal::getHabitat)
+                        .thenComparing(Animal::getId))
+                .map(Animal::getName)
+                .toList();
+
+        List<String> names = new ArrayList<>();
+        Long scrollId = null;
+        boolean last = false;
+        while (!last) {
+            var request = post("/api/animals/search").param("pageSize", "3");
+            if (scrollId != null) {
+                request.param("scrollId", String.valueOf(scrollId));
+            }
+            String contentAsString = this.mockMvc
+                    .perform(request.content(
+                                    """
+                                    {
+                                        "searchCriteriaList": [],
+                                        "sortRequests": [
+                                            {
+                                                "field": "type",
+                                                "direction": "desc"
+                                            },
+                                            {
+                                                "field": "habitat"
+                                            }
+                                        ]
+                                    }
+                                    """)
+                            .contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+            CustomWindow<Animal> window = objectMapper.readValue(
+                    contentAsString,
+                    objectMapper.getTypeFactory().constructParametricType(CustomWindow.class, Animal.class));
+            window.getContent().forEach(animal -> names.add(animal.getName()));
+            scrollId = window.getContent().getLast().getId();
+            last = objectMapper.readTree(contentAsString).get("last").asBoolean();
+        }
+
+        assertThat(names).containsExactlyElementsOf(expectedNames);
+    }
+
+    @Test
+    void shouldScrollForwardAndBackwardWithCursors() throws Exception {
+        String body =
+                """
+                {
+                    "searchCriteriaList": [],
+                    "sortRequests": [
+                        {
+                            "field": "name"
+                        }
+                    ]
+                }
+                """;
+        String firstPage = this.mockMvc
+                .perform(post("/api/animals/search")
+                        .param("pageSize", "4")
+                        .content(body)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", is("Crocodile")))
+                .andExpect(jsonPath("$.first", is(true)))
+                .andExpect(jsonPath("$.previousCursor").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        // the cursor carries the sort, so it is not sent again
+        String secondPage = this.mockMvc
+                .perform(post("/api/animals/search")
+                        .param("pageSize", "4")
+                        .param(
+                                "cursor",
+                                objectMapper
+                                        .readTree(firstPage)
+                                        .get("nextCursor")
+                                        .asText())
+                        .content("{\"searchCriteriaList\": []}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name", contains("Lion", "Parrot", "Penguin", "Shark")))
+                .andExpect(jsonPath("$.first", is(false)))
+                .andExpect(jsonPath("$.last", is(false)))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        this.mockMvc
+                .perform(post("/api/animals/search")
+                        .param("pageSize", "4")
+                        .param(
+                                "cursor",
+                                objectMapper
+                                        .readTree(secondPage)
+                                        .get("previousCursor")
+                                        .asText())
+                        .content("{\"searchCriteriaList\": []}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].name", contains("Crocodile", "Eagle", "Elephant", "Frog")))
+                .andExpect(jsonPath("$.first", is(true)))
+                .andExpect(jsonPath("$.last", is(false)));
+    }
+
+    @Test
+    void shouldRejectTamperedCursor() throws Exception {
+        this.mockMvc
+                .perform(post("/api/animals/search")
+                        .param("cursor", "AQ" + "A".repeat(60))
+                        .content("{\"searchCriteriaList\": []}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title", is("Invalid Cursor")));
+    }
+
     @Test
     void shouldReturnResultForNotEqualType() throws Exception {
         this.mockMvc
@@ -1,6 +1,12 @@
 package com.example.multitenancy.db.config;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import lombok.Data;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
@@ -9,6 +15,7 @@ import org.springframework.boot.context.properties.NestedConfigurationProperty;
 public class ApplicationProperties {
 
     @NestedConfigurationProperty private Cors cors = new Cors();
+    @NestedConfigurationProperty private Tenants tenants = new Tenants();
 
     @Data
     public static class Cors {
@@ -18,4 +25,19 @@ public class ApplicationProperties {
         private String allowedOriginPatterns = "*";
         private boolean allowCredentials = true;
     }
+
+    @Data
+    public static class Tenants {
+        // connections the pools of all tenants but primary and secondary may hold together
+        private int maxTotalConnections = 50;
+        private int maxPoolSize = 10;
+        // how long a connection may sit unused in a tenant pool before it is closed
+        private Duration idleTimeout = Duration.ofMinutes(1);
+        // how long a tenant may go without requests before its pool is closed
+        private Duration evictAfter = Duration.ofMinutes(10);
+        private Duration evictionInterval = Duration.ofMinutes(1);
+        private Map<String, DataSourceProperties> definitions = new HashMap<>();
+        // PostgreSQL hosts tenants onboarded through the API may live on, none disables it
+        private Set<String> allowedHosts = new HashSet<>();
+    }
 }
@@ -78,8 +78,14 @@ class MultiDatasourceConfig {
         return springLiquibase(secondaryDataSource, secondaryLiquibaseProperties);
     }
 
+    @Bean
+    @ConfigurationProperties(prefix = "datasource.tenants.liquibase")
+    LiquibaseProperties tenantLiquibaseProperties() {
+        return new LiquibaseProperties();
+    }
+
     // Copied from LiquibaseAutoConfiguration class
-    private SpringLiquibase springLiquibase(DataSource dataSource, LiquibaseProperties properties) {
+    static SpringLiquibase springLiquibase(DataSource dataSource, LiquibaseProperties properties) {
         SpringLiquibase liquibase = new SpringLiquibase();
         liquibase.setDataSource(dataSource);
         liquibase.setChangeLog(properties.getChangeLog());
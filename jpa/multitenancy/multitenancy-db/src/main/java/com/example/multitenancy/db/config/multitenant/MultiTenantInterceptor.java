@@ -4,17 +4,22 @@ import com.example.multitenancy.db.utils.AppConstants;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
-import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 @Configuration(proxyBeanMethods = false)
-@RequiredArgsConstructor
 public class MultiTenantInterceptor implements HandlerInterceptor {
 
-    private final TenantIdentifierResolver tenantIdentifierResolver;
+    private static final String PREVIOUS_TENANT =
+            MultiTenantInterceptor.class.getName() + ".PREVIOUS_TENANT";
+
+    private final TenantRegistry tenantRegistry;
+
+    public MultiTenantInterceptor(TenantRegistry tenantRegistry) {
+        this.tenantRegistry = tenantRegistry;
+    }
 
     @Override
     public boolean preHandle(
@@ -22,18 +27,25 @@ public class MultiTenantInterceptor implements HandlerInterceptor {
             throws IOException {
         var tenant = request.getHeader(AppConstants.X_TENANT_ID);
         String path = request.getRequestURI().substring(request.getContextPath().length());
-        if (null != tenant && path.startsWith("/api/") && !getValidTenants().contains(tenant)) {
+        if (null != tenant && path.startsWith("/api/") && !tenantRegistry.isRegistered(tenant)) {
             response.setContentType(MediaType.APPLICATION_JSON_VALUE);
             response.setStatus(HttpServletResponse.SC_FORBIDDEN);
             response.getWriter().write("{\"error\": \"Unknown Database tenant\"}");
             response.getWriter().flush();
             return false;
         }
-        tenantIdentifierResolver.setCurrentTenant(tenant);
+        request.setAttribute(PREVIOUS_TENANT, TenantContextHolder.getTenant());
+        TenantContextHolder.setTenant(tenant);
         return true;
     }
 
-    private List<Object> getValidTenants() {
-        return List.of("primary", "secondary");
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            @Nullable Exception ex) {
+        // the thread serves other requests next, so put back what was set before this one
+        TenantContextHolder.setTenant((String) request.getAttribute(PREVIOUS_TENANT));
     }
 }
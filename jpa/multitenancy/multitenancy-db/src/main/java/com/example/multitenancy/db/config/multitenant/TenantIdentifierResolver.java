@@ -12,15 +12,14 @@ import org.springframework.stereotype.Component;
 public class TenantIdentifierResolver
         implements CurrentTenantIdentifierResolver<String>, HibernatePropertiesCustomizer {
 
-    private String currentTenant = "unknown";
-
+    /** Sets the tenant of the current thread, see {@link TenantContextHolder}. */
     public void setCurrentTenant(@Nullable String tenant) {
-        currentTenant = Objects.requireNonNullElse(tenant, "unknown");
+        TenantContextHolder.setTenant(tenant);
     }
 
     @Override
     public String resolveCurrentTenantIdentifier() {
-        return currentTenant;
+        return Objects.requireNonNullElse(TenantContextHolder.getTenant(), "unknown");
     }
 
     @Override
@@ -0,0 +1,332 @@
+package com.example.multitenancy.db.config.multitenant;
+
+import com.example.multitenancy.db.config.ApplicationProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.sql.DataSource;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Knows every tenant and the data source serving it.
+ *
+ * <p>{@code primary} and {@code secondary} are served by the data sources configured for them. Any
+ * other tenant, configured under {@code application.tenants.definitions} or onboarded while
+ * running, gets a Hikari pool of its own on its first request, after Liquibase has brought its
+ * database up to date. Those pools share a budget of {@code
+ * application.tenants.max-total-connections} connections, each pool's size being its share of the
+ * budget, let connections go when idle and are closed once their tenant has been idle for {@code
+ * application.tenants.evict-after}. Every pool reports the {@code hikaricp.*} metrics tagged with
+ * {@code pool=tenant-<tenant>}.
+ *
+ * <p>Pools of different tenants open side by side. Concurrent first requests of one tenant wait for
+ * the one request that opens its pool.
+ */
+@Component
+@Slf4j
+public class TenantRegistry implements DisposableBean {
+
+    private final Map<String, DataSource> configuredDataSources;
+    private final Map<String, DataSourceProperties> definitions = new ConcurrentHashMap<>();
+    private final Map<String, TenantPool> pools = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<TenantPool>> openingPools =
+            new ConcurrentHashMap<>();
+    private final Set<String> migratedTenants = ConcurrentHashMap.newKeySet();
+    // guards the budget only, it is never held while a pool connects or migrates
+    private final ReentrantLock budgetLock = new ReentrantLock();
+    // pools being opened, they count against the budget before they are in pools
+    private int reservedPools;
+
+    private final ApplicationProperties.Tenants properties;
+    private final LiquibaseProperties tenantLiquibaseProperties;
+    private final ResourceLoader resourceLoader;
+    private final MeterRegistry meterRegistry;
+
+    TenantRegistry(
+            @Qualifier("primaryDataSource") DataSource primaryDataSource,
+            @Qualifier("secondaryDataSource") DataSource secondaryDataSource,
+            @Qualifier("tenantLiquibaseProperties") LiquibaseProperties tenantLiquibaseProperties,
+            ApplicationProperties applicationProperties,
+            ResourceLoader resourceLoader,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.configuredDataSources =
+                Map.of("primary", primaryDataSource, "secondary", secondaryDataSource);
+        this.properties = applicationProperties.getTenants();
+        this.definitions.putAll(properties.getDefinitions());
+        this.tenantLiquibaseProperties = tenantLiquibaseProperties;
+        this.resourceLoader = resourceLoader;
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        if (this.meterRegistry != null) {
+            Gauge.builder("tenant.pools.open", pools, Map::size)
+                    .description("Tenant connection pools currently open")
+                    .register(this.meterRegistry);
+        }
+    }
+
+    public boolean isRegistered(String tenant) {
+        return configuredDataSources.containsKey(tenant) || definitions.containsKey(tenant);
+    }
+
+    public Set<String> getTenants() {
+        Set<String> tenants = new TreeSet<>(configuredDataSources.keySet());
+        tenants.addAll(definitions.keySet());
+        return tenants;
+    }
+
+    /**
+     * Registers {@code tenant} and opens its pool, which migrates its database.
+     *
+     * @return {@code false} if the tenant is already registered
+     */
+    public boolean onboard(String tenant, DataSourceProperties dataSourceProperties) {
+        if (configuredDataSources.containsKey(tenant)
+                || definitions.putIfAbsent(tenant, dataSourceProperties) != null) {
+            return false;
+        }
+        try {
+            open(tenant, dataSourceProperties);
+        } catch (RuntimeException e) {
+            definitions.remove(tenant);
+            throw e;
+        }
+        log.info("Onboarded tenant {}", tenant);
+        return true;
+    }
+
+    /** Returns the data source of {@code tenant}, opening its pool if needed. */
+    public Optional<DataSource> getDataSource(String tenant) {
+        DataSource configuredDataSource = configuredDataSources.get(tenant);
+        if (configuredDataSource != null) {
+            return Optional.of(configuredDataSource);
+        }
+        DataSourceProperties definition = definitions.get(tenant);
+        if (definition == null) {
+            return Optional.empty();
+        }
+        TenantPool pool = pools.get(tenant);
+        if (pool == null || pool.dataSource().isClosed()) {
+            pool = open(tenant, definition);
+        }
+        pool.touch();
+        return Optional.of(pool.dataSource());
+    }
+
+    @Scheduled(fixedDelayString = "${application.tenants.eviction-interval:PT1M}")
+    void evictIdlePools() {
+        long idleSince = System.nanoTime() - properties.getEvictAfter().toNanos();
+        List<Map.Entry<String, TenantPool>> idlePools = new ArrayList<>();
+        budgetLock.lock();
+        try {
+            pools.forEach(
+                    (tenant, pool) -> {
+                        if (pool.lastUsed() - idleSince < 0
+                                && pool.activeConnections() == 0
+                                && pools.remove(tenant, pool)) {
+                            idlePools.add(Map.entry(tenant, pool));
+                        }
+                    });
+        } finally {
+            budgetLock.unlock();
+        }
+        idlePools.forEach(entry -> close(entry.getKey(), entry.getValue()));
+        budgetLock.lock();
+        try {
+            resize();
+        } finally {
+            budgetLock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(
+                (tenant, pool) -> {
+                    if (pools.remove(tenant, pool)) {
+                        close(tenant, pool);
+                    }
+                });
+    }
+
+    private TenantPool open(String tenant, DataSourceProperties definition) {
+        CompletableFuture<TenantPool> opening = new CompletableFuture<>();
+        CompletableFuture<TenantPool> openedElsewhere = openingPools.putIfAbsent(tenant, opening);
+        if (openedElsewhere != null) {
+            try {
+                return openedElsewhere.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            TenantPool pool = openPool(tenant, definition);
+            opening.complete(pool);
+            return pool;
+        } catch (RuntimeException e) {
+            opening.completeExceptionally(e);
+            throw e;
+        } finally {
+            openingPools.remove(tenant, opening);
+        }
+    }
+
+    private TenantPool openPool(String tenant, DataSourceProperties definition) {
+        TenantPool existing = pools.get(tenant);
+        if (existing != null && !existing.dataSource().isClosed()) {
+            return existing;
+        }
+        Map.Entry<String, TenantPool> evicted = null;
+        int maximumPoolSize;
+        budgetLock.lock();
+        try {
+            if (pools.size() + reservedPools >= properties.getMaxTotalConnections()) {
+                // every pool holds at least one connection, make room or give up
+                evicted =
+                        pools.entrySet().stream()
+                                .filter(entry -> entry.getValue().activeConnections() == 0)
+                                .min(Comparator.comparingLong(entry -> entry.getValue().lastUsed()))
+                                .orElseThrow(() -> budgetUsedUp(tenant));
+                pools.remove(evicted.getKey(), evicted.getValue());
+            }
+            reservedPools++;
+            maximumPoolSize = share(pools.size() + reservedPools);
+        } finally {
+            budgetLock.unlock();
+        }
+        if (evicted != null) {
+            close(evicted.getKey(), evicted.getValue());
+        }
+        TenantPool pool = null;
+        try {
+            pool = new TenantPool(createDataSource(tenant, definition, maximumPoolSize));
+        } finally {
+            budgetLock.lock();
+            try {
+                reservedPools--;
+                if (pool != null) {
+                    pools.put(tenant, pool);
+                }
+                resize();
+            } finally {
+                budgetLock.unlock();
+            }
+        }
+        log.info("Opened connection pool for tenant {}", tenant);
+        return pool;
+    }
+
+    private CannotGetJdbcConnectionException budgetUsedUp(String tenant) {
+        return new CannotGetJdbcConnectionException(
+                "Connection budget of %d is used up by busy tenant pools, cannot open one for tenant %s"
+                        .formatted(properties.getMaxTotalConnections(), tenant));
+    }
+
+    /** Builds the pool of {@code tenant} and migrates its database, without holding any lock. */
+    HikariDataSource createDataSource(
+            String tenant, DataSourceProperties definition, int maximumPoolSize) {
+        HikariDataSource dataSource =
+                definition.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("tenant-" + tenant);
+        dataSource.setAutoCommit(false);
+        dataSource.setMinimumIdle(0);
+        dataSource.setIdleTimeout(properties.getIdleTimeout().toMillis());
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        if (meterRegistry != null) {
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        try {
+            migrate(tenant, dataSource);
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+        return dataSource;
+    }
+
+    private void migrate(String tenant, DataSource dataSource) {
+        if (migratedTenants.contains(tenant)) {
+            return;
+        }
+        SpringLiquibase liquibase =
+                MultiDatasourceConfig.springLiquibase(dataSource, tenantLiquibaseProperties);
+        liquibase.setResourceLoader(resourceLoader);
+        try {
+            liquibase.afterPropertiesSet();
+        } catch (LiquibaseException e) {
+            throw new IllegalStateException("Migrating tenant " + tenant + " failed", e);
+        }
+        migratedTenants.add(tenant);
+    }
+
+    /** Closes a pool already taken out of {@code pools}. */
+    private void close(String tenant, TenantPool pool) {
+        pool.dataSource().close();
+        log.info("Closed idle connection pool of tenant {}", tenant);
+    }
+
+    /**
+     * Gives every open pool an equal share of the budget, shrinking pools as others open. Called
+     * with the budget lock held.
+     */
+    private void resize() {
+        int share = share(pools.size() + reservedPools);
+        pools.values().forEach(pool -> pool.dataSource().setMaximumPoolSize(share));
+    }
+
+    private int share(int openPools) {
+        return Math.clamp(
+                properties.getMaxTotalConnections() / Math.max(openPools, 1),
+                1,
+                properties.getMaxPoolSize());
+    }
+
+    private static final class TenantPool {
+
+        private final HikariDataSource dataSource;
+        private volatile long lastUsed = System.nanoTime();
+
+        private TenantPool(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        long lastUsed() {
+            return lastUsed;
+        }
+
+        void touch() {
+            lastUsed = System.nanoTime();
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+            return poolMXBean == null ? 0 : poolMXBean.getActiveConnections();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.multitenancy.db.config.multitenant;
 
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.HashMap;
 import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -7,28 +10,71 @@ import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitializat
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 import org.springframework.stereotype.Component;
 
+/**
+ * Routes to the data source {@link TenantRegistry} has for the current tenant.
+ *
+ * <p>The registry may close an idle tenant pool between handing it out and a connection being
+ * borrowed from it. Borrowing is then tried once more, on the pool the registry opens instead.
+ */
 @Component
 @DependsOnDatabaseInitialization
 class TenantRoutingDatasource extends AbstractRoutingDataSource {
 
     private final TenantIdentifierResolver tenantIdentifierResolver;
+    private final TenantRegistry tenantRegistry;
 
     TenantRoutingDatasource(
             TenantIdentifierResolver tenantIdentifierResolver,
-            @Qualifier("primaryDataSource") DataSource primaryDataSource,
-            @Qualifier("secondaryDataSource") DataSource secondaryDataSource) {
+            TenantRegistry tenantRegistry,
+            @Qualifier("primaryDataSource") DataSource primaryDataSource) {
         this.tenantIdentifierResolver = tenantIdentifierResolver;
+        this.tenantRegistry = tenantRegistry;
 
+        // unknown tenants are served by the primary data source, as before
         setDefaultTargetDataSource(primaryDataSource);
+        setTargetDataSources(new HashMap<>());
+    }
 
-        HashMap<Object, Object> targetDataSources = new HashMap<>();
-        targetDataSources.put("primary", primaryDataSource);
-        targetDataSources.put("secondary", secondaryDataSource);
-        setTargetDataSources(targetDataSources);
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource dataSource = determineTargetDataSource();
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            if (!isClosedPool(dataSource)) {
+                throw e;
+            }
+            return determineTargetDataSource().getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource dataSource = determineTargetDataSource();
+        try {
+            return dataSource.getConnection(username, password);
+        } catch (SQLException e) {
+            if (!isClosedPool(dataSource)) {
+                throw e;
+            }
+            return determineTargetDataSource().getConnection(username, password);
+        }
     }
 
     @Override
     protected String determineCurrentLookupKey() {
         return tenantIdentifierResolver.resolveCurrentTenantIdentifier();
     }
+
+    @Override
+    protected DataSource determineTargetDataSource() {
+        return tenantRegistry
+                .getDataSource(determineCurrentLookupKey())
+                .orElseGet(super::determineTargetDataSource);
+    }
+
+    private static boolean isClosedPool(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikariDataSource
+                && hikariDataSource.isClosed();
+    }
 }
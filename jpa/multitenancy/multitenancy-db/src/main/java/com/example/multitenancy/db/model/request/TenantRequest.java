@@ -0,0 +1,25 @@
+package com.example.multitenancy.db.model.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+public record TenantRequest(
+        @NotBlank(message = "Tenant cannot be blank")
+                @Pattern(regexp = "[a-zA-Z0-9_-]+", message = "Tenant must be a simple name")
+                String tenant,
+        @NotBlank(message = "Url cannot be blank") String url,
+        String username,
+        String password) {
+
+    private static final String DRIVER_CLASS_NAME = "org.postgresql.Driver";
+
+    public DataSourceProperties toDataSourceProperties() {
+        DataSourceProperties dataSourceProperties = new DataSourceProperties();
+        dataSourceProperties.setUrl(url);
+        dataSourceProperties.setUsername(username);
+        dataSourceProperties.setPassword(password);
+        dataSourceProperties.setDriverClassName(DRIVER_CLASS_NAME);
+        return dataSourceProperties;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.multitenancy.db.web.controllers;
+
+import com.example.multitenancy.db.config.ApplicationProperties;
+import com.example.multitenancy.db.config.multitenant.TenantRegistry;
+import com.example.multitenancy.db.model.request.TenantRequest;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+@RestController
+@RequestMapping("/api/tenants")
+@Slf4j
+class TenantController {
+
+    private static final String URL_PREFIX = "jdbc:postgresql://";
+
+    private final TenantRegistry tenantRegistry;
+    private final Set<String> allowedHosts;
+
+    TenantController(TenantRegistry tenantRegistry, ApplicationProperties properties) {
+        this.tenantRegistry = tenantRegistry;
+        this.allowedHosts = properties.getTenants().getAllowedHosts();
+    }
+
+    @GetMapping
+    Set<String> getAllTenants() {
+        return tenantRegistry.getTenants();
+    }
+
+    @PostMapping
+    ResponseEntity<Void> onboardTenant(@RequestBody @Validated TenantRequest tenantRequest) {
+        log.info("onboarding tenant : {}", tenantRequest.tenant());
+        if (!isAllowed(tenantRequest.url())) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Url must be a " + URL_PREFIX + " url to an allowed host, without parameters");
+        }
+        if (!tenantRegistry.onboard(
+                tenantRequest.tenant(), tenantRequest.toDataSourceProperties())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    /**
+     * Whether {@code url} points at a single PostgreSQL host of {@code
+     * application.tenants.allowed-hosts}. Connection parameters are refused, as some of them, such
+     * as {@code socketFactory}, name classes the driver would load.
+     */
+    private boolean isAllowed(String url) {
+        if (!url.startsWith(URL_PREFIX)) {
+            return false;
+        }
+        URI uri;
+        try {
+            uri = new URI(url.substring("jdbc:".length()));
+        } catch (URISyntaxException e) {
+            return false;
+        }
+        // several hosts, as in host1,host2/db, leave the host unset
+        return uri.getHost() != null
+                && uri.getUserInfo() == null
+                && uri.getRawQuery() == null
+                && uri.getRawFragment() == null
+                && allowedHosts.stream().anyMatch(uri.getHost()::equalsIgnoreCase);
+    }
+}
@@ -28,7 +28,8 @@ public class DBContainerInitializer
                         "datasource.primary.password=" + POSTGRE_SQL_CONTAINER.getPassword(),
                         "datasource.secondary.url=" + MARIA_DB_CONTAINER.getJdbcUrl(),
                         "datasource.secondary.username=" + MARIA_DB_CONTAINER.getUsername(),
-                        "datasource.secondary.password=" + MARIA_DB_CONTAINER.getPassword())
+                        "datasource.secondary.password=" + MARIA_DB_CONTAINER.getPassword(),
+                        "application.tenants.allowed-hosts=" + POSTGRE_SQL_CONTAINER.getHost())
                 .applyTo(configurableApplicationContext.getEnvironment());
     }
 }
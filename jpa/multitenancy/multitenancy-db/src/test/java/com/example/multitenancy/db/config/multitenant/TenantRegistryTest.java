@@ -0,0 +1,228 @@
+package com.example.multitenancy.db.config.multitenant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.example.multitenancy.db.config.ApplicationProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseProperties;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+/** Runs the registry against stub pools that neither connect nor migrate. */
+class TenantRegistryTest {
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // every stub pool opened per tenant, in the order they were opened
+    private final Map<String, List<HikariDataSource>> openedPools = new ConcurrentHashMap<>();
+    private final Set<String> busyTenants = ConcurrentHashMap.newKeySet();
+    private TenantRegistry tenantRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ApplicationProperties.Tenants tenants = applicationProperties.getTenants();
+        tenants.setMaxTotalConnections(10);
+        tenants.setMaxPoolSize(8);
+        for (String tenant : List.of("acme", "beta", "gamma")) {
+            tenants.getDefinitions().put(tenant, new DataSourceProperties());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (tenantRegistry != null) {
+            tenantRegistry.destroy();
+        }
+    }
+
+    @Test
+    void configuredTenantsAreServedByTheirOwnDataSources() {
+        tenantRegistry = newRegistry();
+
+        assertThat(tenantRegistry.getTenants())
+                .containsExactly("acme", "beta", "gamma", "primary", "secondary");
+        assertThat(tenantRegistry.getDataSource("unknown")).isEmpty();
+        assertThat(tenantRegistry.getDataSource("primary")).isPresent();
+        assertThat(openedPools).isEmpty();
+    }
+
+    @Test
+    void poolsShareTheBudget() {
+        tenantRegistry = newRegistry();
+
+        tenantRegistry.getDataSource("acme");
+        assertThat(pool("acme").getMaximumPoolSize()).isEqualTo(8);
+
+        tenantRegistry.getDataSource("beta");
+        tenantRegistry.getDataSource("gamma");
+
+        assertThat(List.of(pool("acme"), pool("beta"), pool("gamma")))
+                .extracting(HikariDataSource::getMaximumPoolSize)
+                .containsOnly(3);
+        assertThat(meterRegistry.get("tenant.pools.open").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void openPoolIsReused() {
+        tenantRegistry = newRegistry();
+
+        DataSource first = tenantRegistry.getDataSource("acme").orElseThrow();
+        DataSource second = tenantRegistry.getDataSource("acme").orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        verify(tenantRegistry, times(1)).createDataSource(eq("acme"), any(), anyInt());
+    }
+
+    @Test
+    void overBudgetClosesLeastRecentlyUsedIdlePool() {
+        applicationProperties.getTenants().setMaxTotalConnections(2);
+        tenantRegistry = newRegistry();
+        tenantRegistry.getDataSource("acme");
+        tenantRegistry.getDataSource("beta");
+
+        tenantRegistry.getDataSource("gamma");
+
+        assertThat(pool("acme").isClosed()).isTrue();
+        assertThat(pool("beta").isClosed()).isFalse();
+        assertThat(List.of(pool("beta"), pool("gamma")))
+                .extracting(HikariDataSource::getMaximumPoolSize)
+                .containsOnly(1);
+        assertThat(meterRegistry.get("tenant.pools.open").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void overBudgetWithOnlyBusyPoolsFails() {
+        applicationProperties.getTenants().setMaxTotalConnections(1);
+        busyTenants.add("acme");
+        tenantRegistry = newRegistry();
+        tenantRegistry.getDataSource("acme");
+
+        assertThatExceptionOfType(CannotGetJdbcConnectionException.class)
+                .isThrownBy(() -> tenantRegistry.getDataSource("beta"))
+                .withMessageContaining("budget of 1");
+        assertThat(pool("acme").isClosed()).isFalse();
+        assertThat(openedPools).doesNotContainKey("beta");
+
+        // a failed open gives its reservation back
+        busyTenants.remove("acme");
+        given(pool("acme").getHikariPoolMXBean()).willReturn(null);
+        assertThat(tenantRegistry.getDataSource("beta")).isPresent();
+    }
+
+    @Test
+    void evictIdlePoolsClosesIdlePoolsAndGrowsTheOthers() {
+        applicationProperties.getTenants().setEvictAfter(Duration.ZERO);
+        busyTenants.add("beta");
+        tenantRegistry = newRegistry();
+        tenantRegistry.getDataSource("acme");
+        tenantRegistry.getDataSource("beta");
+
+        tenantRegistry.evictIdlePools();
+
+        assertThat(pool("acme").isClosed()).isTrue();
+        assertThat(pool("beta").isClosed()).isFalse();
+        assertThat(pool("beta").getMaximumPoolSize()).isEqualTo(8);
+
+        // the next request of an evicted tenant opens a new pool
+        DataSource reopened = tenantRegistry.getDataSource("acme").orElseThrow();
+        assertThat(reopened).isSameAs(pool("acme")).isNotSameAs(openedPools.get("acme").getFirst());
+    }
+
+    @Test
+    void openingPoolOfOneTenantBlocksNeitherItsNextRequestsNorOtherTenants() throws Exception {
+        CountDownLatch acmeOpening = new CountDownLatch(1);
+        CountDownLatch releaseAcme = new CountDownLatch(1);
+        tenantRegistry = newRegistry();
+        doAnswer(
+                        invocation -> {
+                            acmeOpening.countDown();
+                            assertThat(releaseAcme.await(5, TimeUnit.SECONDS)).isTrue();
+                            return stubPool(invocation.getArgument(0), invocation.getArgument(2));
+                        })
+                .when(tenantRegistry)
+                .createDataSource(eq("acme"), any(), anyInt());
+
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<DataSource> first =
+                    requests.submit(() -> tenantRegistry.getDataSource("acme").orElseThrow());
+            assertThat(acmeOpening.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<DataSource> second =
+                    requests.submit(() -> tenantRegistry.getDataSource("acme").orElseThrow());
+
+            // acme is still migrating, beta opens all the same
+            assertThat(tenantRegistry.getDataSource("beta")).isPresent();
+            assertThat(first).isNotDone();
+
+            releaseAcme.countDown();
+            assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        }
+        verify(tenantRegistry, times(1)).createDataSource(eq("acme"), any(), anyInt());
+    }
+
+    private TenantRegistry newRegistry() {
+        TenantRegistry registry =
+                spy(
+                        new TenantRegistry(
+                                mock(DataSource.class),
+                                mock(DataSource.class),
+                                new LiquibaseProperties(),
+                                applicationProperties,
+                                new DefaultResourceLoader(),
+                                new StaticListableBeanFactory(
+                                                Map.of("meterRegistry", meterRegistry))
+                                        .getBeanProvider(MeterRegistry.class)));
+        doAnswer(invocation -> stubPool(invocation.getArgument(0), invocation.getArgument(2)))
+                .when(registry)
+                .createDataSource(anyString(), any(), anyInt());
+        return registry;
+    }
+
+    /** A pool that is never started, busy tenants report an active connection. */
+    private HikariDataSource stubPool(String tenant, int maximumPoolSize) {
+        HikariDataSource dataSource = spy(new HikariDataSource());
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        if (busyTenants.contains(tenant)) {
+            HikariPoolMXBean poolMXBean = mock(HikariPoolMXBean.class);
+            given(poolMXBean.getActiveConnections()).willReturn(1);
+            given(dataSource.getHikariPoolMXBean()).willReturn(poolMXBean);
+        }
+        openedPools.computeIfAbsent(tenant, key -> new CopyOnWriteArrayList<>()).add(dataSource);
+        return dataSource;
+    }
+
+    /** The pool opened last for {@code tenant}. */
+    private HikariDataSource pool(String tenant) {
+        return openedPools.get(tenant).getLast();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.multitenancy.db.config.multitenant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TenantRoutingDatasourceTest {
+
+    private final TenantRegistry tenantRegistry = mock(TenantRegistry.class);
+    private final TenantRoutingDatasource routingDatasource =
+            new TenantRoutingDatasource(
+                    new TenantIdentifierResolver(), tenantRegistry, mock(DataSource.class));
+
+    @BeforeEach
+    void setUp() {
+        TenantContextHolder.setTenant("acme");
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clear();
+    }
+
+    @Test
+    void poolClosedBeforeBorrowingIsReplaced() throws SQLException {
+        HikariDataSource closedPool = mock(HikariDataSource.class);
+        given(closedPool.getConnection()).willThrow(new SQLException("has been closed"));
+        given(closedPool.isClosed()).willReturn(true);
+        HikariDataSource reopenedPool = mock(HikariDataSource.class);
+        Connection connection = mock(Connection.class);
+        given(reopenedPool.getConnection()).willReturn(connection);
+        given(tenantRegistry.getDataSource("acme"))
+                .willReturn(Optional.of(closedPool), Optional.of(reopenedPool));
+
+        assertThat(routingDatasource.getConnection()).isSameAs(connection);
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() throws SQLException {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        given(pool.getConnection()).willThrow(new SQLException("connection refused"));
+        given(tenantRegistry.getDataSource("acme")).willReturn(Optional.of(pool));
+
+        assertThatExceptionOfType(SQLException.class)
+                .isThrownBy(routingDatasource::getConnection)
+                .withMessage("connection refused");
+        verify(tenantRegistry, times(1)).getDataSource("acme");
+    }
+}
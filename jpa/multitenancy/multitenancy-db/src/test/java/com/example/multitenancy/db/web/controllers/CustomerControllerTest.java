@@ -14,7 +14,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import com.example.multitenancy.db.config.multitenant.TenantIdentifierResolver;
+import com.example.multitenancy.db.config.multitenant.TenantRegistry;
 import com.example.multitenancy.db.entities.Customer;
 import com.example.multitenancy.db.services.CustomerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -38,12 +38,14 @@ class CustomerControllerTest {
     @Autowired private ObjectMapper objectMapper;
 
     @MockitoBean private CustomerService customerService;
-    @MockitoBean private TenantIdentifierResolver tenantIdentifierResolver;
+    @MockitoBean private TenantRegistry tenantRegistry;
 
     private List<Customer> customerList;
 
     @BeforeEach
     void setUp() {
+        given(tenantRegistry.isRegistered("primary")).willReturn(true);
+
         this.customerList = new ArrayList<>();
         this.customerList.add(new Customer(1L, "text 1"));
         this.customerList.add(new Customer(2L, "text 2"));
@@ -0,0 +1,100 @@
+package com.example.multitenancy.db.web.controllers;
+
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.multitenancy.db.common.AbstractIntegrationTest;
+import com.example.multitenancy.db.entities.Customer;
+import com.example.multitenancy.db.model.request.TenantRequest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+
+class TenantControllerIT extends AbstractIntegrationTest {
+
+    @Value("${datasource.primary.url}")
+    private String primaryUrl;
+
+    @Value("${datasource.primary.username}")
+    private String username;
+
+    @Value("${datasource.primary.password}")
+    private String password;
+
+    @Test
+    void shouldOnboardTenantWithoutRestart() throws Exception {
+        try (Connection connection = DriverManager.getConnection(primaryUrl, username, password);
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE acme");
+        }
+        TenantRequest tenantRequest =
+                new TenantRequest(
+                        "acme",
+                        primaryUrl.substring(0, primaryUrl.lastIndexOf('/')) + "/acme",
+                        username,
+                        password);
+
+        this.mockMvc
+                .perform(get("/api/customers").header("X-tenantId", "acme"))
+                .andExpect(status().isForbidden());
+        this.mockMvc
+                .perform(
+                        post("/api/tenants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(tenantRequest)))
+                .andExpect(status().isCreated());
+        this.mockMvc
+                .perform(
+                        post("/api/tenants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(tenantRequest)))
+                .andExpect(status().isConflict());
+        this.mockMvc
+                .perform(get("/api/tenants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasItem("acme")));
+
+        // Liquibase created the customers table in the new database
+        this.mockMvc
+                .perform(
+                        post("/api/customers")
+                                .header("X-tenantId", "acme")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        objectMapper.writeValueAsString(
+                                                new Customer(null, "Acme Customer"))))
+                .andExpect(status().isCreated());
+        this.mockMvc
+                .perform(get("/api/customers").header("X-tenantId", "acme"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(1)))
+                .andExpect(jsonPath("$[0].text", is("Acme Customer")));
+
+        this.mockMvc
+                .perform(
+                        get("/actuator/metrics/hikaricp.connections.max")
+                                .param("tag", "pool:tenant-acme"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value", is(10.0)));
+    }
+
+    @Test
+    void shouldReturn400WhenOnboardingTenantWithoutUrl() throws Exception {
+        TenantRequest tenantRequest = new TenantRequest("globex", null, null, null);
+
+        this.mockMvc
+                .perform(
+                        post("/api/tenants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(tenantRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", is("Invalid request content.")));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.multitenancy.db.web.controllers;
+
+import static com.example.multitenancy.db.utils.AppConstants.PROFILE_TEST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.multitenancy.db.config.multitenant.TenantRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+@WebMvcTest(controllers = TenantController.class)
+@ActiveProfiles(PROFILE_TEST)
+class TenantControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+
+    @MockitoBean private TenantRegistry tenantRegistry;
+
+    @Test
+    void shouldOnboardTenantOnAnAllowedHostWithThePostgresDriver() throws Exception {
+        given(tenantRegistry.onboard(eq("acme"), any())).willReturn(true);
+
+        this.mockMvc
+                .perform(
+                        post("/api/tenants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        objectMapper.writeValueAsString(
+                                                Map.of(
+                                                        "tenant", "acme",
+                                                        "url",
+                                                                "jdbc:postgresql://localhost:5432/acme",
+                                                        "driverClassName", "org.h2.Driver"))))
+                .andExpect(status().isCreated());
+
+        ArgumentCaptor<DataSourceProperties> definition =
+                ArgumentCaptor.forClass(DataSourceProperties.class);
+        verify(tenantRegistry).onboard(eq("acme"), definition.capture());
+        assertThat(definition.getValue().getDriverClassName()).isEqualTo("org.postgresql.Driver");
+    }
+
+    @ParameterizedTest
+    @ValueSource(
+            strings = {
+                "jdbc:postgresql://internal.example.com:5432/acme",
+                "jdbc:postgresql://localhost,internal.example.com/acme",
+                "jdbc:postgresql://localhost:5432/acme?socketFactory=com.example.Evil",
+                "jdbc:postgresql://user@localhost:5432/acme",
+                "jdbc:mysql://localhost:3306/acme",
+                "jdbc:h2:mem:acme"
+            })
+    void shouldReturn400WhenUrlIsNotAnAllowedPostgresHost(String url) throws Exception {
+        this.mockMvc
+                .perform(
+                        post("/api/tenants")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(
+                                        objectMapper.writeValueAsString(
+                                                Map.of("tenant", "acme", "url", url))))
+                .andExpect(status().isBadRequest());
+
+        verify(tenantRegistry, never()).onboard(anyString(), any());
+    }
+}
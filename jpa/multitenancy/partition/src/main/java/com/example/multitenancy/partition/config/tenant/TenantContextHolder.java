@@ -0,0 +1,49 @@
+package com.example.multitenancy.partition.config.tenant;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Holds the tenant of the request or task running on the current thread, so concurrent requests
+ * never see each other's tenant. {@link #runAs} sets a tenant for the duration of a task and puts
+ * back the one it replaced, like a {@code ScopedValue} binding; {@link #wrap} carries the current
+ * tenant over to a task that runs on another thread.
+ */
+public final class TenantContextHolder {
+
+    private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+
+    private TenantContextHolder() {}
+
+    @Nullable
+    public static String getTenant() {
+        return CURRENT_TENANT.get();
+    }
+
+    public static void setTenant(@Nullable String tenant) {
+        if (tenant == null) {
+            CURRENT_TENANT.remove();
+        } else {
+            CURRENT_TENANT.set(tenant);
+        }
+    }
+
+    public static void clear() {
+        CURRENT_TENANT.remove();
+    }
+
+    public static void runAs(@Nullable String tenant, Runnable task) {
+        String previousTenant = CURRENT_TENANT.get();
+        setTenant(tenant);
+        try {
+            task.run();
+        } finally {
+            setTenant(previousTenant);
+        }
+    }
+
+    /** Returns a task that runs {@code task} as the tenant of the thread calling this method. */
+    public static Runnable wrap(Runnable task) {
+        String tenant = CURRENT_TENANT.get();
+        return () -> runAs(tenant, task);
+    }
+}
@@ -1,22 +1,25 @@
 package com.example.multitenancy.partition.config.tenant;
 
 import java.util.Map;
-import lombok.Setter;
+import java.util.Objects;
 import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
-@Setter
 @Component()
 public class TenantIdentifierResolver
         implements CurrentTenantIdentifierResolver<String>, HibernatePropertiesCustomizer {
 
-    private String currentTenant = "unknown";
+    /** Sets the tenant of the current thread, see {@link TenantContextHolder}. */
+    public void setCurrentTenant(@Nullable String tenant) {
+        TenantContextHolder.setTenant(tenant);
+    }
 
     @Override
     public String resolveCurrentTenantIdentifier() {
-        return currentTenant;
+        return Objects.requireNonNullElse(TenantContextHolder.getTenant(), "unknown");
     }
 
     @Override
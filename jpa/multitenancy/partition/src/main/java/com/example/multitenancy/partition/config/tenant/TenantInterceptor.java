@@ -5,16 +5,16 @@ import static org.springframework.http.HttpStatus.FORBIDDEN;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
 import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 @Configuration(proxyBeanMethods = false)
-@RequiredArgsConstructor
 public class TenantInterceptor implements HandlerInterceptor {
 
-    private final TenantIdentifierResolver tenantIdentifierResolver;
+    private static final String PREVIOUS_TENANT =
+            TenantInterceptor.class.getName() + ".PREVIOUS_TENANT";
 
     @Override
     public boolean preHandle(
@@ -25,7 +25,18 @@ public class TenantInterceptor implements HandlerInterceptor {
             response.sendError(FORBIDDEN.value(), "Unknown user tenant");
             return false;
         }
-        tenantIdentifierResolver.setCurrentTenant(tenant);
+        request.setAttribute(PREVIOUS_TENANT, TenantContextHolder.getTenant());
+        TenantContextHolder.setTenant(tenant);
         return true;
     }
+
+    @Override
+    public void afterCompletion(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            Object handler,
+            @Nullable Exception ex) {
+        // the thread serves other requests next, so put back what was set before this one
+        TenantContextHolder.setTenant((String) request.getAttribute(PREVIOUS_TENANT));
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.multitenancy.partition.config.tenant;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs tasks handed to the application task executor, including {@code @Async} methods and the
+ * virtual thread executor, as the tenant that submitted them.
+ */
+@Component
+class TenantTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        return TenantContextHolder.wrap(runnable);
+    }
+}
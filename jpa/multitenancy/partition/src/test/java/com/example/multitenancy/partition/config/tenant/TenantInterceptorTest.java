@@ -0,0 +1,134 @@
+package com.example.multitenancy.partition.config.tenant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.lang.Nullable;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class TenantInterceptorTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantInterceptorTest.class);
+
+    private static final int REQUESTS = 20_000;
+
+    private final TenantInterceptor interceptor = new TenantInterceptor();
+    private final TenantIdentifierResolver resolver = new TenantIdentifierResolver();
+
+    @AfterEach
+    void tearDown() {
+        TenantContextHolder.clear();
+    }
+
+    /**
+     * Serves requests for both tenants at once on virtual threads, each one handing work to an
+     * {@code @Async} style executor half way, and counts every time a request sees another tenant.
+     */
+    @Test
+    void concurrentRequestsOnlySeeTheirOwnTenant() throws Exception {
+        SimpleAsyncTaskExecutor asyncExecutor = new SimpleAsyncTaskExecutor("async-");
+        asyncExecutor.setVirtualThreads(true);
+        asyncExecutor.setTaskDecorator(new TenantTaskDecorator());
+        AtomicInteger leaks = new AtomicInteger();
+        AtomicInteger served = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                String tenant = i % 2 == 0 ? "dbsystc" : "dbsystp";
+                futures.add(
+                        requests.submit(
+                                () -> {
+                                    serve(tenant, asyncExecutor, leaks);
+                                    served.incrementAndGet();
+                                    return null;
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        log.info(
+                "{} requests in {} ms, {} requests per second",
+                REQUESTS,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                REQUESTS * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+        assertThat(served).hasValue(REQUESTS);
+        assertThat(leaks).hasValue(0);
+    }
+
+    @Test
+    void afterCompletionRestoresTheTenantSetBeforeTheRequest() throws Exception {
+        TenantContextHolder.setTenant("dbsystp");
+        MockHttpServletRequest request = request("dbsystc");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(request, response, new Object())).isTrue();
+        assertThat(resolver.resolveCurrentTenantIdentifier()).isEqualTo("dbsystc");
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertThat(resolver.resolveCurrentTenantIdentifier()).isEqualTo("dbsystp");
+    }
+
+    @Test
+    void requestWithoutTenantIsRejected() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(request(null), response, new Object())).isFalse();
+
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(TenantContextHolder.getTenant()).isNull();
+        assertThat(resolver.resolveCurrentTenantIdentifier()).isEqualTo("unknown");
+    }
+
+    private void serve(String tenant, SimpleAsyncTaskExecutor asyncExecutor, AtomicInteger leaks)
+            throws Exception {
+        MockHttpServletRequest request = request(tenant);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        if (!interceptor.preHandle(request, response, new Object())) {
+            leaks.incrementAndGet();
+            return;
+        }
+        try {
+            // lets other requests run on this carrier thread in between
+            Thread.sleep(1);
+            String asyncTenant =
+                    asyncExecutor
+                            .submitCompletable(resolver::resolveCurrentTenantIdentifier)
+                            .get(1, TimeUnit.MINUTES);
+            if (!tenant.equals(resolver.resolveCurrentTenantIdentifier())
+                    || !tenant.equals(asyncTenant)) {
+                leaks.incrementAndGet();
+            }
+        } finally {
+            interceptor.afterCompletion(request, response, new Object(), null);
+        }
+        if (TenantContextHolder.getTenant() != null) {
+            leaks.incrementAndGet();
+        }
+    }
+
+    private static MockHttpServletRequest request(@Nullable String tenant) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers");
+        request.setServletPath("/api/customers");
+        if (tenant != null) {
+            request.setParameter("tenant", tenant);
+        }
+        return request;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.cache.config;
 
+import java.time.Duration;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
@@ -9,6 +10,9 @@ public class ApplicationProperties {
     @NestedConfigurationProperty
     private Cors cors = new Cors();
 
+    @NestedConfigurationProperty
+    private NearCache nearCache = new NearCache();
+
     public Cors getCors() {
         return cors;
     }
@@ -17,6 +21,14 @@ public class ApplicationProperties {
         this.cors = cors;
     }
 
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    public void setNearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
     public static class Cors {
         private String allowedHeaders = "*";
         private String allowedOriginPatterns = "*";
@@ -64,4 +76,43 @@ public class ApplicationProperties {
             this.allowedMethods = allowedMethods;
         }
     }
+
+    public static class NearCache {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration timeToLive = Duration.ofSeconds(30);
+        private double earlyRefreshBeta = 1.0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public double getEarlyRefreshBeta() {
+            return earlyRefreshBeta;
+        }
+
+        public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+        }
+    }
 }
@@ -1,6 +1,11 @@
 package com.example.cache.repositories;
 
 import com.example.cache.entities.Movie;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
 
-public interface MovieRepository extends ReactiveCrudRepository<Movie, Long> {}
+public interface MovieRepository extends ReactiveCrudRepository<Movie, Long> {
+
+    Flux<Movie> findAllBy(Pageable pageable);
+}
@@ -0,0 +1,188 @@
+package com.example.cache.services;
+
+import com.example.cache.entities.Movie;
+import com.example.cache.repositories.MovieRepository;
+import com.example.cache.utils.AppConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pages through the cached movies in id order without {@code KEYS}.
+ *
+ * <p>The ids of all cached movies are kept in the sorted set {@value #ID_INDEX_KEY}, scored by id,
+ * so a page is a single {@code ZRANGE} followed by {@code MGET}s of at most {@value #MGET_CHUNK}
+ * keys. The index is only trusted once {@value #READY_KEY} exists: the first listing on a cold
+ * redis loads every movie from the database, and concurrent listings wait for that same load
+ * instead of starting their own. Ids whose value has been evicted are read back from the database,
+ * ids of movies that no longer exist are dropped from the index.
+ */
+@Component
+public class MovieListingCache {
+
+    static final String ID_INDEX_KEY = AppConstants.MOVIE_KEY + "ids";
+    static final String READY_KEY = AppConstants.MOVIE_KEY + "ids:ready";
+
+    private static final int MGET_CHUNK = 500;
+
+    private final ReactiveValueOperations<String, Movie> valueOperations;
+    private final ReactiveZSetOperations<String, String> idIndex;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final MovieRepository movieRepository;
+    private final AtomicReference<Mono<Void>> warmUp = new AtomicReference<>();
+    private final Counter warmUps;
+    private final Counter coalescedWarmUps;
+
+    public MovieListingCache(
+            ReactiveRedisTemplate<String, Movie> reactiveRedisTemplate,
+            ReactiveStringRedisTemplate stringRedisTemplate,
+            MovieRepository movieRepository,
+            MeterRegistry meterRegistry) {
+        this.valueOperations = reactiveRedisTemplate.opsForValue();
+        this.idIndex = stringRedisTemplate.opsForZSet();
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.movieRepository = movieRepository;
+        this.warmUps = Counter.builder("movie.cache.listing.warmups")
+                .description("Loads of every movie into the listing cache")
+                .tag("result", "loaded")
+                .register(meterRegistry);
+        this.coalescedWarmUps = Counter.builder("movie.cache.listing.warmups")
+                .description("Loads of every movie into the listing cache")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+    }
+
+    /** Returns the movies at {@code offset} in id order, and the number of movies in total. */
+    public Mono<MoviePage> page(long offset, int limit, Sort.Direction direction) {
+        return ready().then(Mono.zip(pageIds(offset, limit, direction), idIndex.size(ID_INDEX_KEY)))
+                .flatMap(idsAndTotal ->
+                        fetch(idsAndTotal.getT1()).map(movies -> new MoviePage(movies, idsAndTotal.getT2())));
+    }
+
+    /** Caches the movie and adds it to the index. */
+    public Mono<Movie> add(Movie movie) {
+        return valueOperations
+                .set(key(movie.id()), movie)
+                .then(idIndex.add(ID_INDEX_KEY, String.valueOf(movie.id()), movie.id()))
+                .thenReturn(movie);
+    }
+
+    /** Removes the movie from the index, its value is evicted by {@link MovieNearCache}. */
+    public Mono<Long> remove(Long id) {
+        return idIndex.remove(ID_INDEX_KEY, String.valueOf(id));
+    }
+
+    /** Completes once the index holds every movie, loading them if it does not yet. */
+    Mono<Void> ready() {
+        return stringRedisTemplate.hasKey(READY_KEY).flatMap(ready -> ready ? Mono.empty() : warmUp());
+    }
+
+    private Mono<Void> warmUp() {
+        return Mono.defer(() -> {
+            Mono<Void> inFlight = warmUp.get();
+            if (inFlight != null) {
+                coalescedWarmUps.increment();
+                return inFlight;
+            }
+            Mono<Void> load = movieRepository
+                    .findAll()
+                    .buffer(MGET_CHUNK)
+                    .concatMap(this::addAll)
+                    .then(stringRedisTemplate.opsForValue().set(READY_KEY, "1"))
+                    .doOnSubscribe(subscription -> warmUps.increment())
+                    .then()
+                    .doFinally(signal -> warmUp.set(null))
+                    .cache();
+            // whoever loses the race joins the winner
+            return warmUp.compareAndSet(null, load) ? load : warmUp();
+        });
+    }
+
+    private Mono<Void> addAll(List<Movie> movies) {
+        Map<String, Movie> values = movies.stream().collect(Collectors.toMap(movie -> key(movie.id()), movie -> movie));
+        Collection<ZSetOperations.TypedTuple<String>> ids = movies.stream()
+                .map(movie -> (ZSetOperations.TypedTuple<String>) new DefaultTypedTuple<>(
+                        String.valueOf(movie.id()), movie.id().doubleValue()))
+                .toList();
+        return valueOperations
+                .multiSet(values)
+                .then(idIndex.addAll(ID_INDEX_KEY, ids))
+                .then();
+    }
+
+    private Mono<List<Long>> pageIds(long offset, int limit, Sort.Direction direction) {
+        Range<Long> range = Range.closed(offset, offset + limit - 1);
+        Flux<String> ids = direction.isDescending()
+                ? idIndex.reverseRange(ID_INDEX_KEY, range)
+                : idIndex.range(ID_INDEX_KEY, range);
+        return ids.map(Long::valueOf).collectList();
+    }
+
+    /** Reads the movies in chunks of {@code MGET}s, keeping the order of {@code ids}. */
+    private Mono<List<Movie>> fetch(List<Long> ids) {
+        return Flux.fromIterable(ids)
+                .buffer(MGET_CHUNK)
+                // lettuce pipelines the chunks on its shared connection
+                .flatMapSequential(chunk -> valueOperations
+                        .multiGet(chunk.stream().map(MovieListingCache::key).toList())
+                        .flatMap(values -> backfill(chunk, values)))
+                .flatMapIterable(Function.identity())
+                .collectList();
+    }
+
+    /** Replaces values missing from redis with the database copy, forgets movies that are gone. */
+    private Mono<List<Movie>> backfill(List<Long> ids, List<Movie> values) {
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (values.get(i) == null) {
+                missing.add(ids.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return Mono.just(values);
+        }
+        return movieRepository.findAllById(missing).collectMap(Movie::id).flatMap(found -> {
+            Map<Long, Movie> loaded = new HashMap<>(found);
+            List<String> gone = missing.stream()
+                    .filter(id -> !loaded.containsKey(id))
+                    .map(String::valueOf)
+                    .toList();
+            List<Movie> movies = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                movies.add(values.get(i) != null ? values.get(i) : loaded.get(ids.get(i)));
+            }
+            Mono<Void> repair = loaded.isEmpty() ? Mono.empty() : addAll(List.copyOf(loaded.values()));
+            if (!gone.isEmpty()) {
+                repair = repair.then(idIndex.remove(ID_INDEX_KEY, gone.toArray()))
+                        .then();
+            }
+            return repair.thenReturn(movies.stream().filter(Objects::nonNull).toList());
+        });
+    }
+
+    private static String key(Long id) {
+        return AppConstants.MOVIE_KEY + id;
+    }
+
+    /** A page of cached movies and the number of movies in the index. */
+    public record MoviePage(List<Movie> movies, long total) {}
+}
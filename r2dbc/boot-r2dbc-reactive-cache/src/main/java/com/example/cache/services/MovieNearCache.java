@@ -0,0 +1,302 @@
+package com.example.cache.services;
+
+import com.example.cache.config.ApplicationProperties;
+import com.example.cache.entities.Movie;
+import com.example.cache.utils.AppConstants;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Two tier cache of movies by id: a bounded in process cache (L1) in front of redis (L2), the
+ * database behind both.
+ *
+ * <p>Every change made through this cache is published on {@value #INVALIDATION_CHANNEL} so that
+ * the other instances drop their L1 copy. Messages are {@code <instance id>|<movie id>}, or {@code
+ * *} instead of the movie id to drop everything, and an instance ignores its own. While the
+ * subscription is down L1 may serve stale movies, so it is cleared whenever the subscription is
+ * (re)established; entries never outlive {@code time-to-live} either way.
+ *
+ * <p>Concurrent misses for the same movie share one load. Hot movies are reloaded before their L1
+ * entry expires, XFetch style: a hit reloads in the background with a probability that grows as
+ * the expiry nears, scaled by how long the entry took to load and by {@code early-refresh-beta}.
+ */
+@Component
+public class MovieNearCache implements DisposableBean {
+
+    static final String INVALIDATION_CHANNEL = "movie:invalidations";
+
+    private static final Logger log = LoggerFactory.getLogger(MovieNearCache.class);
+
+    private static final String ALL = "*";
+    private static final String SEPARATOR = "|";
+
+    private final ReactiveRedisTemplate<String, Movie> reactiveRedisTemplate;
+    private final ReactiveValueOperations<String, Movie> valueOperations;
+    private final ReactiveStringRedisTemplate messagingTemplate;
+    private final boolean enabled;
+    private final Cache<Long, CachedMovie> local;
+    private final Duration timeToLive;
+    private final double earlyRefreshBeta;
+    private final ConcurrentMap<Long, Mono<Movie>> loads = new ConcurrentHashMap<>();
+    private final String instanceId = UUID.randomUUID().toString();
+    // bumped on every invalidation, a load only fills L1 if none happened while it ran
+    private final AtomicLong invalidations = new AtomicLong();
+    private final TierMetrics l1;
+    private final TierMetrics l2;
+    private final Timer databaseLatency;
+    private final Counter remoteInvalidations;
+    private final Counter loaded;
+    private final Counter coalesced;
+    private final Counter earlyRefreshes;
+    private Disposable subscription;
+
+    public MovieNearCache(
+            ReactiveRedisTemplate<String, Movie> reactiveRedisTemplate,
+            ReactiveStringRedisTemplate messagingTemplate,
+            ApplicationProperties applicationProperties,
+            MeterRegistry meterRegistry) {
+        ApplicationProperties.NearCache properties = applicationProperties.getNearCache();
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.valueOperations = reactiveRedisTemplate.opsForValue();
+        this.messagingTemplate = messagingTemplate;
+        this.enabled = properties.isEnabled();
+        this.timeToLive = properties.getTimeToLive();
+        this.earlyRefreshBeta = properties.getEarlyRefreshBeta();
+        this.local = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .build();
+        this.l1 = new TierMetrics("l1", meterRegistry);
+        this.l2 = new TierMetrics("l2", meterRegistry);
+        this.databaseLatency = latencyTimer("database", meterRegistry);
+        this.remoteInvalidations = Counter.builder("movie.cache.invalidations")
+                .description("Movies dropped from L1 because another instance changed them")
+                .register(meterRegistry);
+        this.loaded = Counter.builder("movie.cache.loads")
+                .description("Lookups that missed L1, by whether they shared a load already in flight")
+                .tag("result", "loaded")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("movie.cache.loads")
+                .description("Lookups that missed L1, by whether they shared a load already in flight")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        this.earlyRefreshes = Counter.builder("movie.cache.early.refreshes")
+                .description("L1 entries reloaded before they expired")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("movie.cache.l1.size", Tags.empty(), local.asMap());
+    }
+
+    /** Looks the movie up in L1, then redis, then {@code loader}, filling the tiers it missed. */
+    public Mono<Movie> get(Long id, Function<Long, Mono<Movie>> loader) {
+        return Mono.defer(() -> {
+            long generation = invalidations.get();
+            if (enabled) {
+                long start = System.nanoTime();
+                CachedMovie cached = local.getIfPresent(id);
+                l1.record(start, cached != null);
+                if (cached != null) {
+                    if (cached.refreshEarly(earlyRefreshBeta, start)) {
+                        earlyRefreshes.increment();
+                        load(id, loader, generation)
+                                .subscribe(
+                                        movie -> {}, error -> log.warn("Early refresh of movie {} failed", id, error));
+                    }
+                    return Mono.just(cached.movie());
+                }
+            }
+            return load(id, loader, generation);
+        });
+    }
+
+    /** Stores the changed movie in both tiers and tells the other instances to drop theirs. */
+    public Mono<Movie> put(Movie movie) {
+        invalidateLocal(movie.id());
+        return valueOperations
+                .set(key(movie.id()), movie)
+                .then(publish(String.valueOf(movie.id())))
+                .doOnSuccess(published -> fillLocal(movie.id(), movie, invalidations.get(), 0))
+                .thenReturn(movie);
+    }
+
+    /** Removes the movie from both tiers on every instance, returns the number of redis keys removed. */
+    public Mono<Long> evict(Long id) {
+        invalidateLocal(id);
+        return reactiveRedisTemplate.delete(key(id)).flatMap(deleted -> publish(String.valueOf(id))
+                .thenReturn(deleted));
+    }
+
+    /** Drops L1 on every instance, for when redis was cleared by other means. */
+    public Mono<Void> invalidateAll() {
+        invalidateLocal(null);
+        return publish(ALL).then();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void subscribe() {
+        subscription = messagingTemplate
+                .listenToChannel(INVALIDATION_CHANNEL)
+                // whatever was published while we were not listening is lost
+                .doOnSubscribe(s -> invalidateLocal(null))
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(this::onInvalidation)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal ->
+                                log.warn("Lost subscription to {}, retrying", INVALIDATION_CHANNEL, signal.failure())))
+                .subscribe();
+    }
+
+    void onInvalidation(String message) {
+        int separator = message.indexOf(SEPARATOR);
+        if (separator < 0 || message.startsWith(instanceId + SEPARATOR)) {
+            return;
+        }
+        String id = message.substring(separator + 1);
+        remoteInvalidations.increment();
+        invalidateLocal(ALL.equals(id) ? null : Long.valueOf(id));
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /** Reads the movie from redis or the database, sharing a read already in flight for it. */
+    private Mono<Movie> load(Long id, Function<Long, Mono<Movie>> loader, long generation) {
+        Mono<Movie> inFlight = loads.get(id);
+        if (inFlight != null) {
+            coalesced.increment();
+            return inFlight;
+        }
+        AtomicReference<Mono<Movie>> self = new AtomicReference<>();
+        long start = System.nanoTime();
+        Mono<Movie> load = fromRedis(id)
+                .switchIfEmpty(fromDatabase(id, loader))
+                .doOnNext(movie -> fillLocal(id, movie, generation, System.nanoTime() - start))
+                .doFinally(signal -> loads.remove(id, self.get()))
+                .cache();
+        self.set(load);
+        Mono<Movie> winner = loads.putIfAbsent(id, load);
+        if (winner != null) {
+            coalesced.increment();
+            return winner;
+        }
+        loaded.increment();
+        return load;
+    }
+
+    private Mono<Movie> fromRedis(Long id) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return valueOperations.get(key(id)).doOnSuccess(movie -> l2.record(start, movie != null));
+        });
+    }
+
+    private Mono<Movie> fromDatabase(Long id, Function<Long, Mono<Movie>> loader) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return loader.apply(id)
+                    .doOnSuccess(movie -> databaseLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnNext(
+                            movie -> Mono.defer(() -> valueOperations.set(key(movie.id()), movie))
+                                    .subscribeOn(Schedulers.boundedElastic())
+                                    .subscribe() // Asynchronously update the cache
+                            );
+        });
+    }
+
+    private void fillLocal(Long id, Movie movie, long generation, long loadNanos) {
+        if (enabled && invalidations.get() == generation) {
+            local.put(id, new CachedMovie(movie, loadNanos, System.nanoTime() + timeToLive.toNanos()));
+        }
+    }
+
+    /** Drops {@code id} from L1, or everything when it is {@code null}. */
+    private void invalidateLocal(Long id) {
+        invalidations.incrementAndGet();
+        if (id == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(id);
+        }
+    }
+
+    private Mono<Long> publish(String id) {
+        return messagingTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + SEPARATOR + id);
+    }
+
+    private static String key(Long id) {
+        return AppConstants.MOVIE_KEY + id;
+    }
+
+    private static Timer latencyTimer(String tier, MeterRegistry meterRegistry) {
+        return Timer.builder("movie.cache.latency")
+                .description("Time taken to look a movie up in one tier")
+                .tag("tier", tier)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /** A movie in L1 with what XFetch needs: how long it took to load and when it expires. */
+    record CachedMovie(Movie movie, long loadNanos, long expiresAtNanos) {
+
+        boolean refreshEarly(double beta, long nowNanos) {
+            // log of (0, 1] is never positive, so this moves "now" forward by a random amount
+            double random = 1 - ThreadLocalRandom.current().nextDouble();
+            return nowNanos - loadNanos * beta * Math.log(random) >= expiresAtNanos;
+        }
+    }
+
+    private static final class TierMetrics {
+
+        private final Timer latency;
+        private final Counter hits;
+        private final Counter misses;
+
+        TierMetrics(String tier, MeterRegistry meterRegistry) {
+            this.latency = latencyTimer(tier, meterRegistry);
+            this.hits = Counter.builder("movie.cache.requests")
+                    .tag("tier", tier)
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            this.misses = Counter.builder("movie.cache.requests")
+                    .tag("tier", tier)
+                    .tag("result", "miss")
+                    .register(meterRegistry);
+        }
+
+        void record(long startNanos, boolean hit) {
+            latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            (hit ? hits : misses).increment();
+        }
+    }
+}
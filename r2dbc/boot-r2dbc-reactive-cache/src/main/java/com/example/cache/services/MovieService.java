@@ -2,17 +2,21 @@ package com.example.cache.services;
 
 import com.example.cache.entities.Movie;
 import com.example.cache.mapper.MovieMapper;
+import com.example.cache.model.query.FindMoviesQuery;
 import com.example.cache.model.request.MovieRequest;
 import com.example.cache.model.response.MovieResponse;
+import com.example.cache.model.response.PagedResult;
 import com.example.cache.repositories.MovieRepository;
-import com.example.cache.utils.AppConstants;
+import com.example.cache.utils.PageUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.redis.core.ReactiveRedisTemplate;
-import org.springframework.data.redis.core.ReactiveValueOperations;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 @Service
 @Transactional(readOnly = true)
@@ -21,72 +25,58 @@ public class MovieService {
     private final MovieRepository movieRepository;
     private final MovieMapper movieMapper;
     private final ReactiveRedisTemplate<String, Movie> reactiveRedisTemplate;
-    private final ReactiveValueOperations<String, Movie> stringMovieReactiveValueOperations;
+    private final MovieNearCache movieNearCache;
+    private final MovieListingCache movieListingCache;
 
     public MovieService(
             MovieRepository movieRepository,
             MovieMapper movieMapper,
-            ReactiveRedisTemplate<String, Movie> reactiveRedisTemplate) {
+            ReactiveRedisTemplate<String, Movie> reactiveRedisTemplate,
+            MovieNearCache movieNearCache,
+            MovieListingCache movieListingCache) {
         this.movieRepository = movieRepository;
         this.movieMapper = movieMapper;
         this.reactiveRedisTemplate = reactiveRedisTemplate;
-        this.stringMovieReactiveValueOperations = reactiveRedisTemplate.opsForValue();
+        this.movieNearCache = movieNearCache;
+        this.movieListingCache = movieListingCache;
     }
 
-    public Flux<MovieResponse> findAll() {
-        return reactiveRedisTemplate
-                .keys(AppConstants.MOVIE_KEY + "*")
-                // Fetching cached movies.
-                .flatMap(stringMovieReactiveValueOperations::get)
-                // If cache is empty, fetch the database for movies
-                .switchIfEmpty(movieRepository
-                        .findAll()
-                        // Persisting the fetched movies in the cache.
-                        .doOnNext(
-                                movie -> Mono.defer(() -> stringMovieReactiveValueOperations.set(
-                                                AppConstants.MOVIE_KEY + movie.id(), movie))
-                                        .subscribeOn(Schedulers.boundedElastic())
-                                        .subscribe() // Asynchronously update the cache
-                                ))
-                .map(movieMapper::toResponse);
+    public Mono<PagedResult<MovieResponse>> findAllMovies(FindMoviesQuery findMoviesQuery) {
+        Pageable pageable = PageUtils.createPageable(findMoviesQuery);
+        Sort.Order order = pageable.getSort().iterator().next();
+        Mono<Page<Movie>> page;
+        if ("id".equals(order.getProperty())) {
+            // the cached index is ordered by id
+            page = movieListingCache
+                    .page(pageable.getOffset(), pageable.getPageSize(), order.getDirection())
+                    .map(moviePage -> new PageImpl<>(moviePage.movies(), pageable, moviePage.total()));
+        } else {
+            page = movieRepository
+                    .findAllBy(pageable)
+                    .collectList()
+                    .zipWith(movieRepository.count())
+                    .map(moviesAndTotal -> new PageImpl<>(moviesAndTotal.getT1(), pageable, moviesAndTotal.getT2()));
+        }
+        return page.map(moviePage -> new PagedResult<>(
+                moviePage,
+                moviePage.getContent().stream().map(movieMapper::toResponse).toList()));
     }
 
     public Mono<MovieResponse> findMovieById(Long id) {
-        return stringMovieReactiveValueOperations
-                .get(AppConstants.MOVIE_KEY + id)
-                .switchIfEmpty(movieRepository
-                        .findById(id)
-                        .doOnNext(
-                                movie -> Mono.defer(() -> stringMovieReactiveValueOperations.set(
-                                                AppConstants.MOVIE_KEY + movie.id(), movie))
-                                        .subscribeOn(Schedulers.boundedElastic())
-                                        .subscribe() // Asynchronously update the cache
-                                ))
-                .map(movieMapper::toResponse);
+        return movieNearCache.get(id, movieRepository::findById).map(movieMapper::toResponse);
     }
 
     @Transactional
     public Flux<Movie> saveAllMovies(Flux<Movie> movieFlux) {
-        return movieRepository
-                .saveAll(movieFlux)
-                .doOnNext(
-                        movie -> Mono.defer(() -> stringMovieReactiveValueOperations.set(
-                                        AppConstants.MOVIE_KEY + movie.id(), movie))
-                                .subscribeOn(Schedulers.boundedElastic())
-                                .subscribe() // Asynchronously update the cache
-                        );
+        // cached before they are returned, so that listings include them right away
+        return movieRepository.saveAll(movieFlux).concatMap(movieListingCache::add);
     }
 
     @Transactional
     public Mono<MovieResponse> saveMovie(MovieRequest movieRequest) {
         return Mono.just(movieMapper.toEntity(movieRequest))
                 .flatMap(movieRepository::save)
-                .doOnNext(
-                        movie -> Mono.defer(() -> stringMovieReactiveValueOperations.set(
-                                        AppConstants.MOVIE_KEY + movie.id(), movie))
-                                .subscribeOn(Schedulers.boundedElastic())
-                                .subscribe() // Asynchronously update the cache
-                        )
+                .flatMap(movieListingCache::add)
                 .map(movieMapper::toResponse);
     }
 
@@ -96,18 +86,14 @@ public class MovieService {
                 .findById(id)
                 .map(movie -> movieMapper.mapMovieWithRequest(movie, movieRequest))
                 .flatMap(movieRepository::save)
-                .publishOn(Schedulers.boundedElastic())
-                .doOnNext(
-                        movie -> Mono.defer(() -> stringMovieReactiveValueOperations.set(
-                                        AppConstants.MOVIE_KEY + movie.id(), movie))
-                                .subscribe() // Asynchronously update the cache
-                        )
+                // other instances must drop their copy before the update is acknowledged
+                .flatMap(movieNearCache::put)
                 .map(movieMapper::toResponse);
     }
 
     @Transactional
     public Mono<Long> deleteMovieById(Long id) {
-        return movieRepository.deleteById(id).then(reactiveRedisTemplate.delete(AppConstants.MOVIE_KEY + id));
+        return movieRepository.deleteById(id).then(movieListingCache.remove(id)).then(movieNearCache.evict(id));
     }
 
     @Transactional
@@ -119,6 +105,7 @@ public class MovieService {
                         .getReactiveConnection()
                         .serverCommands()
                         .flushDb()
-                        .single());
+                        .single())
+                .flatMap(result -> movieNearCache.invalidateAll().thenReturn(result));
     }
 }
@@ -0,0 +1,22 @@
+package com.example.cache.utils;
+
+import com.example.cache.model.query.FindMoviesQuery;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+public final class PageUtils {
+
+    public static Pageable createPageable(FindMoviesQuery findMoviesQuery) {
+        int pageNo = Math.max(findMoviesQuery.pageNo() - 1, 0);
+        Sort sort = Sort.by(
+                findMoviesQuery.sortDir().equalsIgnoreCase(Sort.Direction.ASC.name())
+                        ? Sort.Order.asc(findMoviesQuery.sortBy())
+                        : Sort.Order.desc(findMoviesQuery.sortBy()));
+        return PageRequest.of(pageNo, findMoviesQuery.pageSize(), sort);
+    }
+
+    private PageUtils() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.cache.web.controllers;
 
 import com.example.cache.exception.MovieNotFoundException;
+import com.example.cache.model.query.FindMoviesQuery;
 import com.example.cache.model.request.MovieRequest;
 import com.example.cache.model.response.MovieResponse;
+import com.example.cache.model.response.PagedResult;
 import com.example.cache.services.MovieService;
+import com.example.cache.utils.AppConstants;
 import jakarta.validation.Valid;
 import java.net.URI;
 import org.springframework.http.ResponseEntity;
@@ -15,9 +18,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -31,8 +34,13 @@ class MovieController {
     }
 
     @GetMapping
-    public Flux<MovieResponse> findAll() {
-        return movieService.findAll();
+    Mono<PagedResult<MovieResponse>> getAllMovies(
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_NUMBER, required = false) int pageNo,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_PAGE_SIZE, required = false) int pageSize,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_BY, required = false) String sortBy,
+            @RequestParam(defaultValue = AppConstants.DEFAULT_SORT_DIRECTION, required = false) String sortDir) {
+        FindMoviesQuery findMoviesQuery = new FindMoviesQuery(pageNo, pageSize, sortBy, sortDir);
+        return movieService.findAllMovies(findMoviesQuery);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,104 @@
+package com.example.cache.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.cache.entities.Movie;
+import com.example.cache.repositories.MovieRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ReactiveZSetOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class MovieListingCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final ReactiveRedisTemplate<String, Movie> reactiveRedisTemplate = mock(ReactiveRedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final ReactiveValueOperations<String, Movie> valueOperations = mock(ReactiveValueOperations.class);
+
+    @SuppressWarnings("unchecked")
+    private final ReactiveZSetOperations<String, String> idIndex = mock(ReactiveZSetOperations.class);
+
+    @SuppressWarnings("unchecked")
+    private final ReactiveValueOperations<String, String> stringOperations = mock(ReactiveValueOperations.class);
+
+    private final ReactiveStringRedisTemplate stringRedisTemplate = mock(ReactiveStringRedisTemplate.class);
+
+    private final MovieRepository movieRepository = mock(MovieRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MovieListingCache movieListingCache;
+
+    @BeforeEach
+    void setUp() {
+        when(reactiveRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(idIndex);
+        when(stringRedisTemplate.opsForValue()).thenReturn(stringOperations);
+        when(stringOperations.set(anyString(), anyString())).thenReturn(Mono.just(true));
+        when(valueOperations.multiSet(anyMap())).thenReturn(Mono.just(true));
+        when(idIndex.addAll(anyString(), anyCollection())).thenReturn(Mono.just(1L));
+        when(idIndex.size(MovieListingCache.ID_INDEX_KEY)).thenReturn(Mono.just(3L));
+        movieListingCache =
+                new MovieListingCache(reactiveRedisTemplate, stringRedisTemplate, movieRepository, meterRegistry);
+    }
+
+    @Test
+    void concurrentListingsOnAColdCacheLoadTheDatabaseOnce() {
+        when(stringRedisTemplate.hasKey(MovieListingCache.READY_KEY)).thenReturn(Mono.just(false));
+        when(movieRepository.findAll())
+                .thenReturn(
+                        Flux.just(new Movie(1L, "Heat"), new Movie(2L, "Ronin")).delayElements(Duration.ofMillis(50)));
+
+        Flux.range(0, 8).flatMap(i -> movieListingCache.ready()).then().block(Duration.ofSeconds(5));
+
+        verify(movieRepository, times(1)).findAll();
+        verify(stringOperations).set(MovieListingCache.READY_KEY, "1");
+        assertThat(meterRegistry
+                        .counter("movie.cache.listing.warmups", "result", "coalesced")
+                        .count())
+                .isEqualTo(7);
+    }
+
+    @Test
+    void pagesFromTheIndexAndBackfillsEvictedValues() {
+        when(stringRedisTemplate.hasKey(MovieListingCache.READY_KEY)).thenReturn(Mono.just(true));
+        when(idIndex.reverseRange(MovieListingCache.ID_INDEX_KEY, Range.closed(0L, 2L)))
+                .thenReturn(Flux.just("3", "2", "1"));
+        when(valueOperations.multiGet(List.of("movie:3", "movie:2", "movie:1")))
+                .thenReturn(Mono.just(Arrays.asList(new Movie(3L, "Thief"), null, null)));
+        // 2 was evicted from redis, 1 was deleted from the database
+        when(movieRepository.findAllById(List.of(2L, 1L))).thenReturn(Flux.just(new Movie(2L, "Ronin")));
+        when(idIndex.remove(eq(MovieListingCache.ID_INDEX_KEY), any(Object[].class)))
+                .thenReturn(Mono.just(1L));
+
+        MovieListingCache.MoviePage page =
+                movieListingCache.page(0, 3, Sort.Direction.DESC).block();
+
+        assertThat(page.movies()).containsExactly(new Movie(3L, "Thief"), new Movie(2L, "Ronin"));
+        assertThat(page.total()).isEqualTo(3);
+        verify(idIndex).remove(MovieListingCache.ID_INDEX_KEY, "1");
+        verify(movieRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.cache.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.cache.common.AbstractIntegrationTest;
+import com.example.cache.config.ApplicationProperties;
+import com.example.cache.entities.Movie;
+import com.example.cache.repositories.MovieRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hammers the same hot movies through a redis only cache and through the two tier cache, and
+ * compares the p99 latency of a lookup.
+ */
+class MovieNearCacheLoadIT extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieNearCacheLoadIT.class);
+
+    private static final int LOOKUPS = 20_000;
+    private static final int CONCURRENCY = 64;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private ReactiveRedisTemplate<String, Movie> reactiveRedisTemplate;
+
+    @Autowired
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Test
+    void nearCacheLowersTailLatency() {
+        List<Long> ids = movieRepository
+                .deleteAll()
+                .thenMany(Flux.range(0, 100).map(i -> new Movie(null, "Movie " + i)))
+                .flatMap(movieRepository::save)
+                .map(Movie::id)
+                .collectList()
+                .block();
+
+        double redisOnly = p99(cache(false), ids);
+        double twoTier = p99(cache(true), ids);
+
+        log.info("p99 of {} lookups: redis only {} µs, two tier {} µs", LOOKUPS, redisOnly, twoTier);
+        assertThat(twoTier).isLessThan(redisOnly);
+    }
+
+    private MovieNearCache cache(boolean enabled) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getNearCache().setEnabled(enabled);
+        return new MovieNearCache(
+                reactiveRedisTemplate, reactiveStringRedisTemplate, applicationProperties, new SimpleMeterRegistry());
+    }
+
+    private double p99(MovieNearCache movieNearCache, List<Long> ids) {
+        Timer timer = Timer.builder("lookup").publishPercentiles(0.99).register(new SimpleMeterRegistry());
+        // warm up both tiers and the connection first
+        Flux.fromIterable(ids)
+                .flatMap(id -> movieNearCache.get(id, movieRepository::findById))
+                .blockLast();
+        Flux.range(0, LOOKUPS)
+                .flatMap(
+                        i -> Mono.defer(() -> {
+                            long start = System.nanoTime();
+                            Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+                            return movieNearCache
+                                    .get(id, movieRepository::findById)
+                                    .doOnSuccess(
+                                            movie -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                        }),
+                        CONCURRENCY)
+                .blockLast();
+        ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+        return percentiles[0].value(TimeUnit.MICROSECONDS);
+    }
+}
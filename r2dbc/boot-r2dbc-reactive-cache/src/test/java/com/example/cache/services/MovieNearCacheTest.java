@@ -0,0 +1,163 @@
+package com.example.cache.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.cache.config.ApplicationProperties;
+import com.example.cache.entities.Movie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class MovieNearCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final ReactiveRedisTemplate<String, Movie> reactiveRedisTemplate = mock(ReactiveRedisTemplate.class);
+
+    @SuppressWarnings("unchecked")
+    private final ReactiveValueOperations<String, Movie> valueOperations = mock(ReactiveValueOperations.class);
+
+    private final ReactiveStringRedisTemplate messagingTemplate = mock(ReactiveStringRedisTemplate.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private MovieNearCache movieNearCache;
+
+    @BeforeEach
+    void setUp() {
+        when(reactiveRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(messagingTemplate.convertAndSend(anyString(), anyString())).thenReturn(Mono.just(1L));
+        movieNearCache = new MovieNearCache(
+                reactiveRedisTemplate, messagingTemplate, new ApplicationProperties(), meterRegistry);
+    }
+
+    @Test
+    void servesRepeatedLookupsFromL1() {
+        when(valueOperations.get("movie:1")).thenReturn(Mono.just(new Movie(1L, "Heat")));
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(movieNearCache.get(1L, id -> Mono.empty()))
+                    .expectNext(new Movie(1L, "Heat"))
+                    .verifyComplete();
+        }
+
+        verify(valueOperations, times(1)).get("movie:1");
+        assertThat(requests("l1", "hit")).isEqualTo(2);
+        assertThat(requests("l1", "miss")).isEqualTo(1);
+        assertThat(requests("l2", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void fallsBackToTheLoaderAndWritesRedis() {
+        when(valueOperations.get("movie:2")).thenReturn(Mono.empty());
+        when(valueOperations.set(eq("movie:2"), any(Movie.class))).thenReturn(Mono.just(true));
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(movieNearCache.get(2L, id -> {
+                        loads.incrementAndGet();
+                        return Mono.just(new Movie(id, "Ronin"));
+                    }))
+                    .expectNext(new Movie(2L, "Ronin"))
+                    .verifyComplete();
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(requests("l2", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void dropsMoviesChangedByOtherInstancesOnly() {
+        when(valueOperations.get("movie:1")).thenReturn(Mono.just(new Movie(1L, "Heat")));
+        when(valueOperations.set(eq("movie:1"), any(Movie.class))).thenReturn(Mono.just(true));
+        movieNearCache.get(1L, id -> Mono.empty()).block();
+
+        // our own update is published but must not evict what we just stored
+        movieNearCache.put(new Movie(1L, "Heat (1995)")).block();
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(messagingTemplate).convertAndSend(eq(MovieNearCache.INVALIDATION_CHANNEL), message.capture());
+        movieNearCache.onInvalidation(message.getValue());
+        StepVerifier.create(movieNearCache.get(1L, id -> Mono.empty()))
+                .expectNext(new Movie(1L, "Heat (1995)"))
+                .verifyComplete();
+        verify(valueOperations, times(1)).get("movie:1");
+
+        movieNearCache.onInvalidation("another-instance|1");
+        movieNearCache.get(1L, id -> Mono.empty()).block();
+
+        verify(valueOperations, times(2)).get("movie:1");
+        assertThat(meterRegistry.counter("movie.cache.invalidations").count()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        AtomicInteger redisReads = new AtomicInteger();
+        when(valueOperations.get("movie:3"))
+                .thenReturn(Mono.fromSupplier(() -> {
+                            redisReads.incrementAndGet();
+                            return new Movie(3L, "Thief");
+                        })
+                        .delayElement(Duration.ofMillis(100)));
+
+        List<Movie> movies = Flux.range(0, 10)
+                .flatMap(i -> movieNearCache.get(3L, id -> Mono.empty()))
+                .collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertThat(movies).hasSize(10).containsOnly(new Movie(3L, "Thief"));
+        assertThat(redisReads).hasValue(1);
+        assertThat(meterRegistry
+                        .counter("movie.cache.loads", "result", "loaded")
+                        .count())
+                .isEqualTo(1);
+        assertThat(meterRegistry
+                        .counter("movie.cache.loads", "result", "coalesced")
+                        .count())
+                .isEqualTo(9);
+    }
+
+    @Test
+    void reloadsHotMoviesBeforeTheyExpire() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        // with such a beta every hit counts as close to expiry
+        applicationProperties.getNearCache().setEarlyRefreshBeta(1e12);
+        MovieNearCache eager =
+                new MovieNearCache(reactiveRedisTemplate, messagingTemplate, applicationProperties, meterRegistry);
+        when(valueOperations.get("movie:4"))
+                .thenReturn(Mono.just(new Movie(4L, "Collateral")), Mono.just(new Movie(4L, "Collateral (2004)")));
+
+        eager.get(4L, id -> Mono.empty()).block();
+        // served from L1 while the refresh runs
+        StepVerifier.create(eager.get(4L, id -> Mono.empty()))
+                .expectNext(new Movie(4L, "Collateral"))
+                .verifyComplete();
+
+        verify(valueOperations, times(2)).get("movie:4");
+        assertThat(meterRegistry.counter("movie.cache.early.refreshes").count()).isEqualTo(1);
+        StepVerifier.create(eager.get(4L, id -> Mono.empty()))
+                .expectNext(new Movie(4L, "Collateral (2004)"))
+                .verifyComplete();
+    }
+
+    private double requests(String tier, String result) {
+        return meterRegistry
+                .counter("movie.cache.requests", "tier", tier, "result", result)
+                .count();
+    }
+}
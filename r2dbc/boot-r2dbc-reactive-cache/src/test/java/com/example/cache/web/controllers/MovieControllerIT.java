@@ -7,6 +7,8 @@ import com.example.cache.entities.Movie;
 import com.example.cache.model.request.MovieRequest;
 import com.example.cache.model.response.MovieResponse;
 import com.example.cache.repositories.MovieRepository;
+import com.example.cache.services.MovieService;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,11 +22,15 @@ class MovieControllerIT extends AbstractIntegrationTest {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private MovieService movieService;
+
     private Flux<Movie> movieFlux = null;
 
     @BeforeEach
     void setUp() {
-        movieFlux = movieRepository
+        // clears redis as well, so that no test sees movies cached by another
+        movieFlux = movieService
                 .deleteAll()
                 .thenMany(Flux.just(
                         new Movie(null, "First Movie"),
@@ -35,14 +41,67 @@ class MovieControllerIT extends AbstractIntegrationTest {
 
     @Test
     void shouldFetchAllMovies() {
+        List<Movie> movies = movieFlux.collectList().block();
         this.webTestClient
                 .get()
                 .uri("/api/movies")
                 .exchange()
                 .expectStatus()
                 .isOk()
-                .expectBodyList(MovieResponse.class)
-                .hasSize(movieFlux.collectList().block().size());
+                .expectBody()
+                .jsonPath("$.data.size()")
+                .isEqualTo(movies.size())
+                .jsonPath("$.totalElements")
+                .isEqualTo(3)
+                .jsonPath("$.pageNumber")
+                .isEqualTo(1)
+                .jsonPath("$.totalPages")
+                .isEqualTo(1)
+                .jsonPath("$.isFirst")
+                .isEqualTo(true)
+                .jsonPath("$.isLast")
+                .isEqualTo(true)
+                .jsonPath("$.hasNext")
+                .isEqualTo(false)
+                .jsonPath("$.hasPrevious")
+                .isEqualTo(false);
+    }
+
+    @Test
+    void shouldPageThroughCachedMoviesInIdOrder() {
+        List<Movie> movies = movieFlux.collectList().block();
+        // the second listing is served from the index built by the first
+        for (int i = 0; i < 2; i++) {
+            this.webTestClient
+                    .get()
+                    .uri("/api/movies?pageNo=2&pageSize=2&sortDir=desc")
+                    .exchange()
+                    .expectStatus()
+                    .isOk()
+                    .expectBody()
+                    .jsonPath("$.data.size()")
+                    .isEqualTo(1)
+                    .jsonPath("$.data[0].id")
+                    .isEqualTo(movies.stream().mapToLong(Movie::id).min().orElseThrow())
+                    .jsonPath("$.totalElements")
+                    .isEqualTo(3)
+                    .jsonPath("$.isLast")
+                    .isEqualTo(true);
+        }
+    }
+
+    @Test
+    void shouldSortMoviesByTitleFromTheDatabase() {
+        movieFlux.blockLast();
+        this.webTestClient
+                .get()
+                .uri("/api/movies?sortBy=title&sortDir=desc")
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.data[*].title")
+                .isEqualTo(List.of("Third Movie", "Second Movie", "First Movie"));
     }
 
     @Test